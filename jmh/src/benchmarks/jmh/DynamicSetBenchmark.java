@@ -0,0 +1,248 @@
+package benchmarks.jmh;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import structures.DynamicSet;
+
+/**
+ * JMH version of benchmarks.Benchmark. It measures the same five operations
+ * (FIND, INSERT, REMOVE, MAX and MIN) over the same three input formats, for
+ * every structure of the project and for java.util.TreeSet.
+ *
+ * FIND, MAX and MIN are measured per operation on a set filled with "size" keys,
+ * and so is RANGESCAN, which visits the SCAN_LENGTH keys that follow a random key.
+ * INSERT fills an empty set with "size" keys and REMOVE drains a filled set,
+ * so their scores are the time taken by "size" operations. BULKLOAD fills an
+ * empty set with the same keys, sorted and without duplicates, in one call.
+ *
+ * The batched mode measures insertAll, removeAll and findAll on the same keys, cut
+ * in batches of BATCH_SIZE keys: INSERTBATCHED and REMOVEBATCHED fill and drain the
+ * set like INSERT and REMOVE, and FINDBATCHED searches for one batch per operation.
+ *
+ * The "-recursive" structures use the recursive find, insert and remove instead of
+ * the iterative ones. The deep recursion of SimpleBST-recursive on ascending input
+ * needs a large thread stack, which is why the forks run with -Xss256m.
+ *
+ * @author Matheus Rosa
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 2, jvmArgsAppend = "-Xss256m")
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DynamicSetBenchmark {
+
+	private static final int MAX_RAND = 100000000;
+	private static final int SCAN_LENGTH = 100;
+	private static final int BATCH_SIZE = 1000;
+
+	@State(Scope.Thread)
+	public static class Input {
+		@Param({ "JavaTreeSet", "SimpleBST", "SimpleBST-recursive", "AVLTree", "AVLTree-recursive", "ArrayAVLTree",
+				"RedBlackTree", "RedBlackTree-recursive", "SplayTree", "ScapegoatTree-0.5", "ScapegoatTree-0.75",
+				"ScapegoatTree-0.95", "Treap", "Treap-recursive", "SkipList", "SkipList-0.25", "ConcurrentSkipList" })
+		public String structure;
+
+		@Param({ "1000", "10000", "100000" })
+		public int size;
+
+		/**
+		 * Same values as TimeTests: 0 for ascending, 1 for Gaussian and 2 for uniform.
+		 */
+		@Param({ "0", "1", "2" })
+		public int inputFormat;
+
+		// Boxed once here, so that the Integer allocation is not part of the measurements
+		Integer[] keys;
+		Integer[] shuffledKeys;
+		Integer[] sortedKeys;
+		Integer[][] keyBatches;
+		Integer[][] shuffledKeyBatches;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			Random rand = new Random(Structures.SEED);
+
+			keys = new Integer[size];
+			for (int k = 0; k < size; k++) {
+				if (inputFormat == 0) {
+					keys[k] = k;
+				} else if (inputFormat == 1) {
+					keys[k] = (int) (rand.nextGaussian() * MAX_RAND);
+				} else {
+					keys[k] = rand.nextInt(MAX_RAND);
+				}
+			}
+
+			shuffledKeys = keys.clone();
+			for (int i = shuffledKeys.length - 1; i > 0; i--) {
+				int j = rand.nextInt(i + 1);
+				Integer tmp = shuffledKeys[i];
+				shuffledKeys[i] = shuffledKeys[j];
+				shuffledKeys[j] = tmp;
+			}
+
+			Integer[] sorted = keys.clone();
+			Arrays.sort(sorted);
+			int distinct = 0;
+			for (int k = 0; k < sorted.length; k++) {
+				if (distinct == 0 || !sorted[k].equals(sorted[distinct - 1]))
+					sorted[distinct++] = sorted[k];
+			}
+			sortedKeys = Arrays.copyOf(sorted, distinct);
+
+			keyBatches = toBatches(keys);
+			shuffledKeyBatches = toBatches(shuffledKeys);
+		}
+
+		private static Integer[][] toBatches(Integer[] keys) {
+			Integer[][] batches = new Integer[(keys.length + BATCH_SIZE - 1) / BATCH_SIZE][];
+			for (int b = 0; b < batches.length; b++)
+				batches[b] = Arrays.copyOfRange(keys, b * BATCH_SIZE, Math.min(keys.length, (b + 1) * BATCH_SIZE));
+			return batches;
+		}
+	}
+
+	/**
+	 * A set filled once per trial, for the read-only operations.
+	 */
+	@State(Scope.Thread)
+	public static class FilledSet {
+		DynamicSet<Integer> set;
+		private int next;
+		private int nextBatch;
+
+		@Setup(Level.Trial)
+		public void setUp(Input input) {
+			set = Structures.create(input.structure);
+			for (Integer key : input.keys)
+				set.insert(key);
+			next = 0;
+			nextBatch = 0;
+		}
+
+		Integer nextKey(Input input) {
+			Integer key = input.shuffledKeys[next];
+			next = (next + 1 == input.shuffledKeys.length) ? 0 : next + 1;
+			return key;
+		}
+
+		Integer[] nextBatch(Input input) {
+			Integer[] batch = input.shuffledKeyBatches[nextBatch];
+			nextBatch = (nextBatch + 1 == input.shuffledKeyBatches.length) ? 0 : nextBatch + 1;
+			return batch;
+		}
+	}
+
+	/**
+	 * A fresh empty set for every invocation of the insert benchmark.
+	 */
+	@State(Scope.Thread)
+	public static class EmptySet {
+		DynamicSet<Integer> set;
+
+		@Setup(Level.Invocation)
+		public void setUp(Input input) {
+			set = Structures.create(input.structure);
+		}
+	}
+
+	/**
+	 * A freshly filled set for every invocation of the remove benchmark.
+	 */
+	@State(Scope.Thread)
+	public static class DrainableSet {
+		DynamicSet<Integer> set;
+
+		@Setup(Level.Invocation)
+		public void setUp(Input input) {
+			set = Structures.create(input.structure);
+			for (Integer key : input.keys)
+				set.insert(key);
+		}
+	}
+
+	@Benchmark
+	public void find(Input input, FilledSet filled, Blackhole blackhole) {
+		blackhole.consume(filled.set.find(filled.nextKey(input)));
+	}
+
+	@Benchmark
+	public void rangeScan(Input input, FilledSet filled, Blackhole blackhole) {
+		Iterator<Integer> iterator = filled.set.range(filled.nextKey(input), Integer.MAX_VALUE);
+		for (int i = 0; i < SCAN_LENGTH && iterator.hasNext(); i++)
+			blackhole.consume(iterator.next());
+	}
+
+	@Benchmark
+	public void getMax(FilledSet filled, Blackhole blackhole) {
+		blackhole.consume(filled.set.getMax());
+	}
+
+	@Benchmark
+	public void getMin(FilledSet filled, Blackhole blackhole) {
+		blackhole.consume(filled.set.getMin());
+	}
+
+	@Benchmark
+	public void insert(Input input, EmptySet empty, Blackhole blackhole) {
+		DynamicSet<Integer> set = empty.set;
+		for (Integer key : input.keys)
+			set.insert(key);
+		blackhole.consume(set);
+	}
+
+	@Benchmark
+	public void bulkLoad(Input input, EmptySet empty, Blackhole blackhole) {
+		DynamicSet<Integer> set = empty.set;
+		set.bulkLoad(input.sortedKeys);
+		blackhole.consume(set);
+	}
+
+	@Benchmark
+	public void remove(Input input, DrainableSet drainable, Blackhole blackhole) {
+		DynamicSet<Integer> set = drainable.set;
+		for (Integer key : input.shuffledKeys)
+			set.remove(key);
+		blackhole.consume(set);
+	}
+
+	@Benchmark
+	public void findBatched(Input input, FilledSet filled, Blackhole blackhole) {
+		blackhole.consume(filled.set.findAll(filled.nextBatch(input)));
+	}
+
+	@Benchmark
+	public void insertBatched(Input input, EmptySet empty, Blackhole blackhole) {
+		DynamicSet<Integer> set = empty.set;
+		for (Integer[] batch : input.keyBatches)
+			set.insertAll(batch);
+		blackhole.consume(set);
+	}
+
+	@Benchmark
+	public void removeBatched(Input input, DrainableSet drainable, Blackhole blackhole) {
+		DynamicSet<Integer> set = drainable.set;
+		for (Integer[] batch : input.shuffledKeyBatches)
+			set.removeAll(batch);
+		blackhole.consume(set);
+	}
+}
@@ -0,0 +1,71 @@
+package benchmarks.jmh;
+
+import structures.*;
+
+/**
+ * Creates the structures measured by the JMH benchmarks given their names.
+ * The names are the values accepted by the "structure" benchmark parameter.
+ *
+ * @author Matheus Rosa
+ *
+ */
+public final class Structures {
+
+	/**
+	 * Seed used for the randomized structures, so that every fork measures the same shapes.
+	 */
+	public static final long SEED = 42L;
+
+	private Structures() {
+	}
+
+	/**
+	 * Creates an empty structure.
+	 *
+	 * @param name
+	 *            - of the structure (e.g. "AVLTree", "AVLTree-recursive", "ScapegoatTree-0.75"
+	 *            or "SkipList-0.25")
+	 * @return - a new empty set
+	 */
+	public static DynamicSet<Integer> create(String name) {
+		if (name.startsWith("ScapegoatTree-")) {
+			double alpha = Double.parseDouble(name.substring("ScapegoatTree-".length()));
+			return new ScapegoatTree<>(alpha);
+		}
+		if (name.startsWith("SkipList-")) {
+			double p = Double.parseDouble(name.substring("SkipList-".length()));
+			return new SkipList<>(SkipList.DEFAULT_EXPECTED_SIZE, p, SEED);
+		}
+
+		switch (name) {
+		case "JavaTreeSet":
+			return new TreeSetAdapter<>();
+		case "SimpleBST":
+			return new SimpleBST<>();
+		case "SimpleBST-recursive":
+			return new SimpleBST<>(true);
+		case "AVLTree":
+			return new AVLTree<>();
+		case "AVLTree-recursive":
+			return new AVLTree<>(true);
+		case "ArrayAVLTree":
+			return new ArrayAVLTree<>();
+		case "RedBlackTree":
+			return new RedBlackTree<>();
+		case "RedBlackTree-recursive":
+			return new RedBlackTree<>(true);
+		case "SplayTree":
+			return new SplayTree<>();
+		case "Treap":
+			return new Treap<>(SEED);
+		case "Treap-recursive":
+			return new Treap<>(SEED, true);
+		case "SkipList":
+			return new SkipList<>(SEED);
+		case "ConcurrentSkipList":
+			return new ConcurrentSkipList<>();
+		default:
+			throw new IllegalArgumentException("Unknown structure: " + name);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package benchmarks.jmh;
+
+import java.util.Iterator;
+import java.util.TreeSet;
+
+import structures.DynamicSet;
+
+/**
+ * Exposes java.util.TreeSet through the DynamicSet interface, so that it can be
+ * used as the reference structure in the JMH benchmarks.
+ *
+ * @author Matheus Rosa
+ *
+ */
+public class TreeSetAdapter<K extends Comparable<K>> implements DynamicSet<K> {
+
+	private final TreeSet<K> set = new TreeSet<>();
+
+	@Override
+	public K find(K key) {
+		return set.contains(key) ? key : null;
+	}
+
+	@Override
+	public boolean insert(K key) {
+		return set.add(key);
+	}
+
+	@Override
+	public boolean remove(K key) {
+		return set.remove(key);
+	}
+
+	@Override
+	public K getMin() {
+		return set.isEmpty() ? null : set.first();
+	}
+
+	@Override
+	public K getMax() {
+		return set.isEmpty() ? null : set.last();
+	}
+
+	@Override
+	public Iterator<K> iterator() {
+		return set.iterator();
+	}
+
+	@Override
+	public Iterator<K> range(K lo, K hi) {
+		if (lo.compareTo(hi) > 0)
+			return set.subSet(lo, true, lo, false).iterator();
+		return set.subSet(lo, true, hi, true).iterator();
+	}
+
+	@Override
+	public K floor(K key) {
+		return set.floor(key);
+	}
+
+	@Override
+	public K ceiling(K key) {
+		return set.ceiling(key);
+	}
+
+	@Override
+	public K higher(K key) {
+		return set.higher(key);
+	}
+
+	@Override
+	public K lower(K key) {
+		return set.lower(key);
+	}
+
+	@Override
+	public String toString() {
+		return set.toString();
+	}
+
+	@Override
+	public String toDotString() {
+		return "digraph {\n}\n";
+	}
+}
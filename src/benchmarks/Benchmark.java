@@ -1,11 +1,16 @@
 package benchmarks;
 
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Random;
 import java.util.TreeSet;
 
+import com.sun.management.ThreadMXBean;
+
 import structures.DynamicSet;
+import structures.IntDynamicSet;
 
 /**
  * Given a Data Structure, test its main operations time execution: INSERT,
@@ -23,6 +28,12 @@ public class Benchmark {
 	private int numberTests;
 	private int stepSize;
 	private int numberSamples;
+	private LatencyHistogram[][] latencies;
+	private ThreadMXBean threadBean;
+	private long allocationOverhead;
+	private long[][] allocations;
+	private long[] gcCounts;
+	private long[] gcTimes;
 
 	public static enum Type {
 		FIND, INSERT, REMOVE, MAX, MIN;
@@ -52,12 +63,17 @@ public class Benchmark {
 			throw new NotEmptySetException();
 
 		ArrayList<ArrayList<Long>> results = initializeArray();
+		latencies = initializeHistograms();
+		allocations = new long[TESTS][numberTests];
+		gcCounts = new long[numberTests];
+		gcTimes = new long[numberTests];
 
 		for (int j = 0; j < numberTests; j++) {
 			System.out.println("Testing: "+j);
+			long[] gcBefore = gcStats();
 			for (int i = 0; i < numberSamples; i++) {
 				System.out.println("\tSample: "+i);
-				Long cont = 0L, start;
+				long cont = 0L, start, allocated;
 				TreeSet<Integer> auxSet = new TreeSet<>();
 				ArrayList<Integer> auxArray = new ArrayList<>();
 				
@@ -76,22 +92,26 @@ public class Benchmark {
 					auxSet.add(newElement);
 					auxArray.add(newElement);
 					
+					cont = 0L;
+					allocated = allocatedBytes();
 					start = System.nanoTime();
 					set.insert(newElement);
 					cont += System.nanoTime() - start;
-					incrementValue(results, j, Type.INSERT, cont);
+					incrementValue(results, j, Type.INSERT, cont, allocatedBytes() - allocated);
 
 					cont = 0L;
+					allocated = allocatedBytes();
 					start = System.nanoTime();
 					set.getMax();
 					cont += System.nanoTime() - start;
-					incrementValue(results, j, Type.MAX, cont);
+					incrementValue(results, j, Type.MAX, cont, allocatedBytes() - allocated);
 
 					cont = 0L;
+					allocated = allocatedBytes();
 					start = System.nanoTime();
 					set.getMin();
 					cont += System.nanoTime() - start;
-					incrementValue(results, j, Type.MIN, cont);
+					incrementValue(results, j, Type.MIN, cont, allocatedBytes() - allocated);
 
 				}
 
@@ -99,26 +119,32 @@ public class Benchmark {
 				
 				for (Integer it : auxArray) {
 					cont = 0L;
+					allocated = allocatedBytes();
 					start = System.nanoTime();
 					set.find(it);
 					cont += System.nanoTime() - start;
-					incrementValue(results, j, Type.FIND, cont);
+					incrementValue(results, j, Type.FIND, cont, allocatedBytes() - allocated);
 				}
 				
 				for (Integer it : auxArray) {
 					cont = 0L;
+					allocated = allocatedBytes();
 					start = System.nanoTime();
 					set.remove(it);
 					cont += System.nanoTime() - start;
-					incrementValue(results, j, Type.REMOVE, cont);
+					incrementValue(results, j, Type.REMOVE, cont, allocatedBytes() - allocated);
 				}
 			}
+			long[] gcAfter = gcStats();
+			gcCounts[j] = gcAfter[0] - gcBefore[0];
+			gcTimes[j] = gcAfter[1] - gcBefore[1];
 			System.out.println();
 		}
 
 		for (int i = 0; i < results.size(); i++) {
 			for (int j = 0; j < results.get(i).size(); j++) {
-				results.get(i).set(j, (results.get(i).get(j) / numberSamples)/(stepSize*(i+1)));
+				results.get(i).set(j, (results.get(i).get(j) / numberSamples)/(stepSize*(j+1)));
+				allocations[i][j] = allocations[i][j] / numberSamples / (stepSize*(j+1));
 			}
 		}
 
@@ -128,12 +154,17 @@ public class Benchmark {
 	public ArrayList<ArrayList<Long>> timeTest(TreeSet<Integer> set, int inputFormat) {
 		set.clear();
 		ArrayList<ArrayList<Long>> results = initializeArray();
+		latencies = initializeHistograms();
+		allocations = new long[TESTS][numberTests];
+		gcCounts = new long[numberTests];
+		gcTimes = new long[numberTests];
 
 		for (int j = 0; j < numberTests; j++) {
 			System.out.println("Testing: "+j);
+			long[] gcBefore = gcStats();
 			for (int i = 0; i < numberSamples; i++) {
 				System.out.println("\tSample: "+i);
-				Long cont = 0L, start;
+				long cont = 0L, start, allocated;
 				TreeSet<Integer> auxSet = new TreeSet<>();
 				ArrayList<Integer> auxArray = new ArrayList<>();
 				
@@ -151,22 +182,26 @@ public class Benchmark {
 					auxSet.add(newElement);
 					auxArray.add(newElement);
 					
+					cont = 0L;
+					allocated = allocatedBytes();
 					start = System.nanoTime();
 					set.add(newElement);
 					cont += System.nanoTime() - start;
-					incrementValue(results, j, Type.INSERT, cont);
+					incrementValue(results, j, Type.INSERT, cont, allocatedBytes() - allocated);
 
 					cont = 0L;
+					allocated = allocatedBytes();
 					start = System.nanoTime();
 					set.last();
 					cont += System.nanoTime() - start;
-					incrementValue(results, j, Type.MAX, cont);
+					incrementValue(results, j, Type.MAX, cont, allocatedBytes() - allocated);
 
 					cont = 0L;
+					allocated = allocatedBytes();
 					start = System.nanoTime();
 					set.first();
 					cont += System.nanoTime() - start;
-					incrementValue(results, j, Type.MIN, cont);
+					incrementValue(results, j, Type.MIN, cont, allocatedBytes() - allocated);
 
 				}
 
@@ -174,33 +209,153 @@ public class Benchmark {
 				
 				for (Integer it : auxArray) {
 					cont = 0L;
+					allocated = allocatedBytes();
 					start = System.nanoTime();
 					set.contains(it);
 					cont += System.nanoTime() - start;
-					incrementValue(results, j, Type.FIND, cont);
+					incrementValue(results, j, Type.FIND, cont, allocatedBytes() - allocated);
 				}
 				
 				for (Integer it : auxArray) {
 					cont = 0L;
+					allocated = allocatedBytes();
+					start = System.nanoTime();
+					set.remove(it);
+					cont += System.nanoTime() - start;
+					incrementValue(results, j, Type.REMOVE, cont, allocatedBytes() - allocated);
+				}
+			}
+			long[] gcAfter = gcStats();
+			gcCounts[j] = gcAfter[0] - gcBefore[0];
+			gcTimes[j] = gcAfter[1] - gcBefore[1];
+			System.out.println();
+		}
+
+		for (int i = 0; i < results.size(); i++) {
+			for (int j = 0; j < results.get(i).size(); j++) {
+				results.get(i).set(j, (results.get(i).get(j) / numberSamples)/(stepSize*(j+1)));
+				allocations[i][j] = allocations[i][j] / numberSamples / (stepSize*(j+1));
+			}
+		}
+
+		return results;
+	}
+
+	/**
+	 * Same as timeTest(DynamicSet, int), but for the primitive int sets. The keys
+	 * are kept as ints while they are being timed, so no boxing is measured.
+	 * 
+	 * @param set
+	 *            - to be tested
+	 * @param inputFormat
+	 * 			  - of the elements to be inserted. 0 for ascending, 1 for Gaussian and 2 for uniform.
+	 * 
+	 * @return - The result for the tests INSERT, REMOVE, MAX and MIN.
+	 * @throws NotEmptySetException
+	 *             - if the set is not empty
+	 */
+	public ArrayList<ArrayList<Long>> timeTest(IntDynamicSet set, int inputFormat) throws NotEmptySetException {
+		if (!set.isEmpty())
+			throw new NotEmptySetException();
+
+		ArrayList<ArrayList<Long>> results = initializeArray();
+		latencies = initializeHistograms();
+		allocations = new long[TESTS][numberTests];
+		gcCounts = new long[numberTests];
+		gcTimes = new long[numberTests];
+
+		for (int j = 0; j < numberTests; j++) {
+			System.out.println("Testing: "+j);
+			long[] gcBefore = gcStats();
+			for (int i = 0; i < numberSamples; i++) {
+				System.out.println("\tSample: "+i);
+				long cont = 0L, start, allocated;
+				int[] auxArray = new int[stepSize * (j + 1)];
+				
+				for (int k = 0; k < stepSize * (j + 1); k++) {
+					int newElement;
+				
+					if (inputFormat == 0) {
+						newElement = k;
+					} else if (inputFormat == 1) {
+						newElement = (int) (RAND.nextGaussian()*MAX_RAND);
+					} else {
+						newElement = RAND.nextInt(MAX_RAND);
+					}
+					
+					auxArray[k] = newElement;
+					
+					cont = 0L;
+					allocated = allocatedBytes();
+					start = System.nanoTime();
+					set.insert(newElement);
+					cont += System.nanoTime() - start;
+					incrementValue(results, j, Type.INSERT, cont, allocatedBytes() - allocated);
+
+					cont = 0L;
+					allocated = allocatedBytes();
+					start = System.nanoTime();
+					set.getMax();
+					cont += System.nanoTime() - start;
+					incrementValue(results, j, Type.MAX, cont, allocatedBytes() - allocated);
+
+					cont = 0L;
+					allocated = allocatedBytes();
+					start = System.nanoTime();
+					set.getMin();
+					cont += System.nanoTime() - start;
+					incrementValue(results, j, Type.MIN, cont, allocatedBytes() - allocated);
+
+				}
+
+				shuffle(auxArray);
+				
+				for (int it : auxArray) {
+					cont = 0L;
+					allocated = allocatedBytes();
+					start = System.nanoTime();
+					set.find(it);
+					cont += System.nanoTime() - start;
+					incrementValue(results, j, Type.FIND, cont, allocatedBytes() - allocated);
+				}
+				
+				for (int it : auxArray) {
+					cont = 0L;
+					allocated = allocatedBytes();
 					start = System.nanoTime();
 					set.remove(it);
 					cont += System.nanoTime() - start;
-					incrementValue(results, j, Type.REMOVE, cont);
+					incrementValue(results, j, Type.REMOVE, cont, allocatedBytes() - allocated);
 				}
 			}
+			long[] gcAfter = gcStats();
+			gcCounts[j] = gcAfter[0] - gcBefore[0];
+			gcTimes[j] = gcAfter[1] - gcBefore[1];
 			System.out.println();
 		}
 
 		for (int i = 0; i < results.size(); i++) {
 			for (int j = 0; j < results.get(i).size(); j++) {
-				results.get(i).set(j, (results.get(i).get(j) / numberSamples)/(stepSize*(i+1)));
+				results.get(i).set(j, (results.get(i).get(j) / numberSamples)/(stepSize*(j+1)));
+				allocations[i][j] = allocations[i][j] / numberSamples / (stepSize*(j+1));
 			}
 		}
 
 		return results;
 	}
 
-	private void incrementValue(ArrayList<ArrayList<Long>> target, int caseTest, Type operation, Long value) {
+	private void shuffle(int[] array) {
+		for (int i = array.length - 1; i > 0; i--) {
+			int j = RAND.nextInt(i + 1);
+			int tmp = array[i];
+			array[i] = array[j];
+			array[j] = tmp;
+		}
+	}
+
+	private void incrementValue(ArrayList<ArrayList<Long>> target, int caseTest, Type operation, long value, long allocatedBytes) {
+		latencies[operation.ordinal()][caseTest].record(value);
+		allocations[operation.ordinal()][caseTest] += Math.max(0, allocatedBytes - allocationOverhead);
 		
 		switch (operation) {
 		case FIND:
@@ -235,6 +390,112 @@ public class Benchmark {
 		return tmp;
 	}
 
+	private LatencyHistogram[][] initializeHistograms() {
+		LatencyHistogram[][] tmp = new LatencyHistogram[TESTS][numberTests];
+		for (int i = 0; i < TESTS; i++) {
+			for (int j = 0; j < numberTests; j++) {
+				tmp[i][j] = new LatencyHistogram();
+			}
+		}
+		return tmp;
+	}
+
+	/**
+	 * Returns the latencies of every operation timed by the last timeTest, where the means
+	 * it returns hide the slow operations (a rebalancing, a resize, a pause of the garbage
+	 * collector) that the percentiles show.
+	 * 
+	 * @return - the histograms indexed by the ordinal of the Type and by the test (as the
+	 *         results of timeTest), or null if no test was made
+	 */
+	public LatencyHistogram[][] getLatencies() {
+		return latencies;
+	}
+
+	/**
+	 * Turns on or off the measure of the bytes allocated by each operation and of the
+	 * garbage collections of each test (off by default). The allocations are counted
+	 * by the JVM for the thread, and read outside of the timed part of the operations,
+	 * but reading them still takes time, so the tests are slower when this is on.
+	 * 
+	 * @throws UnsupportedOperationException
+	 *             - if the JVM doesn't count the bytes allocated by the threads
+	 */
+	public void setProfileAllocations(boolean profileAllocations) {
+		if (!profileAllocations) {
+			threadBean = null;
+			return;
+		}
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof ThreadMXBean) || !((ThreadMXBean) bean).isThreadAllocatedMemorySupported())
+			throw new UnsupportedOperationException("This JVM doesn't count the bytes allocated by the threads.");
+		threadBean = (ThreadMXBean) bean;
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+		// bytes counted between two reads without anything in between
+		allocationOverhead = Long.MAX_VALUE;
+		for (int i = 0; i < 1000; i++) {
+			long before = allocatedBytes();
+			allocationOverhead = Math.min(allocationOverhead, allocatedBytes() - before);
+		}
+	}
+
+	public boolean isProfileAllocations() {
+		return threadBean != null;
+	}
+
+	private long allocatedBytes() {
+		if (threadBean == null) return 0;
+		return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * @return - the number of collections and their time in milliseconds, of all the
+	 *         garbage collectors, or zeros if the allocations aren't measured
+	 */
+	private long[] gcStats() {
+		long[] stats = new long[2];
+		if (threadBean == null) return stats;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			stats[0] += Math.max(0, gc.getCollectionCount());
+			stats[1] += Math.max(0, gc.getCollectionTime());
+		}
+		return stats;
+	}
+
+	/**
+	 * Returns the bytes allocated by each operation in the last timeTest, if they were
+	 * measured (see setProfileAllocations).
+	 * 
+	 * @return - the mean bytes per operation, in the same format as the results of
+	 *         timeTest, or zeros if they weren't measured
+	 */
+	public ArrayList<ArrayList<Long>> getAllocations() {
+		ArrayList<ArrayList<Long>> tmp = new ArrayList<ArrayList<Long>>();
+		for (long[] operation : allocations) {
+			ArrayList<Long> aux = new ArrayList<>();
+			for (long bytes : operation) aux.add(bytes);
+			tmp.add(aux);
+		}
+		return tmp;
+	}
+
+	/**
+	 * Returns the garbage collections of each test of the last timeTest (all its
+	 * samples), if they were measured (see setProfileAllocations).
+	 * 
+	 * @return - two rows, the number of collections and their time in milliseconds, with
+	 *         a column for each test
+	 */
+	public ArrayList<ArrayList<Long>> getGarbageCollections() {
+		ArrayList<ArrayList<Long>> tmp = new ArrayList<ArrayList<Long>>();
+		for (long[] row : new long[][] { gcCounts, gcTimes }) {
+			ArrayList<Long> aux = new ArrayList<>();
+			for (long value : row) aux.add(value);
+			tmp.add(aux);
+		}
+		return tmp;
+	}
+
 	public int getNumberTests() {
 		return numberTests;
 	}
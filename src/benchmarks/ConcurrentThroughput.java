@@ -0,0 +1,184 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import structures.ConcurrentSkipList;
+import structures.DynamicSet;
+import structures.SkipList;
+
+/**
+ * Measures the throughput of sets shared by several threads, from 1 thread up to the
+ * number of available cores. Each thread runs a random mix of find, insert and remove
+ * operations over a fixed range of keys, for a fixed amount of time.
+ *
+ * The compared sets are the lock-free ConcurrentSkipList, a SkipList behind a single
+ * lock and java.util.concurrent.ConcurrentSkipListSet. Each set is run once with all the
+ * threads to warm up the JIT before it is measured. The results (operations per second)
+ * are printed in csv format to Benchmark/concurrentThroughput.
+ *
+ * @author Matheus Rosa
+ *
+ */
+public class ConcurrentThroughput {
+	public final static boolean TO_FILE = true;
+
+	public static int maxThreads = Runtime.getRuntime().availableProcessors();
+	public static int durationMs = 2000;
+	public static int keyRange = 100000;
+	public static int findPercentage = 80;
+	public static String directoryName = "concurrentThroughput";
+
+	/**
+	 * A SkipList where every operation holds the same lock. The iterators go over a copy
+	 * of the keys taken under the lock, since the list can't be walked while other threads
+	 * change it.
+	 */
+	private static class SynchronizedSkipList implements DynamicSet<Integer> {
+		private final SkipList<Integer> list = new SkipList<>();
+
+		@Override public synchronized Integer find(Integer key) { return list.find(key); }
+		@Override public synchronized boolean insert(Integer key) { return list.insert(key); }
+		@Override public synchronized boolean remove(Integer key) { return list.remove(key); }
+		@Override public synchronized Integer getMin() { return list.getMin(); }
+		@Override public synchronized Integer getMax() { return list.getMax(); }
+		@Override public synchronized Iterator<Integer> iterator() { return copy(list.iterator()); }
+		@Override public synchronized Iterator<Integer> range(Integer lo, Integer hi) { return copy(list.range(lo, hi)); }
+		@Override public synchronized Integer floor(Integer key) { return list.floor(key); }
+		@Override public synchronized Integer ceiling(Integer key) { return list.ceiling(key); }
+		@Override public synchronized Integer higher(Integer key) { return list.higher(key); }
+		@Override public synchronized Integer lower(Integer key) { return list.lower(key); }
+		@Override public synchronized int rank(Integer key) { return list.rank(key); }
+		@Override public synchronized Integer select(int i) { return list.select(i); }
+		@Override public synchronized String toString() { return list.toString(); }
+		@Override public synchronized String toDotString() { return list.toDotString(); }
+
+		private static Iterator<Integer> copy(Iterator<Integer> iterator) {
+			ArrayList<Integer> keys = new ArrayList<>();
+			while (iterator.hasNext()) keys.add(iterator.next());
+			return keys.iterator();
+		}
+	}
+
+	/**
+	 * Exposes a ConcurrentSkipListSet through the DynamicSet interface.
+	 */
+	private static class JavaConcurrentSkipListSet implements DynamicSet<Integer> {
+		private final ConcurrentSkipListSet<Integer> set = new ConcurrentSkipListSet<>();
+
+		@Override public Integer find(Integer key) { return set.contains(key) ? key : null; }
+		@Override public boolean insert(Integer key) { return set.add(key); }
+		@Override public boolean remove(Integer key) { return set.remove(key); }
+		@Override public Integer getMin() { return set.isEmpty() ? null : set.first(); }
+		@Override public Integer getMax() { return set.isEmpty() ? null : set.last(); }
+		@Override public Iterator<Integer> iterator() { return set.iterator(); }
+		@Override public String toString() { return set.toString(); }
+		@Override public String toDotString() { return "digraph {\n}\n"; }
+	}
+
+	public static void main(String[] args) {
+		if (args.length > 0 && args.length != 4) {
+			System.out.println("Unexpected format! Please, use the format:\n\n"
+					+ "java ConcurrentThroughput <max-threads> <duration-ms> <key-range> <find-percentage>\n\n"
+					+ "Or just \"java ConcurrentThroughput\" - for default values: " + maxThreads + " 2000 100000 80");
+			return;
+		} else if (args.length == 4) {
+			try {
+				maxThreads = Integer.parseInt(args[0]);
+				durationMs = Integer.parseInt(args[1]);
+				keyRange = Integer.parseInt(args[2]);
+				findPercentage = Integer.parseInt(args[3]);
+			} catch (NumberFormatException e) {
+				System.out.println("The input arguments are not numbers.");
+				System.exit(1);
+			}
+		}
+
+		ArrayList<String> labels = new ArrayList<>();
+		labels.add("ConcurrentSkipList");
+		labels.add("Synchronized SkipList");
+		labels.add("ConcurrentSkipListSet");
+
+		ArrayList<ArrayList<Long>> data = new ArrayList<>();
+		for (int s = 0; s < labels.size(); s++) data.add(new ArrayList<Long>());
+
+		// discarded runs with all the threads, so that every set is measured after the JIT compiled it
+		throughput(new ConcurrentSkipList<Integer>(), maxThreads);
+		throughput(new SynchronizedSkipList(), maxThreads);
+		throughput(new JavaConcurrentSkipListSet(), maxThreads);
+
+		for (int threads = 1; threads <= maxThreads; threads++) {
+			System.out.println("Testing: " + threads + " threads");
+			data.get(0).add(throughput(new ConcurrentSkipList<Integer>(), threads));
+			data.get(1).add(throughput(new SynchronizedSkipList(), threads));
+			data.get(2).add(throughput(new JavaConcurrentSkipListSet(), threads));
+		}
+
+		Print2CSV export = new Print2CSV(directoryName, "Throughput.csv");
+		export.data2CSVFormat("Number of threads", labels, data, 1, TO_FILE);
+	}
+
+	/**
+	 * Runs the operation mix on a set with a given number of threads.
+	 *
+	 * @param set
+	 *            - to be tested (it is filled with half of the key range first)
+	 * @param threads
+	 *            - number of threads sharing the set
+	 * @return - the number of operations per second done by all the threads
+	 */
+	public static long throughput(final DynamicSet<Integer> set, int threads) {
+		for (int key = 0; key < keyRange; key += 2) set.insert(key);
+
+		final AtomicBoolean running = new AtomicBoolean(true);
+		final CountDownLatch startSignal = new CountDownLatch(1);
+		final long[] operations = new long[threads];
+		Thread[] workers = new Thread[threads];
+
+		for (int t = 0; t < threads; t++) {
+			final int id = t;
+			workers[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					ThreadLocalRandom rand = ThreadLocalRandom.current();
+					long count = 0;
+					try {
+						startSignal.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					while (running.get()) {
+						int key = rand.nextInt(keyRange);
+						int op = rand.nextInt(100);
+						if (op < findPercentage) set.find(key);
+						else if (op % 2 == 0) set.insert(key);
+						else set.remove(key);
+						count++;
+					}
+					operations[id] = count;
+				}
+			});
+			workers[t].start();
+		}
+
+		long start = System.nanoTime();
+		startSignal.countDown();
+		try {
+			Thread.sleep(durationMs);
+			running.set(false);
+			for (Thread worker : workers) worker.join();
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+		long elapsed = System.nanoTime() - start;
+
+		long total = 0;
+		for (long count : operations) total += count;
+		return total * 1000000000L / elapsed;
+	}
+}
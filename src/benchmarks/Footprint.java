@@ -0,0 +1,166 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeSet;
+
+import structures.*;
+
+/**
+ * Measures the memory retained by each structure holding N keys, for N = step, 2 * step,
+ * ..., numberTests * step, as the shrinking of the used heap after a full garbage collection
+ * when the filled structure is released. The keys (and for the generic sets their Integer objects)
+ * are allocated before the first measure, so only the memory of the structure itself is
+ * counted: a boxed Integer key adds 16 bytes more.
+ *
+ * The results (bytes per key) are printed in csv format to Benchmark/footprint. They are
+ * steadier with a collector that compacts the whole heap, like -XX:+UseSerialGC.
+ *
+ * @author Matheus Rosa
+ *
+ */
+public class Footprint {
+	public final static boolean TO_FILE = true;
+
+	public static int numberTests = 10;
+	public static int step = 100000;
+	public static String directoryName = "footprint";
+
+	/**
+	 * Builds a structure holding the given keys.
+	 */
+	private interface Builder {
+		Object build(int[] keys, Integer[] boxedKeys);
+	}
+
+	//Keeps the measured structure reachable until the heap is measured
+	private static Object retained;
+
+	public static void main(String[] args) {
+		if (args.length > 0 && args.length != 2) {
+			System.out.println("Unexpected format! Please, use the format:\n\n"
+					+ "java Footprint <number-of-tests> <step-size>\n\n"
+					+ "Or just \"java Footprint\" - for default values: 10 100000");
+			return;
+		} else if (args.length == 2) {
+			try {
+				numberTests = Integer.parseInt(args[0]);
+				step = Integer.parseInt(args[1]);
+			} catch (NumberFormatException e) {
+				System.out.println("The input arguments are not numbers.");
+				System.exit(1);
+			}
+		}
+
+		ArrayList<String> labels = new ArrayList<>();
+		ArrayList<Builder> builders = new ArrayList<>();
+		labels.add("JavaTreeSet");
+		builders.add((keys, boxedKeys) -> {
+			TreeSet<Integer> set = new TreeSet<>();
+			for (Integer key : boxedKeys) set.add(key);
+			return set;
+		});
+		labels.add("SimpleBST");
+		builders.add((keys, boxedKeys) -> fill(new SimpleBST<Integer>(), boxedKeys));
+		labels.add("AVLTree");
+		builders.add((keys, boxedKeys) -> fill(new AVLTree<Integer>(), boxedKeys));
+		labels.add("ArrayAVLTree");
+		builders.add((keys, boxedKeys) -> fill(new ArrayAVLTree<Integer>(), boxedKeys));
+		labels.add("RedBlackTree");
+		builders.add((keys, boxedKeys) -> fill(new RedBlackTree<Integer>(), boxedKeys));
+		labels.add("SplayTree");
+		builders.add((keys, boxedKeys) -> fill(new SplayTree<Integer>(), boxedKeys));
+		labels.add("ScapegoatTree 0.5");
+		builders.add((keys, boxedKeys) -> fill(new ScapegoatTree<Integer>(0.5), boxedKeys));
+		labels.add("ScapegoatTree 0.95");
+		builders.add((keys, boxedKeys) -> fill(new ScapegoatTree<Integer>(0.95), boxedKeys));
+		labels.add("Treap");
+		builders.add((keys, boxedKeys) -> fill(new Treap<Integer>(), boxedKeys));
+		labels.add("SkipList");
+		builders.add((keys, boxedKeys) -> fill(new SkipList<Integer>(), boxedKeys));
+		labels.add("ConcurrentSkipList");
+		builders.add((keys, boxedKeys) -> fill(new ConcurrentSkipList<Integer>(), boxedKeys));
+		labels.add("AVLTree (int)");
+		builders.add((keys, boxedKeys) -> fill(new IntAVLTree(), keys));
+		labels.add("RedBlackTree (int)");
+		builders.add((keys, boxedKeys) -> fill(new IntRedBlackTree(), keys));
+		labels.add("Treap (int)");
+		builders.add((keys, boxedKeys) -> fill(new IntTreap(), keys));
+		labels.add("SkipList (int)");
+		builders.add((keys, boxedKeys) -> fill(new IntSkipList(), keys));
+
+		ArrayList<ArrayList<Long>> data = new ArrayList<>();
+		for (int s = 0; s < labels.size(); s++) data.add(new ArrayList<Long>());
+
+		for (int j = 0; j < numberTests; j++) {
+			int n = step * (j + 1);
+			System.out.println("Testing: " + n + " keys");
+			int[] keys = randomKeys(n);
+			Integer[] boxedKeys = new Integer[n];
+			for (int i = 0; i < n; i++) boxedKeys[i] = keys[i];
+			for (int s = 0; s < labels.size(); s++) {
+				data.get(s).add(Math.round(bytesPerKey(builders.get(s), keys, boxedKeys)));
+			}
+		}
+
+		Print2CSV export = new Print2CSV(directoryName, "BytesPerKey.csv");
+		export.data2CSVFormat(labels, data, step, TO_FILE);
+	}
+
+	/**
+	 * Measures the shrinking of the heap when the structure is released. Its growth while the
+	 * structure is built also counts the garbage left by building it that the collector
+	 * didn't reclaim yet, so it isn't used.
+	 * 
+	 * @return - the heap retained by the structure built from the keys, divided by their number
+	 */
+	private static double bytesPerKey(Builder builder, int[] keys, Integer[] boxedKeys) {
+		retained = builder.build(keys, boxedKeys);
+		long after = usedHeap();
+		retained = null;
+		long released = usedHeap();
+		return (after - released) / (double) keys.length;
+	}
+
+	/**
+	 * @return - the used heap after collecting the garbage, when two collections in a row
+	 *         leave it the same (or after 10 collections)
+	 */
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		long used = runtime.totalMemory() - runtime.freeMemory();
+		for (int i = 0; i < 10; i++) {
+			System.gc();
+			long previous = used;
+			used = runtime.totalMemory() - runtime.freeMemory();
+			if (used == previous) break;
+		}
+		return used;
+	}
+
+	/**
+	 * @return - the numbers from 0 to n - 1 in random order, so the unbalanced trees stay shallow
+	 */
+	private static int[] randomKeys(int n) {
+		Random rand = new Random(42);
+		int[] keys = new int[n];
+		for (int i = 0; i < n; i++) keys[i] = i;
+		for (int i = n - 1; i > 0; i--) {
+			int j = rand.nextInt(i + 1);
+			int tmp = keys[i];
+			keys[i] = keys[j];
+			keys[j] = tmp;
+		}
+		return keys;
+	}
+
+	private static DynamicSet<Integer> fill(DynamicSet<Integer> set, Integer[] keys) {
+		for (Integer key : keys) set.insert(key);
+		return set;
+	}
+
+	private static IntDynamicSet fill(IntDynamicSet set, int[] keys) {
+		for (int key : keys) set.insert(key);
+		return set;
+	}
+}
@@ -0,0 +1,113 @@
+package benchmarks;
+
+import java.io.Serializable;
+
+/**
+ * Histogram of latencies in the style of HdrHistogram, in a fixed amount of memory: the
+ * values below 128 have one bucket each, and every power of two above them is split in 64
+ * buckets, so any value is kept with a relative error below 1/64 (about 1.6%). Recording
+ * a value is a few arithmetic operations and an array increment, without allocation.
+ *
+ * @author Matheus Rosa
+ *
+ */
+public class LatencyHistogram implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int SUB_BUCKET_BITS = 7;
+	private static final int HALF_SUB_BUCKETS = 1 << (SUB_BUCKET_BITS - 1);
+	private static final int BUCKETS = bucketOf(Long.MAX_VALUE) + 1;
+
+	private final long[] counts = new long[BUCKETS];
+	private long totalCount;
+	private long sum;
+	private long min = Long.MAX_VALUE;
+	private long max;
+
+	private static int bucketOf(long value) {
+		if (value < 2 * HALF_SUB_BUCKETS) return (int) value;
+		int exponent = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+		return exponent * HALF_SUB_BUCKETS + (int) (value >>> exponent);
+	}
+
+	/**
+	 * @return The largest value that falls in the bucket.
+	 */
+	private static long highestValueOf(int bucket) {
+		if (bucket < 2 * HALF_SUB_BUCKETS) return bucket;
+		int exponent = bucket / HALF_SUB_BUCKETS - 1;
+		long mantissa = bucket - exponent * HALF_SUB_BUCKETS;
+		return ((mantissa + 1) << exponent) - 1;
+	}
+
+	/**
+	 * Records a latency.
+	 *
+	 * @param value
+	 *            - the latency (negative values, from a clock going back, count as 0)
+	 */
+	public void record(long value) {
+		if (value < 0) value = 0;
+		counts[bucketOf(value)]++;
+		totalCount++;
+		sum += value;
+		if (value < min) min = value;
+		if (value > max) max = value;
+	}
+
+	/**
+	 * Adds all the latencies recorded by another histogram to this one.
+	 */
+	public void add(LatencyHistogram other) {
+		for (int i = 0; i < BUCKETS; i++) counts[i] += other.counts[i];
+		totalCount += other.totalCount;
+		sum += other.sum;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	/**
+	 * Returns the latency below or at which the given percentage of the latencies are,
+	 * within the precision of the buckets (the largest value of the bucket is returned,
+	 * but never more than the maximum).
+	 *
+	 * @param percentile
+	 *            - between 0 and 100
+	 * @return - the latency, or 0 if nothing was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (percentile < 0 || percentile > 100)
+			throw new IllegalArgumentException("The percentile must be between 0 and 100, but it was " + percentile + ".");
+		if (totalCount == 0) return 0;
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) return Math.min(Math.max(highestValueOf(i), min), max);
+		}
+		return max;
+	}
+
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	/**
+	 * @return - the mean of the latencies, or 0 if nothing was recorded
+	 */
+	public long getMean() {
+		return totalCount == 0 ? 0 : sum / totalCount;
+	}
+
+	/**
+	 * @return - the smallest latency, or 0 if nothing was recorded
+	 */
+	public long getMin() {
+		return totalCount == 0 ? 0 : min;
+	}
+
+	public long getMax() {
+		return max;
+	}
+}
@@ -0,0 +1,256 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import structures.*;
+
+/**
+ * Runs the same tests as TimeTests, but each structure and input format in its own JVM,
+ * so the code compiled by the JIT for a structure doesn't slow down the next ones, and
+ * several of these JVMs at the same time, up to a number of cores. On Linux, when
+ * taskset is available, each JVM is pinned to its own core so that they don't disturb
+ * each other. The results of the JVMs are merged into the same csv files as TimeTests
+ * writes, in Benchmark/&lt;input format&gt;.
+ *
+ * @author Matheus Rosa
+ *
+ */
+public class ParallelRunner {
+	public final static boolean TO_FILE = true;
+
+	private static final String CHILD = "--child";
+	private static final File TASKSET = new File("/usr/bin/taskset");
+
+	public static int numberTests = 10;
+	public static int step = 5000;
+	public static int samples = 3;
+	public static int cores = Runtime.getRuntime().availableProcessors();
+	public static int[] inputFormats = { 0, 1, 2 };
+
+	/**
+	 * The timeTest of a structure, on a new empty instance.
+	 */
+	private interface Test {
+		ArrayList<ArrayList<Long>> run(Benchmark benchmark, int inputFormat) throws NotEmptySetException;
+	}
+
+	/**
+	 * The tested structures by their labels, in the order of the csv files.
+	 */
+	private static final Map<String, Test> STRUCTURES = new LinkedHashMap<>();
+
+	static {
+		STRUCTURES.put("JavaTreeSet", (benchmark, inputFormat) -> benchmark.timeTest(new TreeSet<Integer>(), inputFormat));
+		STRUCTURES.put("SimpleBST", (benchmark, inputFormat) -> benchmark.timeTest(new SimpleBST<Integer>(), inputFormat));
+		STRUCTURES.put("AVLTree", (benchmark, inputFormat) -> benchmark.timeTest(new AVLTree<Integer>(), inputFormat));
+		STRUCTURES.put("RedBlackTree", (benchmark, inputFormat) -> benchmark.timeTest(new RedBlackTree<Integer>(), inputFormat));
+		STRUCTURES.put("SplayTree", (benchmark, inputFormat) -> benchmark.timeTest(new SplayTree<Integer>(), inputFormat));
+		STRUCTURES.put("ScapegoatTree 0.5", (benchmark, inputFormat) -> benchmark.timeTest(new ScapegoatTree<Integer>(0.5), inputFormat));
+		STRUCTURES.put("ScapegoatTree 0.95", (benchmark, inputFormat) -> benchmark.timeTest(new ScapegoatTree<Integer>(0.95), inputFormat));
+		STRUCTURES.put("Treap", (benchmark, inputFormat) -> benchmark.timeTest(new Treap<Integer>(), inputFormat));
+		STRUCTURES.put("SkipList", (benchmark, inputFormat) -> benchmark.timeTest(new SkipList<Integer>(), inputFormat));
+		STRUCTURES.put("AVLTree (int)", (benchmark, inputFormat) -> benchmark.timeTest(new IntAVLTree(), inputFormat));
+		STRUCTURES.put("RedBlackTree (int)", (benchmark, inputFormat) -> benchmark.timeTest(new IntRedBlackTree(), inputFormat));
+		STRUCTURES.put("Treap (int)", (benchmark, inputFormat) -> benchmark.timeTest(new IntTreap(), inputFormat));
+		STRUCTURES.put("SkipList (int)", (benchmark, inputFormat) -> benchmark.timeTest(new IntSkipList(), inputFormat));
+	}
+
+	/**
+	 * A structure and input format tested in a child JVM, and where it writes its results.
+	 */
+	private static class Job {
+		final String label;
+		final int inputFormat;
+		final File results;
+		final File log;
+
+		Job(String label, int inputFormat) throws IOException {
+			this.label = label;
+			this.inputFormat = inputFormat;
+			this.results = File.createTempFile("benchmark", ".results");
+			this.log = File.createTempFile("benchmark", ".log");
+			results.deleteOnExit();
+		}
+	}
+
+	public static void main(String[] args) {
+		if (args.length == 7 && args[0].equals(CHILD)) {
+			runChild(args);
+			return;
+		}
+		if (args.length > 0 && args.length != 4 && args.length != 5) {
+			System.out.println("Unexpected format! Please, use the format:\n\n"
+					+ "java ParallelRunner <input-formats (comma separated, 0-ascending, 1-gaussian, 2-uniform)> <number-of-tests> <step-size> <number-of-samples> [<cores>]\n\n"
+					+ "Or just \"java ParallelRunner\" - for default values: 0,1,2 10 5000 3 " + cores);
+			return;
+		} else if (args.length > 0) {
+			try {
+				String[] formats = args[0].split(",");
+				inputFormats = new int[formats.length];
+				for (int i = 0; i < formats.length; i++) inputFormats[i] = Integer.parseInt(formats[i].trim());
+				numberTests = Integer.parseInt(args[1]);
+				step = Integer.parseInt(args[2]);
+				samples = Integer.parseInt(args[3]);
+				if (args.length == 5) cores = Integer.parseInt(args[4]);
+			} catch (NumberFormatException e) {
+				System.out.println("The input arguments are not numbers.");
+				System.exit(1);
+			}
+		}
+
+		List<Job> jobs = new ArrayList<>();
+		try {
+			for (int inputFormat : inputFormats) {
+				for (String label : STRUCTURES.keySet()) jobs.add(new Job(label, inputFormat));
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+
+		// Each running job takes a core from the queue and gives it back when it ends
+		BlockingQueue<Integer> freeCores = new ArrayBlockingQueue<>(cores);
+		for (int i = 0; i < cores; i++) freeCores.add(i);
+		boolean pin = TASKSET.canExecute() && cores <= Runtime.getRuntime().availableProcessors();
+		ExecutorService executor = Executors.newFixedThreadPool(cores);
+		List<Future<Boolean>> done = new ArrayList<>();
+		long start = System.nanoTime();
+		for (Job job : jobs) {
+			done.add(executor.submit(() -> {
+				int core = freeCores.take();
+				try {
+					return runJob(job, pin ? core : -1);
+				} finally {
+					freeCores.add(core);
+				}
+			}));
+		}
+		executor.shutdown();
+
+		for (int i = 0; i < jobs.size(); i++) {
+			boolean succeeded = false;
+			try {
+				succeeded = done.get(i).get();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+			Job job = jobs.get(i);
+			System.out.println((succeeded ? "Done: " : "Failed (see " + job.log + "): ") + job.label + ", input format " + job.inputFormat);
+		}
+		System.out.println("Total time: " + (System.nanoTime() - start) / 1000000000 + " s");
+
+		for (int inputFormat : inputFormats) merge(jobs, inputFormat);
+	}
+
+	/**
+	 * Starts the JVM of a job and waits for it.
+	 *
+	 * @param core
+	 *            - the core to run the JVM on, or -1 to let the system choose
+	 * @return - if the JVM wrote its results
+	 */
+	private static boolean runJob(Job job, int core) throws IOException, InterruptedException {
+		List<String> command = new ArrayList<>();
+		if (core >= 0) {
+			command.add(TASKSET.getPath());
+			command.add("-c");
+			command.add(String.valueOf(core));
+		}
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		// the same memory and JIT options as this JVM
+		for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+			if (argument.startsWith("-X")) command.add(argument);
+		}
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(ParallelRunner.class.getName());
+		command.add(CHILD);
+		command.add(job.label);
+		command.add(String.valueOf(job.inputFormat));
+		command.add(String.valueOf(numberTests));
+		command.add(String.valueOf(step));
+		command.add(String.valueOf(samples));
+		command.add(job.results.getPath());
+
+		ProcessBuilder builder = new ProcessBuilder(command);
+		builder.redirectErrorStream(true);
+		builder.redirectOutput(job.log);
+		Process process = builder.start();
+		if (process.waitFor() != 0) return false;
+		job.log.delete();
+		return true;
+	}
+
+	/**
+	 * Runs the test of one structure, in a child JVM, and writes its means and latencies to
+	 * the results file.
+	 */
+	private static void runChild(String[] args) {
+		Test test = STRUCTURES.get(args[1]);
+		if (test == null) {
+			System.out.println("Unknown structure: " + args[1]);
+			System.exit(1);
+		}
+		Benchmark benchmark = new Benchmark(Integer.parseInt(args[3]), Integer.parseInt(args[4]), Integer.parseInt(args[5]));
+		try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(args[6]))) {
+			out.writeObject(test.run(benchmark, Integer.parseInt(args[2])));
+			out.writeObject(benchmark.getLatencies());
+		} catch (NotEmptySetException | IOException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Writes the results of the jobs of an input format in csv format, as TimeTests does.
+	 * The structures whose JVM failed are left out.
+	 */
+	@SuppressWarnings("unchecked")
+	private static void merge(List<Job> jobs, int inputFormat) {
+		ArrayList<String> labels = new ArrayList<>();
+		ArrayList<ArrayList<ArrayList<Long>>> results = new ArrayList<>();
+		ArrayList<LatencyHistogram[][]> latencies = new ArrayList<>();
+		for (Job job : jobs) {
+			if (job.inputFormat != inputFormat || job.results.length() == 0) continue;
+			try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(job.results))) {
+				results.add((ArrayList<ArrayList<Long>>) in.readObject());
+				latencies.add((LatencyHistogram[][]) in.readObject());
+				labels.add(job.label);
+			} catch (IOException | ClassNotFoundException e) {
+				e.printStackTrace();
+			}
+			job.results.delete();
+		}
+		if (labels.isEmpty()) return;
+
+		String dir = TimeTests.directoryFor(inputFormat);
+		for (Benchmark.Type type : Benchmark.Type.values()) {
+			int op = type.ordinal();
+			String file = type.name().charAt(0) + type.name().substring(1).toLowerCase();
+
+			ArrayList<ArrayList<Long>> data = new ArrayList<>();
+			for (ArrayList<ArrayList<Long>> result : results) data.add(result.get(op));
+			new Print2CSV(dir, file + ".csv").data2CSVFormat(labels, data, step, TO_FILE);
+
+			ArrayList<LatencyHistogram[]> histograms = new ArrayList<>();
+			for (LatencyHistogram[][] latency : latencies) histograms.add(latency[op]);
+			new Print2CSV(dir, file + "Percentiles.csv").percentiles2CSVFormat(labels, histograms, step, TO_FILE);
+		}
+	}
+}
@@ -44,6 +44,25 @@ public class Print2CSV {
 	 * @throws IOException 
 	 */
 	public void data2CSVFormat(ArrayList<String> labels, ArrayList<ArrayList<Long>> data, int step, boolean toFile) {
+		data2CSVFormat("Number of elements", labels, data, step, toFile);
+	}
+
+	/**
+	 * Same as data2CSVFormat(labels, data, step, toFile), but with a custom name
+	 * for the first cell of the header (the meaning of the columns).
+	 * 
+	 * @param header
+	 *            - the name of the values in the header row
+	 * @param labels
+	 *            - the names of each row in the matrix
+	 * @param data
+	 *            - the matrix of data
+	 * @param step
+	 *            - size of test in each column of the matrix
+	 * @param toFile
+	 *            - to indicate if the print will be at standard or file output (false to standard output)
+	 */
+	public void data2CSVFormat(String header, ArrayList<String> labels, ArrayList<ArrayList<Long>> data, int step, boolean toFile) {
 		
 		try {
 			file = new PrintWriter(fileName);
@@ -53,7 +72,7 @@ public class Print2CSV {
 		}
 		
 		StringBuilder string = new StringBuilder();
-		string.append("Number of elements");
+		string.append(header);
 		for (int i = 0; i < data.get(0).size(); i++)
 			string.append("," + (i + 1) * step);
 		string.append("\n");
@@ -71,4 +90,85 @@ public class Print2CSV {
 		file.close();
 	}
 
+	/**
+	 * Receive the latencies of an operation and print their percentiles in csv format,
+	 * one row for each structure and number of elements. Outputs to standard output or
+	 * specific file.
+	 * 
+	 * @param labels
+	 *            - the names of each structure
+	 * @param data
+	 *            - the histograms of each structure, one for each number of elements
+	 * @param step
+	 *            - size of test of each histogram
+	 * @param toFile
+	 *            - to indicate if the print will be at standard or file output (false to standard output)
+	 */
+	public void percentiles2CSVFormat(ArrayList<String> labels, ArrayList<LatencyHistogram[]> data, int step, boolean toFile) {
+		
+		try {
+			file = new PrintWriter(fileName);
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+		
+		StringBuilder string = new StringBuilder();
+		string.append("Structure,Number of elements,Operations,Mean,P50,P90,P99,P99.9,Max\n");
+		for (int i = 0; i < data.size(); i++) {
+			for (int j = 0; j < data.get(i).length; j++) {
+				LatencyHistogram histogram = data.get(i)[j];
+				string.append(labels.get(i) + "," + (j + 1) * step + "," + histogram.getTotalCount() + "," + histogram.getMean());
+				string.append("," + histogram.getValueAtPercentile(50) + "," + histogram.getValueAtPercentile(90));
+				string.append("," + histogram.getValueAtPercentile(99) + "," + histogram.getValueAtPercentile(99.9));
+				string.append("," + histogram.getMax() + "\n");
+			}
+		}
+
+		if (toFile) file.print(string.toString());
+		else System.out.println(string);
+		
+		file.close();
+	}
+
+	/**
+	 * Receive the results of a mixed workload and print them in csv format, one row for
+	 * each structure and operation of the workload. Outputs to standard output or specific
+	 * file.
+	 * 
+	 * @param labels
+	 *            - the names of each structure
+	 * @param results
+	 *            - the throughput and latencies of each structure
+	 * @param toFile
+	 *            - to indicate if the print will be at standard or file output (false to standard output)
+	 */
+	public void workload2CSVFormat(ArrayList<String> labels, ArrayList<WorkloadBenchmark.Result> results, boolean toFile) {
+		
+		try {
+			file = new PrintWriter(fileName);
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+		
+		StringBuilder string = new StringBuilder();
+		string.append("Structure,Throughput (ops/s),Operation,Operations,Mean,P50,P90,P99,P99.9,Max\n");
+		for (int i = 0; i < results.size(); i++) {
+			for (Benchmark.Type type : Benchmark.Type.values()) {
+				LatencyHistogram histogram = results.get(i).latencies[type.ordinal()];
+				if (histogram.getTotalCount() == 0) continue;
+				string.append(labels.get(i) + "," + results.get(i).throughput + "," + type + "," + histogram.getTotalCount());
+				string.append("," + histogram.getMean() + "," + histogram.getValueAtPercentile(50) + "," + histogram.getValueAtPercentile(90));
+				string.append("," + histogram.getValueAtPercentile(99) + "," + histogram.getValueAtPercentile(99.9));
+				string.append("," + histogram.getMax() + "\n");
+			}
+		}
+
+		if (toFile) file.print(string.toString());
+		else System.out.println(string);
+		
+		file.close();
+	}
+
 }
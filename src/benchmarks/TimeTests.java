@@ -20,6 +20,7 @@ public class TimeTests {
 	public static int step = 5000;
 	public static int samples = 3;
 	public static String directoryName = "UniformInput";
+	public static boolean profileAllocations = false;
 	
 	public static ArrayList<ArrayList<Long>> javaTreeSetResult;
 	public static ArrayList<ArrayList<Long>> bstResult;
@@ -30,32 +31,59 @@ public class TimeTests {
 	public static ArrayList<ArrayList<Long>> scapeResult95;
 	public static ArrayList<ArrayList<Long>> treapResult;
 	public static ArrayList<ArrayList<Long>> listResult;
+	public static ArrayList<ArrayList<Long>> intAvlResult;
+	public static ArrayList<ArrayList<Long>> intRedBlackResult;
+	public static ArrayList<ArrayList<Long>> intTreapResult;
+	public static ArrayList<ArrayList<Long>> intListResult;
+	
+	public static LatencyHistogram[][] javaTreeSetLatencies;
+	public static LatencyHistogram[][] bstLatencies;
+	public static LatencyHistogram[][] avlLatencies;
+	public static LatencyHistogram[][] redBlackLatencies;
+	public static LatencyHistogram[][] splayLatencies;
+	public static LatencyHistogram[][] scapeLatencies5;
+	public static LatencyHistogram[][] scapeLatencies95;
+	public static LatencyHistogram[][] treapLatencies;
+	public static LatencyHistogram[][] listLatencies;
+	public static LatencyHistogram[][] intAvlLatencies;
+	public static LatencyHistogram[][] intRedBlackLatencies;
+	public static LatencyHistogram[][] intTreapLatencies;
+	public static LatencyHistogram[][] intListLatencies;
+	
+	public static ArrayList<String> allocationLabels = new ArrayList<>();
+	public static ArrayList<ArrayList<ArrayList<Long>>> allocationResults = new ArrayList<>();
+	public static ArrayList<ArrayList<ArrayList<Long>>> garbageCollectionResults = new ArrayList<>();
 	
 	public static void main(String[] args) {
 		
-		if (args.length > 0 && args.length != 4) {
+		if (args.length > 0 && args.length != 4 && args.length != 5) {
 			System.out.println("Unexpected format! Please, use the format:\n\n"
-					+ "java Benchmark <input-format (0-ascending, 1-gaussian, 2-uniform)> <number-of-tests> <step-size> <number-of-samples>\n\n"
+					+ "java Benchmark <input-format (0-ascending, 1-gaussian, 2-uniform)> <number-of-tests> <step-size> <number-of-samples> [allocations]\n\n"
 					+ "Or just \"java benchmark\" - for default values: 2 10 1000 2");
-		} else if (args.length == 4) {
+		} else if (args.length >= 4) {
 			try {
 				inputFormat = Integer.parseInt(args[0]);
 				numberTests = Integer.parseInt(args[1]);
 				step = Integer.parseInt(args[2]);
 				samples = Integer.parseInt(args[3]);
+				if (args.length == 5) profileAllocations = args[4].equals("allocations");
 			} catch (NumberFormatException e) {
 				System.out.println("The input arguments are not numbers.");
 				System.exit(1);
 			}
 		} 
 		
-		if (inputFormat == 0) {
-			directoryName = "ascendingInput";
-		} else if (inputFormat == 1) {
-			directoryName = "gaussianInput";
-		}
+		directoryName = directoryFor(inputFormat);
 		
 		Benchmark benchmark = new Benchmark(numberTests, step, samples);
+		if (profileAllocations) {
+			try {
+				benchmark.setProfileAllocations(true);
+			} catch (UnsupportedOperationException e) {
+				System.out.println(e.getMessage());
+				System.exit(1);
+			}
+		}
 		
 		TreeSet<Integer> javaTreeSet = new TreeSet<>();
 		SimpleBST<Integer> bst = new SimpleBST<>();
@@ -66,18 +94,100 @@ public class TimeTests {
 		ScapegoatTree<Integer> scape95 = new ScapegoatTree<>(0.95);	
 		Treap<Integer> treap = new Treap<>();
 		SkipList<Integer> list = new SkipList<>();
+		IntAVLTree intAvl = new IntAVLTree();
+		IntRedBlackTree intRedBlack = new IntRedBlackTree();
+		IntTreap intTreap = new IntTreap();
+		IntSkipList intList = new IntSkipList();
 		
 		javaTreeSetResult = benchmark.timeTest(javaTreeSet, inputFormat);
+		javaTreeSetLatencies = benchmark.getLatencies();
+		addAllocations("JavaTreeSet", benchmark);
 		bstResult = benchmark.timeTest(bst, inputFormat);
+		bstLatencies = benchmark.getLatencies();
+		addAllocations("SimpleBST", benchmark);
 		avlResult = benchmark.timeTest(avl, inputFormat);
+		avlLatencies = benchmark.getLatencies();
+		addAllocations("AVLTree", benchmark);
 		redBlackResult = benchmark.timeTest(redBlack, inputFormat);
+		redBlackLatencies = benchmark.getLatencies();
+		addAllocations("RedBlackTree", benchmark);
 		splayResult = benchmark.timeTest(splay, inputFormat);
+		splayLatencies = benchmark.getLatencies();
+		addAllocations("SplayTree", benchmark);
 		treapResult = benchmark.timeTest(treap, inputFormat);
+		treapLatencies = benchmark.getLatencies();
+		addAllocations("Treap", benchmark);
 		scapeResult5 = benchmark.timeTest(scape5, inputFormat);
+		scapeLatencies5 = benchmark.getLatencies();
+		addAllocations("ScapegoatTree 0.5", benchmark);
 		scapeResult95 = benchmark.timeTest(scape95, inputFormat);
+		scapeLatencies95 = benchmark.getLatencies();
+		addAllocations("ScapegoatTree 0.95", benchmark);
 		listResult = benchmark.timeTest(list, inputFormat);
+		listLatencies = benchmark.getLatencies();
+		addAllocations("SkipList", benchmark);
+		intAvlResult = benchmark.timeTest(intAvl, inputFormat);
+		intAvlLatencies = benchmark.getLatencies();
+		addAllocations("AVLTree (int)", benchmark);
+		intRedBlackResult = benchmark.timeTest(intRedBlack, inputFormat);
+		intRedBlackLatencies = benchmark.getLatencies();
+		addAllocations("RedBlackTree (int)", benchmark);
+		intTreapResult = benchmark.timeTest(intTreap, inputFormat);
+		intTreapLatencies = benchmark.getLatencies();
+		addAllocations("Treap (int)", benchmark);
+		intListResult = benchmark.timeTest(intList, inputFormat);
+		intListLatencies = benchmark.getLatencies();
+		addAllocations("SkipList (int)", benchmark);
 	
 		for (int i = 0; i < 5; i++) toPrint(i);
+		if (profileAllocations) printAllocations();
+	}
+	
+	/**
+	 * Keeps the allocations and garbage collections of the last test, if they are measured.
+	 */
+	private static void addAllocations(String label, Benchmark benchmark) {
+		if (!profileAllocations) return;
+		allocationLabels.add(label);
+		allocationResults.add(benchmark.getAllocations());
+		garbageCollectionResults.add(benchmark.getGarbageCollections());
+	}
+	
+	/**
+	 * Prints the bytes allocated per operation, one file for each operation as the times,
+	 * and the garbage collections of each structure.
+	 */
+	public static void printAllocations() {
+		String[] files = { "Find", "Insert", "Remove", "Max", "Min" };
+		for (int op = 0; op < files.length; op++) {
+			ArrayList<ArrayList<Long>> data = new ArrayList<>();
+			for (ArrayList<ArrayList<Long>> result : allocationResults) data.add(result.get(op));
+			Print2CSV export = new Print2CSV(directoryName, files[op]+"Allocation.csv");
+			export.data2CSVFormat(allocationLabels, data, step, TO_FILE);
+		}
+		
+		ArrayList<String> labels = new ArrayList<>();
+		ArrayList<ArrayList<Long>> data = new ArrayList<>();
+		for (int i = 0; i < allocationLabels.size(); i++) {
+			labels.add(allocationLabels.get(i) + " GC count");
+			data.add(garbageCollectionResults.get(i).get(0));
+			labels.add(allocationLabels.get(i) + " GC time (ms)");
+			data.add(garbageCollectionResults.get(i).get(1));
+		}
+		Print2CSV export = new Print2CSV(directoryName, "GarbageCollection.csv");
+		export.data2CSVFormat(labels, data, step, TO_FILE);
+	}
+	
+	/**
+	 * @return - the directory in Benchmark of the results for an input format
+	 */
+	public static String directoryFor(int inputFormat) {
+		if (inputFormat == 0) {
+			return "ascendingInput";
+		} else if (inputFormat == 1) {
+			return "gaussianInput";
+		}
+		return "UniformInput";
 	}
 	
 	public static void toPrint(int op) {
@@ -114,6 +224,10 @@ public class TimeTests {
 		labels.add("ScapegoatTree 0.95");
 		labels.add("Treap");
 		labels.add("SkipList");		
+		labels.add("AVLTree (int)");
+		labels.add("RedBlackTree (int)");
+		labels.add("Treap (int)");
+		labels.add("SkipList (int)");
 		
 		Print2CSV export = new Print2CSV(dir, file+".csv");
 		ArrayList<ArrayList<Long>> data = new ArrayList<>();
@@ -126,7 +240,29 @@ public class TimeTests {
 		data.add(scapeResult95.get(op));
 		data.add(treapResult.get(op));
 		data.add(listResult.get(op));
+		data.add(intAvlResult.get(op));
+		data.add(intRedBlackResult.get(op));
+		data.add(intTreapResult.get(op));
+		data.add(intListResult.get(op));
 		
 		export.data2CSVFormat(labels, data, step, TO_FILE);
+		
+		Print2CSV percentilesExport = new Print2CSV(dir, file+"Percentiles.csv");
+		ArrayList<LatencyHistogram[]> latencies = new ArrayList<>();
+		latencies.add(javaTreeSetLatencies[op]);
+		latencies.add(bstLatencies[op]);
+		latencies.add(avlLatencies[op]);
+		latencies.add(redBlackLatencies[op]);
+		latencies.add(splayLatencies[op]);
+		latencies.add(scapeLatencies5[op]);
+		latencies.add(scapeLatencies95[op]);
+		latencies.add(treapLatencies[op]);
+		latencies.add(listLatencies[op]);
+		latencies.add(intAvlLatencies[op]);
+		latencies.add(intRedBlackLatencies[op]);
+		latencies.add(intTreapLatencies[op]);
+		latencies.add(intListLatencies[op]);
+		
+		percentilesExport.percentiles2CSVFormat(labels, latencies, step, TO_FILE);
 	}
 }
@@ -0,0 +1,212 @@
+package benchmarks;
+
+import java.util.Random;
+
+import benchmarks.Benchmark.Type;
+
+/**
+ * Generates an interleaved stream of FIND, INSERT and REMOVE operations, in the style of
+ * the YCSB workloads: the operations follow a given mix (like 90% finds and 10% updates)
+ * and their keys a given popularity over a working set of keys 0 to keySpace - 1:
+ *
+ * UNIFORM - every key is as popular.
+ * ZIPF - the popularity of the i-th most popular key is proportional to 1 / i^theta. The
+ * popular keys are spread over the working set, not the smallest ones.
+ * HOTSPOT - a fraction of the operations (80% by default) is on the smallest keys (20% of
+ * the working set by default), the others on the rest of the keys.
+ * SEQUENTIAL - the keys are taken in order, going back to 0 after the last one.
+ * LATEST - the inserts add new keys, larger than all the others, and the other operations
+ * follow a Zipf popularity from the newest key down.
+ *
+ * The operations are generated before they are run, so the cost of generating them isn't
+ * measured.
+ *
+ * @author Matheus Rosa
+ *
+ */
+public class Workload {
+
+	public static enum KeyDistribution {
+		UNIFORM, ZIPF, HOTSPOT, SEQUENTIAL, LATEST;
+	}
+
+	private final Random RAND;
+	private final int findPercentage;
+	private final int insertPercentage;
+	private final KeyDistribution distribution;
+	private final int keySpace;
+	private double theta = 0.99;
+	private double hotSetFraction = 0.2;
+	private double hotOperationFraction = 0.8;
+
+	private Zipf zipf;
+	private int sequentialKey;
+	private int latestKey;
+
+	/**
+	 * @param findPercentage
+	 *            - of the operations that are FIND
+	 * @param insertPercentage
+	 *            - of the operations that are INSERT (the others are REMOVE)
+	 * @param distribution
+	 *            - of the keys of the operations
+	 * @param keySpace
+	 *            - number of keys in the working set
+	 * @param seed
+	 *            - of the random choices
+	 */
+	public Workload(int findPercentage, int insertPercentage, KeyDistribution distribution, int keySpace, long seed) {
+		if (findPercentage < 0 || insertPercentage < 0 || findPercentage + insertPercentage > 100)
+			throw new IllegalArgumentException("The percentages of finds and inserts must be positive and add up to at most 100.");
+		if (keySpace < 1) throw new IllegalArgumentException("The working set must have at least one key.");
+		this.findPercentage = findPercentage;
+		this.insertPercentage = insertPercentage;
+		this.distribution = distribution;
+		this.keySpace = keySpace;
+		this.latestKey = keySpace - 1;
+		RAND = new Random(seed);
+	}
+
+	/**
+	 * A stream of operations and their keys.
+	 */
+	public static class Operations {
+		public final Type[] types;
+		public final Integer[] keys;
+
+		private Operations(int count) {
+			types = new Type[count];
+			keys = new Integer[count];
+		}
+	}
+
+	/**
+	 * Generates the next operations of the workload.
+	 *
+	 * @param count
+	 *            - number of operations
+	 * @return - the operations, with their keys boxed in advance
+	 */
+	public Operations generate(int count) {
+		Operations operations = new Operations(count);
+		for (int i = 0; i < count; i++) {
+			int op = RAND.nextInt(100);
+			Type type = op < findPercentage ? Type.FIND : op < findPercentage + insertPercentage ? Type.INSERT : Type.REMOVE;
+			operations.types[i] = type;
+			operations.keys[i] = nextKey(type);
+		}
+		return operations;
+	}
+
+	/**
+	 * @return - the keys of the working set in random order, to fill a set before running
+	 *         the workload on it
+	 */
+	public int[] initialKeys() {
+		int[] keys = new int[keySpace];
+		for (int i = 0; i < keySpace; i++) keys[i] = i;
+		for (int i = keySpace - 1; i > 0; i--) {
+			int j = RAND.nextInt(i + 1);
+			int tmp = keys[i];
+			keys[i] = keys[j];
+			keys[j] = tmp;
+		}
+		return keys;
+	}
+
+	private int nextKey(Type type) {
+		switch (distribution) {
+		case UNIFORM:
+			return RAND.nextInt(keySpace);
+		case ZIPF:
+			// rank * prime modulo keySpace is a permutation of the working set
+			return (int) (zipf().next() * 2654435761L % keySpace);
+		case HOTSPOT:
+			int hotKeys = Math.max(1, (int) (keySpace * hotSetFraction));
+			if (hotKeys == keySpace || RAND.nextDouble() < hotOperationFraction) return RAND.nextInt(hotKeys);
+			return hotKeys + RAND.nextInt(keySpace - hotKeys);
+		case SEQUENTIAL:
+			int key = sequentialKey;
+			sequentialKey = (sequentialKey + 1) % keySpace;
+			return key;
+		case LATEST:
+			if (type == Type.INSERT) return latestKey == Integer.MAX_VALUE ? latestKey : ++latestKey;
+			return Math.max(0, latestKey - zipf().next());
+		default:
+			throw new IllegalStateException("Unknown distribution: " + distribution);
+		}
+	}
+
+	private Zipf zipf() {
+		if (zipf == null) zipf = new Zipf(keySpace, theta);
+		return zipf;
+	}
+
+	/**
+	 * Draws ranks from 0 to n - 1 with a Zipf distribution, by the method of Gray et al.,
+	 * "Quickly Generating Billion-Record Synthetic Databases" (as YCSB does). Building it
+	 * takes O(n), drawing a rank O(1).
+	 */
+	private class Zipf {
+		private final int n;
+		private final double theta;
+		private final double zetaN;
+		private final double alpha;
+		private final double eta;
+
+		Zipf(int n, double theta) {
+			this.n = n;
+			this.theta = theta;
+			double zeta = 0;
+			for (int i = 1; i <= n; i++) zeta += 1 / Math.pow(i, theta);
+			this.zetaN = zeta;
+			double zeta2 = 1 + 1 / Math.pow(2, theta);
+			this.alpha = 1 / (1 - theta);
+			this.eta = (1 - Math.pow(2.0 / n, 1 - theta)) / (1 - zeta2 / zetaN);
+		}
+
+		int next() {
+			double u = RAND.nextDouble();
+			double uz = u * zetaN;
+			if (uz < 1) return 0;
+			if (uz < 1 + Math.pow(0.5, theta)) return Math.min(1, n - 1);
+			return (int) Math.min(n - 1, (long) (n * Math.pow(eta * u - eta + 1, alpha)));
+		}
+	}
+
+	public double getTheta() {
+		return theta;
+	}
+
+	/**
+	 * @param theta
+	 *            - skew of the ZIPF and LATEST distributions, strictly between 0 and 1
+	 *            (the closer to 0, the more uniform). 0.99 by default.
+	 */
+	public void setTheta(double theta) {
+		if (theta <= 0 || theta >= 1) throw new IllegalArgumentException("Theta must be between 0 and 1, but it was " + theta + ".");
+		this.theta = theta;
+		this.zipf = null;
+	}
+
+	/**
+	 * @param hotSetFraction
+	 *            - fraction of the working set that is hot in the HOTSPOT distribution
+	 * @param hotOperationFraction
+	 *            - fraction of the operations on the hot keys
+	 */
+	public void setHotspot(double hotSetFraction, double hotOperationFraction) {
+		if (hotSetFraction <= 0 || hotSetFraction > 1 || hotOperationFraction < 0 || hotOperationFraction > 1)
+			throw new IllegalArgumentException("The fractions of the hotspot must be between 0 and 1.");
+		this.hotSetFraction = hotSetFraction;
+		this.hotOperationFraction = hotOperationFraction;
+	}
+
+	public KeyDistribution getDistribution() {
+		return distribution;
+	}
+
+	public int getKeySpace() {
+		return keySpace;
+	}
+}
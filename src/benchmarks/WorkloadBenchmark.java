@@ -0,0 +1,161 @@
+package benchmarks;
+
+import java.util.ArrayList;
+
+import benchmarks.Benchmark.Type;
+import benchmarks.Workload.KeyDistribution;
+import structures.*;
+
+/**
+ * Runs a mixed Workload (like 90% finds and 10% inserts and removes, on Zipf distributed
+ * keys) on each structure, filled with the working set first. The workload is run once to
+ * warm up the JIT, once without timing each operation to measure the throughput, and
+ * once timing each operation for its latencies. The results are printed in csv format to
+ * Benchmark/workload.
+ *
+ * @author Matheus Rosa
+ *
+ */
+public class WorkloadBenchmark {
+	public final static boolean TO_FILE = true;
+
+	public static int findPercentage = 90;
+	public static int insertPercentage = 5;
+	public static KeyDistribution distribution = KeyDistribution.ZIPF;
+	public static int keySpace = 100000;
+	public static int operations = 1000000;
+	public static double theta = 0.99;
+	public static String directoryName = "workload";
+
+	/**
+	 * The throughput and the latencies of a structure on a workload.
+	 */
+	public static class Result {
+		public long throughput;
+		public final LatencyHistogram[] latencies = new LatencyHistogram[Type.values().length];
+
+		Result() {
+			for (int i = 0; i < latencies.length; i++) latencies[i] = new LatencyHistogram();
+		}
+	}
+
+	public static void main(String[] args) {
+		if (args.length > 0 && args.length != 5 && args.length != 6) {
+			System.out.println("Unexpected format! Please, use the format:\n\n"
+					+ "java WorkloadBenchmark <find-percentage> <insert-percentage> <distribution (uniform, zipf, hotspot, sequential, latest)> <key-space> <operations> [<theta>]\n\n"
+					+ "Or just \"java WorkloadBenchmark\" - for default values: 90 5 zipf 100000 1000000 0.99");
+			return;
+		} else if (args.length > 0) {
+			try {
+				findPercentage = Integer.parseInt(args[0]);
+				insertPercentage = Integer.parseInt(args[1]);
+				distribution = KeyDistribution.valueOf(args[2].toUpperCase());
+				keySpace = Integer.parseInt(args[3]);
+				operations = Integer.parseInt(args[4]);
+				if (args.length == 6) theta = Double.parseDouble(args[5]);
+			} catch (NumberFormatException e) {
+				System.out.println("The input arguments are not numbers.");
+				System.exit(1);
+			} catch (IllegalArgumentException e) {
+				System.out.println("Unknown distribution: " + args[2]);
+				System.exit(1);
+			}
+		}
+
+		ArrayList<String> labels = new ArrayList<>();
+		ArrayList<DynamicSet<Integer>> sets = new ArrayList<>();
+		labels.add("SimpleBST");
+		sets.add(new SimpleBST<Integer>());
+		labels.add("AVLTree");
+		sets.add(new AVLTree<Integer>());
+		labels.add("ArrayAVLTree");
+		sets.add(new ArrayAVLTree<Integer>());
+		labels.add("RedBlackTree");
+		sets.add(new RedBlackTree<Integer>());
+		labels.add("SplayTree");
+		sets.add(new SplayTree<Integer>());
+		labels.add("ScapegoatTree 0.5");
+		sets.add(new ScapegoatTree<Integer>(0.5));
+		labels.add("ScapegoatTree 0.95");
+		sets.add(new ScapegoatTree<Integer>(0.95));
+		labels.add("Treap");
+		sets.add(new Treap<Integer>());
+		labels.add("SkipList");
+		sets.add(new SkipList<Integer>());
+
+		ArrayList<Result> results = new ArrayList<>();
+		for (int i = 0; i < sets.size(); i++) {
+			System.out.println("Testing: " + labels.get(i));
+			// the same workload for every structure
+			Workload workload = new Workload(findPercentage, insertPercentage, distribution, keySpace, 42);
+			if (distribution == KeyDistribution.ZIPF || distribution == KeyDistribution.LATEST) workload.setTheta(theta);
+			results.add(run(sets.get(i), workload, operations));
+		}
+
+		Print2CSV export = new Print2CSV(directoryName, distribution.name().toLowerCase() + "-" + findPercentage + "-"
+				+ insertPercentage + "-" + keySpace + ".csv");
+		export.workload2CSVFormat(labels, results, TO_FILE);
+	}
+
+	/**
+	 * Fills a set with the working set of a workload and runs it.
+	 *
+	 * @param set
+	 *            - to be tested, empty
+	 * @param workload
+	 *            - to run on the set
+	 * @param operations
+	 *            - number of operations of each run (warm up, throughput and latencies)
+	 * @return - the throughput in operations per second and the latencies of each Type
+	 */
+	public static Result run(DynamicSet<Integer> set, Workload workload, int operations) {
+		for (int key : workload.initialKeys()) set.insert(key);
+		Result result = new Result();
+
+		runUntimed(set, workload.generate(operations));
+
+		Workload.Operations stream = workload.generate(operations);
+		long start = System.nanoTime();
+		runUntimed(set, stream);
+		long elapsed = Math.max(1, System.nanoTime() - start);
+		result.throughput = operations * 1000000000L / elapsed;
+
+		stream = workload.generate(operations);
+		for (int i = 0; i < operations; i++) {
+			Integer key = stream.keys[i];
+			long opStart;
+			switch (stream.types[i]) {
+			case FIND:
+				opStart = System.nanoTime();
+				set.find(key);
+				result.latencies[Type.FIND.ordinal()].record(System.nanoTime() - opStart);
+				break;
+			case INSERT:
+				opStart = System.nanoTime();
+				set.insert(key);
+				result.latencies[Type.INSERT.ordinal()].record(System.nanoTime() - opStart);
+				break;
+			default:
+				opStart = System.nanoTime();
+				set.remove(key);
+				result.latencies[Type.REMOVE.ordinal()].record(System.nanoTime() - opStart);
+			}
+		}
+		return result;
+	}
+
+	private static void runUntimed(DynamicSet<Integer> set, Workload.Operations stream) {
+		for (int i = 0; i < stream.types.length; i++) {
+			switch (stream.types[i]) {
+			case FIND:
+				set.find(stream.keys[i]);
+				break;
+			case INSERT:
+				set.insert(stream.keys[i]);
+				break;
+			default:
+				set.remove(stream.keys[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,308 @@
+package graphviz;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The nodes, edges and attributes of a graph in the dot language, as written by the
+ * toDotString methods of the structures. Only the part of the language that they use is
+ * read: node and edge statements (with ports), attribute lists (with quoted and HTML
+ * values), default node attributes, graph attributes and subgraphs, whose statements
+ * are read as if they were at the top level.
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ */
+public final class DotGraph {
+
+	/**
+	 * A node and its attributes (the default node attributes included).
+	 */
+	public static final class Node {
+		private final String id;
+		private final Map<String, String> attributes = new HashMap<String, String>();
+
+		private Node(String id, Map<String, String> defaults) {
+			this.id = id;
+			this.attributes.putAll(defaults);
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		/**
+		 * @return The value of the attribute, or null if it was not given.
+		 */
+		public String getAttribute(String name) {
+			return attributes.get(name);
+		}
+
+		/**
+		 * @return The label of the node, which is its id if no label was given.
+		 */
+		public String getLabel() {
+			String label = attributes.get("label");
+			return label != null ? label : id;
+		}
+	}
+
+	/**
+	 * An edge between two nodes, with the ports of the record fields (null if there are none).
+	 */
+	public static final class Edge {
+		private final Node from;
+		private final String fromPort;
+		private final Node to;
+		private final String toPort;
+
+		private Edge(Node from, String fromPort, Node to, String toPort) {
+			this.from = from;
+			this.fromPort = fromPort;
+			this.to = to;
+			this.toPort = toPort;
+		}
+
+		public Node getFrom() {
+			return from;
+		}
+
+		public String getFromPort() {
+			return fromPort;
+		}
+
+		public Node getTo() {
+			return to;
+		}
+
+		public String getToPort() {
+			return toPort;
+		}
+	}
+
+	private final Map<String, Node> nodes = new LinkedHashMap<String, Node>();
+	private final List<Edge> edges = new ArrayList<Edge>();
+	private final Map<String, String> graphAttributes = new HashMap<String, String>();
+	private final Map<String, String> nodeDefaults = new HashMap<String, String>();
+
+	// parser state
+	private final String source;
+	private int pos;
+	private String token; // current token, null at the end of the source
+	private boolean quoted; // whether the current token is an id that was quoted or in <>
+
+	private DotGraph(String source) {
+		this.source = source;
+	}
+
+	/**
+	 * Reads a graph in the dot language.
+	 *
+	 * @param source Source of the graph.
+	 * @return The graph.
+	 * @throws IllegalArgumentException If the source is not a graph in the supported part of the language.
+	 */
+	public static DotGraph parse(String source) {
+		DotGraph graph = new DotGraph(source);
+		graph.next();
+		if (graph.isKeyword("strict")) graph.next();
+		if (!graph.isKeyword("digraph") && !graph.isKeyword("graph")) throw graph.error("Expected digraph");
+		graph.next();
+		if (!graph.isSymbol("{")) graph.next(); // name of the graph
+		graph.expect("{");
+		graph.statements();
+		graph.expect("}");
+		return graph;
+	}
+
+	/**
+	 * @return The nodes, in the order of their first appearance.
+	 */
+	public List<Node> getNodes() {
+		return Collections.unmodifiableList(new ArrayList<Node>(nodes.values()));
+	}
+
+	/**
+	 * @return The node with the given id, or null if there is none.
+	 */
+	public Node getNode(String id) {
+		return nodes.get(id);
+	}
+
+	/**
+	 * @return The edges, in the order they were given.
+	 */
+	public List<Edge> getEdges() {
+		return Collections.unmodifiableList(edges);
+	}
+
+	/**
+	 * @return The value of the graph attribute, or null if it was not given.
+	 */
+	public String getAttribute(String name) {
+		return graphAttributes.get(name);
+	}
+
+	private void statements() {
+		while (token != null && !isSymbol("}")) {
+			if (isSymbol(";")) {
+				next();
+			} else if (isSymbol("{")) {
+				next();
+				statements();
+				expect("}");
+			} else if (isKeyword("subgraph")) {
+				next();
+				if (!isSymbol("{")) next();
+			} else if (isKeyword("graph") || isKeyword("node") || isKeyword("edge")) {
+				String kind = token;
+				next();
+				Map<String, String> attributes = new HashMap<String, String>();
+				attributeList(attributes);
+				if (kind.equals("graph")) graphAttributes.putAll(attributes);
+				else if (kind.equals("node")) nodeDefaults.putAll(attributes);
+			} else {
+				nodeOrEdgeStatement();
+			}
+		}
+	}
+
+	private void nodeOrEdgeStatement() {
+		String id = id();
+		if (isSymbol("=")) {
+			// graph attribute, like rank=same inside a subgraph
+			next();
+			graphAttributes.put(id, id());
+			return;
+		}
+		String port = port();
+		Node node = getOrAddNode(id);
+		List<Edge> newEdges = new ArrayList<Edge>();
+		while (isSymbol("->") || isSymbol("--")) {
+			next();
+			Node to = getOrAddNode(id());
+			String toPort = port();
+			newEdges.add(new Edge(node, port, to, toPort));
+			node = to;
+			port = toPort;
+		}
+		if (newEdges.isEmpty()) {
+			attributeList(node.attributes);
+		} else {
+			attributeList(new HashMap<String, String>()); // edge attributes are not used
+			edges.addAll(newEdges);
+		}
+	}
+
+	private String port() {
+		if (!isSymbol(":")) return null;
+		next();
+		return id();
+	}
+
+	private void attributeList(Map<String, String> attributes) {
+		while (isSymbol("[")) {
+			next();
+			while (!isSymbol("]")) {
+				String name = id();
+				expect("=");
+				attributes.put(name, id());
+				if (isSymbol(",") || isSymbol(";")) next();
+			}
+			next();
+		}
+	}
+
+	private Node getOrAddNode(String id) {
+		Node node = nodes.get(id);
+		if (node == null) {
+			node = new Node(id, nodeDefaults);
+			nodes.put(id, node);
+		}
+		return node;
+	}
+
+	private String id() {
+		if (token == null || (!quoted && isSymbolToken(token))) throw error("Expected an id");
+		String id = token;
+		next();
+		return id;
+	}
+
+	private void expect(String symbol) {
+		if (!isSymbol(symbol)) throw error("Expected " + symbol);
+		next();
+	}
+
+	private boolean isSymbol(String symbol) {
+		return !quoted && symbol.equals(token);
+	}
+
+	private boolean isKeyword(String keyword) {
+		return !quoted && keyword.equalsIgnoreCase(token);
+	}
+
+	private static boolean isSymbolToken(String token) {
+		return token.equals("{") || token.equals("}") || token.equals("[") || token.equals("]") || token.equals("=")
+				|| token.equals(";") || token.equals(",") || token.equals(":") || token.equals("->") || token.equals("--");
+	}
+
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(message + " at position " + pos + " of the dot source, found " + token + ".");
+	}
+
+	/**
+	 * Reads the next token: a symbol, a bare id, a quoted id (without the quotes) or an
+	 * HTML id (without the outer angle brackets).
+	 */
+	private void next() {
+		while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) pos++;
+		quoted = false;
+		if (pos == source.length()) {
+			token = null;
+			return;
+		}
+		char c = source.charAt(pos);
+		if (source.startsWith("->", pos) || source.startsWith("--", pos)) {
+			token = source.substring(pos, pos + 2);
+			pos += 2;
+		} else if ("{}[]=;,:".indexOf(c) >= 0) {
+			token = String.valueOf(c);
+			pos++;
+		} else if (c == '"') {
+			StringBuilder id = new StringBuilder();
+			pos++;
+			while (pos < source.length() && source.charAt(pos) != '"') {
+				if (source.charAt(pos) == '\\' && pos + 1 < source.length() && source.charAt(pos + 1) == '"') pos++;
+				id.append(source.charAt(pos++));
+			}
+			if (pos == source.length()) throw error("Unterminated string");
+			pos++;
+			token = id.toString();
+			quoted = true;
+		} else if (c == '<') {
+			int depth = 0;
+			int start = pos;
+			do {
+				if (source.charAt(pos) == '<') depth++;
+				else if (source.charAt(pos) == '>') depth--;
+				pos++;
+			} while (depth > 0 && pos < source.length());
+			if (depth > 0) throw error("Unterminated HTML label");
+			token = source.substring(start + 1, pos - 1);
+			quoted = true;
+		} else {
+			int start = pos;
+			// a minus sign only starts an id when it is not an edge operator, as in -5->3
+			if (c == '-') pos++;
+			while (pos < source.length() && (Character.isLetterOrDigit(source.charAt(pos)) || source.charAt(pos) == '_'
+					|| source.charAt(pos) == '.')) pos++;
+			if (pos == start || (pos == start + 1 && c == '-')) throw error("Unexpected character " + c);
+			token = source.substring(start, pos);
+		}
+	}
+}
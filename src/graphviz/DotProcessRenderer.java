@@ -0,0 +1,220 @@
+package graphviz;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renderer that keeps one dot process running and sends it every graph, so the startup
+ * of dot is paid once and not on every drawing. dot reads the graphs from its standard
+ * input one after the other and writes a PNG image for each one; since PNG files end
+ * with an IEND chunk, the images can be told apart in its standard output. If the
+ * process dies, it is started again on the next drawing.
+ *
+ * This relies on dot drawing each graph as soon as it has read it. Every drawing has a
+ * deadline, after which the process is killed: if dot didn't write the image in time, the
+ * renderer stops sending it several graphs and starts one process per graph instead,
+ * whose image ends with its output.
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ */
+public class DotProcessRenderer implements GraphRenderer<byte[]> {
+
+	public static final long DEFAULT_TIMEOUT_MILLIS = 10000;
+
+	private static final byte[] PNG_SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n' };
+	private static final int IEND = ('I' << 24) | ('E' << 16) | ('N' << 8) | 'D';
+
+	// kills the processes that miss their deadline
+	private static final ScheduledThreadPoolExecutor WATCHDOG = new ScheduledThreadPoolExecutor(1, r -> {
+		Thread thread = new Thread(r, "dot-watchdog");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	static {
+		WATCHDOG.setRemoveOnCancelPolicy(true);
+	}
+
+	private final String executable;
+	private final String representationType;
+	private final int dpi;
+	private final long timeoutMillis;
+
+	private volatile Process process;
+	private OutputStream in;
+	private DataInputStream out;
+	private volatile boolean timedOut;
+	private boolean processPerGraph;
+
+	/**
+	 * @param executable Path to the dot executable.
+	 * @param representationType Layout engine, like dot or neato.
+	 * @param dpi Resolution of the images.
+	 */
+	public DotProcessRenderer(String executable, String representationType, int dpi) {
+		this(executable, representationType, dpi, DEFAULT_TIMEOUT_MILLIS);
+	}
+
+	/**
+	 * @param executable Path to the dot executable.
+	 * @param representationType Layout engine, like dot or neato.
+	 * @param dpi Resolution of the images.
+	 * @param timeoutMillis Time dot has to draw a graph before it is killed.
+	 */
+	public DotProcessRenderer(String executable, String representationType, int dpi, long timeoutMillis) {
+		if (timeoutMillis <= 0) throw new IllegalArgumentException("The timeout must be positive.");
+		this.executable = executable;
+		this.representationType = representationType;
+		this.dpi = dpi;
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * @return The bytes of the PNG image of the graph.
+	 * @throws IOException If dot failed, or didn't draw the graph before the deadline.
+	 */
+	@Override
+	public byte[] render(String dotSource) throws IOException {
+		if (!processPerGraph) {
+			if (process == null || !process.isAlive()) start();
+			try {
+				return beforeDeadline(() -> {
+					in.write(dotSource.getBytes(StandardCharsets.UTF_8));
+					in.write('\n');
+					in.flush();
+					return readPng();
+				});
+			} catch (IOException e) {
+				// the process is in an unknown state, so the next drawing starts a new one
+				stop();
+				if (!timedOut) throw e;
+				// dot is waiting for more input before writing the image
+				processPerGraph = true;
+			}
+		}
+		start();
+		try {
+			return beforeDeadline(() -> {
+				// dot reads the whole graph before writing anything, so this can't block on a full pipe
+				in.write(dotSource.getBytes(StandardCharsets.UTF_8));
+				in.close();
+				return readPng();
+			});
+		} finally {
+			stop();
+		}
+	}
+
+	private interface Drawing {
+		byte[] draw() throws IOException;
+	}
+
+	/**
+	 * Runs a drawing, killing the process if it isn't done within the timeout.
+	 *
+	 * @throws IOException If the drawing failed or the process was killed.
+	 */
+	private byte[] beforeDeadline(Drawing drawing) throws IOException {
+		Process current = process;
+		timedOut = false;
+		ScheduledFuture<?> deadline = WATCHDOG.schedule(() -> {
+			timedOut = true;
+			current.destroyForcibly();
+		}, timeoutMillis, TimeUnit.MILLISECONDS);
+		try {
+			return drawing.draw();
+		} catch (IOException e) {
+			if (timedOut) throw new IOException(executable + " did not draw the graph in " + timeoutMillis + " ms.", e);
+			throw e;
+		} finally {
+			deadline.cancel(false);
+		}
+	}
+
+	private void start() throws IOException {
+		stop();
+		ProcessBuilder builder = new ProcessBuilder(executable, "-Tpng", "-K" + representationType, "-Gdpi=" + dpi);
+		builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+		process = builder.start();
+		in = process.getOutputStream();
+		out = new DataInputStream(process.getInputStream());
+	}
+
+	/**
+	 * Reads one PNG image from the output of dot: the signature and then every chunk
+	 * (length, type, data and CRC) up to the IEND chunk.
+	 */
+	private byte[] readPng() throws IOException {
+		byte[] signature = new byte[PNG_SIGNATURE.length];
+		out.readFully(signature);
+		if (!Arrays.equals(signature, PNG_SIGNATURE)) throw new IOException(executable + " did not write a PNG image.");
+		ByteArrayOutputStream image = new ByteArrayOutputStream(64 * 1024);
+		image.write(signature);
+		byte[] buffer = new byte[8192];
+		int type;
+		do {
+			int length = out.readInt();
+			type = out.readInt();
+			if (length < 0) throw new IOException("Invalid PNG chunk length " + length + ".");
+			writeInt(image, length);
+			writeInt(image, type);
+			for (long left = length + 4L; left > 0;) { // data and CRC
+				int n = out.read(buffer, 0, (int) Math.min(buffer.length, left));
+				if (n < 0) throw new EOFException(executable + " stopped in the middle of an image.");
+				image.write(buffer, 0, n);
+				left -= n;
+			}
+		} while (type != IEND);
+		return image.toByteArray();
+	}
+
+	private static void writeInt(ByteArrayOutputStream stream, int value) {
+		stream.write(value >>> 24);
+		stream.write(value >>> 16);
+		stream.write(value >>> 8);
+		stream.write(value);
+	}
+
+	private void stop() {
+		if (process == null) return;
+		try {
+			in.close();
+			out.close();
+			if (!process.waitFor(1, TimeUnit.SECONDS)) process.destroyForcibly();
+		} catch (IOException e) {
+			process.destroyForcibly();
+		} catch (InterruptedException e) {
+			process.destroyForcibly();
+			Thread.currentThread().interrupt();
+		}
+		process = null;
+		in = null;
+		out = null;
+	}
+
+	/**
+	 * Kills the dot process, so a drawing in progress fails.
+	 */
+	@Override
+	public void cancel() {
+		Process current = process;
+		if (current != null) current.destroyForcibly();
+	}
+
+	/**
+	 * Ends the dot process.
+	 */
+	@Override
+	public void close() {
+		stop();
+	}
+}
@@ -0,0 +1,41 @@
+package graphviz;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Something that draws graphs given in the dot language, and that may keep resources
+ * (like a dot process) between drawings. A renderer is used by one thread at a time,
+ * except for cancel.
+ *
+ * @param <T> Type of the drawings, like the bytes of an image.
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ */
+public interface GraphRenderer<T> extends Closeable {
+
+	/**
+	 * Draws a graph.
+	 *
+	 * @param dotSource Source of the graph, in the dot language.
+	 * @return The drawing of the graph.
+	 * @throws IOException If the graph could not be drawn.
+	 */
+	T render(String dotSource) throws IOException;
+
+	/**
+	 * Makes a drawing in progress end as soon as possible, like by killing the process that
+	 * draws it. It is called by another thread than the one drawing. The default
+	 * implementation does nothing.
+	 */
+	default void cancel() {
+	}
+
+	/**
+	 * Releases the resources of the renderer. The default implementation does nothing.
+	 */
+	@Override
+	default void close() throws IOException {
+	}
+}
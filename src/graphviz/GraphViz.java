@@ -30,8 +30,11 @@ import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 
 /**
  * <dl>
@@ -121,56 +124,42 @@ public class GraphViz
      */
     private StringBuilder graph = new StringBuilder();
 
-    private String tempDir;
-
     private String executable;
 
     /**
-     * Convenience Constructor with default OS specific pathes
-     * creates a new GraphViz object that will contain a graph.
+     * Convenience Constructor with the default path to the executable,
+     * graphviz/bin/dot.exe in the working directory.
+     * Other usual paths are:
      * Windows:
      * executable = c:/Program Files (x86)/Graphviz 2.28/bin/dot.exe
-     * tempDir = c:/temp
      * MacOs:
      * executable = /usr/local/bin/dot
-     * tempDir = /tmp
      * Linux:
      * executable = /usr/bin/dot
-     * tempDir = /tmp
      */
-    public GraphViz() {    	
-    	this.tempDir = System.getProperty("user.dir") + System.getProperty("file.separator") + "temp";
+    public GraphViz() {
         this.executable = System.getProperty("user.dir") + System.getProperty("file.separator") + "graphviz" + System.getProperty("file.separator") + "bin" + System.getProperty("file.separator") + "dot.exe";
-        
-        File dir = new File(this.tempDir);
-        if(!dir.exists())
-        {
-        	dir.mkdir();
-        }
-       
-    	/*
-        if (GraphViz.osName.contains("Windows")) {
-            this.tempDir = "c:/temp";
-            this.executable = "c:/Program Files (x86)/Graphviz-2.38/bin/dot.exe";
-        } else if (GraphViz.osName.equals("MacOSX")) {
-            this.tempDir = "/tmp";
-            this.executable = "/usr/local/bin/dot";
-        } else if (GraphViz.osName.equals("Linux")) {
-            this.tempDir = "/tmp";
-            this.executable = "/usr/bin/dot";
-        }
-        */
+    }
+
+    /**
+     * Configurable Constructor with path to executable dot
+     *
+     * @param executable absolute path to dot executable
+     */
+    public GraphViz(String executable) {
+        this.executable = executable;
     }
 
     /**
      * Configurable Constructor with path to executable dot and a temp dir
      *
      * @param executable absolute path to dot executable
-     * @param tempDir absolute path to temp directory
+     * @param tempDir not used anymore, since the graph is piped to dot
+     * @deprecated Use {@link #GraphViz(String)}, no temporary files are written.
      */
+    @Deprecated
     public GraphViz(String executable, String tempDir) {
-        this.executable = executable;
-        this.tempDir = tempDir;
+        this(executable);
     }
 
     /**
@@ -224,21 +213,23 @@ public class GraphViz
      */
     public byte[] getGraph(String dot_source, String type, String representationType)
     {
-        File dot;
-        byte[] img_stream = null;
+        return get_img_stream(dot_source, type, representationType);
+    }
 
-        try {
-            dot = writeDotSourceToFile(dot_source);
-            if (dot != null)
-            {
-                img_stream = get_img_stream(dot, type, representationType);
-                if (dot.delete() == false) {
-                    System.err.println("Warning: " + dot.getAbsolutePath() + " could not be deleted!");
-                }
-                return img_stream;
-            }
-            return null;
-        } catch (java.io.IOException ioe) { return null; }
+    /**
+     * Starts a pool of dot processes that stay alive between graphs, so the
+     * startup of dot is paid once per worker and not on every graph. The workers
+     * use the executable and the current dpi of this object and draw PNG images.
+     * The service must be closed to end the processes.
+     * @param workers Number of dot processes.
+     * @param representationType Type of how you want to represent the graph, e.g.: dot, neato.
+     * @return The service, whose futures give the bytes of the PNG images.
+     */
+    public RenderService<byte[]> startRenderService(int workers, String representationType)
+    {
+        final String executable = this.executable;
+        final int dpi = getImageDpi();
+        return new RenderService<byte[]>(workers, () -> new DotProcessRenderer(executable, representationType, dpi));
     }
 
     /**
@@ -271,8 +262,9 @@ public class GraphViz
 
     /**
      * It will call the external dot program, and return the image in
-     * binary format.
-     * @param dot Source of the graph (in dot language).
+     * binary format. The source is piped to the standard input of dot and the
+     * image is read from its standard output, so no temporary files are used.
+     * @param dot_source Source of the graph (in dot language).
      * @param type Type of the output image to be produced, e.g.: gif, dot, fig, pdf, ps, svg, png.
      * @param representationType Type of how you want to represent the graph:
      * <ul>
@@ -284,69 +276,60 @@ public class GraphViz
      * 	<li>circo</li>
      * </ul>
      * @see http://www.graphviz.org under the Roadmap title
-     * @return The image of the graph in .gif format.
+     * @return The image of the graph, or null if dot could not produce it.
      */
-    private byte[] get_img_stream(File dot, String type, String representationType)
+    private byte[] get_img_stream(final String dot_source, String type, String representationType)
     {
-        File img;
-        byte[] img_stream = null;
+        // patch by Mike Chenault
+        // representation type with -K argument by Olivier Duplouy
+        ProcessBuilder builder = new ProcessBuilder(executable, "-T" + type, "-K" + representationType, "-Gdpi=" + dpiSizes[this.currentDpiPos]);
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
 
         try {
-            img = File.createTempFile("graph_", "." + type, new File(this.tempDir));
-            Runtime rt = Runtime.getRuntime();
-
-            // patch by Mike Chenault
-            // representation type with -K argument by Olivier Duplouy
-            String[] args = { executable, "-T" + type, "-K" + representationType, "-Gdpi=" + dpiSizes[this.currentDpiPos], dot.getAbsolutePath(), "-o", img.getAbsolutePath() };
-            Process p = rt.exec(args);
-            p.waitFor();
-
-            FileInputStream in = new FileInputStream(img.getAbsolutePath());
-            img_stream = new byte[in.available()];
-            in.read(img_stream);
-            // Close it if we need to
-            if( in != null ) {
-                in.close();
+            final Process p = builder.start();
+
+            // the source is written by another thread, so that neither process
+            // blocks on a full pipe while the other one is waiting for it
+            final IOException[] writeError = new IOException[1];
+            Thread writer = new Thread(new Runnable() {
+                public void run() {
+                    try (OutputStream out = p.getOutputStream()) {
+                        out.write(dot_source.getBytes(StandardCharsets.UTF_8));
+                    } catch (IOException ioe) {
+                        writeError[0] = ioe;
+                    }
+                }
+            }, "dot-source-writer");
+            writer.setDaemon(true);
+            writer.start();
+
+            byte[] img_stream;
+            try (InputStream in = p.getInputStream()) {
+                img_stream = in.readAllBytes();
             }
+            writer.join();
+            int exitCode = p.waitFor();
 
-            if (img.delete() == false) {
-                System.err.println("Warning: " + img.getAbsolutePath() + " could not be deleted!");
+            if (exitCode != 0) {
+                System.err.println("Error: " + executable + " exited with code " + exitCode);
+                return null;
+            }
+            if (writeError[0] != null) {
+                throw writeError[0];
             }
+            return img_stream;
         }
         catch (java.io.IOException ioe) {
-            System.err.println("Error:    in I/O processing of tempfile in dir " + tempDir + "\n");
-            System.err.println("       or in calling external command");
+            System.err.println("Error: in calling external command " + executable);
             ioe.printStackTrace();
         }
         catch (java.lang.InterruptedException ie) {
             System.err.println("Error: the execution of the external program was interrupted");
             ie.printStackTrace();
+            Thread.currentThread().interrupt();
         }
 
-        return img_stream;
-    }
-
-    /**
-     * Writes the source of the graph in a file, and returns the written file
-     * as a File object.
-     * @param str Source of the graph (in dot language).
-     * @return The file (as a File object) that contains the source of the graph.
-     */
-    private File writeDotSourceToFile(String str) throws java.io.IOException
-    {
-        File temp;
-        try {
-            temp = File.createTempFile("graph_", ".dot.tmp", new File(tempDir));
-            FileWriter fout = new FileWriter(temp);
-            fout.write(str);
-            fout.close();
-        }
-        catch (Exception e) {
-        	System.err.println(e.getMessage());
-            System.err.println("Error: I/O error while writing the dot source to temp file!");
-            return null;
-        }
-        return temp;
+        return null;
     }
 
     /**
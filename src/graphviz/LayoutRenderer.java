@@ -0,0 +1,259 @@
+package graphviz;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Draws the graphs written by the structures in the dot language, in-process and without
+ * temporary files: the graph is read by DotGraph, laid out by TreeLayout and painted with
+ * Java2D. It supports the shapes and attributes that the structures use (circle,
+ * doublecircle, triangle, octagon, point and record shapes, filled styles, fill and font
+ * colors by name, HSV or RGB, dashed styles, pen widths, polygon orientation and multi-line
+ * HTML labels).
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ */
+public final class LayoutRenderer {
+
+	/**
+	 * Largest image that render creates, in pixels. Larger drawings are scaled down to fit.
+	 */
+	public static final long MAX_PIXELS = 1L << 25;
+	private static final int MAX_SIDE = 32767;
+	private static final double ARROW_LENGTH = 10;
+	private static final double ARROW_WIDTH = 7;
+
+	private static final Map<String, Color> COLORS = new HashMap<String, Color>();
+	static {
+		COLORS.put("black", Color.BLACK);
+		COLORS.put("white", Color.WHITE);
+		COLORS.put("red", Color.RED);
+		COLORS.put("green", Color.GREEN);
+		COLORS.put("blue", Color.BLUE);
+		COLORS.put("yellow", Color.YELLOW);
+		COLORS.put("orange", Color.ORANGE);
+		COLORS.put("gray", Color.GRAY);
+		COLORS.put("grey", Color.GRAY);
+		COLORS.put("lightgray", Color.LIGHT_GRAY);
+		COLORS.put("lightgrey", Color.LIGHT_GRAY);
+	}
+
+	private LayoutRenderer() {
+	}
+
+	/**
+	 * Draws a graph in a new image.
+	 *
+	 * @param dotSource Source of the graph, in the dot language.
+	 * @param dpi Resolution of the image (72 draws one pixel per point).
+	 * @return The image of the graph.
+	 */
+	public static BufferedImage render(String dotSource, int dpi) {
+		TreeLayout layout = TreeLayout.of(DotGraph.parse(dotSource));
+		double scale = dpi / 72.0;
+		double pixels = layout.getWidth() * layout.getHeight() * scale * scale;
+		if (pixels > MAX_PIXELS) scale *= Math.sqrt(MAX_PIXELS / pixels);
+		scale = Math.min(scale, MAX_SIDE / Math.max(layout.getWidth(), layout.getHeight()));
+
+		int width = Math.max(1, (int) Math.ceil(layout.getWidth() * scale));
+		int height = Math.max(1, (int) Math.ceil(layout.getHeight() * scale));
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = image.createGraphics();
+		try {
+			g.setColor(Color.WHITE);
+			g.fillRect(0, 0, width, height);
+			g.scale(scale, scale);
+			paint(g, layout);
+		} finally {
+			g.dispose();
+		}
+		return image;
+	}
+
+	/**
+	 * Paints a layout, in points, on a graphics context. Only the nodes and edges that
+	 * intersect the clip of the context are painted, so painting the visible part of a
+	 * large graph is cheap.
+	 */
+	public static void paint(Graphics2D g, TreeLayout layout) {
+		g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		Rectangle2D clip = g.getClipBounds();
+		if (clip != null) {
+			// room for the line widths and the arrowheads
+			clip = new Rectangle2D.Double(clip.getX() - ARROW_LENGTH, clip.getY() - ARROW_LENGTH,
+					clip.getWidth() + 2 * ARROW_LENGTH, clip.getHeight() + 2 * ARROW_LENGTH);
+		}
+		g.setStroke(new BasicStroke(1));
+		for (DotGraph.Edge edge : layout.getGraph().getEdges()) {
+			TreeLayout.Box from = layout.getBox(edge.getFrom());
+			TreeLayout.Box to = layout.getBox(edge.getTo());
+			if (clip == null || clip.intersects(bounds(from).createUnion(bounds(to)))) paintEdge(g, layout, edge);
+		}
+		for (DotGraph.Node node : layout.getGraph().getNodes()) {
+			TreeLayout.Box box = layout.getBox(node);
+			if (clip == null || clip.intersects(bounds(box))) paintNode(g, box);
+		}
+	}
+
+	private static Rectangle2D bounds(TreeLayout.Box box) {
+		return new Rectangle2D.Double(box.getX() - box.getWidth() / 2, box.getY() - box.getHeight() / 2, box.getWidth(),
+				box.getHeight());
+	}
+
+	private static void paintEdge(Graphics2D g, TreeLayout layout, DotGraph.Edge edge) {
+		TreeLayout.Box from = layout.getBox(edge.getFrom());
+		TreeLayout.Box to = layout.getBox(edge.getTo());
+		double x1, y1, x2, y2;
+		if (from.getFieldCount() > 0 || to.getFieldCount() > 0) {
+			// records are laid out left to right, and the edges go between fields
+			x1 = from.getX() + from.getWidth() / 2;
+			y1 = from.getFieldY(edge.getFromPort());
+			x2 = to.getX() - to.getWidth() / 2;
+			y2 = to.getFieldY(edge.getToPort());
+		} else {
+			double dx = to.getX() - from.getX();
+			double dy = to.getY() - from.getY();
+			double length = Math.max(Math.hypot(dx, dy), 1e-9);
+			x1 = from.getX() + dx / length * from.getHeight() / 2;
+			y1 = from.getY() + dy / length * from.getHeight() / 2;
+			x2 = to.getX() - dx / length * to.getHeight() / 2;
+			y2 = to.getY() - dy / length * to.getHeight() / 2;
+		}
+		g.setColor(Color.BLACK);
+		double angle = Math.atan2(y2 - y1, x2 - x1);
+		g.draw(new Line2D.Double(x1, y1, x2 - Math.cos(angle) * ARROW_LENGTH, y2 - Math.sin(angle) * ARROW_LENGTH));
+		Path2D.Double arrow = new Path2D.Double();
+		arrow.moveTo(0, 0);
+		arrow.lineTo(-ARROW_LENGTH, -ARROW_WIDTH / 2);
+		arrow.lineTo(-ARROW_LENGTH, ARROW_WIDTH / 2);
+		arrow.closePath();
+		AffineTransform transform = AffineTransform.getTranslateInstance(x2, y2);
+		transform.rotate(angle);
+		g.fill(transform.createTransformedShape(arrow));
+	}
+
+	private static void paintNode(Graphics2D g, TreeLayout.Box box) {
+		DotGraph.Node node = box.getNode();
+		String shapeName = node.getAttribute("shape");
+		double x = box.getX(), y = box.getY(), w = box.getWidth(), h = box.getHeight();
+
+		if ("point".equals(shapeName)) {
+			g.setColor(Color.BLACK);
+			g.fill(new Ellipse2D.Double(x - w / 2, y - h / 2, w, h));
+			return;
+		}
+
+		Color fontColor = parseColor(node.getAttribute("fontcolor"), Color.BLACK);
+		if (box.getFieldCount() > 0) {
+			for (int i = 0; i < box.getFieldCount(); i++) {
+				double fieldY = box.getFieldY(i);
+				Rectangle2D.Double field = new Rectangle2D.Double(x - w / 2, fieldY - (h / box.getFieldCount()) / 2, w,
+						h / box.getFieldCount());
+				g.setColor(Color.BLACK);
+				g.draw(field);
+				g.setColor(fontColor);
+				drawCentered(g, new String[] { box.getFieldLabel(i) }, x, fieldY);
+			}
+			return;
+		}
+
+		Shape shape = nodeShape(shapeName, x, y, w, h, parseDouble(node.getAttribute("orientation")));
+		String style = node.getAttribute("style");
+		if (style != null && style.contains("filled")) {
+			g.setColor(parseColor(node.getAttribute("fillcolor"), Color.LIGHT_GRAY));
+			g.fill(shape);
+		}
+		g.setColor(Color.BLACK);
+		Stroke stroke = g.getStroke();
+		float penWidth = node.getAttribute("penwidth") != null ? (float) parseDouble(node.getAttribute("penwidth")) : 1;
+		if (style != null && style.contains("dashed"))
+			g.setStroke(new BasicStroke(penWidth, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10, new float[] { 5, 3 }, 0));
+		else if (penWidth != 1) g.setStroke(new BasicStroke(penWidth));
+		g.draw(shape);
+		if ("doublecircle".equals(shapeName)) g.draw(new Ellipse2D.Double(x - w / 2 + 4, y - h / 2 + 4, w - 8, h - 8));
+		g.setStroke(stroke);
+		g.setColor(fontColor);
+		// the text of a triangle goes in its wider, lower part
+		drawCentered(g, TreeLayout.labelLines(node.getLabel()), x, "triangle".equals(shapeName) ? y + h / 8 : y);
+	}
+
+	private static Shape nodeShape(String name, double x, double y, double w, double h, double orientation) {
+		if (name == null || name.equals("box") || name.equals("rect") || name.equals("rectangle"))
+			return new Rectangle2D.Double(x - w / 2, y - h / 2, w, h);
+		int sides;
+		if (name.equals("triangle")) sides = 3;
+		else if (name.equals("octagon")) sides = 8;
+		else return new Ellipse2D.Double(x - w / 2, y - h / 2, w, h);
+
+		// regular polygon with a flat base, rotated clockwise by the orientation
+		Path2D.Double polygon = new Path2D.Double();
+		double start = Math.PI / 2 + Math.PI / sides + Math.toRadians(orientation);
+		for (int i = 0; i < sides; i++) {
+			double angle = start + 2 * Math.PI * i / sides;
+			double px = x + Math.cos(angle) * w / 2;
+			double py = y + Math.sin(angle) * h / 2;
+			if (i == 0) polygon.moveTo(px, py);
+			else polygon.lineTo(px, py);
+		}
+		polygon.closePath();
+		return polygon;
+	}
+
+	/**
+	 * Draws lines of text centered on a point.
+	 */
+	private static void drawCentered(Graphics2D g, String[] lines, double x, double y) {
+		Font font = new Font(Font.SERIF, Font.PLAIN, (int) TreeLayout.FONT_SIZE);
+		g.setFont(font);
+		FontMetrics metrics = g.getFontMetrics();
+		double top = y - lines.length * metrics.getHeight() / 2.0;
+		for (int i = 0; i < lines.length; i++) {
+			double baseline = top + i * metrics.getHeight() + metrics.getAscent();
+			g.drawString(lines[i], (float) (x - metrics.stringWidth(lines[i]) / 2.0), (float) baseline);
+		}
+	}
+
+	/**
+	 * Reads a color given by name, as "#rrggbb" or as "hue saturation value" (from 0 to 1).
+	 */
+	static Color parseColor(String value, Color defaultColor) {
+		if (value == null) return defaultColor;
+		value = value.trim();
+		Color named = COLORS.get(value.toLowerCase());
+		if (named != null) return named;
+		try {
+			if (value.startsWith("#") && value.length() >= 7) return new Color(Integer.parseInt(value.substring(1, 7), 16));
+			String[] hsv = value.split("[\\s,]+");
+			if (hsv.length == 3)
+				return Color.getHSBColor(Float.parseFloat(hsv[0]), Float.parseFloat(hsv[1]), Float.parseFloat(hsv[2]));
+		} catch (NumberFormatException e) {
+			// unknown color
+		}
+		return defaultColor;
+	}
+
+	private static double parseDouble(String value) {
+		if (value == null) return 0;
+		try {
+			return Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+}
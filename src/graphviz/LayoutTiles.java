@@ -0,0 +1,166 @@
+package graphviz;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Paints a layout from square tiles rendered at a few zoom levels (a pyramid whose levels
+ * are a factor of 2^(1/4) apart) and kept in a least recently used cache, so zooming and
+ * panning only render the tiles that were not seen recently, and the memory of the cache
+ * is bounded whatever the size of the drawing. At the scale of a level (see snapScale) the
+ * tiles are copied as they are; between two levels, the tiles of the larger one are
+ * scaled down.
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ */
+public class LayoutTiles {
+
+	/**
+	 * Width and height of the tiles, in pixels.
+	 */
+	public static final int TILE_SIZE = 256;
+	private static final int LEVELS_PER_OCTAVE = 4;
+
+	private static final class TileKey {
+		final int level;
+		final int column;
+		final int row;
+
+		TileKey(int level, int column, int row) {
+			this.level = level;
+			this.column = column;
+			this.row = row;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof TileKey)) return false;
+			TileKey key = (TileKey) other;
+			return level == key.level && column == key.column && row == key.row;
+		}
+
+		@Override
+		public int hashCode() {
+			return (level * 31 + column) * 31 + row;
+		}
+	}
+
+	private final TreeLayout layout;
+	private final int maxTiles;
+	private final Map<TileKey, BufferedImage> tiles;
+	private long renderedTiles;
+
+	/**
+	 * @param layout Layout to paint.
+	 * @param maxCachedPixels Largest number of pixels of the cached tiles (at least one tile is kept).
+	 */
+	public LayoutTiles(TreeLayout layout, long maxCachedPixels) {
+		this.layout = layout;
+		this.maxTiles = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxCachedPixels / (TILE_SIZE * TILE_SIZE)));
+		this.tiles = new LinkedHashMap<TileKey, BufferedImage>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<TileKey, BufferedImage> eldest) {
+				return size() > LayoutTiles.this.maxTiles;
+			}
+		};
+	}
+
+	/**
+	 * Paints the part of the layout inside the clip of a graphics context.
+	 *
+	 * @param g Graphics context, in pixels, with the origin at the top left corner of the layout.
+	 * @param scale Pixels per point of the layout.
+	 */
+	public void paint(Graphics2D g, double scale) {
+		int level = (int) Math.ceil(LEVELS_PER_OCTAVE * Math.log(scale) / Math.log(2) - 1e-9);
+		double factor = scale / levelScale(level); // between 2^(-1/4) and 1
+
+		Rectangle clip = g.getClipBounds();
+		if (clip == null) clip = new Rectangle(0, 0, (int) Math.ceil(layout.getWidth() * scale), (int) Math.ceil(layout.getHeight() * scale));
+		// visible tiles, in the pixels of the level
+		int firstColumn = Math.max(0, (int) Math.floor(clip.x / factor / TILE_SIZE));
+		int firstRow = Math.max(0, (int) Math.floor(clip.y / factor / TILE_SIZE));
+		int lastColumn = Math.min((int) Math.ceil(layout.getWidth() * levelScale(level) / TILE_SIZE) - 1,
+				(int) Math.floor((clip.x + clip.width) / factor / TILE_SIZE));
+		int lastRow = Math.min((int) Math.ceil(layout.getHeight() * levelScale(level) / TILE_SIZE) - 1,
+				(int) Math.floor((clip.y + clip.height) / factor / TILE_SIZE));
+
+		AffineTransform transform = g.getTransform();
+		Object interpolation = g.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+		try {
+			if (factor != 1) {
+				g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+				g.scale(factor, factor);
+			}
+			for (int row = firstRow; row <= lastRow; row++) {
+				for (int column = firstColumn; column <= lastColumn; column++) {
+					g.drawImage(getTile(level, column, row), column * TILE_SIZE, row * TILE_SIZE, null);
+				}
+			}
+		} finally {
+			g.setTransform(transform);
+			if (interpolation != null) g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+		}
+	}
+
+	private static double levelScale(int level) {
+		return Math.pow(2, level / (double) LEVELS_PER_OCTAVE);
+	}
+
+	/**
+	 * @return The scale of the zoom level nearest to the given scale.
+	 */
+	public static double snapScale(double scale) {
+		return levelScale((int) Math.round(LEVELS_PER_OCTAVE * Math.log(scale) / Math.log(2)));
+	}
+
+	private BufferedImage getTile(int level, int column, int row) {
+		TileKey key = new TileKey(level, column, row);
+		BufferedImage tile = tiles.get(key);
+		if (tile == null) {
+			tile = renderTile(level, column, row);
+			tiles.put(key, tile);
+		}
+		return tile;
+	}
+
+	private BufferedImage renderTile(int level, int column, int row) {
+		renderedTiles++;
+		BufferedImage tile = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = tile.createGraphics();
+		try {
+			g.setColor(Color.WHITE);
+			g.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+			g.setClip(0, 0, TILE_SIZE, TILE_SIZE);
+			g.translate(-column * TILE_SIZE, -row * TILE_SIZE);
+			g.scale(levelScale(level), levelScale(level));
+			LayoutRenderer.paint(g, layout);
+		} finally {
+			g.dispose();
+		}
+		return tile;
+	}
+
+	/**
+	 * @return The number of tiles in the cache.
+	 */
+	public int getCachedTileCount() {
+		return tiles.size();
+	}
+
+	/**
+	 * @return The number of tiles rendered so far, counting those rendered again after being evicted.
+	 */
+	public long getRenderedTileCount() {
+		return renderedTiles;
+	}
+}
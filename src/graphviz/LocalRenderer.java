@@ -0,0 +1,27 @@
+package graphviz;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Renderer that draws graphs in-process with LayoutRenderer. It needs neither dot nor a
+ * display, so it also stands in for DotProcessRenderer in headless tests.
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ */
+public class LocalRenderer implements GraphRenderer<BufferedImage> {
+
+	private final int dpi;
+
+	/**
+	 * @param dpi Resolution of the images (72 draws one pixel per point).
+	 */
+	public LocalRenderer(int dpi) {
+		this.dpi = dpi;
+	}
+
+	@Override
+	public BufferedImage render(String dotSource) {
+		return LayoutRenderer.render(dotSource, dpi);
+	}
+}
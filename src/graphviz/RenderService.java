@@ -0,0 +1,161 @@
+package graphviz;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A pool of long-lived workers that draw graphs. Each worker owns one renderer, created
+ * when the worker starts and kept until the service is closed, so costly setups like
+ * starting a dot process are paid once per worker. Requests wait in a queue and are
+ * taken by the first free worker.
+ *
+ * @param <T> Type of the drawings.
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ */
+public class RenderService<T> implements Closeable {
+
+	private static final class Request<T> {
+		final String dotSource;
+		final CompletableFuture<T> result = new CompletableFuture<T>();
+
+		Request(String dotSource) {
+			this.dotSource = dotSource;
+		}
+	}
+
+	// tells a worker to stop
+	private static final Request<Object> STOP = new Request<Object>(null);
+
+	// time close waits for the current drawings, before and after cancelling them
+	private static final long CLOSE_TIMEOUT_MILLIS = 1000;
+
+	private final BlockingQueue<Request<?>> queue = new LinkedBlockingQueue<Request<?>>();
+	private final List<Thread> workers = new ArrayList<Thread>();
+	private final List<GraphRenderer<T>> renderers = new ArrayList<GraphRenderer<T>>();
+	private boolean closed;
+
+	/**
+	 * Starts the workers.
+	 *
+	 * @param nWorkers Number of workers.
+	 * @param rendererFactory Creates the renderer of each worker. It is called by the worker's thread.
+	 * @throws IllegalArgumentException If there are no workers.
+	 */
+	public RenderService(int nWorkers, Supplier<? extends GraphRenderer<T>> rendererFactory) {
+		if (nWorkers < 1) throw new IllegalArgumentException("There must be at least one worker.");
+		for (int i = 0; i < nWorkers; i++) {
+			Thread worker = new Thread(() -> work(rendererFactory), "render-worker-" + i);
+			worker.setDaemon(true);
+			workers.add(worker);
+			worker.start();
+		}
+	}
+
+	/**
+	 * Queues a graph to be drawn.
+	 *
+	 * @param dotSource Source of the graph, in the dot language.
+	 * @return The future drawing, which can also be used to be notified when it is done. If the
+	 *         renderer fails, getting it throws an ExecutionException.
+	 * @throws IllegalStateException If the service was closed.
+	 */
+	public synchronized CompletableFuture<T> submit(String dotSource) {
+		if (closed) throw new IllegalStateException("The render service was closed.");
+		Request<T> request = new Request<T>(dotSource);
+		queue.add(request);
+		return request.result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void work(Supplier<? extends GraphRenderer<T>> rendererFactory) {
+		GraphRenderer<T> renderer = null;
+		try {
+			while (true) {
+				Request<T> request = (Request<T>) queue.take();
+				if (request == STOP) break;
+				try {
+					if (renderer == null) {
+						renderer = rendererFactory.get();
+						synchronized (this) {
+							renderers.add(renderer);
+						}
+					}
+					request.result.complete(renderer.render(request.dotSource));
+				} catch (IOException | RuntimeException e) {
+					request.result.completeExceptionally(e);
+				}
+			}
+		} catch (InterruptedException e) {
+			// the service is being closed
+		} finally {
+			if (renderer != null) {
+				try {
+					renderer.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stops the workers after their current drawings and closes their renderers. The
+	 * requests that are still queued are cancelled, and so are the drawings that don't end
+	 * within a second. close doesn't wait more than another second for them.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (closed) return;
+			closed = true;
+			List<Request<?>> pending = new ArrayList<Request<?>>();
+			queue.drainTo(pending);
+			for (Request<?> request : pending) request.result.cancel(false);
+			for (int i = 0; i < workers.size(); i++) queue.add(STOP);
+		}
+		boolean interrupted = false;
+		try {
+			if (awaitWorkers()) return;
+		} catch (InterruptedException e) {
+			interrupted = true;
+		}
+		List<GraphRenderer<T>> busy;
+		synchronized (this) {
+			busy = new ArrayList<GraphRenderer<T>>(renderers);
+		}
+		for (GraphRenderer<T> renderer : busy) renderer.cancel();
+		for (Thread worker : workers) worker.interrupt();
+		if (!interrupted) {
+			try {
+				awaitWorkers();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Waits for the workers to end, for at most CLOSE_TIMEOUT_MILLIS.
+	 *
+	 * @return If they all ended.
+	 */
+	private boolean awaitWorkers() throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MILLIS);
+		for (Thread worker : workers) {
+			long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+			if (left > 0) worker.join(left);
+			if (worker.isAlive()) return false;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,462 @@
+package graphviz;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Positions the nodes of a graph written by the structures, in points (1/72 inch) as
+ * dot does, without calling the external dot program.
+ *
+ * Trees (graphs where every node has at most one parent) are drawn top-down with the
+ * Reingold-Tilford algorithm, in the linear time version of Buchheim, Jnger and Leipert:
+ * each subtree is drawn once, and then moved as close as possible to its left sibling,
+ * following the contours of the two subtrees. A parent is centered over its children.
+ *
+ * Other graphs, like the skip list (whose nodes are records with one field per level),
+ * are drawn left to right in a level grid: the nodes are put in columns in topological
+ * order, and the fields of each record are stacked from level 0 at the bottom.
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ */
+public final class TreeLayout {
+
+	static final double FONT_SIZE = 14;
+	static final double CHAR_WIDTH = 0.6 * FONT_SIZE; // estimate of the width of a character
+	private static final double MIN_NODE_SIZE = 36;
+	private static final double POINT_SIZE = 4;
+	private static final double RECORD_FIELD_HEIGHT = 24;
+	private static final double NODE_SEP = 18;
+	private static final double RANK_SEP = 36;
+	private static final double MARGIN = 4;
+
+	/**
+	 * The position and size of a node. For records, the fields are stacked from the
+	 * highest level (top) to level 0 (bottom).
+	 */
+	public static final class Box {
+		private final DotGraph.Node node;
+		private final String[] fieldPorts; // null if the node is not a record
+		private final String[] fieldLabels;
+		private double x; // center
+		private double y; // center
+		private double width;
+		private double height;
+
+		// Reingold-Tilford state
+		private Box parent;
+		private final List<Box> children = new ArrayList<Box>();
+		private int number; // position among the siblings, from 1
+		private double prelim, mod, shift, change;
+		private Box thread, ancestor;
+
+		/**
+		 * @param node The node (null for the virtual root of a forest).
+		 */
+		private Box(DotGraph.Node node) {
+			this.node = node;
+			this.ancestor = this;
+			if (node != null && "record".equals(node.getAttribute("shape"))) {
+				String[] fields = node.getLabel().split("\\|", -1);
+				fieldPorts = new String[fields.length];
+				fieldLabels = new String[fields.length];
+				for (int i = 0; i < fields.length; i++) {
+					String field = fields[i].trim();
+					if (field.startsWith("<") && field.indexOf('>') > 0) {
+						fieldPorts[i] = field.substring(1, field.indexOf('>')).trim();
+						field = field.substring(field.indexOf('>') + 1).trim();
+					}
+					fieldLabels[i] = field;
+				}
+			} else {
+				fieldPorts = null;
+				fieldLabels = null;
+			}
+		}
+
+		public DotGraph.Node getNode() {
+			return node;
+		}
+
+		public double getX() {
+			return x;
+		}
+
+		public double getY() {
+			return y;
+		}
+
+		public double getWidth() {
+			return width;
+		}
+
+		public double getHeight() {
+			return height;
+		}
+
+		/**
+		 * @return The number of record fields (0 if the node is not a record).
+		 */
+		public int getFieldCount() {
+			return fieldPorts != null ? fieldPorts.length : 0;
+		}
+
+		public String getFieldLabel(int i) {
+			return fieldLabels[i];
+		}
+
+		/**
+		 * @return The vertical center of the field with the given port (the node's center if there is none).
+		 */
+		public double getFieldY(String port) {
+			if (fieldPorts != null) {
+				for (int i = 0; i < fieldPorts.length; i++) {
+					if (fieldPorts[i] != null && fieldPorts[i].equals(port)) return getFieldY(i);
+				}
+			}
+			return y;
+		}
+
+		public double getFieldY(int i) {
+			return y - height / 2 + (i + 0.5) * RECORD_FIELD_HEIGHT;
+		}
+	}
+
+	private final DotGraph graph;
+	private final Map<DotGraph.Node, Box> boxes = new HashMap<DotGraph.Node, Box>();
+	private double width;
+	private double height;
+
+	private TreeLayout(DotGraph graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * Computes the layout of a graph.
+	 */
+	public static TreeLayout of(DotGraph graph) {
+		TreeLayout layout = new TreeLayout(graph);
+		for (DotGraph.Node node : graph.getNodes()) {
+			Box box = new Box(node);
+			layout.setSize(box);
+			layout.boxes.put(node, box);
+		}
+		if (!layout.linkTree()) layout.layoutGrid();
+		else layout.layoutTree();
+		layout.translate();
+		return layout;
+	}
+
+	public DotGraph getGraph() {
+		return graph;
+	}
+
+	public Box getBox(DotGraph.Node node) {
+		return boxes.get(node);
+	}
+
+	/**
+	 * @return Width of the drawing, in points.
+	 */
+	public double getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return Height of the drawing, in points.
+	 */
+	public double getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return Lines of a label, without the HTML markup (used by the treap for its priorities).
+	 */
+	static String[] labelLines(String label) {
+		String[] lines = label.split("(?i)<BR\\s*/?>|\\\\n");
+		for (int i = 0; i < lines.length; i++) {
+			lines[i] = lines[i].replaceAll("<[^>]*>", "").replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&").trim();
+		}
+		return lines;
+	}
+
+	private void setSize(Box box) {
+		String shape = box.node.getAttribute("shape");
+		if ("point".equals(shape)) {
+			box.width = box.height = POINT_SIZE;
+		} else if (box.fieldPorts != null) {
+			int maxLength = 1;
+			for (String label : box.fieldLabels) maxLength = Math.max(maxLength, label.length());
+			box.width = Math.max(MIN_NODE_SIZE / 2, maxLength * CHAR_WIDTH + 12);
+			box.height = box.fieldPorts.length * RECORD_FIELD_HEIGHT;
+		} else {
+			String[] lines = labelLines(box.node.getLabel());
+			int maxLength = 0;
+			for (String line : lines) maxLength = Math.max(maxLength, line.length());
+			if ("box".equals(shape) || "rect".equals(shape) || "rectangle".equals(shape)) {
+				box.width = Math.max(MIN_NODE_SIZE, maxLength * CHAR_WIDTH + 16);
+				box.height = Math.max(MIN_NODE_SIZE, lines.length * FONT_SIZE * 1.2 + 12);
+				return;
+			}
+			// the polygons and the circles enclose the text, so they are as tall as they are wide
+			double size = Math.max(MIN_NODE_SIZE, Math.max(maxLength * CHAR_WIDTH, lines.length * FONT_SIZE) + 16);
+			if ("doublecircle".equals(shape)) size += 8;
+			else if ("triangle".equals(shape)) size *= 1.5;
+			box.width = box.height = size;
+		}
+	}
+
+	/**
+	 * Links every node to its parent and children, if the graph is a forest.
+	 *
+	 * @return Whether the graph is a forest (of nodes that are not records).
+	 */
+	private boolean linkTree() {
+		for (DotGraph.Edge edge : graph.getEdges()) {
+			Box parent = boxes.get(edge.getFrom());
+			Box child = boxes.get(edge.getTo());
+			if (child.parent != null || child == parent || parent.fieldPorts != null || child.fieldPorts != null) return false;
+			child.parent = parent;
+			parent.children.add(child);
+		}
+		// a cycle would leave nodes unreachable from the roots
+		int reachable = 0;
+		ArrayDeque<Box> stack = new ArrayDeque<Box>();
+		for (Box box : boxes.values()) {
+			if (box.parent == null) stack.push(box);
+		}
+		while (!stack.isEmpty()) {
+			Box box = stack.pop();
+			reachable++;
+			for (Box child : box.children) stack.push(child);
+		}
+		return reachable == boxes.size();
+	}
+
+	/**
+	 * Reingold-Tilford layout of the forest. The roots are laid out as the children of a
+	 * virtual root, which is not drawn.
+	 */
+	private void layoutTree() {
+		Box root = new Box(null);
+		for (DotGraph.Node node : graph.getNodes()) {
+			Box box = boxes.get(node);
+			if (box.parent == null) {
+				box.parent = root;
+				root.children.add(box);
+			}
+		}
+
+		// first walk, in post-order (iterative, since degenerate trees can be very deep)
+		List<Box> postOrder = new ArrayList<Box>();
+		ArrayDeque<Box> stack = new ArrayDeque<Box>();
+		stack.push(root);
+		while (!stack.isEmpty()) {
+			Box box = stack.pop();
+			postOrder.add(box);
+			for (int i = 0; i < box.children.size(); i++) {
+				Box child = box.children.get(i);
+				child.number = i + 1;
+				stack.push(child);
+			}
+		}
+		// postOrder has each node before its descendants, so it is walked backwards
+		for (int i = postOrder.size() - 1; i >= 0; i--) {
+			Box box = postOrder.get(i);
+			if (box.children.isEmpty()) continue;
+			Box defaultAncestor = box.children.get(0);
+			for (Box child : box.children) {
+				placeAmongSiblings(child);
+				defaultAncestor = apportion(child, defaultAncestor);
+			}
+			executeShifts(box);
+		}
+
+		// second walk: the final x is the preliminary x plus the modifiers of the ancestors
+		double rowHeight = 0;
+		for (Box box : boxes.values()) rowHeight = Math.max(rowHeight, box.height);
+		ArrayDeque<Double> modifiers = new ArrayDeque<Double>();
+		ArrayDeque<Integer> depths = new ArrayDeque<Integer>();
+		for (Box child : root.children) {
+			stack.push(child);
+			modifiers.push(root.mod);
+			depths.push(0);
+		}
+		while (!stack.isEmpty()) {
+			Box box = stack.pop();
+			double modifier = modifiers.pop();
+			int depth = depths.pop();
+			box.x = box.prelim + modifier;
+			box.y = depth * (rowHeight + RANK_SEP) + rowHeight / 2;
+			for (Box child : box.children) {
+				stack.push(child);
+				modifiers.push(modifier + box.mod);
+				depths.push(depth + 1);
+			}
+		}
+	}
+
+	private double distance(Box left, Box right) {
+		return (left.width + right.width) / 2 + NODE_SEP;
+	}
+
+	private Box leftSibling(Box box) {
+		return box.number > 1 ? box.parent.children.get(box.number - 2) : null;
+	}
+
+	/**
+	 * Sets the preliminary x of a node whose subtree was already walked, given its left sibling.
+	 */
+	private void placeAmongSiblings(Box box) {
+		Box sibling = leftSibling(box);
+		if (box.children.isEmpty()) {
+			box.prelim = sibling != null ? sibling.prelim + distance(sibling, box) : 0;
+		} else {
+			double midpoint = (box.children.get(0).prelim + box.children.get(box.children.size() - 1).prelim) / 2;
+			if (sibling != null) {
+				box.prelim = sibling.prelim + distance(sibling, box);
+				box.mod = box.prelim - midpoint;
+			} else {
+				box.prelim = midpoint;
+			}
+		}
+	}
+
+	private Box nextLeft(Box box) {
+		return box.children.isEmpty() ? box.thread : box.children.get(0);
+	}
+
+	private Box nextRight(Box box) {
+		return box.children.isEmpty() ? box.thread : box.children.get(box.children.size() - 1);
+	}
+
+	/**
+	 * Moves the subtree of a node to the right of the subtrees of its left siblings,
+	 * following their contours.
+	 */
+	private Box apportion(Box box, Box defaultAncestor) {
+		Box sibling = leftSibling(box);
+		if (sibling == null) return defaultAncestor;
+		Box insideRight = box, outsideRight = box;
+		Box insideLeft = sibling, outsideLeft = box.parent.children.get(0);
+		double sumInsideRight = insideRight.mod, sumOutsideRight = outsideRight.mod;
+		double sumInsideLeft = insideLeft.mod, sumOutsideLeft = outsideLeft.mod;
+		while (nextRight(insideLeft) != null && nextLeft(insideRight) != null) {
+			insideLeft = nextRight(insideLeft);
+			insideRight = nextLeft(insideRight);
+			outsideLeft = nextLeft(outsideLeft);
+			outsideRight = nextRight(outsideRight);
+			outsideRight.ancestor = box;
+			double shift = (insideLeft.prelim + sumInsideLeft) - (insideRight.prelim + sumInsideRight)
+					+ distance(insideLeft, insideRight);
+			if (shift > 0) {
+				Box ancestor = insideLeft.ancestor.parent == box.parent ? insideLeft.ancestor : defaultAncestor;
+				moveSubtree(ancestor, box, shift);
+				sumInsideRight += shift;
+				sumOutsideRight += shift;
+			}
+			sumInsideLeft += insideLeft.mod;
+			sumInsideRight += insideRight.mod;
+			sumOutsideLeft += outsideLeft.mod;
+			sumOutsideRight += outsideRight.mod;
+		}
+		if (nextRight(insideLeft) != null && nextRight(outsideRight) == null) {
+			outsideRight.thread = nextRight(insideLeft);
+			outsideRight.mod += sumInsideLeft - sumOutsideRight;
+		}
+		if (nextLeft(insideRight) != null && nextLeft(outsideLeft) == null) {
+			outsideLeft.thread = nextLeft(insideRight);
+			outsideLeft.mod += sumInsideRight - sumOutsideLeft;
+			defaultAncestor = box;
+		}
+		return defaultAncestor;
+	}
+
+	private void moveSubtree(Box left, Box right, double shift) {
+		int subtrees = right.number - left.number;
+		right.change -= shift / subtrees;
+		right.shift += shift;
+		left.change += shift / subtrees;
+		right.prelim += shift;
+		right.mod += shift;
+	}
+
+	/**
+	 * Spreads the shifts of moveSubtree among the siblings between the moved subtrees.
+	 */
+	private void executeShifts(Box box) {
+		double shift = 0, change = 0;
+		for (int i = box.children.size() - 1; i >= 0; i--) {
+			Box child = box.children.get(i);
+			child.prelim += shift;
+			child.mod += shift;
+			change += child.change;
+			shift += child.shift + change;
+		}
+	}
+
+	/**
+	 * Level grid layout, left to right, with the nodes in topological order (the order of
+	 * appearance among the nodes that are ready).
+	 */
+	private void layoutGrid() {
+		Map<Box, Integer> inDegree = new HashMap<Box, Integer>();
+		Map<Box, List<Box>> successors = new HashMap<Box, List<Box>>();
+		for (Box box : boxes.values()) successors.put(box, new ArrayList<Box>());
+		for (DotGraph.Edge edge : graph.getEdges()) {
+			Box to = boxes.get(edge.getTo());
+			successors.get(boxes.get(edge.getFrom())).add(to);
+			inDegree.put(to, inDegree.getOrDefault(to, 0) + 1);
+		}
+
+		List<Box> order = new ArrayList<Box>();
+		List<Box> pending = new ArrayList<Box>();
+		for (DotGraph.Node node : graph.getNodes()) pending.add(boxes.get(node));
+		while (!pending.isEmpty()) {
+			Box next = null;
+			for (Box box : pending) {
+				if (inDegree.getOrDefault(box, 0) == 0) {
+					next = box;
+					break;
+				}
+			}
+			if (next == null) next = pending.get(0); // a cycle: take the first node
+			pending.remove(next);
+			order.add(next);
+			for (Box successor : successors.get(next)) inDegree.put(successor, inDegree.getOrDefault(successor, 0) - 1);
+		}
+
+		double maxHeight = 0;
+		for (Box box : order) maxHeight = Math.max(maxHeight, box.height);
+		double x = 0;
+		for (Box box : order) {
+			box.x = x + box.width / 2;
+			// records grow upwards from level 0, so their bottoms are aligned
+			box.y = maxHeight - box.height / 2;
+			x += box.width + 2 * NODE_SEP;
+		}
+	}
+
+	/**
+	 * Moves the drawing to start at (MARGIN, MARGIN) and computes its size.
+	 */
+	private void translate() {
+		double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+		for (Box box : boxes.values()) {
+			minX = Math.min(minX, box.x - box.width / 2);
+			maxX = Math.max(maxX, box.x + box.width / 2);
+			minY = Math.min(minY, box.y - box.height / 2);
+			maxY = Math.max(maxY, box.y + box.height / 2);
+		}
+		if (boxes.isEmpty()) minX = maxX = minY = maxY = 0;
+		for (Box box : boxes.values()) {
+			box.x += MARGIN - minX;
+			box.y += MARGIN - minY;
+		}
+		width = maxX - minX + 2 * MARGIN;
+		height = maxY - minY + 2 * MARGIN;
+	}
+}
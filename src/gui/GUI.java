@@ -8,11 +8,12 @@ import javax.swing.JTextPane;
 import javax.swing.JToggleButton;
 import javax.swing.SpinnerModel;
 import javax.swing.SpinnerNumberModel;
-import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
 import javax.swing.text.NumberFormatter;
 
-import graphviz.GraphViz;
+import graphviz.DotGraph;
+import graphviz.RenderService;
+import graphviz.TreeLayout;
 import structures.*;
 
 import java.awt.Toolkit;
@@ -21,6 +22,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.EventQueue;
@@ -36,6 +38,8 @@ import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.ActionEvent;
 
@@ -50,7 +54,8 @@ public class GUI {
 	private JFrame frmGUI;
 
 	private DynamicSet<Integer> set;
-	private static final String BASE_FILENAME = System.getProperty("user.dir") + System.getProperty("file.separator") + "temp" + System.getProperty("file.separator") + "set" + ".gif"; //path to the dot image of the set being displayed
+	private static final int IMAGE_DPI = 106; //resolution of the image of the set being displayed
+	private static final int MAX_DRAWN_DEPTH = 12; //levels of a tree drawn around the focus key, the rest is collapsed
 	private static final int MAX_VALUE = 10000000; //max integer allowed on the sets
 	
 	//Help button
@@ -100,10 +105,13 @@ public class GUI {
 
 	//For the pane with the data structure image
 	private BufferedImage img;
-	private ImageIcon originalIcon;
+	private final RenderService<TreeLayout> renderService = new RenderService<TreeLayout>(1, () -> dotSource -> TreeLayout.of(DotGraph.parse(dotSource))); //long-lived worker that lays out the set
+	private String pendingSource; //latest dot source of the set that wasn't sent to the worker yet
+	private boolean rendering; //whether the worker is laying out the set
+	private Integer focusKey; //key of the last operation, around which large sets are drawn
 	private double zoom;
 
-	private JLabel label;
+	private LayoutView view;
 	private JScrollPane scroll;
 
 	private int oldMouseX;
@@ -151,6 +159,12 @@ public class GUI {
 		frmGUI = new JFrame();
 		frmGUI.setBounds((int)screenSize.getWidth()/16, (int)screenSize.getHeight()/16, (int)screenSize.getWidth()*7/8, (int)screenSize.getHeight()*7/8);
 		frmGUI.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+		frmGUI.addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosed(WindowEvent e) {
+				renderService.close();
+			}
+		});
 		frmGUI.getContentPane().setLayout(null);
 		
 		frmGUI.setTitle("Dynamic Sets");
@@ -168,8 +182,8 @@ public class GUI {
 	}
 
 	void initPnlDS() {
-		label = new JLabel();
-		label.addMouseListener(new MouseAdapter() {
+		view = new LayoutView(IMAGE_DPI);
+		view.addMouseListener(new MouseAdapter() {
 			@Override
 			public void mouseClicked(MouseEvent e) {
 				if (e.getClickCount() == 2) {
@@ -182,7 +196,7 @@ public class GUI {
 				}
 			}
 		});
-		label.addMouseMotionListener(new MouseMotionListener() {
+		view.addMouseMotionListener(new MouseMotionListener() {
 
 			@Override
 			public void mouseDragged(MouseEvent arg0) {
@@ -213,7 +227,7 @@ public class GUI {
 				oldMouseY = arg0.getY();
 			}
 		});
-		label.addMouseWheelListener(new MouseWheelListener() {
+		view.addMouseWheelListener(new MouseWheelListener() {
 
 
 			public void mouseWheelMoved(MouseWheelEvent arg0) {
@@ -232,11 +246,9 @@ public class GUI {
 
 		updateImage();
 
-		label.setHorizontalAlignment(SwingConstants.CENTER);
-		label.setVerticalAlignment(SwingConstants.CENTER);
-		label.setBounds((int)Math.round(frmGUI.getWidth()*1/32.0), (int)Math.round(frmGUI.getHeight()*3/32.0), (int)Math.round(frmGUI.getWidth()*23/32.0), (int)Math.round(frmGUI.getHeight()*25/32.0));
+		view.setBounds((int)Math.round(frmGUI.getWidth()*1/32.0), (int)Math.round(frmGUI.getHeight()*3/32.0), (int)Math.round(frmGUI.getWidth()*23/32.0), (int)Math.round(frmGUI.getHeight()*25/32.0));
 	
-		scroll = new JScrollPane(label);
+		scroll = new JScrollPane(view);
 		scroll.setBounds((int)Math.round(frmGUI.getWidth()*1/32.0), (int)Math.round(frmGUI.getHeight()*3/32.0), (int)Math.round(frmGUI.getWidth()*23/32.0), (int)Math.round(frmGUI.getHeight()*27/32.0));
 		scroll.setBackground(Color.WHITE);
 		frmGUI.getContentPane().add(scroll);
@@ -265,7 +277,7 @@ public class GUI {
 
 			public void actionPerformed(ActionEvent arg0) {
 				set = new SimpleBST<Integer>();
-				updateImage();
+				updateImage(null);
 				
 				txtPaneConsole.setText("Initialized a Simple BST.");
 				
@@ -284,7 +296,7 @@ public class GUI {
 
 			public void actionPerformed(ActionEvent arg0) {
 				set = new AVLTree<Integer>();
-				updateImage();
+				updateImage(null);
 				
 				txtPaneConsole.setText("Initialized an AVL Tree.");
 				
@@ -303,7 +315,7 @@ public class GUI {
 
 			public void actionPerformed(ActionEvent arg0) {
 				set = new RedBlackTree<Integer>();
-				updateImage();
+				updateImage(null);
 				
 				txtPaneConsole.setText("Initialized a Red-Black Tree.");
 				
@@ -322,7 +334,7 @@ public class GUI {
 
 			public void actionPerformed(ActionEvent arg0) {
 				set = new SplayTree<Integer>();
-				updateImage();
+				updateImage(null);
 				
 				txtPaneConsole.setText("Initialized a Splay Tree.");
 				
@@ -344,7 +356,7 @@ public class GUI {
 				final double P10EN = 100000d; //used to determine the number of decimal places for the rounding
 				alpha = (double)Math.round(alpha * P10EN) / P10EN;
 				set = new ScapegoatTree<Integer>(alpha);
-				updateImage();
+				updateImage(null);
 				
 				txtPaneConsole.setText("Initialized a Scapegoat Tree with alpha = " + alpha + ".");
 				
@@ -376,7 +388,7 @@ public class GUI {
 
 			public void actionPerformed(ActionEvent arg0) {
 				set = new Treap<Integer>();
-				updateImage();
+				updateImage(null);
 				
 				txtPaneConsole.setText("Initialized a Treap.");
 				
@@ -395,7 +407,7 @@ public class GUI {
 
 			public void actionPerformed(ActionEvent arg0) {
 				set = new SkipList<Integer>();
-				updateImage();
+				updateImage(null);
 				
 				txtPaneConsole.setText("Initialized a Skip List.");
 				
@@ -434,7 +446,7 @@ public class GUI {
 				long start = System.nanoTime();
 				Integer result = set.find(value);
 				long time = System.nanoTime() - start;
-				updateImage();
+				updateImage(value);
 				
 				String timeStr = "Time elapsed: " + time + " ns.";
 				if(result != null) txtPaneConsole.setText("Found element: " + result + ".\n" + timeStr);
@@ -473,7 +485,7 @@ public class GUI {
 				long start = System.nanoTime();
 				set.insert(value);
 				long time = System.nanoTime() - start;
-				updateImage();
+				updateImage(value);
 				
 				String timeStr = "Time elapsed: " + time + " ns.";
 				txtPaneConsole.setText("Inserted: " + value + ".\n" + timeStr);
@@ -506,7 +518,7 @@ public class GUI {
 				long start = System.nanoTime();
 				set.remove(value);
 				long time = System.nanoTime() - start;
-				updateImage();
+				updateImage(value);
 				
 				String timeStr = "Time elapsed: " + time + " ns.";
 				txtPaneConsole.setText("Removed: " + value + ".\n" + timeStr);
@@ -529,7 +541,7 @@ public class GUI {
 				long start = System.nanoTime();
 				Integer result = set.getMin();
 				long time = System.nanoTime() - start;
-				updateImage();
+				updateImage(result);
 				
 				String timeStr = "Time elapsed: " + time + " ns.";
 				if(result != null) txtPaneConsole.setText("Found min element: " + result + ".\n" + timeStr);
@@ -551,7 +563,7 @@ public class GUI {
 				long start = System.nanoTime();
 				Integer result = set.getMax();
 				long time = System.nanoTime() - start;
-				updateImage();
+				updateImage(result);
 				
 				String timeStr = "Time elapsed: " + time + " ns.";
 				if(result != null) txtPaneConsole.setText("Found max element: " + result + ".\n" + timeStr);
@@ -636,37 +648,46 @@ public class GUI {
 
 	private void zoom(double factor) {
 		zoom = Math.max(Math.min(4.0, zoom*factor),0.25);
-		updateSetLabel();
+		view.setZoom(zoom);
 	}
 
-	//Updates the graphviz image used by the GUI
+	//Asks for the image of the set to be updated. The set is laid out by the render worker from a snapshot of the
+	//dot source, and only the latest snapshot is kept while a layout is in progress, so the EDT never waits.
+	//Large trees are drawn MAX_DRAWN_DEPTH levels at a time, around the focus key
 	private void updateImage() {
-		GraphViz gv = new GraphViz();
-		gv.add(set.toDotString());
-		gv.increaseDpi();   // 106 dpi
-
-		File out = new File(BASE_FILENAME);
-		gv.writeGraphToFile( gv.getGraph(gv.getDotSource(), "gif", "dot"), out );
-
-		this.zoom = 0.7;
-		this.firstPos = true;
-
-		try {
-			img = ImageIO.read(new File(BASE_FILENAME));
-			originalIcon = new ImageIcon(img);
-			updateSetLabel();
+		pendingSource = set.toDotString(MAX_DRAWN_DEPTH, focusKey);
+		if(!rendering) renderNext();
+	}
 
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+	//Updates the image of the set, drawn around a new focus key (null for the top of the set)
+	private void updateImage(Integer focusKey) {
+		this.focusKey = focusKey;
+		updateImage();
+	}
 
-		frmGUI.invalidate();
-		frmGUI.repaint();
+	//Sends the latest snapshot to the render worker (on the EDT)
+	private void renderNext() {
+		String source = pendingSource;
+		pendingSource = null;
+		rendering = true;
+		renderService.submit(source).whenComplete((layout, error) -> SwingUtilities.invokeLater(() -> layoutRendered(layout, error)));
 	}
 
-	private void updateSetLabel() {
-		ImageIcon icon = new ImageIcon(originalIcon.getImage().getScaledInstance((int)(originalIcon.getIconWidth() * zoom),
-				(int)(originalIcon.getIconHeight() * zoom), Image.SCALE_SMOOTH));
-		label.setIcon(icon);
+	//Swaps in a finished layout and starts laying out the snapshots taken meanwhile (on the EDT)
+	private void layoutRendered(TreeLayout layout, Throwable error) {
+		rendering = false;
+		if(error != null) {
+			if(!(error instanceof CancellationException)) error.printStackTrace();
+		}
+		else {
+			this.zoom = 0.7;
+			this.firstPos = true;
+			view.setTreeLayout(layout);
+			view.setZoom(zoom);
+
+			frmGUI.invalidate();
+			frmGUI.repaint();
+		}
+		if(pendingSource != null && frmGUI.isDisplayable()) renderNext();
 	}
 }
@@ -0,0 +1,83 @@
+package gui;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+
+import javax.swing.JComponent;
+
+import graphviz.LayoutTiles;
+import graphviz.TreeLayout;
+
+/**
+ * Shows a laid out graph at a zoom level. Only the tiles inside the visible area are
+ * painted, from a cache of tiles rendered at a few zoom levels, so zooming and scrolling
+ * cost the same no matter how large the whole drawing is. The graph is centered when it
+ * is smaller than the view.
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ */
+class LayoutView extends JComponent {
+
+	private static final long serialVersionUID = 1L;
+	private static final long MAX_CACHED_PIXELS = 1L << 24; //64 MB of tiles
+
+	private final double pointsToPixels;
+	private TreeLayout layout;
+	private LayoutTiles tiles;
+	private double zoom = 1;
+
+	/**
+	 * @param dpi Resolution of the drawing at zoom 1.
+	 */
+	LayoutView(int dpi) {
+		this.pointsToPixels = dpi / 72.0;
+		setOpaque(true);
+		setBackground(Color.WHITE);
+	}
+
+	void setTreeLayout(TreeLayout layout) {
+		this.layout = layout;
+		this.tiles = new LayoutTiles(layout, MAX_CACHED_PIXELS);
+		revalidate();
+		repaint();
+	}
+
+	void setZoom(double zoom) {
+		this.zoom = zoom;
+		revalidate();
+		repaint();
+	}
+
+	//Pixels per point, snapped to a zoom level of the tiles so that they don't have to be rescaled
+	private double scale() {
+		return LayoutTiles.snapScale(zoom * pointsToPixels);
+	}
+
+	@Override
+	public Dimension getPreferredSize() {
+		if (layout == null) return new Dimension(1, 1);
+		return new Dimension((int) Math.ceil(layout.getWidth() * scale()), (int) Math.ceil(layout.getHeight() * scale()));
+	}
+
+	@Override
+	protected void paintComponent(Graphics graphics) {
+		Rectangle clip = graphics.getClipBounds();
+		graphics.setColor(getBackground());
+		if (clip != null) graphics.fillRect(clip.x, clip.y, clip.width, clip.height);
+		else graphics.fillRect(0, 0, getWidth(), getHeight());
+		if (layout == null) return;
+
+		Graphics2D g = (Graphics2D) graphics.create();
+		try {
+			Dimension size = getPreferredSize();
+			g.translate(Math.max(0, (getWidth() - size.width) / 2), Math.max(0, (getHeight() - size.height) / 2));
+			tiles.paint(g, scale());
+		} finally {
+			g.dispose();
+		}
+	}
+}
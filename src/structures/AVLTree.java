@@ -1,6 +1,8 @@
 package structures;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 
 /**
  * A self-balanced binary search tree where each subtree has at most one level of diference
@@ -19,10 +21,12 @@ public class AVLTree<K extends Comparable<K>> implements DynamicSet<K> {
     	private Node left;
     	private Node right;
     	private int height;
+    	private int size; //number of nodes in the subtree
     	 
     	protected Node(K key) {
     		this.key = key;
     		this.height = 1;
+    		this.size = 1;
     	}
     	
     	public K getKey() { return key; }
@@ -39,11 +43,16 @@ public class AVLTree<K extends Comparable<K>> implements DynamicSet<K> {
     		}
     	}
     	public int getHeight() { return height; }
+    	public int getSize() { return size; }
     	
     	public void setKey(K key) { this.key = key; }
     	public void setLeft(Node left) { this.left = left; }
     	public void setRight(Node right) { this.right = right; }
+    	/**
+    	 * Updates the height and the size of the node given the ones of its children.
+    	 */
     	public void updateHeight() {
+    		this.size = 1 + (left != null ? left.size : 0) + (right != null ? right.size : 0);
     		if(left != null) {
     			if(right != null) this.height = 1 + Math.max(left.getHeight(), right.getHeight());
     			else this.height = 1 + left.getHeight();
@@ -55,18 +64,87 @@ public class AVLTree<K extends Comparable<K>> implements DynamicSet<K> {
     	}
     }
 	
+	/**
+	 * Result of split.
+	 */
+	private class Split {
+		private Node less; //keys smaller than the split key
+		private Node match; //node with the split key (null if there is none)
+		private Node greater; //keys greater than the split key
+	}
+	
 	private Node root;
+
+	private final TreeWalker<K, Node> walker = new TreeWalker<K, Node>() {
+		@Override
+		Node left(Node node) {
+			return node.getLeft();
+		}
+
+		@Override
+		Node right(Node node) {
+			return node.getRight();
+		}
+
+		@Override
+		K key(Node node) {
+			return node.getKey();
+		}
+
+		@Override
+		int size(Node node) {
+			return node.getSize();
+		}
+
+		@Override
+		int height(Node node) {
+			return node.getHeight();
+		}
+	};
+
+	private final boolean recursive; //use the recursive versions of find, insert and remove
+	private Node[] path; //search path of the iterative insert and remove, reused between calls
+	private boolean modified; //whether the last recursive insert or remove changed the tree
+	
+	public AVLTree() {
+		this(false);
+	}
+	
+	/**
+	 * @param recursive If true, find, insert and remove use the recursive implementations,
+	 * which are kept to be compared with the iterative ones.
+	 */
+	public AVLTree(boolean recursive) {
+		this.recursive = recursive;
+	}
     
 	/**
 	 * The implementation is the same as SimpleBST.
 	 */
 	@Override
 	public K find(K key) {
-		Node node = find(root, key);
+		Node node = recursive ? find(root, key) : findIterative(key);
 		if(node != null) return node.getKey();
 		else return null;
 	}
 	
+	/**
+	 * The implementation is the same as SimpleBST.
+	 */
+	private Node findIterative(K key) {
+		Node node = root;
+		while(node != null) {
+			int cmp = key.compareTo(node.getKey());
+			//Search the left subtree
+			if(cmp < 0) node = node.getLeft();
+			//Search the right subtree
+			else if(cmp > 0) node = node.getRight();
+			//Tree has the key on this node
+			else return node;
+		}
+		return null;
+	}
+	
 	protected Node find(Node node, K key) {
     	//Node is empty
     	if(node == null) return null;
@@ -79,13 +157,49 @@ public class AVLTree<K extends Comparable<K>> implements DynamicSet<K> {
     }
 
 	@Override
-	public void insert(K key) {
-		root = insert(root, key);
+	public boolean insert(K key) {
+		if(recursive) {
+			modified = false;
+			root = insert(root, key);
+			return modified;
+		}
+		else return insertIterative(key);
+	}
+	
+	/**
+	 * Iterative version of insert(Node, K). The search path is kept in an array (its length
+	 * is bounded by the height of the tree), and the nodes are updated and rebalanced from the
+	 * bottom up, in the same order as the recursion does.
+	 */
+	private boolean insertIterative(K key) {
+		if(root == null) {
+			root = new Node(key);
+			return true;
+		}
+		Node[] path = getPath(root.getHeight());
+		int depth = 0;
+		Node node = root;
+		while(node != null) {
+			int cmp = key.compareTo(node.getKey());
+			//Tree already has the key
+			if(cmp == 0) return false;
+			path[depth++] = node;
+			node = cmp < 0 ? node.getLeft() : node.getRight();
+		}
+		
+		Node parent = path[depth - 1];
+		if(key.compareTo(parent.getKey()) < 0) parent.setLeft(new Node(key));
+		else parent.setRight(new Node(key));
+		rebalancePath(path, depth);
+		return true;
 	}
 
     private Node insert(Node node, K key) { 
     	//Node is empty
-    	if (node == null) return new Node(key);
+    	if (node == null) {
+    		modified = true;
+    		return new Node(key);
+    	}
     	//Add to the left subtree
     	else if (key.compareTo(node.getKey()) < 0) node.setLeft(insert(node.getLeft(), key));
     	//Add to the right subtree
@@ -100,8 +214,84 @@ public class AVLTree<K extends Comparable<K>> implements DynamicSet<K> {
     }
 
 	@Override
-	public void remove(K key) {
-		root = remove(root, key);
+	public boolean remove(K key) {
+		if(recursive) {
+			modified = false;
+			root = remove(root, key);
+			return modified;
+		}
+		else return removeIterative(key);
+	}
+	
+	/**
+	 * Iterative version of remove(Node, K). A node with two children takes the key of the largest
+	 * node of its left subtree, which is then unlinked instead. The nodes of the path are updated
+	 * and rebalanced from the bottom up.
+	 */
+	private boolean removeIterative(K key) {
+		if(root == null) return false;
+		Node[] path = getPath(root.getHeight());
+		int depth = 0;
+		Node node = root;
+		while(node != null) {
+			int cmp = key.compareTo(node.getKey());
+			if(cmp == 0) break;
+			path[depth++] = node;
+			node = cmp < 0 ? node.getLeft() : node.getRight();
+		}
+		//Tree does not have the key
+		if(node == null) return false;
+		
+		if(node.getLeft() != null && node.getRight() != null) {
+			path[depth++] = node;
+			Node largestLeftNode = node.getLeft();
+			while(largestLeftNode.getRight() != null) {
+				path[depth++] = largestLeftNode;
+				largestLeftNode = largestLeftNode.getRight();
+			}
+			node.setKey(largestLeftNode.getKey());
+			node = largestLeftNode;
+		}
+		
+		//The node has at most one child, which takes its place
+		Node child = node.getLeft() != null ? node.getLeft() : node.getRight();
+		if(depth == 0) root = child;
+		else {
+			Node parent = path[depth - 1];
+			if(parent.getLeft() == node) parent.setLeft(child);
+			else parent.setRight(child);
+			rebalancePath(path, depth);
+		}
+		return true;
+	}
+	
+	/**
+	 * Updates and rebalances the first nodes of a search path, from the deepest one up to the root,
+	 * linking the root of each rebalanced subtree to the previous node of the path.
+	 * 
+	 * @param path Nodes of the search path, starting at the root.
+	 * @param depth Number of nodes of the path to update.
+	 */
+	private void rebalancePath(Node[] path, int depth) {
+		for(int i = depth - 1; i >= 0; i--) {
+			Node node = path[i];
+			node.updateHeight();
+			Node newNode = rebalance(node);
+			if(newNode != node) {
+				if(i == 0) root = newNode;
+				else if(path[i - 1].getLeft() == node) path[i - 1].setLeft(newNode);
+				else path[i - 1].setRight(newNode);
+			}
+		}
+	}
+	
+	/**
+	 * Retrieves the array used to keep the search path, growing it if it can't hold the given number of nodes.
+	 */
+	@SuppressWarnings("unchecked")
+	private Node[] getPath(int length) {
+		if(path == null || path.length < length) path = (Node[]) new AVLTree<?>.Node[2 * length];
+		return path;
 	}
 	
 	private Node remove(Node node, K key) {
@@ -113,6 +303,7 @@ public class AVLTree<K extends Comparable<K>> implements DynamicSet<K> {
         else if (key.compareTo(node.getKey()) > 0) node.setRight(remove(node.getRight(), key));
     	//Tree has the key on its root
     	else {
+    		modified = true;
     		//The current node is a leaf (0 children).
     		if (node.getLeft() == null && node.getRight() == null) return null;
     		//The current node only has a right child
@@ -169,6 +360,384 @@ public class AVLTree<K extends Comparable<K>> implements DynamicSet<K> {
         else return node;
 	}
 
+	@Override
+	public int rank(K key) {
+		return walker.rank(root, key);
+	}
+
+	@Override
+	public K select(int i) {
+		return walker.select(root, i);
+	}
+	
+	private int getSize(Node node) {
+		return node != null ? node.getSize() : 0;
+	}
+	
+	/**
+	 * Builds a perfectly balanced tree in linear time, where the sizes of the two subtrees
+	 * of each node differ by at most one (so the heights differ by at most one too).
+	 */
+	@Override
+	public void bulkLoad(Iterator<? extends K> sorted, int n) {
+		root = buildTree(new SortedKeys<K>(sorted), n);
+	}
+	
+	/**
+	 * Builds a balanced tree with the next n keys, in-order.
+	 * 
+	 * @param keys Source of the keys.
+	 * @param n Number of keys.
+	 * @return Root of the tree that was built.
+	 */
+	private Node buildTree(SortedKeys<K> keys, int n) {
+		if(n == 0) return null;
+		Node left = buildTree(keys, n / 2);
+		Node node = new Node(keys.next());
+		node.setLeft(left);
+		node.setRight(buildTree(keys, n - 1 - n / 2));
+		node.updateHeight();
+		return node;
+	}
+
+	/**
+	 * Builds a balanced tree with the sorted batch and joins it with the set (union),
+	 * which takes O(m log(n/m + 1)) time for m keys.
+	 */
+	@Override
+	public int insertAll(K[] keys) {
+		K[] sorted = Batch.sortedDistinct(keys);
+		Node batch = buildTree(new SortedKeys<K>(Arrays.asList(sorted).iterator()), sorted.length);
+		int oldSize = getSize(root);
+		root = union(root, batch);
+		return getSize(root) - oldSize;
+	}
+	
+	/**
+	 * Splits the set by the middle key of the sorted batch and removes the two halves
+	 * of the batch from the two parts, which takes O(m log(n/m + 1)) time for m keys.
+	 */
+	@Override
+	public int removeAll(K[] keys) {
+		K[] sorted = Batch.sortedDistinct(keys);
+		int oldSize = getSize(root);
+		root = difference(root, sorted, 0, sorted.length - 1);
+		return oldSize - getSize(root);
+	}
+	
+	/**
+	 * Searches for the sorted keys in a single descent: each node splits the keys it
+	 * receives between its two subtrees.
+	 */
+	@Override
+	public K[] findAll(K[] keys) {
+		K[] sorted = Batch.sortedDistinct(keys);
+		K[] found = Arrays.copyOf(sorted, sorted.length);
+		Arrays.fill(found, null);
+		findAll(root, sorted, 0, sorted.length - 1, found);
+		return Batch.inBatchOrder(keys, sorted, found);
+	}
+	
+	/**
+	 * @param keys Sorted keys, of which keys[lo..hi] are searched in the subtree.
+	 * @param found Where the keys that are found are written, in the same positions.
+	 */
+	private void findAll(Node node, K[] keys, int lo, int hi, K[] found) {
+		if(node == null || lo > hi) return;
+		int i = Arrays.binarySearch(keys, lo, hi + 1, node.getKey());
+		if(i >= 0) {
+			found[i] = node.getKey();
+			findAll(node.getLeft(), keys, lo, i - 1, found);
+			findAll(node.getRight(), keys, i + 1, hi, found);
+		}
+		else {
+			int insertionPoint = -i - 1;
+			findAll(node.getLeft(), keys, lo, insertionPoint - 1, found);
+			findAll(node.getRight(), keys, insertionPoint, hi, found);
+		}
+	}
+	
+	private int getHeight(Node node) {
+		return node != null ? node.getHeight() : 0;
+	}
+	
+	/**
+	 * Joins two trees with a node in the middle: all the keys of left are smaller than
+	 * the node's key, and all the keys of right are greater. The shorter tree is hung
+	 * from the spine of the taller one, and the path is rebalanced with rotations,
+	 * in time proportional to the difference of heights.
+	 * 
+	 * @return Root of the joined tree.
+	 */
+	private Node join(Node left, Node node, Node right) {
+		if(getHeight(left) > getHeight(right) + 1) return joinRight(left, node, right);
+		if(getHeight(right) > getHeight(left) + 1) return joinLeft(left, node, right);
+		node.setLeft(left);
+		node.setRight(right);
+		node.updateHeight();
+		return node;
+	}
+	
+	/**
+	 * Join for a left tree taller than the right one: goes down the right spine of left.
+	 */
+	private Node joinRight(Node left, Node node, Node right) {
+		Node child = left.getRight();
+		if(getHeight(child) <= getHeight(right) + 1) {
+			node.setLeft(child);
+			node.setRight(right);
+			node.updateHeight();
+			left.setRight(node);
+			if(node.getHeight() <= getHeight(left.getLeft()) + 1) {
+				left.updateHeight();
+				return left;
+			}
+			left.setRight(rotateRight(node));
+			return rotateLeft(left);
+		}
+		left.setRight(joinRight(child, node, right));
+		left.updateHeight();
+		if(left.getRight().getHeight() <= getHeight(left.getLeft()) + 1) return left;
+		return rotateLeft(left);
+	}
+	
+	/**
+	 * Join for a right tree taller than the left one: goes down the left spine of right.
+	 */
+	private Node joinLeft(Node left, Node node, Node right) {
+		Node child = right.getLeft();
+		if(getHeight(child) <= getHeight(left) + 1) {
+			node.setLeft(left);
+			node.setRight(child);
+			node.updateHeight();
+			right.setLeft(node);
+			if(node.getHeight() <= getHeight(right.getRight()) + 1) {
+				right.updateHeight();
+				return right;
+			}
+			right.setLeft(rotateLeft(node));
+			return rotateRight(right);
+		}
+		right.setLeft(joinLeft(left, node, child));
+		right.updateHeight();
+		if(right.getLeft().getHeight() <= getHeight(right.getRight()) + 1) return right;
+		return rotateRight(right);
+	}
+	
+	/**
+	 * Joins two trees where all the keys of left are smaller than the keys of right.
+	 */
+	private Node join2(Node left, Node right) {
+		if(left == null) return right;
+		Split last = new Split();
+		Node rest = splitLast(left, last);
+		return join(rest, last.match, right);
+	}
+	
+	/**
+	 * Takes the node with the largest key out of a tree and puts it in result.match.
+	 * 
+	 * @return Root of the remaining tree.
+	 */
+	private Node splitLast(Node node, Split result) {
+		if(node.getRight() == null) {
+			result.match = node;
+			return node.getLeft();
+		}
+		Node rest = splitLast(node.getRight(), result);
+		return join(node.getLeft(), node, rest);
+	}
+	
+	/**
+	 * Splits a tree in the keys smaller than key, the node with key and the keys greater than key.
+	 */
+	private Split split(Node node, K key) {
+		Split result = new Split();
+		split(node, key, result);
+		return result;
+	}
+	
+	private void split(Node node, K key, Split result) {
+		if(node == null) {
+			result.less = result.match = result.greater = null;
+			return;
+		}
+		Node left = node.getLeft();
+		Node right = node.getRight();
+		int cmp = key.compareTo(node.getKey());
+		if(cmp < 0) {
+			split(left, key, result);
+			result.greater = join(result.greater, node, right);
+		}
+		else if(cmp > 0) {
+			split(right, key, result);
+			result.less = join(left, node, result.less);
+		}
+		else {
+			result.less = left;
+			result.greater = right;
+			result.match = node;
+		}
+	}
+	
+	/**
+	 * Moves the keys greater than key to a new tree, in O(log n) time.
+	 * 
+	 * @return Tree with the keys of this tree that are greater than key.
+	 */
+	public AVLTree<K> split(K key) {
+		Split split = split(root, key);
+		root = split.match != null ? join(split.less, split.match, null) : split.less;
+		AVLTree<K> greater = new AVLTree<K>(recursive);
+		greater.root = split.greater;
+		return greater;
+	}
+	
+	/**
+	 * Moves the keys of another tree, which must be greater than the keys of this one,
+	 * to this tree, in O(log n) time. The other tree is left empty.
+	 * 
+	 * @throws IllegalArgumentException If a key of the other tree is not greater than the keys of this one.
+	 */
+	public void join(AVLTree<K> other) {
+		checkOther(other);
+		if(root != null && other.root != null && getMax().compareTo(other.getMin()) >= 0)
+			throw new IllegalArgumentException("The keys of the joined tree must be greater than " + getMax() + ".");
+		root = join2(root, other.root);
+		other.root = null;
+	}
+	
+	/**
+	 * Moves the keys of another tree to this one (the keys that are in both keep the key
+	 * of this tree). For trees of sizes m &lt;= n, this takes O(m log(n/m + 1)) work, and
+	 * the two halves of each split run in parallel in the common ForkJoinPool.
+	 * The other tree is left empty.
+	 * 
+	 * @return Number of keys that were added, i.e. that were not in this tree.
+	 */
+	public int union(AVLTree<K> other) {
+		checkOther(other);
+		int oldSize = getSize(root);
+		root = ForkJoin.invoke(() -> union(root, other.root));
+		other.root = null;
+		return getSize(root) - oldSize;
+	}
+	
+	/**
+	 * Removes the keys that are not in another tree, in the same way as union.
+	 * The other tree is left empty.
+	 * 
+	 * @return Number of keys that were removed.
+	 */
+	public int intersection(AVLTree<K> other) {
+		checkOther(other);
+		int oldSize = getSize(root);
+		root = ForkJoin.invoke(() -> intersection(root, other.root));
+		other.root = null;
+		return oldSize - getSize(root);
+	}
+	
+	/**
+	 * Removes the keys of another tree, in the same way as union.
+	 * The other tree is left empty.
+	 * 
+	 * @return Number of keys that were removed.
+	 */
+	public int difference(AVLTree<K> other) {
+		checkOther(other);
+		int oldSize = getSize(root);
+		root = ForkJoin.invoke(() -> difference(root, other.root));
+		other.root = null;
+		return oldSize - getSize(root);
+	}
+	
+	private void checkOther(AVLTree<K> other) {
+		if(other == this) throw new IllegalArgumentException("A tree can't be combined with itself.");
+	}
+	
+	/**
+	 * Union of a subtree of this tree with a subtree of another one: this tree is split by
+	 * the key of the other root, and the unions of the two halves are joined with it.
+	 * A key in both trees keeps the key of this one.
+	 */
+	private Node union(Node node, Node other) {
+		if(node == null) return other;
+		if(other == null) return node;
+		Node otherLeft = other.getLeft();
+		Node otherRight = other.getRight();
+		Split split = split(node, other.getKey());
+		if(split.match != null) other.setKey(split.match.getKey());
+		return ForkJoin.both(node.getSize() + other.getSize(), () -> union(split.less, otherLeft),
+				() -> union(split.greater, otherRight), (left, right) -> join(left, other, right));
+	}
+	
+	/**
+	 * Intersection of a subtree of this tree with a subtree of another one: this tree is
+	 * split by the key of the other root, whose node of this tree stays only if there is one.
+	 */
+	private Node intersection(Node node, Node other) {
+		if(node == null || other == null) return null;
+		Node otherLeft = other.getLeft();
+		Node otherRight = other.getRight();
+		Split split = split(node, other.getKey());
+		return ForkJoin.both(node.getSize() + other.getSize(), () -> intersection(split.less, otherLeft),
+				() -> intersection(split.greater, otherRight),
+				(left, right) -> split.match != null ? join(left, split.match, right) : join2(left, right));
+	}
+	
+	/**
+	 * Difference between a subtree of this tree and a subtree of another one: this tree is
+	 * split by the key of the other root, and the node with that key is left out.
+	 */
+	private Node difference(Node node, Node other) {
+		if(node == null || other == null) return node;
+		Node otherLeft = other.getLeft();
+		Node otherRight = other.getRight();
+		Split split = split(node, other.getKey());
+		return ForkJoin.both(node.getSize() + other.getSize(), () -> difference(split.less, otherLeft),
+				() -> difference(split.greater, otherRight), (left, right) -> join2(left, right));
+	}
+	
+	/**
+	 * Removes the sorted keys keys[lo..hi] from a subtree.
+	 */
+	private Node difference(Node node, K[] keys, int lo, int hi) {
+		if(node == null || lo > hi) return node;
+		int mid = (lo + hi) >>> 1;
+		Split split = split(node, keys[mid]);
+		return join2(difference(split.less, keys, lo, mid - 1), difference(split.greater, keys, mid + 1, hi));
+	}
+
+	@Override
+	public Iterator<K> iterator() {
+		return walker.iterator(root, null, null);
+	}
+
+	@Override
+	public Iterator<K> range(K lo, K hi) {
+		return walker.iterator(root, lo, hi);
+	}
+
+	@Override
+	public K floor(K key) {
+		return walker.predecessor(root, key, true);
+	}
+
+	@Override
+	public K lower(K key) {
+		return walker.predecessor(root, key, false);
+	}
+
+	@Override
+	public K ceiling(K key) {
+		return walker.successor(root, key, true);
+	}
+
+	@Override
+	public K higher(K key) {
+		return walker.successor(root, key, false);
+	}
+	
 	/**
 	 * The implementation is the same as SimpleBST.
 	 */
@@ -182,10 +751,9 @@ public class AVLTree<K extends Comparable<K>> implements DynamicSet<K> {
 	protected final Node getMin(Node node) {
     	//Node is empty
     	if(node == null) return null;
-    	//Left child is empty
-    	else if(node.getLeft() == null) return node;
-    	//Left child is not empty
-    	else return getMin(node.getLeft());
+    	//Go left while the left child is not empty
+    	while(node.getLeft() != null) node = node.getLeft();
+    	return node;
     }
 
 	/**
@@ -201,10 +769,9 @@ public class AVLTree<K extends Comparable<K>> implements DynamicSet<K> {
 	protected final Node getMax(Node node) {
     	//Node is empty
     	if(node == null) return null;
-    	//Right child is empty
-    	else if(node.getRight() == null) return node;
-    	//Right child is not empty
-    	else return getMax(node.getRight());
+    	//Go right while the right child is not empty
+    	while(node.getRight() != null) node = node.getRight();
+    	return node;
     }
 	
 	@Override
@@ -231,7 +798,6 @@ public class AVLTree<K extends Comparable<K>> implements DynamicSet<K> {
         return stringBuilder.toString();
     }
 
-    @SuppressWarnings("unchecked")
 	@Override
 	public String toDotString() {
 		StringBuilder stringBuilder = new StringBuilder();
@@ -240,8 +806,8 @@ public class AVLTree<K extends Comparable<K>> implements DynamicSet<K> {
 		stringBuilder.append("\n");
 
 		// Dump all the nodes
-		LinkedList<Node> curLevelNodes = new LinkedList<Node>();
-		LinkedList<Node> nextLevelNodes = new LinkedList<Node>();
+		ArrayList<Node> curLevelNodes = new ArrayList<Node>();
+		ArrayList<Node> nextLevelNodes = new ArrayList<Node>();
 		int nullDotCount = 0;
 		
 		if(root != null) {
@@ -258,12 +824,8 @@ public class AVLTree<K extends Comparable<K>> implements DynamicSet<K> {
 				stringBuilder.append("}");
 				stringBuilder.append("\n");
 				
-				while(!curLevelNodes.isEmpty()) {
-					Node node = curLevelNodes.remove();
-					int balance = node.getBalance();
-					if(balance > 0) stringBuilder.append(node.getKey() + " [shape=triangle, orientation=20];");
-					else if (balance < 0) stringBuilder.append(node.getKey() + " [shape=triangle, orientation=-20];");
-					else stringBuilder.append(node.getKey() + " [shape=triangle];");
+				for(Node node : curLevelNodes) {
+					stringBuilder.append(node.getKey() + " [" + dotAttributes(node) + "];");
 					stringBuilder.append("\n");
 					
 					Node left = node.getLeft();
@@ -295,16 +857,35 @@ public class AVLTree<K extends Comparable<K>> implements DynamicSet<K> {
 					}
 				}
 				
-				//Prepare the next curLevelNodes array
-				curLevelNodes = (LinkedList<AVLTree<K>.Node>) nextLevelNodes.clone();
+				//The next level becomes the current one, and the old list is reused for the level after it
+				ArrayList<Node> swap = curLevelNodes;
+				curLevelNodes = nextLevelNodes;
+				nextLevelNodes = swap;
 			}
-			while (!nextLevelNodes.isEmpty());
+			while (!curLevelNodes.isEmpty());
 		}
 
 		stringBuilder.append("}");
 		stringBuilder.append("\n");
 		return stringBuilder.toString();
 	}
+
+	@Override
+	public String toDotString(int maxDepth, K focusKey) {
+		return new DotTreeWriter<K, Node>(walker) {
+			@Override
+			String attributes(Node node) {
+				return dotAttributes(node);
+			}
+		}.write(root, maxDepth, focusKey);
+	}
+
+	private String dotAttributes(Node node) {
+		int balance = node.getBalance();
+		if(balance > 0) return "shape=triangle, orientation=20";
+		else if (balance < 0) return "shape=triangle, orientation=-20";
+		else return "shape=triangle";
+	}
 	
     /**
      * Left rotates a given node.
@@ -0,0 +1,527 @@
+package structures;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An AVL tree whose nodes are stored in parallel arrays (keys, left, right and height)
+ * instead of separate node objects. A node is identified by its index in these arrays and
+ * the children are int indices, so there are no object headers nor child references to
+ * follow. The index 0 stands for the empty node. The slots of removed nodes are kept in
+ * a free list (chained through the left array) and reused by the next insertions.
+ *
+ * The algorithms are the same as AVLTree, so both trees produce the same toString and
+ * toDotString output for the same sequence of operations.
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ */
+public class ArrayAVLTree<K extends Comparable<K>> implements DynamicSet<K> {
+
+	private static final int NULL = 0;
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private Object[] keys;
+	private int[] left;
+	private int[] right;
+	private int[] height;
+
+	private int root;
+	private int nextUnused; //first index that was never used
+	private int freeList; //first index of the list of removed nodes
+	private boolean modified; //whether the last insert or remove changed the tree
+
+	public ArrayAVLTree(int initialCapacity) {
+		//Index 0 is the empty node
+		int capacity = Math.max(initialCapacity, 1) + 1;
+		this.keys = new Object[capacity];
+		this.left = new int[capacity];
+		this.right = new int[capacity];
+		this.height = new int[capacity];
+		this.root = NULL;
+		this.nextUnused = 1;
+		this.freeList = NULL;
+	}
+
+	public ArrayAVLTree() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	@SuppressWarnings("unchecked")
+	private K key(int node) {
+		return (K) keys[node];
+	}
+
+	private int getBalance(int node) {
+		return height[left[node]] - height[right[node]];
+	}
+
+	private void updateHeight(int node) {
+		height[node] = 1 + Math.max(height[left[node]], height[right[node]]);
+	}
+
+	/**
+	 * Takes a slot for a new node, either from the free list or from the unused part of the arrays.
+	 *
+	 * @param key Key of the new node.
+	 * @return Index of the new node.
+	 */
+	private int newNode(K key) {
+		int node;
+		if (freeList != NULL) {
+			node = freeList;
+			freeList = left[node];
+		}
+		else {
+			if (nextUnused == keys.length) grow();
+			node = nextUnused++;
+		}
+
+		keys[node] = key;
+		left[node] = NULL;
+		right[node] = NULL;
+		height[node] = 1;
+		return node;
+	}
+
+	private void freeNode(int node) {
+		keys[node] = null;
+		right[node] = NULL;
+		height[node] = 0;
+		left[node] = freeList;
+		freeList = node;
+	}
+
+	private void grow() {
+		int capacity = keys.length * 2;
+		keys = Arrays.copyOf(keys, capacity);
+		left = Arrays.copyOf(left, capacity);
+		right = Arrays.copyOf(right, capacity);
+		height = Arrays.copyOf(height, capacity);
+	}
+
+	@Override
+	public K find(K key) {
+		int node = root;
+		while (node != NULL) {
+			int cmp = key.compareTo(key(node));
+			if (cmp < 0) node = left[node];
+			else if (cmp > 0) node = right[node];
+			else return key(node);
+		}
+		return null;
+	}
+
+	@Override
+	public boolean insert(K key) {
+		modified = false;
+		root = insert(root, key);
+		return modified;
+	}
+
+	private int insert(int node, K key) {
+		//Node is empty
+		if (node == NULL) {
+			modified = true;
+			return newNode(key);
+		}
+
+		int cmp = key.compareTo(key(node));
+		//Add to the left subtree
+		if (cmp < 0) {
+			int child = insert(left[node], key);
+			left[node] = child;
+		}
+		//Add to the right subtree
+		else if (cmp > 0) {
+			int child = insert(right[node], key);
+			right[node] = child;
+		}
+		//Tree has the key on its root
+		else return node;
+
+		updateHeight(node);
+
+		//Rebalance if needed
+		return rebalance(node);
+	}
+
+	@Override
+	public boolean remove(K key) {
+		modified = false;
+		root = remove(root, key);
+		return modified;
+	}
+
+	private int remove(int node, K key) {
+		//Node is empty
+		if (node == NULL) return NULL;
+
+		int cmp = key.compareTo(key(node));
+		//Delete on the left subtree
+		if (cmp < 0) {
+			int child = remove(left[node], key);
+			left[node] = child;
+		}
+		//Delete on the right subtree
+		else if (cmp > 0) {
+			int child = remove(right[node], key);
+			right[node] = child;
+		}
+		//Tree has the key on its root
+		else {
+			//The current node has at most one child
+			if (left[node] == NULL || right[node] == NULL) {
+				int child = (left[node] == NULL) ? right[node] : left[node];
+				freeNode(node);
+				modified = true;
+				return child;
+			}
+			//The current node has two children
+			else {
+				int largestLeftNode = getMax(left[node]);
+				keys[node] = keys[largestLeftNode];
+				int child = remove(left[node], key(largestLeftNode));
+				left[node] = child;
+			}
+		}
+
+		updateHeight(node);
+
+		//Rebalance if needed
+		return rebalance(node);
+	}
+
+	private int rebalance(int node) {
+		int balance = getBalance(node);
+		if (balance > 1) {
+			//Left Right Case
+			if (getBalance(left[node]) < 0) left[node] = rotateLeft(left[node]);
+			//Left Left Case
+			return rotateRight(node);
+		}
+		else if (balance < -1) {
+			//Right Left Case
+			if (getBalance(right[node]) > 0) right[node] = rotateRight(right[node]);
+			//Right Right Case
+			return rotateLeft(node);
+		}
+		//Node is balanced
+		else return node;
+	}
+
+	/**
+	 * Left rotates a given node.
+	 *
+	 * @param x Node to rotate.
+	 * @return Node that will take the place of x in the tree (previously the right child of x).
+	 */
+	private int rotateLeft(int x) {
+		int y = right[x];
+		if (y == NULL) return x;
+
+		right[x] = left[y];
+		left[y] = x;
+
+		updateHeight(x);
+		updateHeight(y);
+
+		return y;
+	}
+
+	/**
+	 * Right rotates a given node.
+	 *
+	 * @param x Node to rotate.
+	 * @return Node that will take the place of x in the tree (previously the left child of x).
+	 */
+	private int rotateRight(int x) {
+		int y = left[x];
+		if (y == NULL) return x;
+
+		left[x] = right[y];
+		right[y] = x;
+
+		updateHeight(x);
+		updateHeight(y);
+
+		return y;
+	}
+
+	/**
+	 * Builds a perfectly balanced tree in linear time. The arrays are replaced by new
+	 * ones with room for exactly n nodes, which are stored in in-order.
+	 */
+	@Override
+	public void bulkLoad(Iterator<? extends K> sorted, int n) {
+		SortedKeys<K> sortedKeys = new SortedKeys<K>(sorted);
+		int capacity = Math.max(n, 1) + 1;
+		Object[] newKeys = new Object[capacity];
+		int[] newLeft = new int[capacity];
+		int[] newRight = new int[capacity];
+		int[] newHeight = new int[capacity];
+		for (int node = 1; node <= n; node++) newKeys[node] = sortedKeys.next();
+
+		keys = newKeys;
+		left = newLeft;
+		right = newRight;
+		height = newHeight;
+		root = buildTree(1, n);
+		nextUnused = n + 1;
+		freeList = NULL;
+	}
+
+	/**
+	 * Links the nodes with indices from start to end into a balanced tree.
+	 *
+	 * @return Index of the root of the tree.
+	 */
+	private int buildTree(int start, int end) {
+		if (start > end) return NULL;
+		int middle = start + (end - start + 1) / 2;
+		left[middle] = buildTree(start, middle - 1);
+		right[middle] = buildTree(middle + 1, end);
+		updateHeight(middle);
+		return middle;
+	}
+
+	@Override
+	public Iterator<K> iterator() {
+		return new InOrderIterator(null, null);
+	}
+
+	@Override
+	public Iterator<K> range(K lo, K hi) {
+		return new InOrderIterator(lo, hi);
+	}
+
+	/**
+	 * Lazy in-order iterator. It walks the tree like TreeWalker, which the trees of node
+	 * objects share, but on int indices, that a TreeWalker would box at every step. The
+	 * stack is sized with the height of the tree, which bounds the number of nodes it can hold.
+	 */
+	private class InOrderIterator implements Iterator<K> {
+		private final int[] stack = new int[height[root]];
+		private int top = 0;
+		private final K hi; //upper bound of the keys to return (null if there is none)
+
+		private InOrderIterator(K lo, K hi) {
+			this.hi = hi;
+			//Push the path to the first node not smaller than lo
+			int node = root;
+			while (node != NULL) {
+				if (lo == null || lo.compareTo(key(node)) <= 0) {
+					stack[top++] = node;
+					node = left[node];
+				}
+				else node = right[node];
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return top > 0 && (hi == null || hi.compareTo(key(stack[top - 1])) >= 0);
+		}
+
+		@Override
+		public K next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			int node = stack[--top];
+			//Then the leftmost path of the right subtree
+			for (int child = right[node]; child != NULL; child = left[child]) stack[top++] = child;
+			return key(node);
+		}
+	}
+
+	@Override
+	public K floor(K key) {
+		return predecessor(key, true);
+	}
+
+	@Override
+	public K lower(K key) {
+		return predecessor(key, false);
+	}
+
+	@Override
+	public K ceiling(K key) {
+		return successor(key, true);
+	}
+
+	@Override
+	public K higher(K key) {
+		return successor(key, false);
+	}
+
+	/**
+	 * TreeWalker.predecessor on the indices.
+	 */
+	private K predecessor(K key, boolean inclusive) {
+		int result = NULL;
+		int node = root;
+		while (node != NULL) {
+			int cmp = key.compareTo(key(node));
+			if (cmp == 0 && inclusive) return key(node);
+			else if (cmp > 0) {
+				result = node;
+				node = right[node];
+			}
+			else node = left[node];
+		}
+		return key(result);
+	}
+
+	/**
+	 * TreeWalker.successor on the indices.
+	 */
+	private K successor(K key, boolean inclusive) {
+		int result = NULL;
+		int node = root;
+		while (node != NULL) {
+			int cmp = key.compareTo(key(node));
+			if (cmp == 0 && inclusive) return key(node);
+			else if (cmp < 0) {
+				result = node;
+				node = left[node];
+			}
+			else node = right[node];
+		}
+		return key(result);
+	}
+
+	@Override
+	public K getMin() {
+		if (root == NULL) return null;
+		int node = root;
+		while (left[node] != NULL) node = left[node];
+		return key(node);
+	}
+
+	@Override
+	public K getMax() {
+		if (root == NULL) return null;
+		return key(getMax(root));
+	}
+
+	private int getMax(int node) {
+		while (right[node] != NULL) node = right[node];
+		return node;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder stringBuilder = new StringBuilder();
+		toString(root, stringBuilder);
+		return stringBuilder.toString();
+	}
+
+	// print the values in this BST in pre-order, in the same format as AVLTree
+	private void toString(int node, StringBuilder stringBuilder) {
+		stringBuilder.append("(");
+		if (node != NULL) {
+			stringBuilder.append("[" + height[node] + "]");
+			stringBuilder.append(key(node) + ",");
+			toString(left[node], stringBuilder);
+			stringBuilder.append(",");
+			toString(right[node], stringBuilder);
+		}
+		stringBuilder.append(")");
+	}
+
+	@Override
+	public String toDotString() {
+		StringBuilder stringBuilder = new StringBuilder();
+
+		stringBuilder.append("digraph {");
+		stringBuilder.append("\n");
+
+		// Dump all the nodes, level by level (the queue holds the current and the next level)
+		int[] queue = new int[Math.max(nextUnused, 1)];
+		int levelStart = 0;
+		int levelEnd = 0;
+		int nullDotCount = 0;
+
+		if (root != NULL) {
+			queue[levelEnd++] = root;
+			while (levelStart < levelEnd) {
+				int nextLevelEnd = levelEnd;
+
+				//Draw the current level's nodes
+				stringBuilder.append(" { rank=same; ");
+				for (int i = levelStart; i < levelEnd; i++) {
+					stringBuilder.append(key(queue[i]) + "; ");
+				}
+				stringBuilder.append("}");
+				stringBuilder.append("\n");
+
+				for (int i = levelStart; i < levelEnd; i++) {
+					int node = queue[i];
+					stringBuilder.append(key(node) + " [" + dotAttributes(node) + "];");
+					stringBuilder.append("\n");
+
+					int[] children = { left[node], right[node] };
+					for (int child : children) {
+						if (child != NULL) {
+							queue[nextLevelEnd++] = child;
+							stringBuilder.append(key(node) + "->" + key(child));
+							stringBuilder.append("\n");
+						}
+						else {
+							stringBuilder.append("null" + nullDotCount + " [shape=point];");
+							stringBuilder.append("\n");
+							stringBuilder.append(key(node) + "->" + "null" + nullDotCount);
+							stringBuilder.append("\n");
+							nullDotCount++;
+						}
+					}
+				}
+
+				levelStart = levelEnd;
+				levelEnd = nextLevelEnd;
+			}
+		}
+
+		stringBuilder.append("}");
+		stringBuilder.append("\n");
+		return stringBuilder.toString();
+	}
+
+	@Override
+	public String toDotString(int maxDepth, K focusKey) {
+		TreeWalker<K, Integer> walker = new TreeWalker<K, Integer>() {
+			@Override
+			Integer left(Integer node) {
+				return left[node] != NULL ? left[node] : null;
+			}
+
+			@Override
+			Integer right(Integer node) {
+				return right[node] != NULL ? right[node] : null;
+			}
+
+			@Override
+			K key(Integer node) {
+				return ArrayAVLTree.this.key(node);
+			}
+
+			@Override
+			int height(Integer node) {
+				return height[node];
+			}
+		};
+		return new DotTreeWriter<K, Integer>(walker) {
+			@Override
+			String attributes(Integer node) {
+				return dotAttributes(node);
+			}
+		}.write(root != NULL ? root : null, maxDepth, focusKey);
+	}
+
+	private String dotAttributes(int node) {
+		int balance = getBalance(node);
+		if (balance > 0) return "shape=triangle, orientation=20";
+		else if (balance < 0) return "shape=triangle, orientation=-20";
+		else return "shape=triangle";
+	}
+}
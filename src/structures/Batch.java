@@ -0,0 +1,44 @@
+package structures;
+
+import java.util.Arrays;
+
+/**
+ * Helpers for the batched operations (insertAll, removeAll and findAll), which work
+ * on the keys of the batch sorted and without repetitions.
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ */
+final class Batch {
+
+	private Batch() {
+	}
+
+	/**
+	 * @param keys Keys of the batch, in any order.
+	 * @return A sorted copy of the keys, without repeated keys.
+	 */
+	static <K extends Comparable<K>> K[] sortedDistinct(K[] keys) {
+		K[] sorted = Arrays.copyOf(keys, keys.length);
+		Arrays.sort(sorted);
+		int n = 0;
+		for (int i = 0; i < sorted.length; i++) {
+			if (n == 0 || sorted[n - 1].compareTo(sorted[i]) != 0) sorted[n++] = sorted[i];
+		}
+		return n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+	}
+
+	/**
+	 * Puts the results of findAll, computed for the sorted keys, back in the order of the batch.
+	 *
+	 * @param keys Keys of the batch, in the order they were given.
+	 * @param sorted The keys returned by sortedDistinct.
+	 * @param found Result of find for each key of sorted.
+	 * @return Result of find for each key of keys.
+	 */
+	static <K extends Comparable<K>> K[] inBatchOrder(K[] keys, K[] sorted, K[] found) {
+		K[] result = Arrays.copyOf(keys, keys.length);
+		for (int i = 0; i < keys.length; i++) result[i] = found[Arrays.binarySearch(sorted, keys[i])];
+		return result;
+	}
+}
@@ -0,0 +1,441 @@
+package structures;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+
+/**
+ * A skip list that can be shared by several threads without locks. It uses the same
+ * leveling as SkipList, but every forward pointer is an AtomicMarkableReference, so
+ * that the links are changed with compare-and-set and a node is logically deleted by
+ * marking its forward pointers before it is physically unlinked.
+ *
+ * find is wait-free (it never retries nor modifies the list), while insert and remove
+ * are lock-free (a failed compare-and-set means that another thread made progress).
+ * getMin, getMax, toString and toDotString are weakly consistent: they reflect the
+ * state of the list at some point during their execution.
+ *
+ * Implementation based on the lock-free skip list from Herlihy and Shavit:
+ * The Art of Multiprocessor Programming, chapter 14.
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ * @param <K>
+ */
+public class ConcurrentSkipList<K extends Comparable<K>> implements DynamicSet<K> {
+
+	private static final int MAX_LEVEL = 31;
+
+	private final Node head;
+	private final Node tail;
+	// highest level that may be in use, so that the searches don't start at MAX_LEVEL
+	private final AtomicInteger levelHint = new AtomicInteger(0);
+
+	public class Node {
+		private final K key;
+		private final AtomicMarkableReference<Node>[] forwardPointers;
+		private final int topLevel;
+
+		@SuppressWarnings("unchecked")
+		private Node(K key, int topLevel) {
+			this.key = key;
+			this.topLevel = topLevel;
+			this.forwardPointers = (AtomicMarkableReference<Node>[]) new AtomicMarkableReference<?>[topLevel + 1];
+		}
+
+		public K getKey() {
+			return key;
+		}
+
+		public int getTopLevel() {
+			return topLevel;
+		}
+	}
+
+	public ConcurrentSkipList() {
+		head = new Node(null, MAX_LEVEL);
+		tail = new Node(null, MAX_LEVEL);
+		for (int i = 0; i <= MAX_LEVEL; i++) {
+			head.forwardPointers[i] = new AtomicMarkableReference<Node>(tail, false);
+			tail.forwardPointers[i] = new AtomicMarkableReference<Node>(null, false);
+		}
+	}
+
+	/**
+	 * Compares the key of a node with a search key. The head is smaller and the tail is
+	 * greater than any key.
+	 */
+	private int compare(Node node, K key) {
+		if (node == head) return -1;
+		if (node == tail) return 1;
+		return node.key.compareTo(key);
+	}
+
+	/**
+	 * Number of extra levels for a new node: level i is used with probability 1/2^i, like in SkipList.
+	 */
+	private int randomLevel() {
+		int v = 0;
+		ThreadLocalRandom rand = ThreadLocalRandom.current();
+		while (v < MAX_LEVEL && rand.nextBoolean()) v++;
+		return v;
+	}
+
+	/**
+	 * Finds the last node before key (preds) and the first node not before key (succs) in
+	 * the levels below preds.length, unlinking the marked nodes that it goes through in
+	 * every level.
+	 *
+	 * @param marked Scratch array for the marks of the links.
+	 * @return True if a node with the key is in the bottom level.
+	 */
+	private boolean find(K key, Node[] preds, Node[] succs, boolean[] marked) {
+		retry:
+		while (true) {
+			int startLevel = levelHint.get();
+			for (int level = preds.length - 1; level > startLevel; level--) {
+				preds[level] = head;
+				succs[level] = head.forwardPointers[level].getReference();
+			}
+			Node pred = head;
+			for (int level = startLevel; level >= 0; level--) {
+				Node curr = pred.forwardPointers[level].getReference();
+				while (true) {
+					Node succ = curr.forwardPointers[level].get(marked);
+					while (marked[0]) {
+						// curr was removed: help unlinking it
+						if (!pred.forwardPointers[level].compareAndSet(curr, succ, false, false))
+							continue retry;
+						curr = succ;
+						succ = curr.forwardPointers[level].get(marked);
+					}
+					if (compare(curr, key) < 0) {
+						pred = curr;
+						curr = succ;
+					} else {
+						break;
+					}
+				}
+				if (level < preds.length) {
+					preds[level] = pred;
+					succs[level] = curr;
+				}
+			}
+			return compare(succs[0], key) == 0;
+		}
+	}
+
+	@Override
+	public K find(K key) {
+		boolean[] marked = { false };
+		Node pred = head;
+		Node curr = null;
+		for (int level = levelHint.get(); level >= 0; level--) {
+			curr = pred.forwardPointers[level].getReference();
+			while (true) {
+				Node succ = curr.forwardPointers[level].get(marked);
+				// skip the removed nodes without unlinking them
+				while (marked[0]) {
+					curr = succ;
+					succ = curr.forwardPointers[level].get(marked);
+				}
+				if (compare(curr, key) < 0) {
+					pred = curr;
+					curr = succ;
+				} else {
+					break;
+				}
+			}
+		}
+		if (compare(curr, key) == 0) return curr.key;
+		return null;
+	}
+
+	@Override
+	public boolean insert(K key) {
+		int topLevel = randomLevel();
+		int hint = levelHint.get();
+		while (topLevel > hint && !levelHint.compareAndSet(hint, topLevel)) hint = levelHint.get();
+		// only the levels of the new node are linked
+		@SuppressWarnings("unchecked")
+		Node[] preds = (Node[]) new ConcurrentSkipList<?>.Node[topLevel + 1];
+		@SuppressWarnings("unchecked")
+		Node[] succs = (Node[]) new ConcurrentSkipList<?>.Node[topLevel + 1];
+		boolean[] marked = { false };
+
+		while (true) {
+			if (find(key, preds, succs, marked)) return false;
+
+			Node newNode = new Node(key, topLevel);
+			for (int level = 0; level <= topLevel; level++) {
+				newNode.forwardPointers[level] = new AtomicMarkableReference<Node>(succs[level], false);
+			}
+
+			// the node is in the set once it is linked in the bottom level
+			if (!preds[0].forwardPointers[0].compareAndSet(succs[0], newNode, false, false))
+				continue;
+
+			for (int level = 1; level <= topLevel; level++) {
+				while (true) {
+					if (preds[level].forwardPointers[level].compareAndSet(succs[level], newNode, false, false))
+						break;
+					find(key, preds, succs, marked);
+					// the new node may have been removed meanwhile
+					Node succ = newNode.forwardPointers[level].getReference();
+					if (newNode.forwardPointers[0].isMarked()) return true;
+					if (succ != succs[level] && !newNode.forwardPointers[level].compareAndSet(succ, succs[level], false, false))
+						return true;
+				}
+			}
+			return true;
+		}
+	}
+
+	@Override
+	public boolean remove(K key) {
+		// only the bottom level is needed to find the victim, whose levels are then unlinked
+		// by a find over all of them
+		@SuppressWarnings("unchecked")
+		Node[] preds = (Node[]) new ConcurrentSkipList<?>.Node[1];
+		@SuppressWarnings("unchecked")
+		Node[] succs = (Node[]) new ConcurrentSkipList<?>.Node[1];
+		boolean[] marked = { false };
+
+		if (!find(key, preds, succs, marked)) return false;
+		Node victim = succs[0];
+
+		// mark the upper levels first
+		for (int level = victim.topLevel; level >= 1; level--) {
+			Node succ = victim.forwardPointers[level].get(marked);
+			while (!marked[0]) {
+				victim.forwardPointers[level].compareAndSet(succ, succ, false, true);
+				succ = victim.forwardPointers[level].get(marked);
+			}
+		}
+
+		// marking the bottom level removes the key from the set
+		Node succ = victim.forwardPointers[0].get(marked);
+		while (true) {
+			boolean iMarkedIt = victim.forwardPointers[0].compareAndSet(succ, succ, false, true);
+			succ = victim.forwardPointers[0].get(marked);
+			if (iMarkedIt) {
+				// unlink the node
+				find(key, preds, succs, marked);
+				return true;
+			} else if (marked[0]) {
+				// another thread removed it
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Returns the unremoved nodes of the bottom level, in order.
+	 */
+	private ArrayList<Node> snapshot() {
+		ArrayList<Node> nodes = new ArrayList<Node>();
+		Node x = head.forwardPointers[0].getReference();
+		while (x != tail) {
+			if (!x.forwardPointers[0].isMarked()) nodes.add(x);
+			x = x.forwardPointers[0].getReference();
+		}
+		return nodes;
+	}
+
+	@Override
+	public Iterator<K> iterator() {
+		return new LevelZeroIterator(successorNode(null, true), null);
+	}
+
+	@Override
+	public Iterator<K> range(K lo, K hi) {
+		return new LevelZeroIterator(successorNode(lo, true), hi);
+	}
+
+	/**
+	 * Lazy iterator that follows the level 0 links, skipping the removed nodes. Like
+	 * toString, it is weakly consistent.
+	 */
+	private class LevelZeroIterator implements Iterator<K> {
+		private Node next;
+		private final K hi;		// upper bound of the keys to return (null if there is none)
+
+		private LevelZeroIterator(Node first, K hi) {
+			this.next = first;
+			this.hi = hi;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != tail && (hi == null || compare(next, hi) <= 0);
+		}
+
+		@Override
+		public K next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			K key = next.key;
+			Node x = next.forwardPointers[0].getReference();
+			while (x != tail && x.forwardPointers[0].isMarked()) x = x.forwardPointers[0].getReference();
+			next = x;
+			return key;
+		}
+	}
+
+	@Override
+	public K floor(K key) {
+		return predecessorNode(key, true).key;
+	}
+
+	@Override
+	public K lower(K key) {
+		return predecessorNode(key, false).key;
+	}
+
+	@Override
+	public K ceiling(K key) {
+		return successorNode(key, true).key;
+	}
+
+	@Override
+	public K higher(K key) {
+		return successorNode(key, false).key;
+	}
+
+	/**
+	 * Finds the last unremoved node whose key is smaller than (or equal to, if inclusive)
+	 * the given key, without unlinking the removed nodes (like find).
+	 *
+	 * @return The node, which is the head (whose key is null) if there is none.
+	 */
+	private Node predecessorNode(K key, boolean inclusive) {
+		int limit = inclusive ? 0 : -1;
+		boolean[] marked = { false };
+		Node pred = head;
+		for (int level = levelHint.get(); level >= 0; level--) {
+			Node curr = pred.forwardPointers[level].getReference();
+			while (curr != tail) {
+				Node succ = curr.forwardPointers[level].get(marked);
+				if (!marked[0]) {
+					if (compare(curr, key) > limit) break;
+					pred = curr;
+				}
+				curr = succ;
+			}
+		}
+		return pred;
+	}
+
+	/**
+	 * Finds the first unremoved node whose key is greater than (or equal to, if inclusive)
+	 * the given key. A null key stands for a key smaller than all the others.
+	 *
+	 * @return The node, which is the tail (whose key is null) if there is none.
+	 */
+	private Node successorNode(K key, boolean inclusive) {
+		Node x = key == null ? head : predecessorNode(key, !inclusive);
+		x = x.forwardPointers[0].getReference();
+		while (x != tail && x.forwardPointers[0].isMarked()) x = x.forwardPointers[0].getReference();
+		return x;
+	}
+
+	@Override
+	public K getMin() {
+		Node x = head.forwardPointers[0].getReference();
+		while (x != tail && x.forwardPointers[0].isMarked()) {
+			x = x.forwardPointers[0].getReference();
+		}
+		return x == tail ? null : x.key;
+	}
+
+	@Override
+	public K getMax() {
+		Node x = head;
+		for (int level = levelHint.get(); level >= 0; level--) {
+			Node next = x.forwardPointers[level].getReference();
+			while (next != tail) {
+				if (!next.forwardPointers[0].isMarked()) x = next;
+				next = next.forwardPointers[level].getReference();
+			}
+		}
+		return x == head ? null : x.key;
+	}
+
+	/**
+	 * Returns a string in the DOT language for the skip list, in the same format as SkipList.
+	 * Like SkipList, it is also what toDotString(maxDepth, focusKey) returns.
+	 */
+	@Override
+	public String toDotString() {
+		ArrayList<Node> nodes = snapshot();
+		int maxLevel = 0;
+		for (Node node : nodes) maxLevel = Math.max(maxLevel, node.topLevel);
+
+		StringBuilder stringBuilder = new StringBuilder();
+		stringBuilder.append("digraph {\n");
+		stringBuilder.append("graph [rankdir=LR];\n");
+		stringBuilder.append("node [shape=record,width=.1,height=.1];\n");
+
+		stringBuilder.append("end [label = \"");
+		for (int i = maxLevel; i >= 0; i--) {
+			stringBuilder.append(" <f" + i + "> ");
+			if (i > 0) stringBuilder.append("|");
+			else stringBuilder.append(" end ");
+		}
+		stringBuilder.append("\"];\n");
+
+		// last node seen in each level, starting with the head
+		String[] last = new String[maxLevel + 1];
+		stringBuilder.append("\"-oo\" [label = \"");
+		for (int i = maxLevel; i >= 0; i--) {
+			stringBuilder.append(" <f" + i + "> -oo");
+			if (i > 0) stringBuilder.append("|");
+			last[i] = "\"-oo\"";
+		}
+		stringBuilder.append("\"];\n");
+
+		for (Node node : nodes) {
+			String itemName = node.key.toString();
+			stringBuilder.append(itemName + " [label = \"");
+			for (int i = node.topLevel; i >= 0; i--) {
+				stringBuilder.append(" <f" + i + "> " + itemName);
+				if (i > 0) stringBuilder.append("|");
+			}
+			stringBuilder.append("\"];\n");
+			for (int i = node.topLevel; i >= 0; i--) {
+				stringBuilder.append(last[i] + ":f" + i + " -> " + itemName + ":f" + i + ";\n");
+				last[i] = itemName;
+			}
+		}
+		for (int i = maxLevel; i >= 0; i--) {
+			stringBuilder.append(last[i] + ":f" + i + " -> end:f" + i + ";\n");
+		}
+
+		stringBuilder.append("}\n");
+		return stringBuilder.toString();
+	}
+
+	@Override
+	public String toString() {
+		ArrayList<Node> nodes = snapshot();
+		int maxLevel = 0;
+		for (Node node : nodes) maxLevel = Math.max(maxLevel, node.topLevel);
+
+		StringBuilder string = new StringBuilder();
+		for (int i = maxLevel; i >= 0; i--) {
+			string.append("HEAD ");
+			for (Node node : nodes) {
+				if (node.topLevel >= i) {
+					string.append("-> " + node.key + " ");
+				} else {
+					string.append("------");
+				}
+			}
+			string.append("-> NIL\n");
+		}
+		return string.toString();
+	}
+}
@@ -0,0 +1,155 @@
+package structures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Writes a part of a binary search tree in the DOT language, in the same format as the
+ * toDotString methods of the trees, for sets too large to be drawn whole.
+ * The part shown is the subtree rooted maxDepth / 2 levels above the focus key (or at
+ * the root), down to maxDepth levels. The subtrees below it are collapsed into boxes
+ * with their number of keys and height, the levels above it into a box with their
+ * number, and the node of the focus key is drawn with a thicker line. The number of keys
+ * and the height are read from the nodes when the tree keeps them, so drawing doesn't
+ * walk the collapsed subtrees; the height is left out when only the sizes are kept.
+ *
+ * @param <K> Type of the keys.
+ * @param <N> Type of the nodes of the tree.
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ */
+abstract class DotTreeWriter<K extends Comparable<K>, N> {
+
+	private final TreeWalker<K, N> tree;
+
+	/**
+	 * @param tree Accessors of the nodes of the tree.
+	 */
+	DotTreeWriter(TreeWalker<K, N> tree) {
+		this.tree = tree;
+	}
+
+	/**
+	 * @return The attributes of the node, without the brackets (like "shape=circle").
+	 */
+	abstract String attributes(N node);
+
+	/**
+	 * Writes the part of the tree around the focus key.
+	 *
+	 * @param root Root of the tree, or null if it is empty.
+	 * @param maxDepth Number of levels to draw.
+	 * @param focusKey Key to draw, or null to draw the top of the tree.
+	 * @return DOT string that represents the part of the tree.
+	 * @throws IllegalArgumentException If maxDepth is less than 1.
+	 */
+	String write(N root, int maxDepth, K focusKey) {
+		if (maxDepth < 1) throw new IllegalArgumentException("At least one level must be drawn.");
+		StringBuilder stringBuilder = new StringBuilder();
+		stringBuilder.append("digraph {\n");
+		if (root == null) {
+			stringBuilder.append("}\n");
+			return stringBuilder.toString();
+		}
+
+		// Search path of the focus key, ending at its node or where it would be inserted
+		ArrayList<N> path = new ArrayList<N>();
+		path.add(root);
+		N focus = null;
+		if (focusKey != null) {
+			N node = root;
+			while (node != null) {
+				int cmp = focusKey.compareTo(tree.key(node));
+				if (cmp == 0) {
+					focus = node;
+					break;
+				}
+				node = cmp < 0 ? tree.left(node) : tree.right(node);
+				if (node != null) path.add(node);
+			}
+		}
+		int topDepth = Math.max(0, path.size() - 1 - maxDepth / 2);
+		N top = path.get(topDepth);
+		if (topDepth > 0) {
+			stringBuilder.append("above [shape=box, style=dashed, label=<" + topDepth + (topDepth == 1 ? " level" : " levels")
+					+ " above>];\n");
+			stringBuilder.append("above->" + tree.key(top) + "\n");
+		}
+
+		// Dump the nodes level by level, as the trees do
+		ArrayList<N> curLevelNodes = new ArrayList<N>();
+		ArrayList<N> nextLevelNodes = new ArrayList<N>();
+		int nullDotCount = 0;
+		int collapsedCount = 0;
+		curLevelNodes.add(top);
+		for (int depth = 0; !curLevelNodes.isEmpty(); depth++) {
+			nextLevelNodes.clear();
+			stringBuilder.append(" { rank=same; ");
+			for (N node : curLevelNodes) stringBuilder.append(tree.key(node) + "; ");
+			stringBuilder.append("}\n");
+
+			for (N node : curLevelNodes) {
+				stringBuilder.append(tree.key(node) + " [" + attributes(node) + (node.equals(focus) ? ", penwidth=3" : "") + "];\n");
+				for (int i = 0; i < 2; i++) {
+					N child = i == 0 ? tree.left(node) : tree.right(node);
+					if (child == null) {
+						stringBuilder.append("null" + nullDotCount + " [shape=point];\n");
+						stringBuilder.append(tree.key(node) + "->" + "null" + nullDotCount + "\n");
+						nullDotCount++;
+					} else if (depth + 1 < maxDepth) {
+						nextLevelNodes.add(child);
+						stringBuilder.append(tree.key(node) + "->" + tree.key(child) + "\n");
+					} else {
+						int[] sizeAndHeight = sizeAndHeight(child);
+						stringBuilder.append("collapsed" + collapsedCount + " [shape=box, style=dashed, label=<"
+								+ sizeAndHeight[0] + (sizeAndHeight[0] == 1 ? " key" : " keys")
+								+ (sizeAndHeight[1] >= 0 ? "<BR/>height " + sizeAndHeight[1] : "") + ">];\n");
+						stringBuilder.append(tree.key(node) + "->" + "collapsed" + collapsedCount + "\n");
+						collapsedCount++;
+					}
+				}
+			}
+
+			ArrayList<N> swap = curLevelNodes;
+			curLevelNodes = nextLevelNodes;
+			nextLevelNodes = swap;
+		}
+
+		stringBuilder.append("}\n");
+		return stringBuilder.toString();
+	}
+
+	/**
+	 * @return The number of keys of a subtree and its height (1 for a leaf). When the tree
+	 *         keeps the sizes but not the heights, the height is -1. When it doesn't keep
+	 *         the sizes, the subtree is walked, without recursion so that degenerate trees
+	 *         don't overflow the stack.
+	 */
+	private int[] sizeAndHeight(N subtreeRoot) {
+		int size = tree.size(subtreeRoot);
+		int height = tree.height(subtreeRoot);
+		if (size >= 0) return new int[] { size, height };
+		ArrayList<N> stack = new ArrayList<N>();
+		int[] depths = new int[16]; // depth of each node of the stack
+		stack.add(subtreeRoot);
+		depths[0] = 1;
+		size = 0;
+		int deepest = 0;
+		while (!stack.isEmpty()) {
+			int top = stack.size() - 1;
+			N node = stack.remove(top);
+			int depth = depths[top];
+			size++;
+			deepest = Math.max(deepest, depth);
+			for (int i = 0; i < 2; i++) {
+				N child = i == 0 ? tree.left(node) : tree.right(node);
+				if (child == null) continue;
+				if (stack.size() == depths.length) depths = Arrays.copyOf(depths, 2 * depths.length);
+				depths[stack.size()] = depth + 1;
+				stack.add(child);
+			}
+		}
+		return new int[] { size, height >= 0 ? height : deepest };
+	}
+}
@@ -1,12 +1,18 @@
 package structures;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
 /**
  * A general definition for the structures implemented in this project.
  *
  * @author Gonalo Leo & Matheus Rosa
  *
  */
-public interface DynamicSet<K extends Comparable<K>> {
+public interface DynamicSet<K extends Comparable<K>> extends Iterable<K> {
 	/**
 	 * Finds an element in the set.
 	 * 
@@ -18,14 +24,16 @@ public interface DynamicSet<K extends Comparable<K>> {
 	 * Inserts an element in the set.
 	 * 
 	 * @param key Key to insert.
+	 * @return True if the key was inserted, false if it was already in the set.
 	 */
-	public void insert(K key);
+	public boolean insert(K key);
 	/**
 	 * Removes an element from the set.
 	 * 
 	 * @param key Key to remove.
+	 * @return True if the key was removed, false if it was not in the set.
 	 */
-	public void remove(K key);
+	public boolean remove(K key);
 	/**
 	 * Retrieves the mininum element of the set.
 	 * 
@@ -38,6 +46,246 @@ public interface DynamicSet<K extends Comparable<K>> {
 	 * @return Maximum key.
 	 */
 	public K getMax();
+	/**
+	 * Returns an iterator over the elements of the set, in ascending order.
+	 * The iterator is lazy and the set must not be modified while it is in use.
+	 * 
+	 * @return Iterator over the set.
+	 */
+	@Override
+	public Iterator<K> iterator();
+	/**
+	 * Returns an iterator over the elements between lo and hi (both included), in ascending order.
+	 * The structures override this method to start at lo without going through the smaller
+	 * elements; by default, the smaller elements are skipped one by one.
+	 * 
+	 * @param lo Lower bound of the range.
+	 * @param hi Upper bound of the range.
+	 * @return Iterator over the elements of the range.
+	 */
+	public default Iterator<K> range(K lo, K hi) {
+		final Iterator<K> iterator = iterator();
+		return new Iterator<K>() {
+			private K next = advance();
+			
+			private K advance() {
+				while (iterator.hasNext()) {
+					K key = iterator.next();
+					if (key.compareTo(hi) > 0) return null;
+					if (key.compareTo(lo) >= 0) return key;
+				}
+				return null;
+			}
+			
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+			
+			@Override
+			public K next() {
+				if (next == null) throw new NoSuchElementException();
+				K key = next;
+				next = advance();
+				return key;
+			}
+		};
+	}
+	/**
+	 * Retrieves the greatest element less than or equal to key.
+	 * 
+	 * @param key Key to compare with.
+	 * @return The element, or NULL if there is none.
+	 */
+	public default K floor(K key) {
+		K floor = null;
+		for (K element : this) {
+			if (element.compareTo(key) > 0) break;
+			floor = element;
+		}
+		return floor;
+	}
+	/**
+	 * Retrieves the smallest element greater than or equal to key.
+	 * 
+	 * @param key Key to compare with.
+	 * @return The element, or NULL if there is none.
+	 */
+	public default K ceiling(K key) {
+		for (K element : this) {
+			if (element.compareTo(key) >= 0) return element;
+		}
+		return null;
+	}
+	/**
+	 * Retrieves the smallest element strictly greater than key.
+	 * 
+	 * @param key Key to compare with.
+	 * @return The element, or NULL if there is none.
+	 */
+	public default K higher(K key) {
+		for (K element : this) {
+			if (element.compareTo(key) > 0) return element;
+		}
+		return null;
+	}
+	/**
+	 * Retrieves the greatest element strictly less than key.
+	 * 
+	 * @param key Key to compare with.
+	 * @return The element, or NULL if there is none.
+	 */
+	public default K lower(K key) {
+		K lower = null;
+		for (K element : this) {
+			if (element.compareTo(key) >= 0) break;
+			lower = element;
+		}
+		return lower;
+	}
+	/**
+	 * Counts the elements of the set that are smaller than key.
+	 * The trees that keep the sizes of their subtrees and the skip list override this
+	 * method to run in logarithmic time; by default, the elements are counted one by one.
+	 * 
+	 * @param key Key to compare with.
+	 * @return Number of elements strictly smaller than key.
+	 */
+	public default int rank(K key) {
+		int rank = 0;
+		for (K element : this) {
+			if (element.compareTo(key) >= 0) break;
+			rank++;
+		}
+		return rank;
+	}
+	/**
+	 * Retrieves the element with a given position in ascending order, so that select(rank(key)) is key
+	 * when key is in the set. By default, the elements are visited one by one.
+	 * 
+	 * @param i Position of the element, starting at 0.
+	 * @return The element, or NULL if i is not a valid position.
+	 */
+	public default K select(int i) {
+		if (i < 0) return null;
+		for (K element : this) {
+			if (i-- == 0) return element;
+		}
+		return null;
+	}
+	/**
+	 * Replaces the elements of the set with the given keys, which must be sorted.
+	 * The balanced structures override this method to build themselves in linear time;
+	 * by default the set is emptied and the keys are inserted one at a time.
+	 * If the keys are not valid, the set is not changed.
+	 * 
+	 * @param sorted Iterator over the keys, in strictly ascending order.
+	 * @param n Number of keys to read from the iterator.
+	 * @throws IllegalArgumentException If the keys are not in strictly ascending order or there are fewer than n keys.
+	 */
+	public default void bulkLoad(Iterator<? extends K> sorted, int n) {
+		SortedKeys<K> keys = new SortedKeys<K>(sorted);
+		@SuppressWarnings("unchecked")
+		K[] buffer = (K[]) new Comparable<?>[n];
+		for (int i = 0; i < n; i++) buffer[i] = keys.next();
+		
+		for (K min = getMin(); min != null; min = getMin()) remove(min);
+		for (K key : buffer) insert(key);
+	}
+	/**
+	 * Replaces the elements of the set with the given keys.
+	 * 
+	 * @param sorted Keys in strictly ascending order.
+	 * @throws IllegalArgumentException If the keys are not in strictly ascending order.
+	 */
+	public default void bulkLoad(Collection<? extends K> sorted) {
+		bulkLoad(sorted.iterator(), sorted.size());
+	}
+	/**
+	 * Replaces the elements of the set with the given keys.
+	 * 
+	 * @param sorted Keys in strictly ascending order.
+	 * @throws IllegalArgumentException If the keys are not in strictly ascending order.
+	 */
+	public default void bulkLoad(K[] sorted) {
+		bulkLoad(Arrays.asList(sorted));
+	}
+	/**
+	 * Inserts a batch of keys, given in any order (repeated keys count once).
+	 * Some structures override this method to share the work between the keys of the batch
+	 * (e.g. sorting them and merging them with the set); by default, the keys are inserted one at a time.
+	 * 
+	 * @param keys Keys to insert.
+	 * @return Number of keys that were inserted, i.e. that were not in the set.
+	 */
+	public default int insertAll(K[] keys) {
+		int inserted = 0;
+		for (K key : keys) {
+			if (insert(key)) inserted++;
+		}
+		return inserted;
+	}
+	/**
+	 * Inserts a batch of keys, given in any order (repeated keys count once).
+	 * 
+	 * @param keys Keys to insert.
+	 * @return Number of keys that were inserted, i.e. that were not in the set.
+	 */
+	public default int insertAll(Collection<? extends K> keys) {
+		@SuppressWarnings("unchecked")
+		K[] array = (K[]) keys.toArray(new Comparable<?>[keys.size()]);
+		return insertAll(array);
+	}
+	/**
+	 * Removes a batch of keys, given in any order (repeated keys count once).
+	 * Some structures override this method to share the work between the keys of the batch;
+	 * by default, the keys are removed one at a time.
+	 * 
+	 * @param keys Keys to remove.
+	 * @return Number of keys that were removed, i.e. that were in the set.
+	 */
+	public default int removeAll(K[] keys) {
+		int removed = 0;
+		for (K key : keys) {
+			if (remove(key)) removed++;
+		}
+		return removed;
+	}
+	/**
+	 * Removes a batch of keys, given in any order (repeated keys count once).
+	 * 
+	 * @param keys Keys to remove.
+	 * @return Number of keys that were removed, i.e. that were in the set.
+	 */
+	public default int removeAll(Collection<? extends K> keys) {
+		@SuppressWarnings("unchecked")
+		K[] array = (K[]) keys.toArray(new Comparable<?>[keys.size()]);
+		return removeAll(array);
+	}
+	/**
+	 * Finds a batch of keys, given in any order.
+	 * Some structures override this method to search for the sorted keys in a single traversal;
+	 * by default, the keys are searched one at a time.
+	 * 
+	 * @param keys Keys to search for.
+	 * @return Array with the result of find for each key, in the same order as the keys.
+	 */
+	public default K[] findAll(K[] keys) {
+		K[] found = Arrays.copyOf(keys, keys.length);
+		for (int i = 0; i < keys.length; i++) found[i] = find(keys[i]);
+		return found;
+	}
+	/**
+	 * Finds a batch of keys, given in any order.
+	 * 
+	 * @param keys Keys to search for.
+	 * @return List with the result of find for each key, in the same order as the keys.
+	 */
+	public default List<K> findAll(Collection<? extends K> keys) {
+		@SuppressWarnings("unchecked")
+		K[] array = (K[]) keys.toArray(new Comparable<?>[keys.size()]);
+		return Arrays.asList(findAll(array));
+	}
 	/**
 	 * Returns a string that allows the user to check the set's internal structure.
 	 * This method is useful for the unit tests.
@@ -52,4 +300,20 @@ public interface DynamicSet<K extends Comparable<K>> {
 	 * @return DOT string that represents the set.
 	 */
 	public String toDotString();
+	/**
+	 * Returns a string in DOT language for a part of the set, for sets too large to be drawn
+	 * whole. The trees draw maxDepth levels around the focus key and collapse the rest into
+	 * boxes with the number of keys (and the height, when the tree keeps it) of each
+	 * collapsed subtree. The default implementation, which the skip lists use, draws the
+	 * whole set, so its cost grows with the size of the set.
+	 * 
+	 * @param maxDepth Number of levels to draw.
+	 * @param focusKey Key to draw, or null to draw the top of the set.
+	 * @return DOT string that represents the part of the set.
+	 * @throws IllegalArgumentException If maxDepth is less than 1.
+	 */
+	public default String toDotString(int maxDepth, K focusKey) {
+		if (maxDepth < 1) throw new IllegalArgumentException("At least one level must be drawn.");
+		return toDotString();
+	}
 }
@@ -0,0 +1,51 @@
+package structures;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Helpers for the divide-and-conquer set operations (union, intersection and
+ * difference), whose two recursive calls work on disjoint subtrees and can run in
+ * parallel in the common ForkJoinPool.
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ */
+final class ForkJoin {
+
+	/**
+	 * Below this number of nodes (in the two subtrees), the recursive calls run
+	 * sequentially, since a task costs more than the work it would save.
+	 */
+	static final int SEQUENTIAL_THRESHOLD = 4096;
+
+	private ForkJoin() {
+	}
+
+	/**
+	 * Runs a task in the common pool and waits for its result.
+	 */
+	static <T> T invoke(Callable<T> task) {
+		return ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(task));
+	}
+
+	/**
+	 * Computes two results and combines them. If the current thread belongs to a
+	 * ForkJoinPool and size is at least SEQUENTIAL_THRESHOLD, the first result is
+	 * computed by a forked task while the current thread computes the second one.
+	 *
+	 * @param size Number of nodes that the two computations go through.
+	 */
+	static <T> T both(int size, Supplier<T> first, Supplier<T> second, BinaryOperator<T> combine) {
+		if (size < SEQUENTIAL_THRESHOLD || !ForkJoinTask.inForkJoinPool()) {
+			T firstResult = first.get();
+			return combine.apply(firstResult, second.get());
+		}
+		ForkJoinTask<T> task = ForkJoinTask.adapt((Callable<T>) first::get).fork();
+		T secondResult = second.get();
+		return combine.apply(task.join(), secondResult);
+	}
+}
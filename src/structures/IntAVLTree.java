@@ -0,0 +1,183 @@
+package structures;
+
+import java.util.NoSuchElementException;
+
+/**
+ * An AVL tree with primitive int keys. The implementation is the same as AVLTree.
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ */
+public class IntAVLTree implements IntDynamicSet {
+
+	private static class Node {
+		private int key;
+		private Node left;
+		private Node right;
+		private int height;
+
+		private Node(int key) {
+			this.key = key;
+			this.height = 1;
+		}
+
+		private int getBalance() {
+			return height(left) - height(right);
+		}
+
+		private void updateHeight() {
+			this.height = 1 + Math.max(height(left), height(right));
+		}
+	}
+
+	private Node root;
+
+	private static int height(Node node) {
+		return node == null ? 0 : node.height;
+	}
+
+	@Override
+	public boolean find(int key) {
+		Node node = root;
+		while (node != null) {
+			if (key < node.key) node = node.left;
+			else if (key > node.key) node = node.right;
+			else return true;
+		}
+		return false;
+	}
+
+	@Override
+	public void insert(int key) {
+		root = insert(root, key);
+	}
+
+	private Node insert(Node node, int key) {
+		//Node is empty
+		if (node == null) return new Node(key);
+		//Add to the left subtree
+		else if (key < node.key) node.left = insert(node.left, key);
+		//Add to the right subtree
+		else if (key > node.key) node.right = insert(node.right, key);
+		//Tree has the key on its root
+		else return node;
+
+		node.updateHeight();
+
+		//Rebalance if needed
+		return rebalance(node);
+	}
+
+	@Override
+	public void remove(int key) {
+		root = remove(root, key);
+	}
+
+	private Node remove(Node node, int key) {
+		//Node is empty
+		if (node == null) return null;
+		//Delete on the left subtree
+		else if (key < node.key) node.left = remove(node.left, key);
+		//Delete on the right subtree
+		else if (key > node.key) node.right = remove(node.right, key);
+		//Tree has the key on its root
+		else {
+			//The current node has at most one child
+			if (node.left == null) return node.right;
+			else if (node.right == null) return node.left;
+			//The current node has two children
+			else {
+				Node largestLeftNode = node.left;
+				while (largestLeftNode.right != null) largestLeftNode = largestLeftNode.right;
+				node.key = largestLeftNode.key;
+				node.left = remove(node.left, largestLeftNode.key);
+			}
+		}
+
+		node.updateHeight();
+
+		//Rebalance if needed
+		return rebalance(node);
+	}
+
+	private Node rebalance(Node node) {
+		int balance = node.getBalance();
+		if (balance > 1) {
+			//Left Right Case
+			if (node.left.getBalance() < 0) node.left = rotateLeft(node.left);
+			//Left Left Case
+			return rotateRight(node);
+		}
+		else if (balance < -1) {
+			//Right Left Case
+			if (node.right.getBalance() > 0) node.right = rotateRight(node.right);
+			//Right Right Case
+			return rotateLeft(node);
+		}
+		//Node is balanced
+		else return node;
+	}
+
+	private Node rotateLeft(Node x) {
+		Node y = x.right;
+		x.right = y.left;
+		y.left = x;
+
+		x.updateHeight();
+		y.updateHeight();
+
+		return y;
+	}
+
+	private Node rotateRight(Node x) {
+		Node y = x.left;
+		x.left = y.right;
+		y.right = x;
+
+		x.updateHeight();
+		y.updateHeight();
+
+		return y;
+	}
+
+	@Override
+	public int getMin() {
+		if (root == null) throw new NoSuchElementException();
+		Node node = root;
+		while (node.left != null) node = node.left;
+		return node.key;
+	}
+
+	@Override
+	public int getMax() {
+		if (root == null) throw new NoSuchElementException();
+		Node node = root;
+		while (node.right != null) node = node.right;
+		return node.key;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return root == null;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder stringBuilder = new StringBuilder();
+		toString(root, stringBuilder);
+		return stringBuilder.toString();
+	}
+
+	// print the values in this BST in pre-order, in the same format as AVLTree
+	private void toString(Node node, StringBuilder stringBuilder) {
+		stringBuilder.append("(");
+		if (node != null) {
+			stringBuilder.append("[").append(node.height).append("]");
+			stringBuilder.append(node.key).append(",");
+			toString(node.left, stringBuilder);
+			stringBuilder.append(",");
+			toString(node.right, stringBuilder);
+		}
+		stringBuilder.append(")");
+	}
+}
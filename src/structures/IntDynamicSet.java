@@ -0,0 +1,57 @@
+package structures;
+
+/**
+ * A version of DynamicSet specialized for int keys. The keys are stored as primitives,
+ * so the operations neither box the keys nor go through Comparable.compareTo.
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ */
+public interface IntDynamicSet {
+	/**
+	 * Finds an element in the set.
+	 *
+	 * @param key Key to search for.
+	 * @return True if the element exists, false otherwise.
+	 */
+	public boolean find(int key);
+	/**
+	 * Inserts an element in the set.
+	 *
+	 * @param key Key to insert.
+	 */
+	public void insert(int key);
+	/**
+	 * Removes an element from the set.
+	 *
+	 * @param key Key to remove.
+	 */
+	public void remove(int key);
+	/**
+	 * Retrieves the mininum element of the set.
+	 *
+	 * @return Minimum key.
+	 * @throws java.util.NoSuchElementException If the set is empty.
+	 */
+	public int getMin();
+	/**
+	 * Retrieves the maximum element of the set.
+	 *
+	 * @return Maximum key.
+	 * @throws java.util.NoSuchElementException If the set is empty.
+	 */
+	public int getMax();
+	/**
+	 * Checks if the set has no elements.
+	 *
+	 * @return True if the set is empty.
+	 */
+	public boolean isEmpty();
+	/**
+	 * Returns a string that allows the user to check the set's internal structure.
+	 * This method is useful for the unit tests.
+	 *
+	 * @return String that represents the set.
+	 */
+	public String toString();
+}
@@ -0,0 +1,278 @@
+package structures;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A red-black tree with primitive int keys. Like RedBlackTree, every node keeps a
+ * pointer to its parent and the leaves are represented by a black sentinel node.
+ * The rebalancing follows the iterative insert and delete fix-ups from
+ * Cormen et al., Introduction to Algorithms.
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ */
+public class IntRedBlackTree implements IntDynamicSet {
+
+	private static final boolean BLACK = false;
+	private static final boolean RED = true;
+
+	private static class Node {
+		private int key;
+		private Node left;
+		private Node right;
+		private Node parent;
+		private boolean color;
+
+		private Node(int key, boolean color, Node leaf) {
+			this.key = key;
+			this.color = color;
+			this.left = leaf;
+			this.right = leaf;
+			this.parent = leaf;
+		}
+	}
+
+	private final Node LEAF = new Node(0, BLACK, null);
+	private Node root = LEAF;
+
+	@Override
+	public boolean find(int key) {
+		return findNode(key) != LEAF;
+	}
+
+	private Node findNode(int key) {
+		Node node = root;
+		while (node != LEAF) {
+			if (key < node.key) node = node.left;
+			else if (key > node.key) node = node.right;
+			else return node;
+		}
+		return LEAF;
+	}
+
+	@Override
+	public void insert(int key) {
+		Node parent = LEAF;
+		Node node = root;
+		while (node != LEAF) {
+			parent = node;
+			if (key < node.key) node = node.left;
+			else if (key > node.key) node = node.right;
+			else return;
+		}
+
+		Node newNode = new Node(key, RED, LEAF);
+		newNode.parent = parent;
+		if (parent == LEAF) root = newNode;
+		else if (key < parent.key) parent.left = newNode;
+		else parent.right = newNode;
+
+		rebalanceOnInsert(newNode);
+	}
+
+	private void rebalanceOnInsert(Node node) {
+		while (node.parent.color == RED) {
+			Node parent = node.parent;
+			Node grandparent = parent.parent;
+			if (parent == grandparent.left) {
+				Node uncle = grandparent.right;
+				if (uncle.color == RED) {
+					parent.color = BLACK;
+					uncle.color = BLACK;
+					grandparent.color = RED;
+					node = grandparent;
+				} else {
+					if (node == parent.right) {
+						node = parent;
+						rotateLeft(node);
+						parent = node.parent;
+					}
+					parent.color = BLACK;
+					grandparent.color = RED;
+					rotateRight(grandparent);
+				}
+			} else {
+				Node uncle = grandparent.left;
+				if (uncle.color == RED) {
+					parent.color = BLACK;
+					uncle.color = BLACK;
+					grandparent.color = RED;
+					node = grandparent;
+				} else {
+					if (node == parent.left) {
+						node = parent;
+						rotateRight(node);
+						parent = node.parent;
+					}
+					parent.color = BLACK;
+					grandparent.color = RED;
+					rotateLeft(grandparent);
+				}
+			}
+		}
+		root.color = BLACK;
+	}
+
+	@Override
+	public void remove(int key) {
+		Node z = findNode(key);
+		if (z == LEAF) return;
+
+		Node y = z;
+		boolean removedColor = y.color;
+		Node x;
+		if (z.left == LEAF) {
+			x = z.right;
+			transplant(z, z.right);
+		} else if (z.right == LEAF) {
+			x = z.left;
+			transplant(z, z.left);
+		} else {
+			// replace z by the largest node of its left subtree, like RedBlackTree does
+			y = z.left;
+			while (y.right != LEAF) y = y.right;
+			removedColor = y.color;
+			x = y.left;
+			if (y.parent == z) {
+				x.parent = y;
+			} else {
+				transplant(y, y.left);
+				y.left = z.left;
+				y.left.parent = y;
+			}
+			transplant(z, y);
+			y.right = z.right;
+			y.right.parent = y;
+			y.color = z.color;
+		}
+
+		if (removedColor == BLACK) rebalanceOnDelete(x);
+	}
+
+	private void transplant(Node u, Node v) {
+		if (u.parent == LEAF || u.parent == null) root = v;
+		else if (u == u.parent.left) u.parent.left = v;
+		else u.parent.right = v;
+		v.parent = u.parent;
+	}
+
+	private void rebalanceOnDelete(Node x) {
+		while (x != root && x.color == BLACK) {
+			if (x == x.parent.left) {
+				Node w = x.parent.right;
+				if (w.color == RED) {
+					w.color = BLACK;
+					x.parent.color = RED;
+					rotateLeft(x.parent);
+					w = x.parent.right;
+				}
+				if (w.left.color == BLACK && w.right.color == BLACK) {
+					w.color = RED;
+					x = x.parent;
+				} else {
+					if (w.right.color == BLACK) {
+						w.left.color = BLACK;
+						w.color = RED;
+						rotateRight(w);
+						w = x.parent.right;
+					}
+					w.color = x.parent.color;
+					x.parent.color = BLACK;
+					w.right.color = BLACK;
+					rotateLeft(x.parent);
+					x = root;
+				}
+			} else {
+				Node w = x.parent.left;
+				if (w.color == RED) {
+					w.color = BLACK;
+					x.parent.color = RED;
+					rotateRight(x.parent);
+					w = x.parent.left;
+				}
+				if (w.right.color == BLACK && w.left.color == BLACK) {
+					w.color = RED;
+					x = x.parent;
+				} else {
+					if (w.left.color == BLACK) {
+						w.right.color = BLACK;
+						w.color = RED;
+						rotateLeft(w);
+						w = x.parent.left;
+					}
+					w.color = x.parent.color;
+					x.parent.color = BLACK;
+					w.left.color = BLACK;
+					rotateRight(x.parent);
+					x = root;
+				}
+			}
+		}
+		x.color = BLACK;
+	}
+
+	private void rotateLeft(Node x) {
+		Node y = x.right;
+		x.right = y.left;
+		if (y.left != LEAF) y.left.parent = x;
+		y.parent = x.parent;
+		if (x.parent == LEAF || x.parent == null) root = y;
+		else if (x == x.parent.left) x.parent.left = y;
+		else x.parent.right = y;
+		y.left = x;
+		x.parent = y;
+	}
+
+	private void rotateRight(Node x) {
+		Node y = x.left;
+		x.left = y.right;
+		if (y.right != LEAF) y.right.parent = x;
+		y.parent = x.parent;
+		if (x.parent == LEAF || x.parent == null) root = y;
+		else if (x == x.parent.right) x.parent.right = y;
+		else x.parent.left = y;
+		y.right = x;
+		x.parent = y;
+	}
+
+	@Override
+	public int getMin() {
+		if (root == LEAF) throw new NoSuchElementException();
+		Node node = root;
+		while (node.left != LEAF) node = node.left;
+		return node.key;
+	}
+
+	@Override
+	public int getMax() {
+		if (root == LEAF) throw new NoSuchElementException();
+		Node node = root;
+		while (node.right != LEAF) node = node.right;
+		return node.key;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return root == LEAF;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder stringBuilder = new StringBuilder();
+		toString(root, stringBuilder);
+		return stringBuilder.toString();
+	}
+
+	// print the values in pre-order, in the same format as RedBlackTree
+	private void toString(Node node, StringBuilder stringBuilder) {
+		stringBuilder.append("(");
+		if (node != LEAF) {
+			stringBuilder.append("[").append(node.color).append("]");
+			stringBuilder.append(node.key).append(",");
+			toString(node.left, stringBuilder);
+			stringBuilder.append(",");
+			toString(node.right, stringBuilder);
+		}
+		stringBuilder.append(")");
+	}
+}
@@ -0,0 +1,167 @@
+package structures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * A skip list with primitive int keys. The implementation follows SkipList, but
+ * each node keeps its forward pointers in an array with one entry per level, and
+ * the end of each level is marked with null.
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ */
+public class IntSkipList implements IntDynamicSet {
+
+	private int maxLevel;
+	private Node head;
+	private Node[] update;
+	private final Random rand;
+
+	private static class Node {
+		private int key;
+		private Node[] forwardPointers;
+
+		private Node(int key, int level) {
+			this.key = key;
+			this.forwardPointers = new Node[level + 1];
+		}
+	}
+
+	public IntSkipList(long seed) {
+		head = new Node(0, 0);
+		update = new Node[1];
+		maxLevel = 0;
+		rand = new Random(seed);
+	}
+
+	public IntSkipList() {
+		this(System.currentTimeMillis());
+	}
+
+	@Override
+	public boolean find(int key) {
+		Node x = this.head;
+
+		// loop invariant: x->key < search key
+		for (int i = maxLevel; i >= 0; i--) {
+			Node next = x.forwardPointers[i];
+			while (next != null && next.key < key) {
+				x = next;
+				next = x.forwardPointers[i];
+			}
+		}
+
+		x = x.forwardPointers[0];
+		return x != null && x.key == key;
+	}
+
+	@Override
+	public void insert(int key) {
+		Node x = findPredecessors(key);
+
+		if (x != null && x.key == key)
+			return;
+
+		int v = 0; 						// number of levels for the new element
+		while (rand.nextBoolean()) v++;
+
+		v = Math.min(v, maxLevel + 1);
+
+		if (v > maxLevel) {
+			maxLevel = v;
+			head.forwardPointers = Arrays.copyOf(head.forwardPointers, maxLevel + 1);
+			update = Arrays.copyOf(update, maxLevel + 1);
+			update[v] = head;
+		}
+
+		Node newNode = new Node(key, v);
+
+		for (int i = 0; i <= v; i++) {
+			newNode.forwardPointers[i] = update[i].forwardPointers[i];
+			update[i].forwardPointers[i] = newNode;
+		}
+	}
+
+	@Override
+	public void remove(int key) {
+		Node x = findPredecessors(key);
+
+		if (x != null && x.key == key) {
+			for (int i = 0; i <= maxLevel; i++) {
+				if (update[i].forwardPointers[i] != x)
+					break;
+				update[i].forwardPointers[i] = x.forwardPointers[i];
+			}
+
+			while (maxLevel > 0 && head.forwardPointers[maxLevel] == null) {
+				maxLevel--;
+			}
+		}
+	}
+
+	/**
+	 * Fills update with the last node before key in every level.
+	 *
+	 * @param key Key to search for.
+	 * @return The first node whose key is not smaller than key (null if there is none).
+	 */
+	private Node findPredecessors(int key) {
+		Node x = head;
+		for (int i = maxLevel; i >= 0; i--) {
+			Node next = x.forwardPointers[i];
+			while (next != null && next.key < key) {
+				x = next;
+				next = x.forwardPointers[i];
+			}
+			update[i] = x;
+		}
+		return x.forwardPointers[0];
+	}
+
+	@Override
+	public int getMin() {
+		Node first = head.forwardPointers[0];
+		if (first == null) throw new NoSuchElementException();
+		return first.key;
+	}
+
+	@Override
+	public int getMax() {
+		if (head.forwardPointers[0] == null) throw new NoSuchElementException();
+		Node x = head;
+		for (int i = maxLevel; i >= 0; i--) {
+			while (x.forwardPointers[i] != null) {
+				x = x.forwardPointers[i];
+			}
+		}
+		return x.key;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return head.forwardPointers[0] == null;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder string = new StringBuilder();
+
+		for (int i = maxLevel; i >= 0; i--) {
+			string.append("HEAD ");
+			Node x = head.forwardPointers[0];
+			while (x != null) {
+				if (x.forwardPointers.length > i) {
+					string.append("-> " + x.key + " ");
+				} else {
+					string.append("------");
+				}
+				x = x.forwardPointers[0];
+			}
+			string.append("-> NIL\n");
+		}
+
+		return string.toString();
+	}
+}
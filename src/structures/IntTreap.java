@@ -0,0 +1,175 @@
+package structures;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * A treap with primitive int keys. The implementation is the same as Treap.
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ */
+public class IntTreap implements IntDynamicSet {
+	private Random rand;
+	private final int LIMIT = 10000;
+	private final int INF = LIMIT + 1;
+	private int size;
+	private Node root;
+
+	private static class Node {
+		private int key;
+		private Node left;
+		private Node right;
+		private int priority;
+
+		private Node(int key, int priority) {
+			this.key = key;
+			this.priority = priority;
+		}
+	}
+
+	public IntTreap(long seed) {
+		this.size = 0;
+		rand = new Random(seed);
+	}
+
+	public IntTreap() {
+		this(System.currentTimeMillis());
+	}
+
+	@Override
+	public boolean find(int key) {
+		Node node = root;
+		while (node != null) {
+			if (key < node.key) node = node.left;
+			else if (key > node.key) node = node.right;
+			else return true;
+		}
+		return false;
+	}
+
+	@Override
+	public void insert(int key) {
+		if (!this.find(key)) size++;
+		root = insert(root, key);
+	}
+
+	private Node insert(Node node, int key) {
+		if (node == null)
+			return new Node(key, rand.nextInt(LIMIT));
+		else if (key < node.key)
+			node.left = insert(node.left, key);
+		else if (key > node.key)
+			node.right = insert(node.right, key);
+		return checkHeapProperty(node);
+	}
+
+	@Override
+	public void remove(int key) {
+		if (this.find(key)) size--;
+		root = remove(root, key);
+	}
+
+	private Node remove(Node node, int key) {
+		if (node == null)
+			return null;
+		else if (key < node.key)
+			node.left = remove(node.left, key);
+		else if (key > node.key)
+			node.right = remove(node.right, key);
+		else {
+			if (node.left == null && node.right == null) {
+				return null;
+			} else {
+				// rotate the lowest priority child
+				int leftPriority = node.left != null ? node.left.priority : INF;
+				int rightPriority = node.right != null ? node.right.priority : INF;
+
+				if (leftPriority < rightPriority) {
+					node = rotateRight(node);
+					node.right = remove(node.right, key);
+				} else {
+					node = rotateLeft(node);
+					node.left = remove(node.left, key);
+				}
+			}
+		}
+
+		return node;
+	}
+
+	private Node checkHeapProperty(Node node) {
+		int leftPriority = node.left != null ? node.left.priority : INF;
+		int rightPriority = node.right != null ? node.right.priority : INF;
+
+		// check if it violates the heap property in any child
+		if (node.priority > leftPriority || node.priority > rightPriority) {
+			if (leftPriority < rightPriority) {
+				return rotateRight(node);
+			} else {
+				return rotateLeft(node);
+			}
+		}
+
+		return node;
+	}
+
+	private Node rotateLeft(Node x) {
+		Node y = x.right;
+		x.right = y.left;
+		y.left = x;
+		return y;
+	}
+
+	private Node rotateRight(Node x) {
+		Node y = x.left;
+		x.left = y.right;
+		y.right = x;
+		return y;
+	}
+
+	@Override
+	public int getMin() {
+		if (root == null) throw new NoSuchElementException();
+		Node node = root;
+		while (node.left != null) node = node.left;
+		return node.key;
+	}
+
+	@Override
+	public int getMax() {
+		if (root == null) throw new NoSuchElementException();
+		Node node = root;
+		while (node.right != null) node = node.right;
+		return node.key;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return root == null;
+	}
+
+	public int getSize() {
+		return this.size;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder stringBuilder = new StringBuilder();
+		toString(root, stringBuilder);
+		return stringBuilder.toString();
+	}
+
+	// print the values in pre-order, in the same format as Treap
+	private void toString(Node node, StringBuilder stringBuilder) {
+		stringBuilder.append("(");
+		if (node != null) {
+			stringBuilder.append("[").append(node.priority).append("]");
+			stringBuilder.append(node.key).append(",");
+			toString(node.left, stringBuilder);
+			stringBuilder.append(",");
+			toString(node.right, stringBuilder);
+		}
+		stringBuilder.append(")");
+	}
+}
@@ -1,6 +1,8 @@
 package structures;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 
 /**
  * A self-balanced binary search tree where each node has an extra bit and that
@@ -19,6 +21,30 @@ public class RedBlackTree<K extends Comparable<K>> implements DynamicSet<K> {
 	private final Node DBLACK = new Node(null, BLACK, null);
 
 	private Node root;
+
+	private final TreeWalker<K, Node> walker = new TreeWalker<K, Node>() {
+		@Override
+		Node left(Node node) {
+			return node.getLeft().getKey() != null ? node.getLeft() : null;
+		}
+
+		@Override
+		Node right(Node node) {
+			return node.getRight().getKey() != null ? node.getRight() : null;
+		}
+
+		@Override
+		K key(Node node) {
+			return node.getKey();
+		}
+
+		@Override
+		int size(Node node) {
+			return node.getSize();
+		}
+	};
+
+	private final boolean recursive; // use the recursive versions of find, insert and remove
 	// replace to u
 	private Node tmpNewNode;
 	private Node u, v;
@@ -29,11 +55,13 @@ public class RedBlackTree<K extends Comparable<K>> implements DynamicSet<K> {
 		private Node right;
 		private Node parent;
 		private boolean color;
+		private int size; // number of nodes in the subtree (0 for the sentinels)
 
 		protected Node(K key, boolean color, Node parent) {
 			this.key = key;
 			this.color = color;
 			this.parent = parent;
+			this.size = key != null ? 1 : 0;
 			this.setLeft(LEAF);
 			this.setRight(LEAF);
 		}
@@ -90,6 +118,10 @@ public class RedBlackTree<K extends Comparable<K>> implements DynamicSet<K> {
 			return color;
 		}
 
+		public int getSize() {
+			return size;
+		}
+
 		public void setKey(K key) {
 			this.key = key;
 		}
@@ -109,21 +141,54 @@ public class RedBlackTree<K extends Comparable<K>> implements DynamicSet<K> {
 		public void setColor(boolean color) {
 			this.color = color;
 		}
+
+		/**
+		 * Recomputes the size given the ones of the children. It must not be called on
+		 * the sentinels.
+		 */
+		private void updateSize() {
+			this.size = 1 + left.size + right.size;
+		}
 	}
 
 	public RedBlackTree() {
+		this(false);
+	}
+
+	/**
+	 * @param recursive
+	 *            - if true, find, insert and remove use the recursive
+	 *            implementations, which are kept to be compared with the iterative
+	 *            ones
+	 */
+	public RedBlackTree(boolean recursive) {
 		root = LEAF;
+		this.recursive = recursive;
 	}
 
 	@Override
 	public K find(K key) {
-		Node node = find(root, key);
+		Node node = recursive ? find(root, key) : findIterative(key);
 		if (node != null)
 			return node.getKey();
 		else
 			return null;
 	}
 
+	private Node findIterative(K key) {
+		Node node = root;
+		while (node.getKey() != null) {
+			int cmp = key.compareTo(node.getKey());
+			if (cmp < 0)
+				node = node.getLeft();
+			else if (cmp > 0)
+				node = node.getRight();
+			else
+				return node;
+		}
+		return null;
+	}
+
 	private Node find(Node node, K key) {
 		if (node.getKey() == null || node == LEAF || node == DBLACK)
 			return null;
@@ -136,16 +201,52 @@ public class RedBlackTree<K extends Comparable<K>> implements DynamicSet<K> {
 	}
 
 	@Override
-	public void insert(K key) {
+	public boolean insert(K key) {
 		if (root.getKey() == null) {
 			root = new Node(key, BLACK, null);
-		} else if (find(key) == null) {
+			return true;
+		} else if (!recursive) {
+			return insertIterative(key);
+		} else {
+			// tmpNewNode is a global node to store the last insertion (null if the key
+			// was already in the tree)
+			tmpNewNode = null;
 			root = insert(root, key, root);
-			// tmpNewNode is a global node to store the last insertion
+			if (tmpNewNode == null)
+				return false;
 			rebalanceOnInsert(tmpNewNode);
+			return true;
 		}
 	}
 
+	/**
+	 * Iterative version of insert(Node, K, Node), in a single pass: the search
+	 * stops if the key is found, otherwise the new node is linked to the last node
+	 * of the path and the sizes of its ancestors are incremented.
+	 */
+	private boolean insertIterative(K key) {
+		Node parent = null;
+		Node node = root;
+		int cmp = 0;
+		while (node.getKey() != null) {
+			cmp = key.compareTo(node.getKey());
+			if (cmp == 0)
+				return false;
+			parent = node;
+			node = cmp < 0 ? node.getLeft() : node.getRight();
+		}
+
+		Node newNode = new Node(key, RED, parent);
+		if (cmp < 0)
+			parent.setLeft(newNode);
+		else
+			parent.setRight(newNode);
+		for (Node ancestor = parent; ancestor != null; ancestor = ancestor.getParent())
+			ancestor.size++;
+		rebalanceOnInsert(newNode);
+		return true;
+	}
+
 	private Node insert(Node node, K key, Node parent) {
 		if (node.getKey() == null)
 			return tmpNewNode = new Node(key, RED, parent);
@@ -154,15 +255,72 @@ public class RedBlackTree<K extends Comparable<K>> implements DynamicSet<K> {
 		else if (key.compareTo(node.getKey()) > 0)
 			node.setRight(insert(node.getRight(), key, node));
 
+		node.updateSize();
 		return node;
 	}
 
 	@Override
-	public void remove(K key) {
-		if (remove(root, key) != null) {
-			// mathods names (to change)
-			rebalanceOnDelete();
+	public boolean remove(K key) {
+		if ((recursive ? remove(root, key) : removeIterative(key)) == null)
+			return false;
+		// v leaves the tree, so its ancestors lose one node
+		for (Node node = v.getParent(); node != null; node = node.getParent())
+			node.size--;
+		// mathods names (to change)
+		rebalanceOnDelete();
+		unlinkDoubleBlack();
+		return true;
+	}
+
+	/**
+	 * Puts LEAF back where the DBLACK sentinel was left by the deletion. DBLACK is
+	 * shared, so if it stayed in the tree a later rotation could change its parent
+	 * in the middle of another deletion.
+	 */
+	private void unlinkDoubleBlack() {
+		Node parent = DBLACK.getParent();
+		if (root == DBLACK) {
+			root = LEAF;
+		} else if (parent != null) {
+			if (parent.getLeft() == DBLACK)
+				parent.setLeft(LEAF);
+			else if (parent.getRight() == DBLACK)
+				parent.setRight(LEAF);
+		}
+		DBLACK.setParent(null);
+	}
+
+	/**
+	 * Iterative version of remove(Node, K). It leaves the same nodes in u and v:
+	 * when the node has two children, it takes the key of the largest node of its
+	 * left subtree, which is the one that leaves the tree.
+	 */
+	private Node removeIterative(K key) {
+		Node node = root;
+		while (node.getKey() != null) {
+			int cmp = key.compareTo(node.getKey());
+			if (cmp < 0) {
+				node = node.getLeft();
+			} else if (cmp > 0) {
+				node = node.getRight();
+			} else {
+				v = node;
+				if (node.getLeft().getKey() != null && node.getRight().getKey() != null) {
+					v = getMax(node.getLeft());
+					node.setKey(v.getKey());
+				}
+				if (v.getLeft().getKey() == null && v.getRight().getKey() == null)
+					u = DBLACK;
+				else if (v.getLeft().getKey() == null)
+					u = v.getRight();
+				else
+					u = v.getLeft();
+				return node;
+			}
 		}
+		u = DBLACK;
+		v = DBLACK;
+		return null;
 	}
 
 	private Node remove(Node node, K key) {
@@ -196,6 +354,159 @@ public class RedBlackTree<K extends Comparable<K>> implements DynamicSet<K> {
 		}
 	}
 
+	/**
+	 * Builds a perfectly balanced tree in linear time. All the levels except the
+	 * deepest one are full, so coloring the nodes of the deepest level red (when it
+	 * is not full) and all the other nodes black gives every path the same number of
+	 * black nodes.
+	 */
+	@Override
+	public void bulkLoad(Iterator<? extends K> sorted, int n) {
+		int deepestLevel = 31 - Integer.numberOfLeadingZeros(n);
+		boolean perfect = (n & (n + 1)) == 0;
+		Node newRoot = buildTree(new SortedKeys<K>(sorted), n, 0, perfect ? -1 : deepestLevel);
+		if (newRoot != LEAF)
+			newRoot.setParent(null);
+		root = newRoot;
+	}
+
+	/**
+	 * Builds a balanced tree with the next n keys, in-order.
+	 * 
+	 * @param keys
+	 *            - source of the keys
+	 * @param n
+	 *            - number of keys
+	 * @param depth
+	 *            - depth of the root of the subtree
+	 * @param redLevel
+	 *            - depth of the red nodes
+	 * @return - root of the subtree that was built
+	 */
+	private Node buildTree(SortedKeys<K> keys, int n, int depth, int redLevel) {
+		if (n == 0)
+			return LEAF;
+		Node left = buildTree(keys, n / 2, depth + 1, redLevel);
+		Node node = new Node(keys.next(), depth == redLevel ? RED : BLACK, null);
+		node.setLeft(left);
+		if (left != LEAF)
+			left.setParent(node);
+		Node right = buildTree(keys, n - 1 - n / 2, depth + 1, redLevel);
+		node.setRight(right);
+		if (right != LEAF)
+			right.setParent(node);
+		node.updateSize();
+		return node;
+	}
+
+	/**
+	 * The keys are inserted one at a time, in ascending order, so that consecutive
+	 * searches share most of their path (which stays in the cache).
+	 */
+	@Override
+	public int insertAll(K[] keys) {
+		int inserted = 0;
+		for (K key : Batch.sortedDistinct(keys)) {
+			if (insert(key))
+				inserted++;
+		}
+		return inserted;
+	}
+
+	/**
+	 * The keys are removed one at a time, in ascending order, as in insertAll.
+	 */
+	@Override
+	public int removeAll(K[] keys) {
+		int removed = 0;
+		for (K key : Batch.sortedDistinct(keys)) {
+			if (remove(key))
+				removed++;
+		}
+		return removed;
+	}
+
+	/**
+	 * Searches for the sorted keys in a single descent: each node splits the keys it
+	 * receives between its two subtrees.
+	 */
+	@Override
+	public K[] findAll(K[] keys) {
+		K[] sorted = Batch.sortedDistinct(keys);
+		K[] found = Arrays.copyOf(sorted, sorted.length);
+		Arrays.fill(found, null);
+		findAll(root, sorted, 0, sorted.length - 1, found);
+		return Batch.inBatchOrder(keys, sorted, found);
+	}
+
+	/**
+	 * @param keys
+	 *            - sorted keys, of which keys[lo..hi] are searched in the subtree
+	 * @param found
+	 *            - where the keys that are found are written, in the same positions
+	 */
+	private void findAll(Node node, K[] keys, int lo, int hi, K[] found) {
+		if (node.getKey() == null || lo > hi)
+			return;
+		int i = Arrays.binarySearch(keys, lo, hi + 1, node.getKey());
+		if (i >= 0) {
+			found[i] = node.getKey();
+			findAll(node.getLeft(), keys, lo, i - 1, found);
+			findAll(node.getRight(), keys, i + 1, hi, found);
+		} else {
+			int insertionPoint = -i - 1;
+			findAll(node.getLeft(), keys, lo, insertionPoint - 1, found);
+			findAll(node.getRight(), keys, insertionPoint, hi, found);
+		}
+	}
+
+	/**
+	 * @return The root, or null if the tree is empty (then the root is a sentinel).
+	 */
+	private Node treeRoot() {
+		return root.getKey() != null ? root : null;
+	}
+
+	@Override
+	public Iterator<K> iterator() {
+		return walker.iterator(treeRoot(), null, null);
+	}
+
+	@Override
+	public Iterator<K> range(K lo, K hi) {
+		return walker.iterator(treeRoot(), lo, hi);
+	}
+
+	@Override
+	public K floor(K key) {
+		return walker.predecessor(treeRoot(), key, true);
+	}
+
+	@Override
+	public K lower(K key) {
+		return walker.predecessor(treeRoot(), key, false);
+	}
+
+	@Override
+	public K ceiling(K key) {
+		return walker.successor(treeRoot(), key, true);
+	}
+
+	@Override
+	public K higher(K key) {
+		return walker.successor(treeRoot(), key, false);
+	}
+	
+	@Override
+	public int rank(K key) {
+		return walker.rank(treeRoot(), key);
+	}
+
+	@Override
+	public K select(int i) {
+		return walker.select(treeRoot(), i);
+	}
+
 	@Override
 	public K getMin() {
 		Node node = getMin(root);
@@ -232,7 +543,6 @@ public class RedBlackTree<K extends Comparable<K>> implements DynamicSet<K> {
 			return getMax(node.getRight());
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public String toDotString() {
 		StringBuilder stringBuilder = new StringBuilder();
@@ -241,8 +551,8 @@ public class RedBlackTree<K extends Comparable<K>> implements DynamicSet<K> {
 		stringBuilder.append("\n");
 
 		// Dump all the nodes
-		LinkedList<Node> curLevelNodes = new LinkedList<Node>();
-		LinkedList<Node> nextLevelNodes = new LinkedList<Node>();
+		ArrayList<Node> curLevelNodes = new ArrayList<Node>();
+		ArrayList<Node> nextLevelNodes = new ArrayList<Node>();
 		int nullDotCount = 0;
 		
 		if(root != null) {
@@ -259,11 +569,9 @@ public class RedBlackTree<K extends Comparable<K>> implements DynamicSet<K> {
 				stringBuilder.append("}");
 				stringBuilder.append("\n");
 				
-				while(!curLevelNodes.isEmpty()) {
-					Node node = curLevelNodes.remove();
+				for(Node node : curLevelNodes) {
 					if(node.getKey() != null) {
-						if(node.getColor() == RED) stringBuilder.append(node.getKey() + " [shape=circle, style=filled, fillcolor=red];");
-						else stringBuilder.append(node.getKey() + " [shape=circle, style=filled, fillcolor=black, fontcolor=white];");
+						stringBuilder.append(node.getKey() + " [" + dotAttributes(node) + "];");
 						stringBuilder.append("\n");
 						
 						Node left = node.getLeft();
@@ -297,10 +605,12 @@ public class RedBlackTree<K extends Comparable<K>> implements DynamicSet<K> {
 					
 				}
 				
-				//Prepare the next curLevelNodes array
-				curLevelNodes = (LinkedList<RedBlackTree<K>.Node>) nextLevelNodes.clone();
+				//The next level becomes the current one, and the old list is reused for the level after it
+				ArrayList<Node> swap = curLevelNodes;
+				curLevelNodes = nextLevelNodes;
+				nextLevelNodes = swap;
 			}
-			while (!nextLevelNodes.isEmpty());
+			while (!curLevelNodes.isEmpty());
 		}
 
 		stringBuilder.append("}");
@@ -308,6 +618,21 @@ public class RedBlackTree<K extends Comparable<K>> implements DynamicSet<K> {
 		return stringBuilder.toString();
 	}
 
+	@Override
+	public String toDotString(int maxDepth, K focusKey) {
+		return new DotTreeWriter<K, Node>(walker) {
+			@Override
+			String attributes(Node node) {
+				return dotAttributes(node);
+			}
+		}.write(treeRoot(), maxDepth, focusKey);
+	}
+
+	private String dotAttributes(Node node) {
+		if(node.getColor() == RED) return "shape=circle, style=filled, fillcolor=red";
+		else return "shape=circle, style=filled, fillcolor=black, fontcolor=white";
+	}
+
 	@Override
 	public String toString() {
 		return toString(root);
@@ -443,6 +768,7 @@ public class RedBlackTree<K extends Comparable<K>> implements DynamicSet<K> {
 	private void rebalanceOnDelete() {
 		if (v == root) {
 			u.setColor(BLACK);
+			u.setParent(null);
 			root = u;
 		} else if (v.getColor() == RED || u.getColor() == RED) {
 			u.setParent(v.getParent());
@@ -568,6 +894,8 @@ public class RedBlackTree<K extends Comparable<K>> implements DynamicSet<K> {
 		y.setParent(x.getParent());
 		x.setParent(y);
 
+		x.updateSize();
+		y.updateSize();
 		return y;
 	}
 
@@ -584,6 +912,8 @@ public class RedBlackTree<K extends Comparable<K>> implements DynamicSet<K> {
 		y.setParent(x.getParent());
 		x.setParent(y);
 
+		x.updateSize();
+		y.updateSize();
 		return y;
 	}
 
@@ -1,8 +1,8 @@
 package structures;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.Stack;
+import java.util.Arrays;
+import java.util.Iterator;
 
 /**
  * This structure is a self-balanced binary search tree that do not require extra space per 
@@ -21,15 +21,18 @@ public class ScapegoatTree<K extends Comparable<K>> implements DynamicSet<K> {
     	private Node left;
     	private Node right;
     	private Node parent;
+    	private int size; //number of nodes in the subtree
     	 
     	protected Node(K key) {
     		this.key = key;
+    		this.size = 1;
     	}
     	
     	public K getKey() { return key; }
     	public Node getLeft() { return left; }
     	public Node getRight() { return right; }
     	public Node getParent() { return parent; }
+    	public int getSize() { return size; }
     	public Node getSibling() {
     		//Node is the root of the tree
     		if(this.parent == null) return null;
@@ -46,12 +49,42 @@ public class ScapegoatTree<K extends Comparable<K>> implements DynamicSet<K> {
     	public void setLeft(Node left) { this.left = left; }
     	public void setRight(Node right) { this.right = right; }
     	public void setParent(Node parent) { this.parent = parent; }
+    	public void updateSize() {
+    		this.size = 1 + (left != null ? left.size : 0) + (right != null ? right.size : 0);
+    	}
     }
 	
 	private Node root;
+
+	private final TreeWalker<K, Node> walker = new TreeWalker<K, Node>() {
+		@Override
+		Node left(Node node) {
+			return node.getLeft();
+		}
+
+		@Override
+		Node right(Node node) {
+			return node.getRight();
+		}
+
+		@Override
+		K key(Node node) {
+			return node.getKey();
+		}
+
+		@Override
+		int size(Node node) {
+			return node.getSize();
+		}
+	};
+
 	private final double ALPHA;
+	private final double LOG_INV_ALPHA; //log(1/alpha), used by hAlpha
 	private int size; //number of nodes in the tree
 	private int maxSize; //maximal value of size since the last time the tree was completely rebuilt. 
+	private Node insertedNode; //node found or created by the last insertion
+	private int insertedDepth; //depth of insertedNode
+	private Node[] scratch; //in-order nodes of the subtree being rebuilt, reused between rebuilds
 	
     public ScapegoatTree(double alpha) {
     	//Check if the value for alpha is not valid
@@ -60,6 +93,7 @@ public class ScapegoatTree<K extends Comparable<K>> implements DynamicSet<K> {
     	}
     	
     	this.ALPHA = alpha;
+    	this.LOG_INV_ALPHA = -Math.log(alpha);
     	this.size = 0;
     	this.maxSize = 0;
     }
@@ -90,14 +124,14 @@ public class ScapegoatTree<K extends Comparable<K>> implements DynamicSet<K> {
     }
 
 	@Override
-	public void insert(K key) {
-		InsertResult result = insert(root, key);
-		root = result.resultNode;
-		int depth = result.depth;
+	public boolean insert(K key) {
+		int oldSize = this.size;
+		root = insert(root, key);
+		root.setParent(null);
 		
 		//Check if the inserted node is a deep node
-		if(depth > hAlpha(size)) {
-			Node scapegoat = findScapegoat(result.insertedNode);
+		if(insertedDepth > hAlpha(size)) {
+			Node scapegoat = findScapegoat(insertedNode);
 			Node parent = scapegoat.getParent(); //the parent of the scapegoat node
 			Node newNode = rebuildTree(scapegoat);
 			newNode.setParent(parent);
@@ -114,67 +148,71 @@ public class ScapegoatTree<K extends Comparable<K>> implements DynamicSet<K> {
     			else parent.setRight(newNode);
 			}
 		}
+		return this.size != oldSize;
 	}
 	
-	private class InsertResult {
-		public Node resultNode;
-		public Node insertedNode;
-		public int depth;
-		
-		public InsertResult(Node resultNode, Node insertedNode, int depth) {
-			this.resultNode = resultNode;
-			this.insertedNode = insertedNode;
-			this.depth = depth;
-		}
-	}
-
-    private InsertResult insert(Node node, K key) { 
+	/**
+	 * Inserts the key in the subtree nested at the given node. The inserted node (or the
+	 * node that already had the key) and its depth in this subtree are left in insertedNode
+	 * and insertedDepth, so that no result object is allocated per level.
+	 * 
+	 * @param node Root of the subtree.
+	 * @param key Key to insert.
+	 * @return Root of the subtree after the insertion.
+	 */
+    private Node insert(Node node, K key) { 
     	//Node is empty
     	if (node == null) {
     		this.size++;
     		if(this.size > this.maxSize) this.maxSize = this.size;
-    		Node newNode = new Node(key);
-    		return new InsertResult(newNode, newNode, 0);
+    		insertedNode = new Node(key);
+    		insertedDepth = 0;
+    		return insertedNode;
     	}
     	//Add to the left subtree
     	else if (key.compareTo(node.getKey()) < 0) {
-    		InsertResult result = insert(node.getLeft(), key);
-    		node.setLeft(result.resultNode);
-    		result.resultNode.setParent(node);
-    		
-    		int depth = 1 + result.depth;
-    		return new InsertResult(node, result.insertedNode, depth); 
+    		Node newChild = insert(node.getLeft(), key);
+    		node.setLeft(newChild);
+    		newChild.setParent(node);
+    		node.updateSize();
+    		insertedDepth++;
+    		return node;
     	}
     	//Add to the right subtree
     	else if (key.compareTo(node.getKey()) > 0) {
-    		InsertResult result = insert(node.getRight(), key);
-    		node.setRight(result.resultNode);
-    		result.resultNode.setParent(node);
-    		
-    		int depth = 1 + result.depth;
-    		return new InsertResult(node, result.insertedNode, depth);
+    		Node newChild = insert(node.getRight(), key);
+    		node.setRight(newChild);
+    		newChild.setParent(node);
+    		node.updateSize();
+    		insertedDepth++;
+    		return node;
     	}
     	//Tree has the key on its root
-    	else return new InsertResult(node, node, 0);
+    	else {
+    		insertedNode = node;
+    		insertedDepth = 0;
+    		return node;
+    	}
     }
     
     private Node findScapegoat(Node node) {
-    	int size = 1;
     	int depth = 0;
     	Node n = node;
     	while(n.getParent() != null) {
     		depth++;
-    		int totalSize = 1 + size + getSize(n.getSibling());
+    		//The sizes on the insertion path were already updated
+    		int totalSize = n.getParent().getSize();
     		if(depth > hAlpha(totalSize)) return n.getParent();
     		n = n.getParent();
-    		size = totalSize;
     	}
     	throw new RuntimeException("Found a null scapegoat node.");
     }
 
 	@Override
-	public void remove(K key) {
+	public boolean remove(K key) {
+		int oldSize = this.size;
 		root = remove(root, key);
+		if(root != null) root.setParent(null);
 		
 		if(this.size < this.ALPHA * this.maxSize) {
 			//Rebuid the whole tree
@@ -183,6 +221,7 @@ public class ScapegoatTree<K extends Comparable<K>> implements DynamicSet<K> {
 			//Set maxSize to size 
 			this.maxSize = this.size;
 		}
+		return this.size != oldSize;
 	}
 	
 	private Node remove(Node node, K key) {
@@ -193,6 +232,7 @@ public class ScapegoatTree<K extends Comparable<K>> implements DynamicSet<K> {
     		Node newChild = remove(node.getLeft(), key);
     		node.setLeft(newChild);
     		if(newChild != null) newChild.setParent(node);
+    		node.updateSize();
     		return node;
     	}
     	//Delete on the right subtree
@@ -200,6 +240,7 @@ public class ScapegoatTree<K extends Comparable<K>> implements DynamicSet<K> {
         	Node newChild = remove(node.getRight(), key);
     		node.setRight(newChild);
     		if(newChild != null) newChild.setParent(node);
+    		node.updateSize();
         	return node;
         }
     	//Tree has the key on its root
@@ -223,11 +264,60 @@ public class ScapegoatTree<K extends Comparable<K>> implements DynamicSet<K> {
     			Node newChild = remove(node.getLeft(), largestLeftNode.getKey());
     			node.setLeft(newChild);
     			if(newChild != null) newChild.setParent(node);
+    			node.updateSize();
     			return node;
     		}
         }
     }
 
+	@Override
+	public Iterator<K> iterator() {
+		return walker.iterator(root, null, null);
+	}
+
+	@Override
+	public Iterator<K> range(K lo, K hi) {
+		return walker.iterator(root, lo, hi);
+	}
+
+	@Override
+	public K floor(K key) {
+		return walker.predecessor(root, key, true);
+	}
+
+	@Override
+	public K lower(K key) {
+		return walker.predecessor(root, key, false);
+	}
+
+	@Override
+	public K ceiling(K key) {
+		return walker.successor(root, key, true);
+	}
+
+	@Override
+	public K higher(K key) {
+		return walker.successor(root, key, false);
+	}
+
+	/**
+	 * Finds the in-order successor of a node.
+	 * 
+	 * @param node Node of the tree.
+	 * @return Node with the smallest key greater than the node's key (null if there is none).
+	 */
+	private Node successor(Node node) {
+		//The successor is the minimum of the right subtree
+		if(node.getRight() != null) return getMin(node.getRight());
+		//Otherwise, it is the first ancestor whose left subtree contains the node
+		Node parent = node.getParent();
+		while(parent != null && node == parent.getRight()) {
+			node = parent;
+			parent = parent.getParent();
+		}
+		return parent;
+	}
+	
 	/**
 	 * The implementation is the same as SimpleBST.
 	 */
@@ -274,7 +364,17 @@ public class ScapegoatTree<K extends Comparable<K>> implements DynamicSet<K> {
 		//Node is empty
     	if(node == null) return 0;
     	//Node is not empty
-    	else return 1 + getSize(node.getLeft()) + getSize(node.getRight());
+    	else return node.getSize();
+	}
+	
+	@Override
+	public int rank(K key) {
+		return walker.rank(root, key);
+	}
+
+	@Override
+	public K select(int i) {
+		return walker.select(root, i);
 	}
 	
 	/**
@@ -284,7 +384,7 @@ public class ScapegoatTree<K extends Comparable<K>> implements DynamicSet<K> {
 	 * @return Evaluation of this function as an integer.
 	 */
 	private int hAlpha(int n) {
-		return (int)Math.floor(-Math.log(n)/Math.log(this.ALPHA));
+		return (int)Math.floor(Math.log(n)/this.LOG_INV_ALPHA);
 	}
 	
 	/**
@@ -294,61 +394,95 @@ public class ScapegoatTree<K extends Comparable<K>> implements DynamicSet<K> {
 	 * @return Root of the rebuilt subtree.
 	 */
 	private Node rebuildTree(Node node) {
-		//Retrieve the subtree's list of nodes in order
-		ArrayList<Node> list = flatten(node);
-		return buildTree(list, 0, list.size() - 1);
+		//Retrieve the subtree's nodes in order
+		int n = flatten(node);
+		Node newNode = buildTree(scratch, 0, n - 1);
+		//Do not keep references to the nodes until the next rebuild
+		if(n > 0) Arrays.fill(scratch, 0, n, null);
+		return newNode;
 	}
 	
 	/**
-	 * Converts the subtree nested at a given node to an ordered list.
+	 * Copies the nodes of the subtree nested at a given node to the scratch array, in-order.
+	 * The array only grows when the subtree is bigger than every subtree rebuilt before, so
+	 * the rebuilds do not allocate memory in the usual case.
 	 * 
 	 * @param node Root of the subtree to traverse.
-	 * @return List that ordered according to the in-order traversal of the nodes.
+	 * @return Number of nodes copied to the scratch array.
 	 */
-	private ArrayList<Node> flatten(Node node) {
-		ArrayList<Node> list = new ArrayList<Node>();
-		if(node != null) {
-			Node curNode = node; //next node whose left subtree must be explored first
-			Stack<Node> stack = new Stack<Node>(); //nodes whose left (but not right) subtree has been explored, and not included in the list yet
-			while(curNode != null || !stack.empty()) {
-				//Check if we need explore a left subtree first
-				if(curNode != null) {
-					stack.push(curNode);
-					curNode = curNode.getLeft();
-				}
-				//Check if there we need to add a node to the list and explore its right subtree
-				else if (!stack.empty()){
-					list.add(stack.pop());
-					curNode = list.get(list.size() - 1).getRight();
-				}
-			}
+	@SuppressWarnings("unchecked")
+	private int flatten(Node node) {
+		int n = getSize(node);
+		if(scratch == null || scratch.length < n) {
+			scratch = (Node[]) new ScapegoatTree<?>.Node[Math.max(n, scratch == null ? 16 : 2 * scratch.length)];
+		}
+		//The subtree has exactly n nodes, so following the successors never leaves it
+		Node curNode = getMin(node);
+		for(int i = 0; i < n; i++) {
+			scratch[i] = curNode;
+			if(i + 1 < n) curNode = successor(curNode);
 		}
+		return n;
+	}
+	
+	/**
+	 * Builds a perfectly balanced tree in linear time, with the same shape as a full rebuild.
+	 */
+	@Override
+	public void bulkLoad(Iterator<? extends K> sorted, int n) {
+		Node newRoot = buildTree(new SortedKeys<K>(sorted), n);
+		if(newRoot != null) newRoot.setParent(null);
+		root = newRoot;
+		this.size = n;
+		this.maxSize = n;
+	}
+	
+	/**
+	 * Builds a balanced binary search tree with the next n keys, creating the nodes in-order.
+	 * The left subtree gets n / 2 nodes, like in buildTree(nodes, start, end).
+	 * 
+	 * @param keys Source of the keys.
+	 * @param n Number of keys.
+	 * @return Root of the tree that was built.
+	 */
+	private Node buildTree(SortedKeys<K> keys, int n) {
+		if(n == 0) return null;
+		Node newLeftChild = buildTree(keys, n / 2);
+		Node node = new Node(keys.next());
+		node.setLeft(newLeftChild);
+		if(newLeftChild != null) newLeftChild.setParent(node);
+		
+		Node newRightChild = buildTree(keys, n - 1 - n / 2);
+		node.setRight(newRightChild);
+		if(newRightChild != null) newRightChild.setParent(node);
 		
-		return list;
+		node.updateSize();
+		return node;
 	}
 	
 	/**
-	 * Builds a balanced binary search tree given an ordered list of its nodes according to the in-order traversal scheme.
+	 * Builds a balanced binary search tree given an ordered array of its nodes according to the in-order traversal scheme.
 	 * This method follows a divide-and-conquer strategy.
 	 * 
-	 * @param list Ordered list of nodes.
-	 * @param start Index of the first node to consider in list.
-	 * @param end Index of the last node to consider in list.
+	 * @param nodes Ordered array of nodes.
+	 * @param start Index of the first node to consider in nodes.
+	 * @param end Index of the last node to consider in nodes.
 	 * @return Root of the tree that was built.
 	 */
-	private Node buildTree(ArrayList<Node> list, int start, int end) {
+	private Node buildTree(Node[] nodes, int start, int end) {
 		if(start <= end) {
-			int middle = (int)Math.ceil((start + end) / 2.0);
-			Node node = list.get(middle);
+			int middle = (start + end + 1) >>> 1; //same as ceil((start + end) / 2)
+			Node node = nodes[middle];
 			
-			Node newLeftChild = buildTree(list, start, middle - 1);
+			Node newLeftChild = buildTree(nodes, start, middle - 1);
 			node.setLeft(newLeftChild);
 			if(newLeftChild != null) newLeftChild.setParent(node);
 			
-			Node newRightChild = buildTree(list, middle + 1, end);
+			Node newRightChild = buildTree(nodes, middle + 1, end);
 			node.setRight(newRightChild);
 			if(newRightChild != null) newRightChild.setParent(node);
 			
+			node.updateSize();
 			return node;
 		}
 		else return null;
@@ -377,7 +511,6 @@ public class ScapegoatTree<K extends Comparable<K>> implements DynamicSet<K> {
         return stringBuilder.toString();
     }
 
-    @SuppressWarnings("unchecked")
 	@Override
 	public String toDotString() {
 		StringBuilder stringBuilder = new StringBuilder();
@@ -386,8 +519,8 @@ public class ScapegoatTree<K extends Comparable<K>> implements DynamicSet<K> {
 		stringBuilder.append("\n");
 
 		// Dump all the nodes
-		LinkedList<Node> curLevelNodes = new LinkedList<Node>();
-		LinkedList<Node> nextLevelNodes = new LinkedList<Node>();
+		ArrayList<Node> curLevelNodes = new ArrayList<Node>();
+		ArrayList<Node> nextLevelNodes = new ArrayList<Node>();
 		int nullDotCount = 0;
 		
 		if(root != null) {
@@ -404,8 +537,7 @@ public class ScapegoatTree<K extends Comparable<K>> implements DynamicSet<K> {
 				stringBuilder.append("}");
 				stringBuilder.append("\n");
 				
-				while(!curLevelNodes.isEmpty()) {
-					Node node = curLevelNodes.remove();
+				for(Node node : curLevelNodes) {
 					stringBuilder.append(node.getKey() + " [shape=octagon];");
 					stringBuilder.append("\n");
 					
@@ -438,14 +570,26 @@ public class ScapegoatTree<K extends Comparable<K>> implements DynamicSet<K> {
 					}
 				}
 				
-				//Prepare the next curLevelNodes array
-				curLevelNodes = (LinkedList<ScapegoatTree<K>.Node>) nextLevelNodes.clone();
+				//The next level becomes the current one, and the old list is reused for the level after it
+				ArrayList<Node> swap = curLevelNodes;
+				curLevelNodes = nextLevelNodes;
+				nextLevelNodes = swap;
 			}
-			while (!nextLevelNodes.isEmpty());
+			while (!curLevelNodes.isEmpty());
 		}
 
 		stringBuilder.append("}");
 		stringBuilder.append("\n");
 		return stringBuilder.toString();
 	}
+
+	@Override
+	public String toDotString(int maxDepth, K focusKey) {
+		return new DotTreeWriter<K, Node>(walker) {
+			@Override
+			String attributes(Node node) {
+				return "shape=octagon";
+			}
+		}.write(root, maxDepth, focusKey);
+	}
 }
@@ -1,6 +1,7 @@
 package structures;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Iterator;
 
 /**
  * A basic tree struture that stores the elements in nodes and each node has two children, 
@@ -31,16 +32,63 @@ public class SimpleBST<K extends Comparable<K>> implements DynamicSet<K> {
     }
 	
 	public Node root;
+
+	private final TreeWalker<K, Node> walker = new TreeWalker<K, Node>() {
+		@Override
+		Node left(Node node) {
+			return node.getLeft();
+		}
+
+		@Override
+		Node right(Node node) {
+			return node.getRight();
+		}
+
+		@Override
+		K key(Node node) {
+			return node.getKey();
+		}
+	};
+
+	private final boolean recursive; //use the recursive versions of find, insert and remove
+	private boolean modified; //whether the last recursive insert or remove changed the tree
+    
+    public SimpleBST() { this(false); }
     
-    public SimpleBST() { this.root = null; }
+    /**
+     * @param recursive If true, find, insert and remove use the recursive implementations,
+     * which are kept to be compared with the iterative ones. The depth of the recursion is
+     * the height of the tree, so they overflow the stack on degenerate (e.g. ascending) inputs.
+     */
+    public SimpleBST(boolean recursive) {
+    	this.root = null;
+    	this.recursive = recursive;
+    }
 	
 	@Override
 	public K find(K key) {
-		Node node = find(root, key);
+		Node node = recursive ? find(root, key) : findIterative(key);
 		if(node != null) return node.getKey();
 		else return null;
 	}
 	
+	/**
+	 * Iterative version of find(Node, K).
+	 */
+	private Node findIterative(K key) {
+		Node node = root;
+		while(node != null) {
+			int cmp = key.compareTo(node.getKey());
+			//Search the left subtree
+			if(cmp < 0) node = node.getLeft();
+			//Search the right subtree
+			else if(cmp > 0) node = node.getRight();
+			//Tree has the key on this node
+			else return node;
+		}
+		return null;
+	}
+	
 	protected Node find(Node node, K key) {
     	//Node is empty
     	if(node == null) return null;
@@ -53,13 +101,53 @@ public class SimpleBST<K extends Comparable<K>> implements DynamicSet<K> {
     }
 
 	@Override
-	public void insert(K key) {
-		root = insert(root, key); 
+	public boolean insert(K key) {
+		if(recursive) {
+			modified = false;
+			root = insert(root, key);
+			return modified;
+		}
+		else return insertIterative(key);
+	}
+	
+	/**
+	 * Iterative version of insert(Node, K): the new node is linked to the last node of the search path.
+	 */
+	private boolean insertIterative(K key) {
+		if(root == null) {
+			root = new Node(key);
+			return true;
+		}
+		Node node = root;
+		while(true) {
+			int cmp = key.compareTo(node.getKey());
+			//Add to the left subtree
+			if(cmp < 0) {
+				if(node.getLeft() == null) {
+					node.setLeft(new Node(key));
+					return true;
+				}
+				node = node.getLeft();
+			}
+			//Add to the right subtree
+			else if(cmp > 0) {
+				if(node.getRight() == null) {
+					node.setRight(new Node(key));
+					return true;
+				}
+				node = node.getRight();
+			}
+			//Tree already has the key
+			else return false;
+		}
 	}
 	
 	protected Node insert(Node node, K key) { 
     	//Node is empty
-    	if (node == null) return new Node(key);
+    	if (node == null) {
+    		modified = true;
+    		return new Node(key);
+    	}
     	//Add to the left subtree
     	else if (key.compareTo(node.getKey()) < 0) {
     		node.setLeft(insert(node.getLeft(), key));
@@ -75,8 +163,49 @@ public class SimpleBST<K extends Comparable<K>> implements DynamicSet<K> {
     }
 
 	@Override
-	public void remove(K key) {
-		root = remove(root, key);
+	public boolean remove(K key) {
+		if(recursive) {
+			modified = false;
+			root = remove(root, key);
+			return modified;
+		}
+		else return removeIterative(key);
+	}
+	
+	/**
+	 * Iterative version of remove(Node, K). A node with two children takes the key of the largest
+	 * node of its left subtree, which is then unlinked instead (it has no right child).
+	 */
+	private boolean removeIterative(K key) {
+		Node parent = null;
+		Node node = root;
+		while(node != null) {
+			int cmp = key.compareTo(node.getKey());
+			if(cmp == 0) break;
+			parent = node;
+			node = cmp < 0 ? node.getLeft() : node.getRight();
+		}
+		//Tree does not have the key
+		if(node == null) return false;
+		
+		if(node.getLeft() != null && node.getRight() != null) {
+			Node largestLeftParent = node;
+			Node largestLeftNode = node.getLeft();
+			while(largestLeftNode.getRight() != null) {
+				largestLeftParent = largestLeftNode;
+				largestLeftNode = largestLeftNode.getRight();
+			}
+			node.setKey(largestLeftNode.getKey());
+			parent = largestLeftParent;
+			node = largestLeftNode;
+		}
+		
+		//The node has at most one child, which takes its place
+		Node child = node.getLeft() != null ? node.getLeft() : node.getRight();
+		if(parent == null) root = child;
+		else if(parent.getLeft() == node) parent.setLeft(child);
+		else parent.setRight(child);
+		return true;
 	}
 	
 	protected Node remove(Node node, K key) {
@@ -94,6 +223,7 @@ public class SimpleBST<K extends Comparable<K>> implements DynamicSet<K> {
         }
     	//Tree has the key on its root
     	else {
+    		modified = true;
     		//The current node is a leaf (0 children).
     		if (node.getLeft() == null && node.getRight() == null) return null;
     		//The current node only has a right child
@@ -114,6 +244,60 @@ public class SimpleBST<K extends Comparable<K>> implements DynamicSet<K> {
         }
     }
 
+	/**
+	 * Builds a perfectly balanced tree in linear time.
+	 */
+	@Override
+	public void bulkLoad(Iterator<? extends K> sorted, int n) {
+		root = buildTree(new SortedKeys<K>(sorted), n);
+	}
+	
+	/**
+	 * Builds a balanced tree with the next n keys, in-order.
+	 * 
+	 * @param keys Source of the keys.
+	 * @param n Number of keys.
+	 * @return Root of the tree that was built.
+	 */
+	private Node buildTree(SortedKeys<K> keys, int n) {
+		if(n == 0) return null;
+		Node left = buildTree(keys, n / 2);
+		Node node = new Node(keys.next());
+		node.setLeft(left);
+		node.setRight(buildTree(keys, n - 1 - n / 2));
+		return node;
+	}
+
+	@Override
+	public Iterator<K> iterator() {
+		return walker.iterator(root, null, null);
+	}
+
+	@Override
+	public Iterator<K> range(K lo, K hi) {
+		return walker.iterator(root, lo, hi);
+	}
+
+	@Override
+	public K floor(K key) {
+		return walker.predecessor(root, key, true);
+	}
+
+	@Override
+	public K lower(K key) {
+		return walker.predecessor(root, key, false);
+	}
+
+	@Override
+	public K ceiling(K key) {
+		return walker.successor(root, key, true);
+	}
+
+	@Override
+	public K higher(K key) {
+		return walker.successor(root, key, false);
+	}
+	
 	@Override
 	public K getMin() {
 		Node node = getMin(root);
@@ -124,10 +308,9 @@ public class SimpleBST<K extends Comparable<K>> implements DynamicSet<K> {
 	protected final Node getMin(Node node) {
     	//Node is empty
     	if(node == null) return null;
-    	//Left child is empty
-    	else if(node.getLeft() == null) return node;
-    	//Left child is not empty
-    	else return getMin(node.getLeft());
+    	//Go left while the left child is not empty
+    	while(node.getLeft() != null) node = node.getLeft();
+    	return node;
     }
 
 	@Override
@@ -140,10 +323,9 @@ public class SimpleBST<K extends Comparable<K>> implements DynamicSet<K> {
 	protected final Node getMax(Node node) {
     	//Node is empty
     	if(node == null) return null;
-    	//Right child is empty
-    	else if(node.getRight() == null) return node;
-    	//Right child is not empty
-    	else return getMax(node.getRight());
+    	//Go right while the right child is not empty
+    	while(node.getRight() != null) node = node.getRight();
+    	return node;
     }
 	
 	@Override
@@ -169,7 +351,6 @@ public class SimpleBST<K extends Comparable<K>> implements DynamicSet<K> {
         return stringBuilder.toString();
     }
 	
-	@SuppressWarnings("unchecked")
 	@Override
 	public String toDotString() {
 		StringBuilder stringBuilder = new StringBuilder();
@@ -178,8 +359,8 @@ public class SimpleBST<K extends Comparable<K>> implements DynamicSet<K> {
 		stringBuilder.append("\n");
 
 		// Dump all the nodes
-		LinkedList<Node> curLevelNodes = new LinkedList<Node>();
-		LinkedList<Node> nextLevelNodes = new LinkedList<Node>();
+		ArrayList<Node> curLevelNodes = new ArrayList<Node>();
+		ArrayList<Node> nextLevelNodes = new ArrayList<Node>();
 		int nullDotCount = 0;
 		
 		if(root != null) {
@@ -196,8 +377,7 @@ public class SimpleBST<K extends Comparable<K>> implements DynamicSet<K> {
 				stringBuilder.append("}");
 				stringBuilder.append("\n");
 				
-				while(!curLevelNodes.isEmpty()) {
-					Node node = curLevelNodes.remove();
+				for(Node node : curLevelNodes) {
 					stringBuilder.append(node.getKey() + " [shape=circle];");
 					stringBuilder.append("\n");
 					
@@ -230,15 +410,27 @@ public class SimpleBST<K extends Comparable<K>> implements DynamicSet<K> {
 					}
 				}
 				
-				//Prepare the next curLevelNodes array
-				curLevelNodes = (LinkedList<SimpleBST<K>.Node>) nextLevelNodes.clone();
+				//The next level becomes the current one, and the old list is reused for the level after it
+				ArrayList<Node> swap = curLevelNodes;
+				curLevelNodes = nextLevelNodes;
+				nextLevelNodes = swap;
 			}
-			while (!nextLevelNodes.isEmpty());
+			while (!curLevelNodes.isEmpty());
 		}
 
 		stringBuilder.append("}");
 		stringBuilder.append("\n");
 		return stringBuilder.toString();
 	}
+
+	@Override
+	public String toDotString(int maxDepth, K focusKey) {
+		return new DotTreeWriter<K, Node>(walker) {
+			@Override
+			String attributes(Node node) {
+				return "shape=circle";
+			}
+		}.write(root, maxDepth, focusKey);
+	}
 	
 }
@@ -1,33 +1,56 @@
 package structures;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Random;
 
 /**
  * A probabilistic alternative to balanced trees. A list with log n complexity
  * of search, insert and delete
- * 
+ *
  * Implementation based on William Pugh paper: Skip Lists: A Probabilistic
  * Alternative to Balanced Trees
- * 
+ *
+ * Each node keeps its forward pointers in an array with exactly one entry per level,
+ * and the end of each level is marked with null. A node gets one more level with
+ * probability p, up to a level cap computed from the expected number of keys
+ * (log_{1/p} n levels, as suggested by Pugh).
+ *
+ * Every forward pointer also stores its span: the number of level 0 links that it
+ * skips. The spans give the position of a node while searching for it, so rank and
+ * select take logarithmic time. A pointer to the end of a level skips to the position
+ * after the last node.
+ *
  * @author Gonalo Leo & Matheus Rosa
  *
  * @param <K>
  */
 public class SkipList<K extends Comparable<K>> implements DynamicSet<K> {
 
-	private int maxLevel;
+	public static final double DEFAULT_P = 0.5;
+	public static final int DEFAULT_EXPECTED_SIZE = Integer.MAX_VALUE;
+
+	private final double p;
+	private final int levelCap;		// highest level that a node can have
+	private int maxLevel;			// highest level in use
 	private Node head;
-	private Node nil;
+	private Node[] update;			// last node before the key in every level, reused by insert and remove
+	private int[] updateRank;		// position of each node of update (the head is at position 0)
+	private int size;
 	private final Random rand;
 
 	public class Node {
 		private K key;
-		private ArrayList<Node> fowardPointers;
+		private Node[] forwardPointers;
+		private int[] spans;
 
-		public Node(K key) {
+		@SuppressWarnings("unchecked")
+		public Node(K key, int level) {
 			this.key = key;
-			fowardPointers = new ArrayList<>();
+			this.forwardPointers = (Node[]) new SkipList<?>.Node[level + 1];
+			this.spans = new int[level + 1];
 		}
 
 		public K getKey() {
@@ -38,129 +61,448 @@ public class SkipList<K extends Comparable<K>> implements DynamicSet<K> {
 			this.key = key;
 		}
 
-		public ArrayList<Node> getList() {
-			return this.fowardPointers;
+		public int getLevel() {
+			return forwardPointers.length - 1;
+		}
+
+		public Node getNext(int level) {
+			return forwardPointers[level];
 		}
 	}
 
-	public SkipList(long seed) {
-		head = new Node(null);
-		nil = new Node(null);
-		head.getList().add(nil);
+	/**
+	 * @param expectedSize
+	 *            - number of keys the list is expected to hold, used to cap the levels
+	 * @param p
+	 *            - probability of a node having one more level (between 0 and 1)
+	 * @param seed
+	 *            - of the random level generator
+	 */
+	@SuppressWarnings("unchecked")
+	public SkipList(int expectedSize, double p, long seed) {
+		if (p <= 0 || p >= 1) throw new IllegalArgumentException("p must be between 0 and 1");
+		if (expectedSize < 1) throw new IllegalArgumentException("The expected size must be positive");
+		this.p = p;
+		this.levelCap = levelCap(expectedSize, p);
+		head = new Node(null, levelCap);
+		head.spans[0] = 1;
+		update = (Node[]) new SkipList<?>.Node[levelCap + 1];
+		updateRank = new int[levelCap + 1];
 		maxLevel = 0;
+		size = 0;
 		rand = new Random(seed);
 	}
 
+	public SkipList(int expectedSize, double p) {
+		this(expectedSize, p, System.currentTimeMillis());
+	}
+
+	public SkipList(long seed) {
+		this(DEFAULT_EXPECTED_SIZE, DEFAULT_P, seed);
+	}
+
 	public SkipList() {
 		this(System.currentTimeMillis());
 	}
 
+	/**
+	 * Highest level index for a list of n keys: L(n) = log_{1/p} n levels, numbered from 0.
+	 */
+	private static int levelCap(int n, double p) {
+		int levels = (int) Math.ceil(Math.log(n) / Math.log(1 / p));
+		return Math.max(levels - 1, 0);
+	}
+
+	public double getP() {
+		return p;
+	}
+
+	public int getLevelCap() {
+		return levelCap;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
 	@Override
 	public K find(K key) {
 		Node x = this.head;
 
 		// loop invariant: x->key < search key
 		for (int i = maxLevel; i >= 0; i--) {
-			while (x.getList().get(i) != nil && x.getList().get(i).getKey().compareTo(key) < 0) {
-				x = x.getList().get(i);
+			Node next = x.forwardPointers[i];
+			while (next != null && next.key.compareTo(key) < 0) {
+				x = next;
+				next = x.forwardPointers[i];
 			}
 		}
 
-		x = x.getList().get(0);
+		x = x.forwardPointers[0];
 
-		if (x != nil && x.getKey().compareTo(key) == 0) {
-			return x.getKey();
+		if (x != null && x.key.compareTo(key) == 0) {
+			return x.key;
 		}
 		return null;
 	}
 
 	@Override
-	public void insert(K key) {
-		ArrayList<Node> update = createArray(maxLevel+1);
-		Node x = head;
+	public boolean insert(K key) {
+		return insert(key, findPredecessors(key));
+	}
+
+	/**
+	 * Inserts a key after the search filled update and updateRank.
+	 *
+	 * @param x The first node whose key is not smaller than key (null if there is none).
+	 */
+	private boolean insert(K key, Node x) {
+		if (x != null && x.key.compareTo(key) == 0)
+			return false;
+
+		int v = randomLevel();				// number of levels for the new element
+
+		if (v > maxLevel) {
+			update[v] = head;
+			updateRank[v] = 0;
+			head.spans[v] = size + 1;
+			maxLevel = v;
+		}
+
+		Node newNode = new Node(key, v);
+		int rank = updateRank[0] + 1;	// position of the new node
+
+		for (int i = 0; i <= v; i++) {
+			newNode.forwardPointers[i] = update[i].forwardPointers[i];
+			update[i].forwardPointers[i] = newNode;
+			newNode.spans[i] = update[i].spans[i] - (rank - 1 - updateRank[i]);
+			update[i].spans[i] = rank - updateRank[i];
+		}
+		// the higher pointers now skip one more node
+		for (int i = v + 1; i <= maxLevel; i++) {
+			update[i].spans[i]++;
+		}
+		size++;
+		return true;
+	}
+
+	@Override
+	public boolean remove(K key) {
+		return remove(key, findPredecessors(key));
+	}
+
+	/**
+	 * Removes a key after the search filled update and updateRank.
+	 *
+	 * @param x The first node whose key is not smaller than key (null if there is none).
+	 */
+	private boolean remove(K key, Node x) {
+		if (x != null && x.key.compareTo(key) == 0) {
+			for (int i = 0; i <= maxLevel; i++) {
+				if (update[i].forwardPointers[i] == x) {
+					update[i].forwardPointers[i] = x.forwardPointers[i];
+					update[i].spans[i] += x.spans[i] - 1;
+				} else {
+					// x is below this level
+					update[i].spans[i]--;
+				}
+			}
+			size--;
+
+			while (maxLevel > 0 && head.forwardPointers[maxLevel] == null) {
+				maxLevel--;
+			}
+			return true;
+		}
+		return false;
+	}
 
-		// search for the first node before key
+	/**
+	 * Builds the list in linear time: the keys are appended in order, and last keeps
+	 * the last node of every level so that each new tower is linked in O(1) per level.
+	 */
+	@Override
+	public void bulkLoad(Iterator<? extends K> sorted, int n) {
+		SortedKeys<K> keys = new SortedKeys<K>(sorted);
+		Node newHead = new Node(null, levelCap);
+		Node[] last = update;
+		int[] lastRank = updateRank;
+		for (int i = 0; i <= levelCap; i++) {
+			last[i] = newHead;
+			lastRank[i] = 0;
+		}
+		int newMaxLevel = 0;
+
+		for (int rank = 1; rank <= n; rank++) {
+			int v = 0;
+			while (v < levelCap && rand.nextDouble() < p) v++;
+			if (v > newMaxLevel) newMaxLevel = v;
+
+			Node newNode = new Node(keys.next(), v);
+			for (int i = 0; i <= v; i++) {
+				last[i].forwardPointers[i] = newNode;
+				last[i].spans[i] = rank - lastRank[i];
+				last[i] = newNode;
+				lastRank[i] = rank;
+			}
+		}
+		// the last node of each level points to the end
+		for (int i = 0; i <= levelCap; i++) {
+			last[i].spans[i] = n + 1 - lastRank[i];
+		}
+
+		head = newHead;
+		maxLevel = newMaxLevel;
+		size = n;
+	}
+
+	/**
+	 * Fills update with the last node before key in every level, and updateRank with their positions.
+	 *
+	 * @param key Key to search for.
+	 * @return The first node whose key is not smaller than key (null if there is none).
+	 */
+	private Node findPredecessors(K key) {
+		Node x = head;
+		int rank = 0;
 		for (int i = maxLevel; i >= 0; i--) {
-			while (x.getList().get(i) != nil && 
-					x.getList().get(i).getKey().compareTo(key) < 0) {
-				x = x.getList().get(i);
+			Node next = x.forwardPointers[i];
+			while (next != null && next.key.compareTo(key) < 0) {
+				rank += x.spans[i];
+				x = next;
+				next = x.forwardPointers[i];
 			}
-			update.set(i, x);
+			update[i] = x;
+			updateRank[i] = rank;
 		}
+		return x.forwardPointers[0];
+	}
 
-		x = x.getList().get(0);
+	/**
+	 * Same as findPredecessors, for a key that is not smaller than the key of the last search
+	 * (a finger search). The predecessors only change in the lowest levels: the search climbs
+	 * from level 0 while the next node of the previous predecessor is still before key, and
+	 * then goes down from there. The levels above keep their predecessors, so the cost is
+	 * logarithmic in the distance between the two keys instead of the size of the list.
+	 *
+	 * update and updateRank must hold the result of a search for a smaller key (or the same
+	 * key), and the list may only have changed through insert or remove of that key since then.
+	 *
+	 * @param key Key to search for.
+	 * @return The first node whose key is not smaller than key (null if there is none).
+	 */
+	private Node findPredecessorsFromFinger(K key) {
+		int top = 0;
+		while (top < maxLevel) {
+			Node next = update[top + 1].forwardPointers[top + 1];
+			if (next == null || next.key.compareTo(key) >= 0) break;
+			top++;
+		}
 
-		if (x != nil && x.getKey().compareTo(key) == 0)
-			return;
+		Node x = update[top];
+		int rank = updateRank[top];
+		for (int i = top; i >= 0; i--) {
+			Node next = x.forwardPointers[i];
+			while (next != null && next.key.compareTo(key) < 0) {
+				rank += x.spans[i];
+				x = next;
+				next = x.forwardPointers[i];
+			}
+			update[i] = x;
+			updateRank[i] = rank;
+		}
+		return x.forwardPointers[0];
+	}
 
-		int v = 0; 						// number of levels for the new element
-		while (rand.nextBoolean()) v++;
+	/**
+	 * Inserts the sorted keys one after the other, each one with a finger search from the previous one.
+	 */
+	@Override
+	public int insertAll(K[] keys) {
+		K[] sorted = Batch.sortedDistinct(keys);
+		int inserted = 0;
+		for (int j = 0; j < sorted.length; j++) {
+			Node x = j == 0 ? findPredecessors(sorted[j]) : findPredecessorsFromFinger(sorted[j]);
+			if (insert(sorted[j], x)) inserted++;
+		}
+		return inserted;
+	}
 
-		v = Math.min(v, maxLevel+1);
+	/**
+	 * Removes the sorted keys one after the other, each one with a finger search from the previous one.
+	 */
+	@Override
+	public int removeAll(K[] keys) {
+		K[] sorted = Batch.sortedDistinct(keys);
+		int removed = 0;
+		for (int j = 0; j < sorted.length; j++) {
+			Node x = j == 0 ? findPredecessors(sorted[j]) : findPredecessorsFromFinger(sorted[j]);
+			if (remove(sorted[j], x)) removed++;
+		}
+		return removed;
+	}
 
-		if (v > maxLevel) {
-			head.getList().add(nil);
-			update.add(head);
-			maxLevel = v;
+	/**
+	 * Searches for the sorted keys one after the other, each one with a finger search from the previous one.
+	 */
+	@Override
+	public K[] findAll(K[] keys) {
+		K[] sorted = Batch.sortedDistinct(keys);
+		K[] found = Arrays.copyOf(sorted, sorted.length);
+		for (int j = 0; j < sorted.length; j++) {
+			Node x = j == 0 ? findPredecessors(sorted[j]) : findPredecessorsFromFinger(sorted[j]);
+			found[j] = x != null && x.key.compareTo(sorted[j]) == 0 ? x.key : null;
 		}
+		return Batch.inBatchOrder(keys, sorted, found);
+	}
 
-		Node newNode = new Node(key);
+	/**
+	 * Draws the top level of a new node: one more level with probability p, growing at
+	 * most one level above the current maximum and never above the level cap.
+	 */
+	private int randomLevel() {
+		int limit = Math.min(maxLevel + 1, levelCap);
+		int v = 0;
+		while (v < limit && rand.nextDouble() < p) v++;
+		return v;
+	}
 
-		for (int i = 0; i <= v; i++) {
-			newNode.getList().add(update.get(i).getList().get(i));
-			update.get(i).getList().set(i, newNode);
+	@Override
+	public Iterator<K> iterator() {
+		return new LevelZeroIterator(head.forwardPointers[0], null);
+	}
+
+	@Override
+	public Iterator<K> range(K lo, K hi) {
+		return new LevelZeroIterator(successorNode(lo, true), hi);
+	}
+
+	/**
+	 * Lazy iterator that follows the level 0 links from a given node.
+	 */
+	private class LevelZeroIterator implements Iterator<K> {
+		private Node next;
+		private final K hi;		// upper bound of the keys to return (null if there is none)
+
+		private LevelZeroIterator(Node first, K hi) {
+			this.next = first;
+			this.hi = hi;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null && (hi == null || hi.compareTo(next.key) >= 0);
+		}
+
+		@Override
+		public K next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			K key = next.key;
+			next = next.forwardPointers[0];
+			return key;
 		}
 	}
 
 	@Override
-	public void remove(K key) {
-		ArrayList<Node> update = createArray(maxLevel+1);
+	public K floor(K key) {
+		return predecessorNode(key, true).key;
+	}
 
+	@Override
+	public K lower(K key) {
+		return predecessorNode(key, false).key;
+	}
+
+	@Override
+	public K ceiling(K key) {
+		Node x = successorNode(key, true);
+		return x == null ? null : x.key;
+	}
+
+	@Override
+	public K higher(K key) {
+		Node x = successorNode(key, false);
+		return x == null ? null : x.key;
+	}
+
+	/**
+	 * Finds the last node whose key is smaller than (or equal to, if inclusive) the given key.
+	 *
+	 * @return The node, which is the head (whose key is null) if there is none.
+	 */
+	private Node predecessorNode(K key, boolean inclusive) {
+		int limit = inclusive ? 0 : -1;
 		Node x = head;
-		// search for the first node before key
 		for (int i = maxLevel; i >= 0; i--) {
-			while (x.getList().get(i) != nil && 
-					x.getList().get(i).getKey().compareTo(key) < 0) {
-				x = x.getList().get(i);
+			Node next = x.forwardPointers[i];
+			while (next != null && next.key.compareTo(key) <= limit) {
+				x = next;
+				next = x.forwardPointers[i];
 			}
-			update.set(i, x);
 		}
+		return x;
+	}
 
-		x = x.getList().get(0);
-		if (x != nil && x.getKey().compareTo(key) == 0) {
-			for (int i = 0; i <= maxLevel; i++) {
-				if (update.get(i).getList().get(i) != x)
-					break;
-				update.get(i).getList().set(i, x.getList().get(i));
+	/**
+	 * Finds the first node whose key is greater than (or equal to, if inclusive) the given key.
+	 *
+	 * @return The node, or null if there is none.
+	 */
+	private Node successorNode(K key, boolean inclusive) {
+		return predecessorNode(key, !inclusive).forwardPointers[0];
+	}
+
+	@Override
+	public int rank(K key) {
+		Node x = head;
+		int rank = 0;
+		for (int i = maxLevel; i >= 0; i--) {
+			Node next = x.forwardPointers[i];
+			while (next != null && next.key.compareTo(key) < 0) {
+				rank += x.spans[i];
+				x = next;
+				next = x.forwardPointers[i];
 			}
-			x = null;
+		}
+		return rank;
+	}
 
-			if (maxLevel > 0 && head.getList().get(maxLevel) == nil) {
-				head.getList().remove(maxLevel);
-				maxLevel--;
+	@Override
+	public K select(int i) {
+		if (i < 0 || i >= size) return null;
+		int target = i + 1;		// position of the node, where the head is at position 0
+		Node x = head;
+		int rank = 0;
+		for (int level = maxLevel; level >= 0; level--) {
+			while (x.forwardPointers[level] != null && rank + x.spans[level] <= target) {
+				rank += x.spans[level];
+				x = x.forwardPointers[level];
 			}
 		}
+		return x.key;
 	}
 
 	@Override
 	public K getMin() {
-		return head.getList().get(0).getKey();
+		Node first = head.forwardPointers[0];
+		return first == null ? null : first.key;
 	}
 
 	@Override
 	public K getMax() {
 		Node x = head;
 		for (int i = maxLevel; i >= 0; i--) {
-			while (x.getList().get(i) != nil) {
-				x = x.getList().get(i);
+			while (x.forwardPointers[i] != null) {
+				x = x.forwardPointers[i];
 			}
 		}
-		return x.getKey();
+		return x.key;
 	}
 
 	/**
 	 * Returns a string in the DOT language for the skip list.
 	 * This method was inspired by the following source code: https://courses.e-ce.uth.gr/CE210/doku.php?id=skiplist
+	 * toDotString(maxDepth, focusKey) isn't limited for skip lists, and draws the whole list too.
 	 */
 	@Override
 	public String toDotString() {
@@ -183,41 +525,39 @@ public class SkipList<K extends Comparable<K>> implements DynamicSet<K> {
 		stringBuilder.append("\"];");
 		stringBuilder.append("\n");
 
-		stringBuilder.append(toDotString(head));
+		// Dump the nodes along level 0, starting with the head
+		for(Node node = head; node != null; node = node.forwardPointers[0]) {
+			appendDotNode(stringBuilder, node, node == head ? maxLevel : node.getLevel());
+		}
 
 		stringBuilder.append("}");
 		stringBuilder.append("\n");
 		return stringBuilder.toString();
 	}
 
-	private String toDotString(Node node) {
-		String itemName;    
+	/**
+	 * Appends the record of a node and its forward pointers up to the given level.
+	 */
+	private void appendDotNode(StringBuilder stringBuilder, Node node, int level) {
+		String itemName;
 		if(node.getKey() == null) itemName = "\"-oo\"";
 		else itemName = node.getKey().toString();
 
-		StringBuilder stringBuilder = new StringBuilder();
-
-		stringBuilder.append(itemName + " [label = \"");
+		stringBuilder.append(itemName).append(" [label = \"");
 
-		int level = node.getList().size() - 1;
 		for(int i=level; i>=0; i--) {
-			stringBuilder.append(" <f"+i+"> ");
-			stringBuilder.append(itemName.equals("\"-oo\"") ? "-oo" : itemName);
+			stringBuilder.append(" <f").append(i).append("> ");
+			stringBuilder.append(node.getKey() == null ? "-oo" : itemName);
 			if( i>0 ) stringBuilder.append("|");
 		}
 		stringBuilder.append("\"];\n");
 
-		ArrayList<Node> next = node.getList();
+		Node[] next = node.forwardPointers;
 		for(int i=level; i>=0; i--) {
-			if( next.get(i).getKey() != null ) {
-				stringBuilder.append(itemName+":f"+i+" -> "+ next.get(i).getKey().toString()+":f"+i+";\n");
-			}
-			else stringBuilder.append(itemName+":f"+i+" -> end:f"+i+";\n");
+			stringBuilder.append(itemName).append(":f").append(i).append(" -> ");
+			if( next[i] != null ) stringBuilder.append(next[i].getKey().toString()).append(":f").append(i).append(";\n");
+			else stringBuilder.append("end:f").append(i).append(";\n");
 		}
-		if( next.get(0).getKey() != null ) {
-			stringBuilder.append(toDotString(next.get(0)));
-		}
-		return stringBuilder.toString();
 	}
 
 	@Override
@@ -229,9 +569,9 @@ public class SkipList<K extends Comparable<K>> implements DynamicSet<K> {
 
 		for (int i = maxLevel; i >= 0; i--) {
 			string.append("HEAD ");
-			while (x.getList().get(0) != nil) {
-				x = x.getList().get(0);
-				if (x.getList().size() >= i) {
+			while (x.forwardPointers[0] != null) {
+				x = x.forwardPointers[0];
+				if (x.forwardPointers.length >= i) {
 					string.append("-> "+x.getKey()+" ");
 				} else {
 					string.append("------");
@@ -244,12 +584,4 @@ public class SkipList<K extends Comparable<K>> implements DynamicSet<K> {
 		return string.toString();
 	}
 
-	private ArrayList<Node> createArray(int size) {
-		ArrayList<Node> newArray = new ArrayList<>();
-		for (int i = 0; i < size; i++) {
-			newArray.add(null);
-		}
-		return newArray;
-	} 
-
 }
@@ -0,0 +1,34 @@
+package structures;
+
+import java.util.Iterator;
+
+/**
+ * Reads the keys given to bulkLoad, checking that there are as many keys as announced
+ * and that they are in strictly ascending order.
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ */
+final class SortedKeys<K extends Comparable<K>> {
+
+	private final Iterator<? extends K> iterator;
+	private K previous;
+
+	SortedKeys(Iterator<? extends K> iterator) {
+		this.iterator = iterator;
+	}
+
+	/**
+	 * @return The next key.
+	 * @throws IllegalArgumentException If there are no more keys or the key is not greater than the previous one.
+	 */
+	K next() {
+		if (!iterator.hasNext()) throw new IllegalArgumentException("There are fewer keys than the given number of keys.");
+		K key = iterator.next();
+		if (key == null) throw new IllegalArgumentException("The keys can't be null.");
+		if (previous != null && previous.compareTo(key) >= 0)
+			throw new IllegalArgumentException("The keys must be in strictly ascending order, but " + key + " came after " + previous + ".");
+		previous = key;
+		return key;
+	}
+}
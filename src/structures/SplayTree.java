@@ -1,6 +1,7 @@
 package structures;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Iterator;
 
 /**
  * A self-adjusting binary search tree where after each operation, the refered node in 
@@ -35,6 +36,25 @@ public class SplayTree<K extends Comparable<K>> implements DynamicSet<K> {
     }
 	
 	public Node root;
+
+	private final TreeWalker<K, Node> walker = new TreeWalker<K, Node>() {
+		@Override
+		Node left(Node node) {
+			return node.getLeft();
+		}
+
+		@Override
+		Node right(Node node) {
+			return node.getRight();
+		}
+
+		@Override
+		K key(Node node) {
+			return node.getKey();
+		}
+	};
+
+	private boolean inserted; //whether the last insert added a node
    
 	@Override
 	public K find(K key) {
@@ -42,37 +62,45 @@ public class SplayTree<K extends Comparable<K>> implements DynamicSet<K> {
 		else {
 			Node found = find(root, key);
 			splay(found.getKey());
-			if(root.getKey() == key) return root.getKey();
+			if(root.getKey().compareTo(key) == 0) return root.getKey();
 			else return null;
 		}
 	}
 	
 	protected Node find(Node node, K key) {
-    	//Search the left subtree
-    	if (key.compareTo(node.getKey()) < 0) {
-    		Node left = node.getLeft();
-    		if(left == null) return node;
-    		else return find(left, key);
-    	}
-    	//Search the right subtree
-    	else if (key.compareTo(node.getKey()) > 0) {
-    		Node right = node.getRight();
-    		if(right == null) return node;
-    		return find(right, key);
+    	//Iterative, as a splay tree can be as deep as its number of keys
+    	while (true) {
+    		//Search the left subtree
+    		if (key.compareTo(node.getKey()) < 0) {
+    			Node left = node.getLeft();
+    			if(left == null) return node;
+    			else node = left;
+    		}
+    		//Search the right subtree
+    		else if (key.compareTo(node.getKey()) > 0) {
+    			Node right = node.getRight();
+    			if(right == null) return node;
+    			node = right;
+    		}
+    		//Tree has the key on its root
+    		else return node;
     	}
-    	//Tree has the key on its root
-    	else return node;
     }
 	
 	@Override
-	public void insert(K key) {
+	public boolean insert(K key) {
+		inserted = false;
 		root = insert(root, key);
 		splay(key);
+		return inserted;
 	}
 
 	protected Node insert(Node node, K key) { 
     	//Node is empty
-    	if (node == null) return new Node(key);
+    	if (node == null) {
+    		inserted = true;
+    		return new Node(key);
+    	}
     	//Add to the left subtree
     	else if (key.compareTo(node.getKey()) < 0) {
     		node.setLeft(insert(node.getLeft(), key));
@@ -88,12 +116,12 @@ public class SplayTree<K extends Comparable<K>> implements DynamicSet<K> {
     }
 
 	@Override
-	public void remove(K key) {
+	public boolean remove(K key) {
 		if(root != null) {
 			//Splay the node to delete to the root
 			splay(key);
 			//Check if the tree truly contains the node to remove
-			if(root.getKey() == key) {
+			if(root.getKey().compareTo(key) == 0) {
 				if(root.left == null) {
 					root = root.right;
 				}
@@ -106,8 +134,105 @@ public class SplayTree<K extends Comparable<K>> implements DynamicSet<K> {
 					//and all of its nodes are strictly less than key 
 					root.setRight(right);
 				}
+				return true;
 			}
 		}
+		return false;
+	}
+	
+	/**
+	 * Builds a perfectly balanced tree in linear time (any binary search tree is a valid splay tree).
+	 */
+	@Override
+	public void bulkLoad(Iterator<? extends K> sorted, int n) {
+		root = buildTree(new SortedKeys<K>(sorted), n);
+	}
+	
+	/**
+	 * Builds a balanced tree with the next n keys, in-order.
+	 * 
+	 * @param keys Source of the keys.
+	 * @param n Number of keys.
+	 * @return Root of the tree that was built.
+	 */
+	private Node buildTree(SortedKeys<K> keys, int n) {
+		if(n == 0) return null;
+		Node left = buildTree(keys, n / 2);
+		Node node = new Node(keys.next());
+		node.setLeft(left);
+		node.setRight(buildTree(keys, n - 1 - n / 2));
+		return node;
+	}
+	
+	/**
+	 * Unlike the other operations, iterating does not splay the tree.
+	 */
+	@Override
+	public Iterator<K> iterator() {
+		return walker.iterator(root, null, null);
+	}
+
+	@Override
+	public Iterator<K> range(K lo, K hi) {
+		return walker.iterator(root, lo, hi);
+	}
+	
+	/**
+	 * Splays key, so the root becomes either the node with key or the last node of the
+	 * search path, which is the predecessor or the successor of key. The floor is then
+	 * either the root or the maximum of its left subtree.
+	 */
+	@Override
+	public K floor(K key) {
+		if(root == null) return null;
+		splay(key);
+		if(root.getKey().compareTo(key) <= 0) return root.getKey();
+		return getMaxKey(root.getLeft());
+	}
+	
+	/**
+	 * Same as floor, but the root can't be key itself.
+	 */
+	@Override
+	public K lower(K key) {
+		if(root == null) return null;
+		splay(key);
+		if(root.getKey().compareTo(key) < 0) return root.getKey();
+		return getMaxKey(root.getLeft());
+	}
+	
+	/**
+	 * Symmetric to floor.
+	 */
+	@Override
+	public K ceiling(K key) {
+		if(root == null) return null;
+		splay(key);
+		if(root.getKey().compareTo(key) >= 0) return root.getKey();
+		return getMinKey(root.getRight());
+	}
+	
+	/**
+	 * Symmetric to lower.
+	 */
+	@Override
+	public K higher(K key) {
+		if(root == null) return null;
+		splay(key);
+		if(root.getKey().compareTo(key) > 0) return root.getKey();
+		return getMinKey(root.getRight());
+	}
+	
+	private K getMinKey(Node node) {
+		if(node == null) return null;
+		while(node.getLeft() != null) node = node.getLeft();
+		return node.getKey();
+	}
+	
+	private K getMaxKey(Node node) {
+		if(node == null) return null;
+		while(node.getRight() != null) node = node.getRight();
+		return node.getKey();
 	}
 	
 	@Override
@@ -155,7 +280,6 @@ public class SplayTree<K extends Comparable<K>> implements DynamicSet<K> {
         return stringBuilder.toString();
     }
 
-    @SuppressWarnings("unchecked")
 	@Override
 	public String toDotString() {
 		StringBuilder stringBuilder = new StringBuilder();
@@ -164,8 +288,8 @@ public class SplayTree<K extends Comparable<K>> implements DynamicSet<K> {
 		stringBuilder.append("\n");
 
 		// Dump all the nodes
-		LinkedList<Node> curLevelNodes = new LinkedList<Node>();
-		LinkedList<Node> nextLevelNodes = new LinkedList<Node>();
+		ArrayList<Node> curLevelNodes = new ArrayList<Node>();
+		ArrayList<Node> nextLevelNodes = new ArrayList<Node>();
 		int nullDotCount = 0;
 		
 		if(root != null) {
@@ -182,8 +306,7 @@ public class SplayTree<K extends Comparable<K>> implements DynamicSet<K> {
 				stringBuilder.append("}");
 				stringBuilder.append("\n");
 				
-				while(!curLevelNodes.isEmpty()) {
-					Node node = curLevelNodes.remove();
+				for(Node node : curLevelNodes) {
 					stringBuilder.append(node.getKey() + " [shape=doublecircle];");
 					stringBuilder.append("\n");
 					
@@ -216,10 +339,12 @@ public class SplayTree<K extends Comparable<K>> implements DynamicSet<K> {
 					}
 				}
 				
-				//Prepare the next curLevelNodes array
-				curLevelNodes = (LinkedList<SplayTree<K>.Node>) nextLevelNodes.clone();
+				//The next level becomes the current one, and the old list is reused for the level after it
+				ArrayList<Node> swap = curLevelNodes;
+				curLevelNodes = nextLevelNodes;
+				nextLevelNodes = swap;
 			}
-			while (!nextLevelNodes.isEmpty());
+			while (!curLevelNodes.isEmpty());
 		}
 
 		stringBuilder.append("}");
@@ -227,6 +352,16 @@ public class SplayTree<K extends Comparable<K>> implements DynamicSet<K> {
 		return stringBuilder.toString();
 	}
 
+	@Override
+	public String toDotString(int maxDepth, K focusKey) {
+		return new DotTreeWriter<K, Node>(walker) {
+			@Override
+			String attributes(Node node) {
+				return "shape=doublecircle";
+			}
+		}.write(root, maxDepth, focusKey);
+	}
+
 	private Node rotateLeft(Node x) {
         Node y = x.getRight();
         if(y == null) return x;
@@ -1,7 +1,9 @@
 package structures;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Random;
 import java.util.Stack;
 
@@ -20,15 +22,42 @@ public class Treap<K extends Comparable<K>> implements DynamicSet<K> {
 	private int size;
 	private Node root;
 
+	private final TreeWalker<K, Node> walker = new TreeWalker<K, Node>() {
+		@Override
+		Node left(Node node) {
+			return node.getLeft();
+		}
+
+		@Override
+		Node right(Node node) {
+			return node.getRight();
+		}
+
+		@Override
+		K key(Node node) {
+			return node.getKey();
+		}
+
+		@Override
+		int size(Node node) {
+			return node.getSize();
+		}
+	};
+
+	private final boolean recursive; // use the recursive versions of find, insert and remove
+	private Node[] path; // search path of the iterative insert and remove, reused between calls
+
 	public class Node {
 		private K key;
 		private Node left;
 		private Node right;
 		private int priority;
+		private int size; // number of nodes in the subtree
 
 		protected Node(K key) {
 			this.key = key;
 			this.priority = rand.nextInt(LIMIT);
+			this.size = 1;
 		}
 
 		public K getKey() {
@@ -47,6 +76,10 @@ public class Treap<K extends Comparable<K>> implements DynamicSet<K> {
 			return priority;
 		}
 
+		public int getSize() {
+			return size;
+		}
+
 		public void setKey(K key) {
 			this.key = key;
 		}
@@ -58,12 +91,40 @@ public class Treap<K extends Comparable<K>> implements DynamicSet<K> {
 		public void setRight(Node right) {
 			this.right = right;
 		}
+
+		private void updateSize() {
+			this.size = 1 + (left != null ? left.size : 0) + (right != null ? right.size : 0);
+		}
 	}
 
-	public Treap(long seed) {
+	/**
+	 * Result of split.
+	 */
+	private class Split {
+		private Node less; // keys smaller than the split key
+		private Node match; // node with the split key (null if there is none)
+		private Node greater; // keys greater than the split key
+	}
+
+	/**
+	 * @param seed
+	 *            - of the random priorities
+	 * @param recursive
+	 *            - if true, find, insert and remove use the recursive
+	 *            implementations, which are kept to be compared with the iterative
+	 *            ones
+	 */
+	@SuppressWarnings("unchecked")
+	public Treap(long seed, boolean recursive) {
 		this.size = 0;
+		this.recursive = recursive;
+		this.path = (Node[]) new Treap<?>.Node[16];
 		rand = new Random(seed);
 	}
+
+	public Treap(long seed) {
+		this(seed, false);
+	}
 	
 	public Treap() {
 		this(System.currentTimeMillis());
@@ -71,13 +132,27 @@ public class Treap<K extends Comparable<K>> implements DynamicSet<K> {
 
 	@Override
 	public K find(K key) {
-		Node node = find(root, key);
+		Node node = recursive ? find(root, key) : findIterative(key);
 		if (node != null)
 			return node.getKey();
 		else
 			return null;
 	}
 
+	private Node findIterative(K key) {
+		Node node = root;
+		while (node != null) {
+			int cmp = key.compareTo(node.getKey());
+			if (cmp < 0)
+				node = node.getLeft();
+			else if (cmp > 0)
+				node = node.getRight();
+			else
+				return node;
+		}
+		return null;
+	}
+
 	private Node find(Node node, K key) {
 		if (node == null)
 			return null;
@@ -90,25 +165,127 @@ public class Treap<K extends Comparable<K>> implements DynamicSet<K> {
 	}
 
 	@Override
-	public void insert(K key) {
-		if (this.find(key) == null) size++;
+	public boolean insert(K key) {
+		if (!recursive)
+			return insertIterative(key);
+		// the recursion counts the new node, if there is one
+		int oldSize = size;
 		root = insert(root, key);
+		return size != oldSize;
+	}
+
+	/**
+	 * Iterative version of insert(Node, K), in a single pass: the new leaf is
+	 * linked to the end of the search path, and then the path is walked back
+	 * updating the sizes and rotating the new node up while its priority is
+	 * smaller than its parent's.
+	 */
+	private boolean insertIterative(K key) {
+		int depth = 0;
+		Node node = root;
+		while (node != null) {
+			int cmp = key.compareTo(node.getKey());
+			if (cmp == 0)
+				return false;
+			if (depth == path.length)
+				path = Arrays.copyOf(path, 2 * depth);
+			path[depth++] = node;
+			node = cmp < 0 ? node.getLeft() : node.getRight();
+		}
+
+		node = new Node(key);
+		size++;
+		for (int i = depth - 1; i >= 0; i--) {
+			Node parent = path[i];
+			if (key.compareTo(parent.getKey()) < 0)
+				parent.setLeft(node);
+			else
+				parent.setRight(node);
+			parent.updateSize();
+			node = checkHeapProperty(parent);
+		}
+		root = node;
+		return true;
 	}
 
 	private Node insert(Node node, K key) {
-		if (node == null)
+		if (node == null) {
+			size++;
 			return new Node(key);
+		}
 		else if (key.compareTo(node.getKey()) < 0)
 			node.setLeft(insert(node.getLeft(), key));
 		else if (key.compareTo(node.getKey()) > 0)
 			node.setRight(insert(node.getRight(), key));
+		node.updateSize();
 		return checkHeapProperty(node);
 	}
 
 	@Override
-	public void remove(K key) {
-		if (this.find(key) != null) size--;
+	public boolean remove(K key) {
+		if (!recursive)
+			return removeIterative(key);
+		// the recursion counts the removed node, if there is one
+		int oldSize = size;
 		root = remove(root, key);
+		return size != oldSize;
+	}
+
+	/**
+	 * Iterative version of remove(Node, K), in a single pass: the node is rotated
+	 * down (with the child of lowest priority) until it is a leaf, the rotated up
+	 * nodes are added to the search path, and the sizes of the path are updated
+	 * after the leaf is unlinked.
+	 */
+	private boolean removeIterative(K key) {
+		int depth = 0;
+		Node node = root;
+		while (node != null) {
+			int cmp = key.compareTo(node.getKey());
+			if (cmp == 0)
+				break;
+			if (depth == path.length)
+				path = Arrays.copyOf(path, 2 * depth);
+			path[depth++] = node;
+			node = cmp < 0 ? node.getLeft() : node.getRight();
+		}
+		if (node == null)
+			return false;
+
+		while (node.getLeft() != null || node.getRight() != null) {
+			Node left = node.getLeft();
+			Node right = node.getRight();
+			// rotate the lowest priority child
+			int leftPriority = left != null ? left.getPriority() : INF;
+			int rightPriority = right != null ? right.getPriority() : INF;
+			Node newParent = leftPriority < rightPriority ? rotateRight(node) : rotateLeft(node);
+
+			replaceChild(depth > 0 ? path[depth - 1] : null, node, newParent);
+			if (depth == path.length)
+				path = Arrays.copyOf(path, 2 * depth);
+			path[depth++] = newParent;
+		}
+		replaceChild(depth > 0 ? path[depth - 1] : null, node, null);
+		size--;
+
+		for (int i = depth - 1; i >= 0; i--)
+			path[i].updateSize();
+		return true;
+	}
+
+	/**
+	 * Puts a new child in the place of an old one.
+	 * 
+	 * @param parent
+	 *            - of the old child (null if it is the root)
+	 */
+	private void replaceChild(Node parent, Node oldChild, Node newChild) {
+		if (parent == null)
+			root = newChild;
+		else if (parent.getLeft() == oldChild)
+			parent.setLeft(newChild);
+		else
+			parent.setRight(newChild);
 	}
 
 	private Node remove(Node node, K key) {
@@ -123,6 +300,7 @@ public class Treap<K extends Comparable<K>> implements DynamicSet<K> {
 			Node right = node.getRight();
 
 			if (left == null && right == null) {
+				size--;
 				return null;
 			} else {
 				// rotate the lowest priority child
@@ -139,9 +317,328 @@ public class Treap<K extends Comparable<K>> implements DynamicSet<K> {
 			}
 		}
 
+		node.updateSize();
 		return node;
 	}
 
+	/**
+	 * Builds the treap in linear time. The keys get random priorities as usual, and
+	 * since they arrive in order, the tree is built as a Cartesian tree: the right
+	 * spine is kept in a stack, and each new node takes as its left child the nodes of
+	 * the spine with larger priorities. The result is the same tree that inserting the
+	 * keys one by one would give for the same (distinct) priorities.
+	 */
+	@Override
+	public void bulkLoad(Iterator<? extends K> sorted, int n) {
+		root = buildTreap(new SortedKeys<K>(sorted), n);
+		size = n;
+	}
+
+	/**
+	 * Builds a treap with the next n keys, as described in bulkLoad.
+	 * 
+	 * @return The root of the new treap.
+	 */
+	private Node buildTreap(SortedKeys<K> keys, int n) {
+		ArrayDeque<Node> rightSpine = new ArrayDeque<Node>();
+		for (int i = 0; i < n; i++) {
+			Node node = new Node(keys.next());
+			Node last = null;
+			while (!rightSpine.isEmpty() && rightSpine.peek().getPriority() > node.getPriority()) {
+				// the subtree of a node leaving the spine is complete
+				last = rightSpine.pop();
+				last.updateSize();
+			}
+			node.setLeft(last);
+			if (!rightSpine.isEmpty())
+				rightSpine.peek().setRight(node);
+			rightSpine.push(node);
+		}
+		// the nodes still in the spine, from the bottom up
+		for (Node node : rightSpine)
+			node.updateSize();
+		return rightSpine.peekLast();
+	}
+
+	/**
+	 * Builds a treap with the sorted batch and merges it with the set in a single
+	 * pass (union), which takes O(m log(n/m + 1)) expected time for m keys.
+	 */
+	@Override
+	public int insertAll(K[] keys) {
+		K[] sorted = Batch.sortedDistinct(keys);
+		Node batch = buildTreap(new SortedKeys<K>(Arrays.asList(sorted).iterator()), sorted.length);
+		int oldSize = size;
+		root = union(root, batch);
+		size = getSize(root);
+		return size - oldSize;
+	}
+
+	/**
+	 * Splits the set by the middle key of the sorted batch and removes the two halves
+	 * of the batch from the two parts, which takes O(m log(n/m + 1)) expected time for m keys.
+	 */
+	@Override
+	public int removeAll(K[] keys) {
+		K[] sorted = Batch.sortedDistinct(keys);
+		int oldSize = size;
+		root = difference(root, sorted, 0, sorted.length - 1);
+		size = getSize(root);
+		return oldSize - size;
+	}
+
+	/**
+	 * Searches for the sorted keys in a single descent: each node splits the keys it
+	 * receives between its two subtrees.
+	 */
+	@Override
+	public K[] findAll(K[] keys) {
+		K[] sorted = Batch.sortedDistinct(keys);
+		K[] found = Arrays.copyOf(sorted, sorted.length);
+		Arrays.fill(found, null);
+		findAll(root, sorted, 0, sorted.length - 1, found);
+		return Batch.inBatchOrder(keys, sorted, found);
+	}
+
+	/**
+	 * @param keys
+	 *            - sorted keys, of which keys[lo..hi] are searched in the subtree
+	 * @param found
+	 *            - where the keys that are found are written, in the same positions
+	 */
+	private void findAll(Node node, K[] keys, int lo, int hi, K[] found) {
+		if (node == null || lo > hi)
+			return;
+		int i = Arrays.binarySearch(keys, lo, hi + 1, node.getKey());
+		if (i >= 0) {
+			found[i] = node.getKey();
+			findAll(node.getLeft(), keys, lo, i - 1, found);
+			findAll(node.getRight(), keys, i + 1, hi, found);
+		} else {
+			int insertionPoint = -i - 1;
+			findAll(node.getLeft(), keys, lo, insertionPoint - 1, found);
+			findAll(node.getRight(), keys, insertionPoint, hi, found);
+		}
+	}
+
+	/**
+	 * Moves the keys greater than key to a new treap, in O(log n) expected time.
+	 * 
+	 * @return Treap with the keys of this treap that are greater than key.
+	 */
+	public Treap<K> split(K key) {
+		Split split = split(root, key);
+		root = split.match != null ? merge(split.less, setChildren(split.match, null, null)) : split.less;
+		size = getSize(root);
+		Treap<K> greater = new Treap<K>(rand.nextLong(), recursive);
+		greater.root = split.greater;
+		greater.size = getSize(split.greater);
+		return greater;
+	}
+
+	/**
+	 * Moves the keys of another treap, which must be greater than the keys of this
+	 * one, to this treap, in O(log n) expected time. The other treap is left empty.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             - if a key of the other treap is not greater than the keys of this one
+	 */
+	public void join(Treap<K> other) {
+		checkOther(other);
+		if (root != null && other.root != null && getMax().compareTo(other.getMin()) >= 0)
+			throw new IllegalArgumentException("The keys of the joined treap must be greater than " + getMax() + ".");
+		root = merge(root, other.root);
+		size += other.size;
+		other.clear();
+	}
+
+	/**
+	 * Moves the keys of another treap to this one (the keys that are in both keep the
+	 * key of this treap). For treaps of sizes m &lt;= n, this takes O(m log(n/m + 1))
+	 * expected work, and the two halves of each split run in parallel in the common
+	 * ForkJoinPool. The other treap is left empty.
+	 * 
+	 * @return Number of keys that were added, i.e. that were not in this treap.
+	 */
+	public int union(Treap<K> other) {
+		checkOther(other);
+		int oldSize = size;
+		root = ForkJoin.invoke(() -> union(root, other.root));
+		size = getSize(root);
+		other.clear();
+		return size - oldSize;
+	}
+
+	/**
+	 * Removes the keys that are not in another treap, in the same way as union. The
+	 * other treap is left empty.
+	 * 
+	 * @return Number of keys that were removed.
+	 */
+	public int intersection(Treap<K> other) {
+		checkOther(other);
+		int oldSize = size;
+		root = ForkJoin.invoke(() -> intersection(root, other.root));
+		size = getSize(root);
+		other.clear();
+		return oldSize - size;
+	}
+
+	/**
+	 * Removes the keys of another treap, in the same way as union. The other treap is
+	 * left empty.
+	 * 
+	 * @return Number of keys that were removed.
+	 */
+	public int difference(Treap<K> other) {
+		checkOther(other);
+		int oldSize = size;
+		root = ForkJoin.invoke(() -> difference(root, other.root));
+		size = getSize(root);
+		other.clear();
+		return oldSize - size;
+	}
+
+	private void checkOther(Treap<K> other) {
+		if (other == this)
+			throw new IllegalArgumentException("A treap can't be combined with itself.");
+	}
+
+	private void clear() {
+		root = null;
+		size = 0;
+	}
+
+	/**
+	 * Splits a treap in the keys smaller than key, the node with key and the keys
+	 * greater than key.
+	 */
+	private Split split(Node node, K key) {
+		Split result = new Split();
+		split(node, key, result);
+		return result;
+	}
+
+	private void split(Node node, K key, Split result) {
+		if (node == null) {
+			result.less = result.match = result.greater = null;
+			return;
+		}
+		int cmp = key.compareTo(node.getKey());
+		if (cmp < 0) {
+			split(node.getLeft(), key, result);
+			result.greater = setChildren(node, result.greater, node.getRight());
+		} else if (cmp > 0) {
+			split(node.getRight(), key, result);
+			result.less = setChildren(node, node.getLeft(), result.less);
+		} else {
+			result.less = node.getLeft();
+			result.greater = node.getRight();
+			result.match = node;
+		}
+	}
+
+	private Node setChildren(Node node, Node left, Node right) {
+		node.setLeft(left);
+		node.setRight(right);
+		node.updateSize();
+		return node;
+	}
+
+	/**
+	 * Merges two treaps, where all the keys of the first are smaller than the keys of
+	 * the second.
+	 */
+	private Node merge(Node less, Node greater) {
+		if (less == null)
+			return greater;
+		if (greater == null)
+			return less;
+		if (less.getPriority() <= greater.getPriority())
+			return setChildren(less, less.getLeft(), merge(less.getRight(), greater));
+		else
+			return setChildren(greater, merge(less, greater.getLeft()), greater.getRight());
+	}
+
+	/**
+	 * Union of a subtree of this treap with a subtree of another one. The root with the
+	 * smallest priority stays on top and the other treap is split by its key. A key in
+	 * both treaps keeps the key of this one.
+	 */
+	private Node union(Node node, Node other) {
+		if (node == null)
+			return other;
+		if (other == null)
+			return node;
+		int work = node.getSize() + other.getSize();
+		if (node.getPriority() <= other.getPriority()) {
+			Split split = split(other, node.getKey());
+			Node left = node.getLeft(), right = node.getRight();
+			return ForkJoin.both(work, () -> union(left, split.less), () -> union(right, split.greater),
+					(newLeft, newRight) -> setChildren(node, newLeft, newRight));
+		} else {
+			Split split = split(node, other.getKey());
+			Node left = other.getLeft(), right = other.getRight();
+			if (split.match != null)
+				other.setKey(split.match.getKey());
+			return ForkJoin.both(work, () -> union(split.less, left), () -> union(split.greater, right),
+					(newLeft, newRight) -> setChildren(other, newLeft, newRight));
+		}
+	}
+
+	/**
+	 * Intersection of a subtree of this treap with a subtree of another one: the other
+	 * treap is split by the key of the root, which stays only if the key is in both.
+	 */
+	private Node intersection(Node node, Node other) {
+		if (node == null || other == null)
+			return null;
+		Split split = split(other, node.getKey());
+		Node left = node.getLeft(), right = node.getRight();
+		return ForkJoin.both(node.getSize() + other.getSize(), () -> intersection(left, split.less),
+				() -> intersection(right, split.greater),
+				(newLeft, newRight) -> split.match != null ? setChildren(node, newLeft, newRight) : merge(newLeft, newRight));
+	}
+
+	/**
+	 * Difference between a subtree of this treap and a subtree of another one: the other
+	 * treap is split by the key of the root, which stays only if the key is not in it.
+	 */
+	private Node difference(Node node, Node other) {
+		if (node == null || other == null)
+			return node;
+		Split split = split(other, node.getKey());
+		Node left = node.getLeft(), right = node.getRight();
+		return ForkJoin.both(node.getSize() + other.getSize(), () -> difference(left, split.less),
+				() -> difference(right, split.greater),
+				(newLeft, newRight) -> split.match == null ? setChildren(node, newLeft, newRight) : merge(newLeft, newRight));
+	}
+
+	/**
+	 * Removes the sorted keys keys[lo..hi] from a subtree.
+	 */
+	private Node difference(Node node, K[] keys, int lo, int hi) {
+		if (node == null || lo > hi)
+			return node;
+		int mid = (lo + hi) >>> 1;
+		Split split = split(node, keys[mid]);
+		return merge(difference(split.less, keys, lo, mid - 1), difference(split.greater, keys, mid + 1, hi));
+	}
+
+	@Override
+	public int rank(K key) {
+		return walker.rank(root, key);
+	}
+
+	@Override
+	public K select(int i) {
+		return walker.select(root, i);
+	}
+
+	private int getSize(Node node) {
+		return node != null ? node.getSize() : 0;
+	}
+
 	private Node checkHeapProperty(Node node) {
 		Node left = node.getLeft();
 		Node right = node.getRight();
@@ -160,6 +657,36 @@ public class Treap<K extends Comparable<K>> implements DynamicSet<K> {
 		return node;
 	}
 
+	@Override
+	public Iterator<K> iterator() {
+		return walker.iterator(root, null, null);
+	}
+
+	@Override
+	public Iterator<K> range(K lo, K hi) {
+		return walker.iterator(root, lo, hi);
+	}
+
+	@Override
+	public K floor(K key) {
+		return walker.predecessor(root, key, true);
+	}
+
+	@Override
+	public K lower(K key) {
+		return walker.predecessor(root, key, false);
+	}
+
+	@Override
+	public K ceiling(K key) {
+		return walker.successor(root, key, true);
+	}
+
+	@Override
+	public K higher(K key) {
+		return walker.successor(root, key, false);
+	}
+	
 	@Override
 	public K getMin() {
 		Node node = getMin(root);
@@ -172,10 +699,9 @@ public class Treap<K extends Comparable<K>> implements DynamicSet<K> {
 	protected final Node getMin(Node node) {
 		if (node == null)
 			return null;
-		else if (node.getLeft() == null)
-			return node;
-		else
-			return getMin(node.getLeft());
+		while (node.getLeft() != null)
+			node = node.getLeft();
+		return node;
 	}
 
 	@Override
@@ -190,10 +716,9 @@ public class Treap<K extends Comparable<K>> implements DynamicSet<K> {
 	protected final Node getMax(Node node) {
 		if (node == null)
 			return null;
-		else if (node.getRight() == null)
-			return node;
-		else
-			return getMax(node.getRight());
+		while (node.getRight() != null)
+			node = node.getRight();
+		return node;
 	}
 
 	@Override
@@ -250,7 +775,6 @@ public class Treap<K extends Comparable<K>> implements DynamicSet<K> {
 		}
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public String toDotString() {
 		StringBuilder stringBuilder = new StringBuilder();
@@ -262,8 +786,8 @@ public class Treap<K extends Comparable<K>> implements DynamicSet<K> {
 		Integer maxPriority = getMaxPriority();
 
 		// Dump all the nodes
-		LinkedList<Node> curLevelNodes = new LinkedList<Node>();
-		LinkedList<Node> nextLevelNodes = new LinkedList<Node>();
+		ArrayList<Node> curLevelNodes = new ArrayList<Node>();
+		ArrayList<Node> nextLevelNodes = new ArrayList<Node>();
 		int nullDotCount = 0;
 		
 		if(root != null) {
@@ -280,13 +804,8 @@ public class Treap<K extends Comparable<K>> implements DynamicSet<K> {
 				stringBuilder.append("}");
 				stringBuilder.append("\n");
 				
-				while(!curLevelNodes.isEmpty()) {
-					Node node = curLevelNodes.remove();
-					//Compute the color
-					double hue = 0;
-					if(!minPriority.equals(maxPriority)) hue = node.getPriority() * 0.17 / (maxPriority - minPriority);
-					
-					stringBuilder.append(node.getKey() + " [shape=circle, style=filled, fillcolor=\"" + hue + " 1.000 1.000\", label=<"+ node.getKey() +"<BR /><FONT POINT-SIZE=\"10\">" + node.getPriority() + "</FONT>>];");
+				for(Node node : curLevelNodes) {
+					stringBuilder.append(node.getKey() + " [" + dotAttributes(node, minPriority, maxPriority) + "];");
 					stringBuilder.append("\n");
 					
 					Node left = node.getLeft();
@@ -318,10 +837,12 @@ public class Treap<K extends Comparable<K>> implements DynamicSet<K> {
 					}
 				}
 				
-				//Prepare the next curLevelNodes array
-				curLevelNodes = (LinkedList<Treap<K>.Node>) nextLevelNodes.clone();
+				//The next level becomes the current one, and the old list is reused for the level after it
+				ArrayList<Node> swap = curLevelNodes;
+				curLevelNodes = nextLevelNodes;
+				nextLevelNodes = swap;
 			}
-			while (!nextLevelNodes.isEmpty());
+			while (!curLevelNodes.isEmpty());
 		}
 
 		stringBuilder.append("}");
@@ -329,6 +850,26 @@ public class Treap<K extends Comparable<K>> implements DynamicSet<K> {
 		return stringBuilder.toString();
 	}
 
+	@Override
+	public String toDotString(int maxDepth, K focusKey) {
+		Integer minPriority = getMinPriority();
+		Integer maxPriority = getMaxPriority();
+		return new DotTreeWriter<K, Node>(walker) {
+			@Override
+			String attributes(Node node) {
+				return dotAttributes(node, minPriority, maxPriority);
+			}
+		}.write(root, maxDepth, focusKey);
+	}
+
+	private String dotAttributes(Node node, Integer minPriority, Integer maxPriority) {
+		//Compute the color
+		double hue = 0;
+		if(!minPriority.equals(maxPriority)) hue = node.getPriority() * 0.17 / (maxPriority - minPriority);
+
+		return "shape=circle, style=filled, fillcolor=\"" + hue + " 1.000 1.000\", label=<"+ node.getKey() +"<BR /><FONT POINT-SIZE=\"10\">" + node.getPriority() + "</FONT>>";
+	}
+
 	private Node rotateLeft(Node x) {
 		Node y = x.getRight();
 		if (y == null)
@@ -338,6 +879,8 @@ public class Treap<K extends Comparable<K>> implements DynamicSet<K> {
 		y.setLeft(x);
 		x.setRight(z);
 
+		x.updateSize();
+		y.updateSize();
 		return y;
 	}
 
@@ -350,6 +893,8 @@ public class Treap<K extends Comparable<K>> implements DynamicSet<K> {
 		y.setRight(x);
 		x.setLeft(z);
 
+		x.updateSize();
+		y.updateSize();
 		return y;
 	}
 
@@ -0,0 +1,182 @@
+package structures;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Ordered access to a binary search tree through accessors of its nodes, shared by the
+ * trees: a lazy in-order iterator over a range of keys, the searches of the closest keys
+ * below and above a given key and, for the trees that keep the size of their subtrees,
+ * rank and select. None of them is recursive, so degenerate trees don't overflow the stack.
+ *
+ * @param <K> Type of the keys.
+ * @param <N> Type of the nodes of the tree.
+ *
+ * @author Gonalo Leo & Matheus Rosa
+ *
+ */
+abstract class TreeWalker<K extends Comparable<K>, N> {
+
+	/**
+	 * @return The left child of the node, or null if there is none.
+	 */
+	abstract N left(N node);
+
+	/**
+	 * @return The right child of the node, or null if there is none.
+	 */
+	abstract N right(N node);
+
+	abstract K key(N node);
+
+	/**
+	 * @return The number of keys in the subtree of the node, or -1 if the tree doesn't keep
+	 *         it. rank and select can only be called by the trees that keep it.
+	 */
+	int size(N node) {
+		return -1;
+	}
+
+	/**
+	 * @return The height of the subtree of the node (1 for a leaf), or -1 if the tree doesn't
+	 *         keep it.
+	 */
+	int height(N node) {
+		return -1;
+	}
+
+	private int sizeOf(N node) {
+		return node != null ? size(node) : 0;
+	}
+
+	/**
+	 * @param root Root of the tree, or null if it is empty.
+	 * @param lo Smallest key to return, or null to start at the minimum.
+	 * @param hi Greatest key to return, or null to go up to the maximum.
+	 * @return The keys of the tree from lo to hi, in ascending order.
+	 */
+	Iterator<K> iterator(N root, K lo, K hi) {
+		return new InOrderIterator(root, lo, hi);
+	}
+
+	/**
+	 * The stack holds the nodes whose left subtree was already visited (or skipped because
+	 * it is below lo), with the next node on top.
+	 */
+	private class InOrderIterator implements Iterator<K> {
+		private final ArrayDeque<N> stack = new ArrayDeque<N>();
+		private final K hi;
+
+		private InOrderIterator(N root, K lo, K hi) {
+			this.hi = hi;
+			// push the path to the first node not smaller than lo
+			N node = root;
+			while (node != null) {
+				if (lo == null || lo.compareTo(key(node)) <= 0) {
+					stack.push(node);
+					node = left(node);
+				} else
+					node = right(node);
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !stack.isEmpty() && (hi == null || hi.compareTo(key(stack.peek())) >= 0);
+		}
+
+		@Override
+		public K next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			N node = stack.pop();
+			// the nodes after it are the left spine of its right subtree
+			for (N child = right(node); child != null; child = left(child))
+				stack.push(child);
+			return key(node);
+		}
+	}
+
+	/**
+	 * @param root Root of the tree, or null if it is empty.
+	 * @return The greatest key of the tree smaller than (or equal to, if inclusive) key, or
+	 *         null if there is none.
+	 */
+	K predecessor(N root, K key, boolean inclusive) {
+		K result = null;
+		N node = root;
+		while (node != null) {
+			int cmp = key.compareTo(key(node));
+			if (cmp == 0 && inclusive)
+				return key(node);
+			// the node is a candidate, and the greater ones are on its right
+			if (cmp > 0) {
+				result = key(node);
+				node = right(node);
+			} else
+				node = left(node);
+		}
+		return result;
+	}
+
+	/**
+	 * @param root Root of the tree, or null if it is empty.
+	 * @return The smallest key of the tree greater than (or equal to, if inclusive) key, or
+	 *         null if there is none.
+	 */
+	K successor(N root, K key, boolean inclusive) {
+		K result = null;
+		N node = root;
+		while (node != null) {
+			int cmp = key.compareTo(key(node));
+			if (cmp == 0 && inclusive)
+				return key(node);
+			if (cmp < 0) {
+				result = key(node);
+				node = left(node);
+			} else
+				node = right(node);
+		}
+		return result;
+	}
+
+	/**
+	 * @param root Root of the tree, or null if it is empty.
+	 * @return The number of keys of the tree smaller than key.
+	 */
+	int rank(N root, K key) {
+		int rank = 0;
+		N node = root;
+		while (node != null) {
+			// the node and its left subtree are below key
+			if (key.compareTo(key(node)) > 0) {
+				rank += sizeOf(left(node)) + 1;
+				node = right(node);
+			} else
+				node = left(node);
+		}
+		return rank;
+	}
+
+	/**
+	 * @param root Root of the tree, or null if it is empty.
+	 * @return The i-th smallest key of the tree (from 0), or null if i is out of bounds.
+	 */
+	K select(N root, int i) {
+		if (i < 0 || i >= sizeOf(root))
+			return null;
+		N node = root;
+		while (true) {
+			int leftSize = sizeOf(left(node));
+			if (i < leftSize)
+				node = left(node);
+			else if (i == leftSize)
+				return key(node);
+			else {
+				i -= leftSize + 1;
+				node = right(node);
+			}
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import structures.DynamicSet;
+
+/**
+ * Checks the ordered access operations of a set (iterator, range, floor, ceiling,
+ * higher, lower, rank and select) against java.util.TreeSet, along a random sequence
+ * of insertions and removals (whose results are checked too), either of single keys
+ * or of batches.
+ */
+public final class OrderedAccessChecker {
+	
+	// few keys, so that there are many repeated insertions and removals, all above the
+	// Integer cache so that equal keys are boxed into distinct objects
+	private static final int MIN_KEY = 1000;
+	private static final int KEYS = 100;
+	private static final int MAX_KEY = MIN_KEY + KEYS;
+	private static final int N_OPERATIONS = 400;
+	private static final int CHECK_PERIOD = 20;
+	
+	private OrderedAccessChecker() {
+	}
+	
+	public static void randomOperations(DynamicSet<Integer> set, Random rand) {
+		TreeSet<Integer> expected = new TreeSet<>();
+		check(set, expected, rand);
+		
+		for (int i = 1; i <= N_OPERATIONS; i++) {
+			int key = MIN_KEY + rand.nextInt(KEYS);
+			if (rand.nextInt(3) > 0) {
+				assertEquals(expected.add(key), set.insert(key));
+			} else {
+				assertEquals(expected.remove(key), set.remove(key));
+			}
+			if (i % CHECK_PERIOD == 0) check(set, expected, rand);
+		}
+	}
+	
+	/**
+	 * Same as randomOperations, with insertAll, removeAll and findAll on batches of
+	 * random sizes (with repeated keys).
+	 */
+	public static void randomBatches(DynamicSet<Integer> set, Random rand) {
+		TreeSet<Integer> expected = new TreeSet<>();
+		
+		for (int i = 1; i <= N_OPERATIONS / 10; i++) {
+			Integer[] batch = new Integer[rand.nextInt(KEYS / 2)];
+			for (int j = 0; j < batch.length; j++) batch[j] = MIN_KEY + rand.nextInt(KEYS);
+			
+			Integer[] expectedFound = new Integer[batch.length];
+			for (int j = 0; j < batch.length; j++) expectedFound[j] = expected.contains(batch[j]) ? batch[j] : null;
+			assertEquals(Arrays.asList(expectedFound), Arrays.asList(set.findAll(batch)));
+			
+			int oldSize = expected.size();
+			if (rand.nextInt(3) > 0) {
+				expected.addAll(Arrays.asList(batch));
+				assertEquals(expected.size() - oldSize, set.insertAll(batch));
+			} else {
+				expected.removeAll(Arrays.asList(batch));
+				assertEquals(oldSize - expected.size(), set.removeAll(batch));
+			}
+			check(set, expected, rand);
+		}
+	}
+	
+	public static void check(DynamicSet<Integer> set, TreeSet<Integer> expected, Random rand) {
+		assertEquals(new ArrayList<>(expected), toList(set.iterator()));
+		
+		for (int i = 0; i < 10; i++) {
+			int lo = MIN_KEY + rand.nextInt(KEYS + 2) - 1;
+			int hi = lo + rand.nextInt(KEYS / 2) - 5;
+			ArrayList<Integer> expectedRange = new ArrayList<>();
+			for (Integer key : expected) {
+				if (key >= lo && key <= hi) expectedRange.add(key);
+			}
+			assertEquals(expectedRange, toList(set.range(lo, hi)));
+		}
+		
+		for (int key = MIN_KEY - 1; key <= MAX_KEY; key++) {
+			assertEquals(expected.floor(key), set.floor(key));
+			assertEquals(expected.ceiling(key), set.ceiling(key));
+			assertEquals(expected.higher(key), set.higher(key));
+			assertEquals(expected.lower(key), set.lower(key));
+			assertEquals(expected.headSet(key).size(), set.rank(key));
+		}
+		
+		int i = -1;
+		assertNull(set.select(i++));
+		for (Integer key : expected) assertEquals(key, set.select(i++));
+		assertNull(set.select(i));
+	}
+	
+	private static ArrayList<Integer> toList(Iterator<Integer> iterator) {
+		ArrayList<Integer> list = new ArrayList<>();
+		while (iterator.hasNext()) list.add(iterator.next());
+		assertFalse(iterator.hasNext());
+		return list;
+	}
+}
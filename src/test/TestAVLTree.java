@@ -1,16 +1,32 @@
 package test;
 
 import structures.AVLTree;
+import structures.DynamicSet;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Assume;
 import org.junit.Test;
 
 public class TestAVLTree {
 
+	/**
+	 * Creates the tree under test, so that the same expectations can be checked on other AVL tree implementations.
+	 */
+	protected <K extends Comparable<K>> DynamicSet<K> createTree() {
+		return new AVLTree<K>();
+	}
+
 	@Test
 	public void testRandom() {
-		AVLTree<Integer> avl = new AVLTree<Integer>();
+		DynamicSet<Integer> avl = createTree();
 		
 		assertEquals("()", avl.toString());
 		assertEquals(null, avl.find(4));
@@ -130,7 +146,7 @@ public class TestAVLTree {
 	
 	@Test
 	public void testAscending() {
-		AVLTree<Integer> avl = new AVLTree<Integer>();
+		DynamicSet<Integer> avl = createTree();
 		
 		avl.insert(1);
 		assertEquals("([1]1,(),())", avl.toString());
@@ -160,7 +176,7 @@ public class TestAVLTree {
 	
 	@Test
 	public void testString() {
-		AVLTree<String> avl = new AVLTree<String>();
+		DynamicSet<String> avl = createTree();
 		
 		assertEquals("()", avl.toString());
 		assertEquals(null, avl.find("goncalo"));
@@ -213,4 +229,194 @@ public class TestAVLTree {
 		System.out.println(avl.toString());
 	}
 
+	@Test
+	public void testBulkLoad() {
+		DynamicSet<Integer> avl = createTree();
+		avl.insert(10);
+		
+		avl.bulkLoad(new Integer[] { 1, 2, 3, 4, 5, 6, 7 });
+		assertEquals("([3]4,([2]2,([1]1,(),()),([1]3,(),())),([2]6,([1]5,(),()),([1]7,(),())))", avl.toString());
+		assertEquals(null, avl.find(10));
+		
+		avl.bulkLoad(new Integer[] { 1, 2, 3, 4, 5, 6 });
+		assertEquals("([3]4,([2]2,([1]1,(),()),([1]3,(),())),([2]6,([1]5,(),()),()))", avl.toString());
+		
+		avl.insert(7);
+		avl.insert(8);
+		assertEquals("([4]4,([2]2,([1]1,(),()),([1]3,(),())),([3]6,([1]5,(),()),([2]7,(),([1]8,(),()))))", avl.toString());
+		avl.remove(4);
+		assertEquals(null, avl.find(4));
+		assertEquals(Integer.valueOf(1), avl.getMin());
+		assertEquals(Integer.valueOf(8), avl.getMax());
+		
+		avl.bulkLoad(new Integer[0]);
+		assertEquals("()", avl.toString());
+	}
+	
+	@Test
+	public void testBulkLoadUnsorted() {
+		DynamicSet<Integer> avl = createTree();
+		avl.insert(10);
+		try {
+			avl.bulkLoad(new Integer[] { 1, 3, 2 });
+			fail("Unsorted keys were accepted");
+		} catch (IllegalArgumentException e) {
+			assertEquals("([1]10,(),())", avl.toString());
+		}
+	}
+
+	@Test
+	public void testSameOutputAsRecursive() {
+		Random rand = new Random();
+		DynamicSet<Integer> avl = createTree();
+		AVLTree<Integer> recursive = new AVLTree<Integer>(true);
+		
+		for (int i = 0; i < 5000; i++) {
+			int key = rand.nextInt(500);
+			if (rand.nextInt(3) == 0) {
+				assertEquals(recursive.remove(key), avl.remove(key));
+			} else {
+				assertEquals(recursive.insert(key), avl.insert(key));
+			}
+			assertEquals(recursive.toString(), avl.toString());
+			assertEquals(recursive.find(key), avl.find(key));
+		}
+	}
+
+	@Test
+	public void testOrderedAccess() {
+		OrderedAccessChecker.randomOperations(createTree(), new Random());
+	}
+
+	@Test
+	public void testBatches() {
+		OrderedAccessChecker.randomBatches(createTree(), new Random());
+	}
+
+	@Test
+	public void testBatchesKeepBalance() {
+		Random rand = new Random();
+		DynamicSet<Integer> avl = createTree();
+		for (int i = 0; i < 50; i++) {
+			Integer[] batch = new Integer[rand.nextInt(2000)];
+			for (int j = 0; j < batch.length; j++) batch[j] = rand.nextInt(10000);
+			if (rand.nextInt(3) > 0) avl.insertAll(batch);
+			else avl.removeAll(batch);
+			String tree = avl.toString();
+			assertEquals(tree.length(), checkBalance(tree, 0));
+		}
+	}
+
+	/**
+	 * Checks the heights and the balance of the subtree written by toString from position pos.
+	 * 
+	 * @return Position after the subtree.
+	 */
+	private int checkBalance(String tree, int pos) {
+		assertEquals('(', tree.charAt(pos));
+		if (tree.charAt(pos + 1) == ')') {
+			lastHeight = 0;
+			return pos + 2;
+		}
+		int endHeight = tree.indexOf(']', pos);
+		int height = Integer.parseInt(tree.substring(pos + 2, endHeight));
+		pos = checkBalance(tree, tree.indexOf(',', endHeight) + 1);
+		int leftHeight = lastHeight;
+		assertEquals(',', tree.charAt(pos));
+		pos = checkBalance(tree, pos + 1);
+		int rightHeight = lastHeight;
+		assertEquals(')', tree.charAt(pos));
+		assertEquals(1 + Math.max(leftHeight, rightHeight), height);
+		assertTrue(Math.abs(leftHeight - rightHeight) <= 1);
+		lastHeight = height;
+		return pos + 1;
+	}
+
+	private int lastHeight; //height of the last subtree checked by checkBalance
+
+	/**
+	 * @return - a tree of createTree(), or skips the test if it isn't an AVLTree, the only
+	 *         one with split, join and the set operations
+	 */
+	private AVLTree<Integer> createAVLTree() {
+		DynamicSet<Integer> tree = createTree();
+		Assume.assumeTrue(tree instanceof AVLTree);
+		return (AVLTree<Integer>) tree;
+	}
+
+	@Test
+	public void testSplitJoin() {
+		Random rand = new Random();
+		AVLTree<Integer> avl = createAVLTree();
+		TreeSet<Integer> set = new TreeSet<Integer>();
+		for (int i = 0; i < 10000; i++) {
+			int key = rand.nextInt(100000);
+			set.add(key);
+			avl.insert(key);
+		}
+		
+		int pivot = rand.nextInt(100000);
+		AVLTree<Integer> greater = avl.split(pivot);
+		checkTree(avl, set.headSet(pivot, true));
+		checkTree(greater, set.tailSet(pivot, false));
+		
+		avl.join(greater);
+		checkTree(avl, set);
+		checkTree(greater, new TreeSet<Integer>());
+		
+		AVLTree<Integer> smaller = createAVLTree();
+		smaller.insert(-1);
+		try {
+			avl.join(smaller);
+			fail("A tree with smaller keys was joined");
+		} catch (IllegalArgumentException e) {
+			checkTree(avl, set);
+		}
+	}
+
+	@Test
+	public void testSetOperations() {
+		Random rand = new Random();
+		for (int operation = 0; operation < 3; operation++) {
+			//large enough for the operations to run in parallel
+			AVLTree<Integer> avl = createAVLTree();
+			AVLTree<Integer> other = createAVLTree();
+			TreeSet<Integer> set = new TreeSet<Integer>();
+			TreeSet<Integer> otherSet = new TreeSet<Integer>();
+			for (int i = 0; i < 20000; i++) {
+				int key = rand.nextInt(50000);
+				set.add(key);
+				avl.insert(key);
+				key = rand.nextInt(50000);
+				otherSet.add(key);
+				other.insert(key);
+			}
+			
+			int oldSize = set.size();
+			if (operation == 0) {
+				set.addAll(otherSet);
+				assertEquals(set.size() - oldSize, avl.union(other));
+			}
+			else if (operation == 1) {
+				set.retainAll(otherSet);
+				assertEquals(oldSize - set.size(), avl.intersection(other));
+			}
+			else {
+				set.removeAll(otherSet);
+				assertEquals(oldSize - set.size(), avl.difference(other));
+			}
+			checkTree(avl, set);
+			checkTree(other, new TreeSet<Integer>());
+		}
+	}
+
+	private void checkTree(AVLTree<Integer> avl, Set<Integer> expected) {
+		String tree = avl.toString();
+		assertEquals(tree.length(), checkBalance(tree, 0));
+		assertEquals(expected.size(), avl.rank(Integer.MAX_VALUE));
+		ArrayList<Integer> keys = new ArrayList<>();
+		for (Integer key : avl) keys.add(key);
+		assertEquals(new ArrayList<>(expected), keys);
+	}
+	
 }
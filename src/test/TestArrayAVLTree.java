@@ -0,0 +1,57 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import structures.AVLTree;
+import structures.ArrayAVLTree;
+import structures.DynamicSet;
+
+public class TestArrayAVLTree extends TestAVLTree {
+
+	@Override
+	protected <K extends Comparable<K>> DynamicSet<K> createTree() {
+		return new ArrayAVLTree<K>(1);
+	}
+
+	@Test
+	public void testSameOutputAsAVLTree() {
+		Random rand = new Random();
+		AVLTree<Integer> avl = new AVLTree<Integer>();
+		ArrayAVLTree<Integer> arrayAvl = new ArrayAVLTree<Integer>();
+
+		for (int i = 0; i < 5000; i++) {
+			int newElement = rand.nextInt(500);
+			if (rand.nextInt(3) == 0) {
+				avl.remove(newElement);
+				arrayAvl.remove(newElement);
+			} else {
+				avl.insert(newElement);
+				arrayAvl.insert(newElement);
+			}
+
+			assertEquals(avl.toString(), arrayAvl.toString());
+			assertEquals(avl.find(newElement), arrayAvl.find(newElement));
+			assertEquals(avl.getMin(), arrayAvl.getMin());
+			assertEquals(avl.getMax(), arrayAvl.getMax());
+		}
+		assertEquals(avl.toDotString(), arrayAvl.toDotString());
+	}
+
+	@Test
+	public void testSlotReuse() {
+		ArrayAVLTree<Integer> arrayAvl = new ArrayAVLTree<Integer>(4);
+
+		// filling and emptying the tree over and over must keep working on the freed slots
+		for (int round = 0; round < 10; round++) {
+			for (int i = 0; i < 100; i++) arrayAvl.insert(i);
+			assertEquals(Integer.valueOf(0), arrayAvl.getMin());
+			assertEquals(Integer.valueOf(99), arrayAvl.getMax());
+			for (int i = 0; i < 100; i++) arrayAvl.remove(i);
+			assertEquals("()", arrayAvl.toString());
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import structures.ConcurrentSkipList;
+
+public class TestConcurrentSkipList {
+
+	private static Random rand;
+	private static int nElements;
+	private static int maxRand;
+	private static int nThreads;
+
+	private ConcurrentSkipList<Integer> list;
+	private TreeSet<Integer> set;
+
+	@BeforeClass
+	public static void setUp() {
+		nElements = 2000;
+		maxRand = 10000;
+		nThreads = 4;
+		rand = new Random();
+	}
+
+	@Before
+	public void setUpTest() {
+		list = new ConcurrentSkipList<>();
+		set = new TreeSet<>();
+	}
+
+	/**
+	 * Runs the threads until they finish, and then fails with the first exception thrown by any
+	 * of them, which would otherwise be lost in its thread.
+	 */
+	private static void runAll(ArrayList<Thread> threads) throws InterruptedException {
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		for (Thread thread : threads) {
+			thread.setUncaughtExceptionHandler((t, e) -> failure.compareAndSet(null, e));
+			thread.start();
+		}
+		for (Thread thread : threads) thread.join();
+		if (failure.get() != null) throw new AssertionError("A worker thread failed.", failure.get());
+	}
+
+	@Test
+	public void TestRandom() {
+		assertNull(list.find(10));
+		assertNull(list.getMin());
+		assertNull(list.getMax());
+
+		for (int i = 0; i < nElements; i++) {
+			int newElement = rand.nextInt(maxRand);
+			if (rand.nextBoolean()) {
+				list.insert(newElement);
+				set.add(newElement);
+			} else {
+				list.remove(newElement);
+				set.remove(newElement);
+			}
+
+			if (!set.contains(newElement)) {
+				assertNull(list.find(newElement));
+			} else {
+				assertEquals(Integer.valueOf(newElement), list.find(newElement));
+			}
+
+			if (set.isEmpty()) {
+				assertNull(list.getMax());
+				assertNull(list.getMin());
+			} else {
+				assertEquals(set.last(), list.getMax());
+				assertEquals(set.first(), list.getMin());
+			}
+		}
+	}
+
+	@Test
+	public void TestConcurrentInsertionDeletion() throws InterruptedException {
+		// every thread inserts its own keys and then removes the odd ones
+		ArrayList<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < nThreads; t++) {
+			final int offset = t;
+			threads.add(new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int i = 0; i < nElements; i++) list.insert(i * nThreads + offset);
+					for (int i = 0; i < nElements; i++) {
+						int key = i * nThreads + offset;
+						if (key % 2 == 1) list.remove(key);
+					}
+				}
+			}));
+		}
+		runAll(threads);
+
+		for (int key = 0; key < nElements * nThreads; key++) {
+			if (key % 2 == 0) assertEquals(Integer.valueOf(key), list.find(key));
+			else assertNull(list.find(key));
+		}
+		assertEquals(Integer.valueOf(0), list.getMin());
+		assertEquals(Integer.valueOf(nElements * nThreads - 2), list.getMax());
+	}
+
+	@Test
+	public void TestConcurrentSameKeys() throws InterruptedException {
+		// all the threads fight over the same small range of keys
+		final AtomicInteger balance = new AtomicInteger(); // successful insertions minus successful removals
+		ArrayList<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < nThreads; t++) {
+			threads.add(new Thread(new Runnable() {
+				@Override
+				public void run() {
+					Random threadRand = new Random();
+					for (int i = 0; i < nElements * 10; i++) {
+						int key = threadRand.nextInt(64);
+						if (threadRand.nextBoolean()) {
+							if (list.insert(key)) balance.incrementAndGet();
+						} else if (list.remove(key)) {
+							balance.decrementAndGet();
+						}
+					}
+				}
+			}));
+		}
+		runAll(threads);
+
+		// each key that changed the set was reported by exactly one thread
+		int present = 0;
+		for (Integer key : list) present++;
+		assertEquals(balance.get(), present);
+
+		// the list must still behave as a set afterwards
+		for (int key = 0; key < 64; key++) list.insert(key);
+		for (int key = 0; key < 64; key++) assertEquals(Integer.valueOf(key), list.find(key));
+		for (int key = 0; key < 64; key += 2) list.remove(key);
+		for (int key = 0; key < 64; key++) {
+			if (key % 2 == 0) assertNull(list.find(key));
+			else assertEquals(Integer.valueOf(key), list.find(key));
+		}
+	}
+
+	@Test
+	public void TestOrderedAccess() {
+		OrderedAccessChecker.randomOperations(new ConcurrentSkipList<Integer>(), new Random());
+	}
+	
+}
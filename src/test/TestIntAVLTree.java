@@ -0,0 +1,72 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import structures.AVLTree;
+import structures.IntAVLTree;
+
+public class TestIntAVLTree {
+
+	private static int nElements;
+	private static int maxRand;
+	private static Random rand;
+	private IntAVLTree avl;
+	private AVLTree<Integer> genericAvl;
+	private TreeSet<Integer> set;
+
+	@BeforeClass
+	public static void setUp() {
+		nElements = 5000;
+		maxRand = 1000;
+		rand = new Random();
+	}
+
+	@Before
+	public void setUpTest() {
+		avl = new IntAVLTree();
+		genericAvl = new AVLTree<Integer>();
+		set = new TreeSet<Integer>();
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void TestEmpty() {
+		assertTrue(avl.isEmpty());
+		assertFalse(avl.find(4));
+		assertEquals("()", avl.toString());
+		avl.getMin();
+	}
+
+	@Test
+	public void TestSameShapeAsAVLTree() {
+		for (int i = 0; i < nElements; i++) {
+			int newElement = rand.nextInt(maxRand);
+			if (rand.nextInt(3) == 0) {
+				avl.remove(newElement);
+				genericAvl.remove(newElement);
+				set.remove(newElement);
+			} else {
+				avl.insert(newElement);
+				genericAvl.insert(newElement);
+				set.add(newElement);
+			}
+
+			assertEquals(genericAvl.toString(), avl.toString());
+			assertEquals(set.contains(newElement), avl.find(newElement));
+			assertEquals(set.isEmpty(), avl.isEmpty());
+			if (!set.isEmpty()) {
+				assertEquals((int) set.first(), avl.getMin());
+				assertEquals((int) set.last(), avl.getMax());
+			}
+		}
+	}
+}
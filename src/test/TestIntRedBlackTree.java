@@ -0,0 +1,104 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import structures.IntRedBlackTree;
+
+public class TestIntRedBlackTree {
+
+	private static int nElements;
+	private static int maxRand;
+	private static Random rand;
+	private IntRedBlackTree rb;
+	private TreeSet<Integer> set;
+
+	@BeforeClass
+	public static void setUp() {
+		nElements = 5000;
+		maxRand = 1000;
+		rand = new Random();
+	}
+
+	@Before
+	public void setUpTest() {
+		rb = new IntRedBlackTree();
+		set = new TreeSet<Integer>();
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void TestEmpty() {
+		assertTrue(rb.isEmpty());
+		assertFalse(rb.find(1));
+		assertEquals("()", rb.toString());
+		rb.getMax();
+	}
+
+	@Test
+	public void TestBasicInsertion() {
+		rb.insert(10);
+		rb.insert(20);
+		rb.insert(30);
+		assertEquals("([false]20,([true]10,(),()),([true]30,(),()))", rb.toString());
+		rb.remove(20);
+		assertEquals("([false]10,(),([true]30,(),()))", rb.toString());
+	}
+
+	@Test
+	public void TestRandom() {
+		for (int i = 0; i < nElements; i++) {
+			int newElement = rand.nextInt(maxRand);
+			if (rand.nextInt(3) == 0) {
+				rb.remove(newElement);
+				set.remove(newElement);
+			} else {
+				rb.insert(newElement);
+				set.add(newElement);
+			}
+
+			checkRedBlackInvariant(rb.toString());
+			assertEquals(set.contains(newElement), rb.find(newElement));
+			if (!set.isEmpty()) {
+				assertEquals((int) set.first(), rb.getMin());
+				assertEquals((int) set.last(), rb.getMax());
+			}
+		}
+	}
+
+	/**
+	 * Checks the red-black properties using the pre-order string of the tree.
+	 */
+	private void checkRedBlackInvariant(String tree) {
+		int[] pos = { 0 };
+		assertFalse(tree.startsWith("([true]"));
+		checkSubtree(tree, pos, false);
+		assertEquals(tree.length(), pos[0]);
+	}
+
+	// returns the black height of the subtree that starts at pos[0]
+	private int checkSubtree(String tree, int[] pos, boolean parentIsRed) {
+		assertEquals('(', tree.charAt(pos[0]++));
+		if (tree.charAt(pos[0]) == ')') {
+			pos[0]++;
+			return 1;
+		}
+		boolean red = tree.startsWith("[true]", pos[0]);
+		assertFalse("red node with a red parent", red && parentIsRed);
+		pos[0] = tree.indexOf(',', pos[0]) + 1;
+		int leftHeight = checkSubtree(tree, pos, red);
+		assertEquals(',', tree.charAt(pos[0]++));
+		int rightHeight = checkSubtree(tree, pos, red);
+		assertEquals(')', tree.charAt(pos[0]++));
+		assertEquals(leftHeight, rightHeight);
+		return leftHeight + (red ? 0 : 1);
+	}
+}
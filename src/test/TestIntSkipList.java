@@ -0,0 +1,72 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import structures.IntSkipList;
+
+public class TestIntSkipList {
+
+	private static int nElements;
+	private static int maxRand;
+	private static Random rand;
+	private IntSkipList list;
+	private TreeSet<Integer> set;
+
+	@BeforeClass
+	public static void setUp() {
+		nElements = 5000;
+		maxRand = 1000;
+		rand = new Random();
+	}
+
+	@Before
+	public void setUpTest() {
+		list = new IntSkipList();
+		set = new TreeSet<Integer>();
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void TestEmpty() {
+		assertTrue(list.isEmpty());
+		assertFalse(list.find(10));
+		list.getMin();
+	}
+
+	@Test
+	public void TestRandom() {
+		for (int i = 0; i < nElements; i++) {
+			int newElement = rand.nextInt(maxRand) - maxRand / 2;
+			if (rand.nextBoolean()) {
+				list.insert(newElement);
+				set.add(newElement);
+			} else {
+				list.remove(newElement);
+				set.remove(newElement);
+			}
+
+			assertEquals(set.contains(newElement), list.find(newElement));
+			assertEquals(set.isEmpty(), list.isEmpty());
+			if (!set.isEmpty()) {
+				assertEquals((int) set.first(), list.getMin());
+				assertEquals((int) set.last(), list.getMax());
+			}
+		}
+
+		for (int element : set) {
+			assertTrue(list.find(element));
+			list.remove(element);
+			assertFalse(list.find(element));
+		}
+		assertTrue(list.isEmpty());
+	}
+}
@@ -0,0 +1,73 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import structures.IntTreap;
+import structures.Treap;
+
+public class TestIntTreap {
+
+	private static int nElements;
+	private static int maxRand;
+	private static Random rand;
+	private IntTreap treap;
+	private Treap<Integer> genericTreap;
+	private TreeSet<Integer> set;
+
+	@BeforeClass
+	public static void setUp() {
+		nElements = 5000;
+		maxRand = 1000;
+		rand = new Random();
+	}
+
+	@Before
+	public void setUpTest() {
+		long seed = rand.nextLong();
+		treap = new IntTreap(seed);
+		genericTreap = new Treap<Integer>(seed);
+		set = new TreeSet<Integer>();
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void TestEmpty() {
+		assertTrue(treap.isEmpty());
+		assertFalse(treap.find(4));
+		assertEquals("()", treap.toString());
+		treap.getMax();
+	}
+
+	@Test
+	public void TestSameShapeAsTreap() {
+		for (int i = 0; i < nElements; i++) {
+			int newElement = rand.nextInt(maxRand);
+			if (rand.nextInt(3) == 0) {
+				treap.remove(newElement);
+				genericTreap.remove(newElement);
+				set.remove(newElement);
+			} else {
+				treap.insert(newElement);
+				genericTreap.insert(newElement);
+				set.add(newElement);
+			}
+
+			assertEquals(genericTreap.toString(), treap.toString());
+			assertEquals(set.size(), treap.getSize());
+			assertEquals(set.contains(newElement), treap.find(newElement));
+			if (!set.isEmpty()) {
+				assertEquals((int) set.first(), treap.getMin());
+				assertEquals((int) set.last(), treap.getMax());
+			}
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import benchmarks.LatencyHistogram;
+
+public class TestLatencyHistogram {
+
+	@Test
+	public void TestEmpty() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getTotalCount());
+		assertEquals(0, histogram.getValueAtPercentile(99));
+		assertEquals(0, histogram.getMean());
+		assertEquals(0, histogram.getMin());
+		assertEquals(0, histogram.getMax());
+	}
+
+	@Test
+	public void TestSmallValuesAreExact() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 100; i++) histogram.record(i);
+		assertEquals(100, histogram.getTotalCount());
+		assertEquals(50, histogram.getValueAtPercentile(50));
+		assertEquals(90, histogram.getValueAtPercentile(90));
+		assertEquals(99, histogram.getValueAtPercentile(99));
+		assertEquals(100, histogram.getValueAtPercentile(100));
+		assertEquals(1, histogram.getValueAtPercentile(0));
+		assertEquals(50, histogram.getMean());
+	}
+
+	@Test
+	public void TestPercentiles() {
+		Random rand = new Random(42);
+		long[] values = new long[100000];
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < values.length; i++) {
+			// mostly short operations, with a long tail
+			values[i] = rand.nextInt(10) == 0 ? 1000000 + rand.nextInt(100000000) : 100 + rand.nextInt(1000);
+			histogram.record(values[i]);
+		}
+		Arrays.sort(values);
+		double[] percentiles = { 50, 90, 99, 99.9 };
+		for (double percentile : percentiles) {
+			long expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+			long actual = histogram.getValueAtPercentile(percentile);
+			assertTrue(actual >= expected);
+			assertTrue(actual - expected <= expected / 64);
+		}
+		assertEquals(values[values.length - 1], histogram.getMax());
+		assertEquals(values[0], histogram.getMin());
+	}
+
+	@Test
+	public void TestAdd() {
+		LatencyHistogram first = new LatencyHistogram();
+		LatencyHistogram second = new LatencyHistogram();
+		for (int i = 0; i < 10; i++) first.record(1000);
+		second.record(Long.MAX_VALUE);
+		first.add(second);
+		assertEquals(11, first.getTotalCount());
+		long p90 = first.getValueAtPercentile(90);
+		assertTrue(p90 >= 1000 && p90 <= 1000 + 1000 / 64);
+		assertEquals(Long.MAX_VALUE, first.getValueAtPercentile(100));
+		assertEquals(1000, first.getMin());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void TestInvalidPercentile() {
+		new LatencyHistogram().getValueAtPercentile(101);
+	}
+}
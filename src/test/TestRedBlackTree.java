@@ -5,6 +5,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Random;
 import java.util.TreeMap;
 import java.util.TreeSet;
@@ -253,5 +254,103 @@ public class TestRedBlackTree {
 		}
 	}
 
+	@Test
+	public void TestBulkLoad() {
+		for (int n = 0; n <= 300; n++) {
+			Integer[] keys = new Integer[n];
+			for (int i = 0; i < n; i++) keys[i] = 2 * i;
+			rb.bulkLoad(keys);
+			checkRedBlackInvariant(rb);
+			for (int i = 0; i < n; i++) {
+				assertEquals(Integer.valueOf(2 * i), rb.find(2 * i));
+				assertNull(rb.find(2 * i + 1));
+				assertEquals(i, rb.rank(2 * i));
+				assertEquals(Integer.valueOf(2 * i), rb.select(i));
+			}
+		}
+		
+		// the loaded tree keeps working with the usual operations
+		for (int i = 0; i < 300; i++) {
+			int newElement = rand.nextInt(600);
+			if (rand.nextBoolean()) rb.insert(newElement);
+			else rb.remove(newElement);
+			checkRedBlackInvariant(rb);
+		}
+	}
+
+	@Test
+	public void TestSameOutputAsRecursive() {
+		Random rand = new Random();
+		RedBlackTree<Integer> iterative = new RedBlackTree<Integer>();
+		RedBlackTree<Integer> recursive = new RedBlackTree<Integer>(true);
+		
+		for (int i = 0; i < 5000; i++) {
+			int key = rand.nextInt(500);
+			if (rand.nextInt(3) == 0) {
+				assertEquals(recursive.remove(key), iterative.remove(key));
+			} else {
+				assertEquals(recursive.insert(key), iterative.insert(key));
+			}
+			assertEquals(recursive.toString(), iterative.toString());
+			assertEquals(recursive.find(key), iterative.find(key));
+			assertEquals(recursive.getRoot().getSize(), iterative.getRoot().getSize());
+		}
+	}
+
+	@Test
+	public void TestOrderedAccess() {
+		OrderedAccessChecker.randomOperations(rb, new Random());
+	}
+
+	@Test
+	public void TestBatches() {
+		OrderedAccessChecker.randomBatches(rb, new Random());
+	}
+
+	@Test
+	public void TestBatchesKeepProperties() {
+		for (int i = 0; i < 50; i++) {
+			// from single keys to large batches
+			Integer[] batch = new Integer[rand.nextInt(1 << rand.nextInt(12))];
+			for (int j = 0; j < batch.length; j++) batch[j] = rand.nextInt(maxRand / 10);
+			if (rand.nextInt(3) > 0) {
+				set.addAll(Arrays.asList(batch));
+				rb.insertAll(batch);
+			} else {
+				set.removeAll(Arrays.asList(batch));
+				rb.removeAll(batch);
+			}
+			assertEquals(set.size(), rb.getRoot().getSize());
+			if (!set.isEmpty()) {
+				assertNull(rb.getRoot().getParent());
+				assertFalse(rb.getRoot().getColor());
+				checkProperties(rb.getRoot());
+			}
+		}
+	}
+
+	/**
+	 * Checks the colors, the parents and the sizes of a subtree.
+	 * 
+	 * @return Number of black nodes in each path from the node to a leaf.
+	 */
+	private int checkProperties(RedBlackTree<Integer>.Node node) {
+		if (node.getKey() == null)
+			return 1;
+		int blacks = -1;
+		for (RedBlackTree<Integer>.Node child : Arrays.asList(node.getLeft(), node.getRight())) {
+			int childBlacks = checkProperties(child);
+			if (blacks != -1)
+				assertEquals(blacks, childBlacks);
+			blacks = childBlacks;
+			if (child.getKey() != null) {
+				assertEquals(node, child.getParent());
+				// a red node has no red children
+				assertFalse(node.getColor() && child.getColor());
+			}
+		}
+		assertEquals(1 + node.getLeft().getSize() + node.getRight().getSize(), node.getSize());
+		return blacks + (node.getColor() ? 0 : 1);
+	}
 	
 }
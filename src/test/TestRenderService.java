@@ -0,0 +1,202 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import graphviz.DotProcessRenderer;
+import graphviz.GraphRenderer;
+import graphviz.GraphViz;
+import graphviz.LayoutRenderer;
+import graphviz.LocalRenderer;
+import graphviz.RenderService;
+import structures.AVLTree;
+
+public class TestRenderService {
+
+	@Test
+	public void TestRender() throws Exception {
+		AVLTree<Integer> tree = new AVLTree<Integer>();
+		List<String> sources = new ArrayList<String>();
+		for (int i = 0; i < 50; i++) {
+			tree.insert(i * 7 % 50);
+			sources.add(tree.toDotString());
+		}
+		try (RenderService<BufferedImage> service = new RenderService<BufferedImage>(2, () -> new LocalRenderer(72))) {
+			List<Future<BufferedImage>> images = new ArrayList<Future<BufferedImage>>();
+			for (String source : sources) images.add(service.submit(source));
+			for (int i = 0; i < sources.size(); i++) {
+				BufferedImage expected = LayoutRenderer.render(sources.get(i), 72);
+				assertEquals(expected.getWidth(), images.get(i).get().getWidth());
+				assertEquals(expected.getHeight(), images.get(i).get().getHeight());
+			}
+		}
+	}
+
+	@Test
+	public void TestRenderersAreReused() throws Exception {
+		AtomicInteger created = new AtomicInteger();
+		AtomicInteger closed = new AtomicInteger();
+		RenderService<String> service = new RenderService<String>(3, () -> {
+			created.incrementAndGet();
+			return new GraphRenderer<String>() {
+				@Override
+				public String render(String dotSource) {
+					return dotSource;
+				}
+
+				@Override
+				public void close() {
+					closed.incrementAndGet();
+				}
+			};
+		});
+		for (int i = 0; i < 100; i++) assertEquals("g" + i, service.submit("g" + i).get());
+		service.close();
+		assertTrue(created.get() <= 3);
+		assertEquals(created.get(), closed.get());
+	}
+
+	@Test
+	public void TestErrors() throws Exception {
+		RenderService<BufferedImage> service = new RenderService<BufferedImage>(1, () -> new LocalRenderer(72));
+		try {
+			service.submit("not a graph").get();
+			fail("An invalid graph was drawn.");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IllegalArgumentException);
+		}
+		// the worker keeps working after a failed drawing
+		assertTrue(service.submit("digraph G { a -> b; }").get() != null);
+		service.close();
+		try {
+			service.submit("digraph G { a; }");
+			fail("A closed service accepted a request.");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Renders graphs in sequence with one long-lived dot process, which only works if dot
+	 * writes the image of each graph before its standard input is closed. Otherwise the
+	 * renderer falls back to a process per graph after a timeout, so the drawings must take
+	 * less than that. Runs only when dot is installed (at /usr/bin/dot, or at the path in
+	 * the property graphviz.dot).
+	 */
+	@Test
+	public void TestDotProcess() throws Exception {
+		String executable = System.getProperty("graphviz.dot", "/usr/bin/dot");
+		Assume.assumeTrue(new File(executable).canExecute());
+		AVLTree<Integer> tree = new AVLTree<Integer>();
+		tree.insert(1);
+		String first = tree.toDotString();
+		for (int i = 2; i <= 20; i++) tree.insert(i);
+		String second = tree.toDotString();
+		try (RenderService<byte[]> service = new GraphViz(executable).startRenderService(1, "dot")) {
+			long start = System.nanoTime();
+			BufferedImage firstImage = ImageIO.read(new ByteArrayInputStream(service.submit(first).get(30, TimeUnit.SECONDS)));
+			BufferedImage secondImage = ImageIO.read(new ByteArrayInputStream(service.submit(second).get(30, TimeUnit.SECONDS)));
+			assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(DotProcessRenderer.DEFAULT_TIMEOUT_MILLIS));
+			assertTrue(firstImage != null && secondImage != null);
+			assertTrue(secondImage.getWidth() > firstImage.getWidth());
+			assertTrue(secondImage.getHeight() > firstImage.getHeight());
+		}
+	}
+
+	/**
+	 * @return A shell script standing in for dot, which ignores its arguments and adds a line
+	 *         to starts every time it is started.
+	 */
+	private static String fakeDot(File starts, String script) throws IOException {
+		Assume.assumeTrue(new File("/bin/sh").canExecute());
+		File file = File.createTempFile("dot", ".sh");
+		file.deleteOnExit();
+		Files.write(file.toPath(), ("#!/bin/sh\necho started >> '" + starts + "'\n" + script + "\n").getBytes(StandardCharsets.UTF_8));
+		assertTrue(file.setExecutable(true));
+		return file.getPath();
+	}
+
+	private static File tempFile(String suffix) throws IOException {
+		File file = File.createTempFile("dot", suffix);
+		file.deleteOnExit();
+		return file;
+	}
+
+	private static byte[] writePng(File file) throws IOException {
+		BufferedImage image = new BufferedImage(3, 2, BufferedImage.TYPE_INT_RGB);
+		image.setRGB(1, 1, 0xff0000);
+		ImageIO.write(image, "png", file);
+		return Files.readAllBytes(file.toPath());
+	}
+
+	private static int lines(File file) throws IOException {
+		return Files.readAllLines(file.toPath()).size();
+	}
+
+	@Test
+	public void TestDotProcessReadsEachImage() throws Exception {
+		File starts = tempFile(".log");
+		File png = tempFile(".png");
+		byte[] expected = writePng(png);
+		// one image per line read, like dot drawing each graph as soon as it has read it
+		String dot = fakeDot(starts, "while read -r line; do cat '" + png + "'; done");
+		try (DotProcessRenderer renderer = new DotProcessRenderer(dot, "dot", 96)) {
+			for (int i = 0; i < 3; i++) assertTrue(Arrays.equals(expected, renderer.render("digraph G { a; }")));
+		}
+		assertEquals(1, lines(starts));
+	}
+
+	@Test
+	public void TestDotProcessWaitingForEnd() throws Exception {
+		File starts = tempFile(".log");
+		File png = tempFile(".png");
+		byte[] expected = writePng(png);
+		// the image is only written at the end of the input
+		String dot = fakeDot(starts, "cat > /dev/null\ncat '" + png + "'");
+		try (DotProcessRenderer renderer = new DotProcessRenderer(dot, "dot", 96, 500)) {
+			assertTrue(Arrays.equals(expected, renderer.render("digraph G { a; }")));
+			assertTrue(Arrays.equals(expected, renderer.render("digraph G { b; }")));
+		}
+		// the long-lived process, then one process per graph
+		assertEquals(3, lines(starts));
+	}
+
+	@Test
+	public void TestCloseStalledDot() throws Exception {
+		File starts = tempFile(".log");
+		String dot = fakeDot(starts, "exec sleep 60");
+		RenderService<byte[]> service = new RenderService<byte[]>(1, () -> new DotProcessRenderer(dot, "dot", 96, 60000));
+		Future<byte[]> image = service.submit("digraph G { a; }");
+		while (lines(starts) == 0) Thread.sleep(10);
+		Thread.sleep(100);
+		long start = System.nanoTime();
+		service.close();
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+		try {
+			image.get(5, TimeUnit.SECONDS);
+			fail("A killed dot drew a graph.");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IOException);
+		}
+	}
+}
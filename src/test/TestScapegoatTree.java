@@ -2,6 +2,7 @@ package test;
 
 import static org.junit.Assert.assertEquals;
 import java.util.ArrayDeque;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -185,4 +186,62 @@ public class TestScapegoatTree {
 			}
 		}
 	}
+
+	@Test
+	public void testBulkLoad() {
+		ScapegoatTree<Integer> sc = new ScapegoatTree<Integer>(0.57);
+		sc.insert(100);
+		
+		sc.bulkLoad(new Integer[] { 1, 2, 3, 4, 5, 6, 7 });
+		checkParentsAreConsistent(sc);
+		assertEquals("(4,(2,(1,(),()),(3,(),())),(6,(5,(),()),(7,(),())))", sc.toString());
+		assertEquals(7, sc.getSize());
+		assertEquals(4, sc.rank(5));
+		assertEquals(Integer.valueOf(1), sc.select(0));
+		
+		// the rebuilds after the load use the size of the loaded tree
+		sc.insert(8);
+		sc.insert(9);
+		checkParentsAreConsistent(sc);
+		assertEquals(9, sc.getSize());
+		for (int i = 1; i <= 9; i++) sc.remove(i);
+		assertEquals("()", sc.toString());
+	}
+
+	@Test
+	public void testSequentialInsertsStayBalanced() {
+		ScapegoatTree<Integer> sc = new ScapegoatTree<Integer>(0.5);
+		for (int i = 1; i <= 1000; i++) {
+			sc.insert(i);
+			// with alpha = 0.5 every insertion leaves the tree with the minimum height
+			assertEquals(31 - Integer.numberOfLeadingZeros(i), height(sc.getRoot()));
+			assertEquals(i, checkSizes(sc.getRoot()));
+		}
+		checkParentsAreConsistent(sc);
+		for (int i = 1; i <= 1000; i += 2) sc.remove(i);
+		assertEquals(500, checkSizes(sc.getRoot()));
+		checkParentsAreConsistent(sc);
+	}
+
+	private int height(ScapegoatTree<Integer>.Node node) {
+		if (node == null) return -1;
+		return 1 + Math.max(height(node.getLeft()), height(node.getRight()));
+	}
+
+	private int checkSizes(ScapegoatTree<Integer>.Node node) {
+		if (node == null) return 0;
+		int size = 1 + checkSizes(node.getLeft()) + checkSizes(node.getRight());
+		assertEquals(size, node.getSize());
+		return size;
+	}
+
+	@Test
+	public void testOrderedAccess() {
+		for (double alpha : new double[] { 0.5, 0.75, 0.95 }) {
+			ScapegoatTree<Integer> sc = new ScapegoatTree<Integer>(alpha);
+			OrderedAccessChecker.randomOperations(sc, new Random());
+			checkParentsAreConsistent(sc);
+		}
+	}
+	
 }
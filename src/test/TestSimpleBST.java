@@ -4,6 +4,8 @@ import structures.SimpleBST;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.Random;
+
 import org.junit.Test;
 
 public class TestSimpleBST {
@@ -204,4 +206,75 @@ public class TestSimpleBST {
 		System.out.println(bst.toString());
 	}
 
+	@Test
+	public void testBulkLoad() {
+		SimpleBST<Integer> bst = new SimpleBST<Integer>();
+		
+		bst.bulkLoad(new Integer[] { 1, 2, 3, 4, 5, 6 });
+		assertEquals("(4,(2,(1,(),()),(3,(),())),(6,(5,(),()),()))", bst.toString());
+		assertEquals(Integer.valueOf(1), bst.getMin());
+		assertEquals(Integer.valueOf(6), bst.getMax());
+		
+		bst.insert(7);
+		bst.remove(4);
+		assertEquals("(3,(2,(1,(),()),()),(6,(5,(),()),(7,(),())))", bst.toString());
+	}
+
+	@Test
+	public void testSameOutputAsRecursive() {
+		Random rand = new Random();
+		SimpleBST<Integer> iterative = new SimpleBST<Integer>();
+		SimpleBST<Integer> recursive = new SimpleBST<Integer>(true);
+		
+		for (int i = 0; i < 5000; i++) {
+			int key = rand.nextInt(500);
+			if (rand.nextInt(3) == 0) {
+				assertEquals(recursive.remove(key), iterative.remove(key));
+			} else {
+				assertEquals(recursive.insert(key), iterative.insert(key));
+			}
+			assertEquals(recursive.toString(), iterative.toString());
+			assertEquals(recursive.find(key), iterative.find(key));
+		}
+	}
+	
+	@Test
+	public void testLongAscending() throws Throwable {
+		// deep enough to overflow the small stack of the thread with the recursive implementations
+		int n = 10000;
+		Throwable[] failure = new Throwable[1];
+		Thread deep = new Thread(null, () -> {
+			try {
+				SimpleBST<Integer> bst = new SimpleBST<Integer>();
+				for (int i = 0; i < n; i++) bst.insert(i);
+				assertEquals(Integer.valueOf(n - 1), bst.find(n - 1));
+				assertEquals(Integer.valueOf(0), bst.getMin());
+				assertEquals(Integer.valueOf(n - 1), bst.getMax());
+				int expected = 0;
+				for (Integer key : bst) assertEquals(Integer.valueOf(expected++), key);
+				assertEquals(n, expected);
+				for (int i = 0; i < n; i += 2) bst.remove(i);
+				assertEquals(null, bst.find(n - 2));
+				assertEquals(Integer.valueOf(1), bst.getMin());
+				for (int i = n - 1; i > 0; i -= 2) bst.remove(i);
+				assertEquals("()", bst.toString());
+			} catch (Throwable e) {
+				failure[0] = e;
+			}
+		}, "deep", 256 * 1024);
+		deep.start();
+		deep.join();
+		if (failure[0] != null) throw failure[0];
+	}
+
+	@Test
+	public void testOrderedAccess() {
+		OrderedAccessChecker.randomOperations(new SimpleBST<Integer>(), new Random());
+	}
+
+	@Test
+	public void testBatches() {
+		OrderedAccessChecker.randomBatches(new SimpleBST<Integer>(), new Random());
+	}
+	
 }
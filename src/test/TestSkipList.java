@@ -2,7 +2,9 @@ package test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Random;
 import java.util.TreeSet;
 
@@ -119,8 +121,79 @@ public class TestSkipList {
 		}
 	}
 	
+	@Test
+	public void TestLevelCap() {
+		// log_4(1000) = 4.98, so 5 levels (0 to 4)
+		list = new SkipList<>(1000, 0.25, 42);
+		assertEquals(4, list.getLevelCap());
+		
+		for (int i = 0; i < nElements * 100; i++) {
+			int newElement = rand.nextInt(maxRand);
+			list.insert(newElement);
+			set.add(newElement);
+		}
+		for (int i = 0; i < maxRand; i++) {
+			if (set.contains(i)) assertEquals(Integer.valueOf(i), list.find(i));
+			else assertNull(list.find(i));
+		}
+		assertEquals(set.first(), list.getMin());
+		assertEquals(set.last(), list.getMax());
+		
+		// every line of toString is a level
+		assertEquals(list.getLevelCap() + 1, list.toString().split("\n").length);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void TestInvalidProbability() {
+		new SkipList<Integer>(1000, 1.0);
+	}
+	
 	void printStructure() {
 		System.out.println(list.toString());
 	}
+
+	@Test
+	public void TestBulkLoad() {
+		list.insert(-1);
+		ArrayList<Integer> keys = new ArrayList<>();
+		for (int i = 0; i < nElements * 10; i++) keys.add(2 * i);
+		
+		list.bulkLoad(keys);
+		assertNull(list.find(-1));
+		for (int i = 0; i < nElements * 10; i++) {
+			assertEquals(Integer.valueOf(2 * i), list.find(2 * i));
+			assertNull(list.find(2 * i + 1));
+			assertEquals(i + 1, list.rank(2 * i + 1));
+			assertEquals(Integer.valueOf(2 * i), list.select(i));
+		}
+		assertEquals(nElements * 10, list.getSize());
+		assertEquals(Integer.valueOf(0), list.getMin());
+		assertEquals(keys.get(keys.size() - 1), list.getMax());
+		
+		list.insert(1);
+		list.remove(0);
+		assertEquals(Integer.valueOf(1), list.getMin());
+	}
+
+	@Test
+	public void TestOrderedAccess() {
+		OrderedAccessChecker.randomOperations(list, new Random());
+	}
+
+	@Test
+	public void TestBatches() {
+		OrderedAccessChecker.randomBatches(list, new Random());
+	}
+
+	@Test
+	public void TestLongDotString() {
+		// the nodes are written in a loop, so long lists don't overflow the stack
+		int n = 100000;
+		for (int i = 0; i < n; i++) list.insert(i);
+		String dot = list.toDotString();
+		assertTrue(dot.startsWith("digraph {"));
+		assertTrue(dot.contains("\n" + (n - 1) + " [label = \""));
+		assertTrue(dot.contains("\n" + (n - 1) + ":f0 -> end:f0;\n"));
+	}
 	
-}
\ No newline at end of file
+}
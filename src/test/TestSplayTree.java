@@ -3,6 +3,10 @@ package test;
 import structures.SplayTree;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -212,4 +216,52 @@ public class TestSplayTree {
 		
 		System.out.println(splay.toString());
 	}
+
+	@Test
+	public void testBulkLoad() {
+		SplayTree<Integer> splay = new SplayTree<Integer>();
+		
+		splay.bulkLoad(new Integer[] { 1, 2, 3, 4, 5, 6, 7 });
+		assertEquals("(4,(2,(1,(),()),(3,(),())),(6,(5,(),()),(7,(),())))", splay.toString());
+		assertEquals(Integer.valueOf(7), splay.getMax());
+		assertEquals(Integer.valueOf(3), splay.find(3));
+		assertEquals(true, splay.toString().startsWith("(3,"));
+	}
+
+	@Test
+	public void testOrderedAccess() {
+		OrderedAccessChecker.randomOperations(new SplayTree<Integer>(), new Random());
+	}
+	
+	@Test
+	public void testDeepFind() {
+		SplayTree<Integer> splay = new SplayTree<Integer>();
+		int n = 100000;
+		//Inserting in ascending order leaves the tree as a path
+		for (int i = 0; i < n; i++) splay.insert(i);
+		assertEquals(Integer.valueOf(0), splay.find(0));
+		//Keys above 127 are boxed into new objects, equal to the inserted ones but not the same
+		assertEquals(Integer.valueOf(n - 1), splay.find(Integer.valueOf(n - 1)));
+		assertEquals(null, splay.find(n));
+	}
+	
+	@Test
+	public void testDistinctKeyObjects() {
+		SplayTree<Integer> splay = new SplayTree<Integer>();
+		splay.insert(Integer.valueOf(1000));
+		assertTrue(splay.remove(Integer.valueOf(1000)));
+		assertEquals(null, splay.find(1000));
+		assertEquals("()", splay.toString());
+		
+		Random rand = new Random(1);
+		for (int i = 0; i < 1000; i++) splay.insert(Integer.valueOf(128 + rand.nextInt(100000)));
+		while (splay.getMin() != null) {
+			int key = splay.getMin();
+			assertEquals(Integer.valueOf(key), splay.find(Integer.valueOf(key)));
+			assertTrue(splay.remove(Integer.valueOf(key)));
+			assertFalse(splay.remove(Integer.valueOf(key)));
+			assertEquals(null, splay.find(Integer.valueOf(key)));
+		}
+	}
+	
 }
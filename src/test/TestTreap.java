@@ -3,10 +3,14 @@ package test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Queue;
 import java.util.Random;
+import java.util.Set;
 import java.util.TreeSet;
 
 import org.junit.Before;
@@ -133,4 +137,147 @@ public class TestTreap {
 			}
 		}
 	}
+
+	@Test
+	public void TestBulkLoad() {
+		ArrayList<Integer> keys = new ArrayList<>();
+		for (int i = 0; i < nElements; i++) keys.add(3 * i);
+		
+		treap.bulkLoad(keys);
+		assertEquals(nElements, treap.getSize());
+		checkHeapProperty(treap.getRoot());
+		checkBSTProperty(treap.getRoot());
+		for (int i = 0; i < nElements; i++) {
+			assertEquals(Integer.valueOf(3 * i), treap.find(3 * i));
+			assertEquals(i, treap.rank(3 * i));
+			assertEquals(Integer.valueOf(3 * i), treap.select(i));
+		}
+		
+		for (int i = 0; i < nElements; i++) {
+			treap.remove(3 * i);
+			treap.insert(3 * i + 1);
+		}
+		checkHeapProperty(treap.getRoot());
+		checkBSTProperty(treap.getRoot());
+		assertEquals(nElements, treap.getSize());
+	}
+
+	@Test
+	public void TestSameOutputAsRecursive() {
+		long seed = rand.nextLong();
+		Treap<Integer> iterative = new Treap<Integer>(seed);
+		Treap<Integer> recursive = new Treap<Integer>(seed, true);
+		
+		for (int i = 0; i < 5000; i++) {
+			int key = rand.nextInt(500);
+			if (rand.nextInt(3) == 0) {
+				assertEquals(recursive.remove(key), iterative.remove(key));
+			} else {
+				assertEquals(recursive.insert(key), iterative.insert(key));
+			}
+			assertEquals(recursive.toString(), iterative.toString());
+			assertEquals(recursive.find(key), iterative.find(key));
+			assertEquals(recursive.rank(Integer.MAX_VALUE), iterative.rank(Integer.MAX_VALUE));
+		}
+	}
+
+	@Test
+	public void TestOrderedAccess() {
+		OrderedAccessChecker.randomOperations(treap, new Random());
+	}
+
+	@Test
+	public void TestBatches() {
+		OrderedAccessChecker.randomBatches(treap, new Random());
+	}
+
+	@Test
+	public void TestBatchesKeepHeapProperty() {
+		for (int i = 0; i < 50; i++) {
+			Integer[] batch = new Integer[rand.nextInt(2000)];
+			for (int j = 0; j < batch.length; j++) batch[j] = rand.nextInt(maxRand);
+			if (rand.nextInt(3) > 0) {
+				set.addAll(Arrays.asList(batch));
+				treap.insertAll(batch);
+			} else {
+				set.removeAll(Arrays.asList(batch));
+				treap.removeAll(batch);
+			}
+			checkHeapProperty(treap.getRoot());
+			checkBSTProperty(treap.getRoot());
+			assertEquals(set.size(), treap.getSize());
+			assertEquals(set.size(), treap.rank(Integer.MAX_VALUE));
+		}
+	}
+
+	@Test
+	public void TestSplitJoin() {
+		for (int i = 0; i < nElements; i++) {
+			int newElement = rand.nextInt(maxRand);
+			set.add(newElement);
+			treap.insert(newElement);
+		}
+		
+		int pivot = rand.nextInt(maxRand);
+		Treap<Integer> greater = treap.split(pivot);
+		checkTreap(treap, set.headSet(pivot, true));
+		checkTreap(greater, set.tailSet(pivot, false));
+		
+		treap.join(greater);
+		checkTreap(treap, set);
+		checkTreap(greater, new TreeSet<Integer>());
+		
+		Treap<Integer> smaller = new Treap<Integer>();
+		smaller.insert(-1);
+		try {
+			treap.join(smaller);
+			fail("A treap with smaller keys was joined");
+		} catch (IllegalArgumentException e) {
+			checkTreap(treap, set);
+		}
+	}
+	
+	@Test
+	public void TestSetOperations() {
+		for (int operation = 0; operation < 3; operation++) {
+			// large enough for the operations to run in parallel
+			treap = new Treap<Integer>();
+			set = new TreeSet<Integer>();
+			Treap<Integer> other = new Treap<Integer>();
+			TreeSet<Integer> otherSet = new TreeSet<Integer>();
+			for (int i = 0; i < 2 * nElements; i++) {
+				int newElement = rand.nextInt(4 * maxRand);
+				set.add(newElement);
+				treap.insert(newElement);
+				newElement = rand.nextInt(4 * maxRand);
+				otherSet.add(newElement);
+				other.insert(newElement);
+			}
+			
+			int oldSize = set.size();
+			if (operation == 0) {
+				set.addAll(otherSet);
+				assertEquals(set.size() - oldSize, treap.union(other));
+			} else if (operation == 1) {
+				set.retainAll(otherSet);
+				assertEquals(oldSize - set.size(), treap.intersection(other));
+			} else {
+				set.removeAll(otherSet);
+				assertEquals(oldSize - set.size(), treap.difference(other));
+			}
+			checkTreap(treap, set);
+			checkTreap(other, new TreeSet<Integer>());
+		}
+	}
+	
+	private void checkTreap(Treap<Integer> treap, Set<Integer> expected) {
+		checkHeapProperty(treap.getRoot());
+		checkBSTProperty(treap.getRoot());
+		assertEquals(expected.size(), treap.getSize());
+		assertEquals(expected.size(), treap.rank(Integer.MAX_VALUE));
+		ArrayList<Integer> keys = new ArrayList<>();
+		for (Integer key : treap) keys.add(key);
+		assertEquals(new ArrayList<>(expected), keys);
+	}
+	
 }
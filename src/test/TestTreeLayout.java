@@ -0,0 +1,248 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import graphviz.DotGraph;
+import graphviz.LayoutRenderer;
+import graphviz.LayoutTiles;
+import graphviz.TreeLayout;
+import structures.*;
+
+public class TestTreeLayout {
+
+	private static final int N_ELEMENTS = 200;
+
+	private static void fill(DynamicSet<Integer> set) {
+		Random rand = new Random(42);
+		for (int i = 0; i < N_ELEMENTS; i++) set.insert(rand.nextInt(1000));
+	}
+
+	@Test
+	public void TestParse() {
+		DotGraph graph = DotGraph.parse("digraph G { node [shape=circle]; -5 -> 3; 3 [label=\"three\"]; a:p1 -> b:p2 [color=red]; }");
+		assertEquals(4, graph.getNodes().size());
+		assertEquals(2, graph.getEdges().size());
+		assertEquals("circle", graph.getNode("-5").getAttribute("shape"));
+		assertEquals("three", graph.getNode("3").getLabel());
+		assertEquals("p1", graph.getEdges().get(1).getFromPort());
+		assertEquals("p2", graph.getEdges().get(1).getToPort());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void TestParseInvalid() {
+		DotGraph.parse("digraph G { a -> ; }");
+	}
+
+	@Test
+	public void TestTreeLayouts() {
+		List<DynamicSet<Integer>> sets = new ArrayList<DynamicSet<Integer>>();
+		sets.add(new SimpleBST<Integer>());
+		sets.add(new AVLTree<Integer>());
+		sets.add(new RedBlackTree<Integer>());
+		sets.add(new Treap<Integer>());
+		sets.add(new SplayTree<Integer>());
+		for (DynamicSet<Integer> set : sets) {
+			fill(set);
+			TreeLayout layout = TreeLayout.of(DotGraph.parse(set.toDotString()));
+			checkTree(layout);
+		}
+	}
+
+	@Test
+	public void TestSkipListLayout() {
+		SkipList<Integer> list = new SkipList<Integer>();
+		fill(list);
+		TreeLayout layout = TreeLayout.of(DotGraph.parse(list.toDotString()));
+		for (DotGraph.Edge edge : layout.getGraph().getEdges()) {
+			TreeLayout.Box from = layout.getBox(edge.getFrom());
+			TreeLayout.Box to = layout.getBox(edge.getTo());
+			// the nodes are in columns and the pointers go to the right, between fields at the same height
+			assertTrue(from.getX() < to.getX());
+			assertEquals(from.getFieldY(edge.getFromPort()), to.getFieldY(edge.getToPort()), 1e-9);
+		}
+		checkInside(layout);
+	}
+
+	@Test
+	public void TestDepthLimitedDot() {
+		List<DynamicSet<Integer>> sets = new ArrayList<DynamicSet<Integer>>();
+		sets.add(new SimpleBST<Integer>());
+		sets.add(new AVLTree<Integer>());
+		sets.add(new ArrayAVLTree<Integer>());
+		sets.add(new RedBlackTree<Integer>());
+		sets.add(new ScapegoatTree<Integer>(0.7));
+		sets.add(new Treap<Integer>());
+		sets.add(new SplayTree<Integer>());
+		for (DynamicSet<Integer> set : sets) {
+			Random rand = new Random(7);
+			TreeSet<Integer> keys = new TreeSet<Integer>();
+			for (int i = 0; i < 2000; i++) {
+				int key = rand.nextInt(100000);
+				set.insert(key);
+				keys.add(key);
+			}
+			String before = set.toString();
+			Integer[] focusKeys = { null, keys.first(), keys.last(), keys.higher(50000), -1 };
+			for (Integer focusKey : focusKeys) {
+				int maxDepth = 6;
+				boolean focusInSet = focusKey != null && keys.contains(focusKey);
+				DotGraph graph = DotGraph.parse(set.toDotString(maxDepth, focusKey));
+				int drawn = 0;
+				int collapsed = 0;
+				for (DotGraph.Node node : graph.getNodes()) {
+					String id = node.getId();
+					if (id.startsWith("collapsed")) collapsed += Integer.parseInt(node.getLabel().substring(0, node.getLabel().indexOf(' ')));
+					else if (!id.startsWith("null") && !id.equals("above")) {
+						assertTrue(keys.contains(Integer.valueOf(id)));
+						assertEquals(focusInSet && id.equals(String.valueOf(focusKey)), "3".equals(node.getAttribute("penwidth")));
+						drawn++;
+					}
+				}
+				assertTrue(drawn <= (1 << maxDepth) - 1);
+				if (focusKey == null) {
+					// the whole tree is drawn or collapsed
+					assertEquals(keys.size(), drawn + collapsed);
+					assertEquals(null, graph.getNode("above"));
+				}
+				if (focusInSet) assertTrue(graph.getNode(String.valueOf(focusKey)) != null);
+				checkTree(TreeLayout.of(graph));
+			}
+			// drawing doesn't change the set (the splay tree isn't splayed)
+			assertEquals(before, set.toString());
+		}
+	}
+
+	@Test
+	public void TestCollapsedLabels() {
+		Integer[] keys = new Integer[127];
+		for (int i = 0; i < keys.length; i++) keys[i] = i;
+		// perfect trees, whose two subtrees have 63 keys and height 6
+		List<DynamicSet<Integer>> sets = new ArrayList<DynamicSet<Integer>>();
+		sets.add(new AVLTree<Integer>()); // keeps the sizes and the heights
+		sets.add(new ArrayAVLTree<Integer>()); // keeps the heights, the subtrees are counted
+		sets.add(new SimpleBST<Integer>()); // keeps neither, the subtrees are walked
+		for (DynamicSet<Integer> set : sets) {
+			set.bulkLoad(keys);
+			DotGraph graph = DotGraph.parse(set.toDotString(1, null));
+			assertEquals("63 keys<BR/>height 6", graph.getNode("collapsed0").getLabel());
+			assertEquals("63 keys<BR/>height 6", graph.getNode("collapsed1").getLabel());
+		}
+		// keeps the sizes but not the heights
+		Treap<Integer> treap = new Treap<Integer>();
+		treap.bulkLoad(keys);
+		DotGraph graph = DotGraph.parse(treap.toDotString(1, null));
+		String left = graph.getNode("collapsed0").getLabel();
+		String right = graph.getNode("collapsed1").getLabel();
+		assertTrue(left.endsWith(" keys") && right.endsWith(" keys"));
+		assertEquals(126, Integer.parseInt(left.substring(0, left.indexOf(' '))) + Integer.parseInt(right.substring(0, right.indexOf(' '))));
+	}
+
+	@Test
+	public void TestDepthLimitedDotDefault() {
+		SkipList<Integer> list = new SkipList<Integer>();
+		fill(list);
+		assertEquals(list.toDotString(), list.toDotString(3, 5));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void TestDepthLimitedDotInvalidDepth() {
+		new AVLTree<Integer>().toDotString(0, null);
+	}
+
+	@Test
+	public void TestRender() {
+		AVLTree<Integer> tree = new AVLTree<Integer>();
+		fill(tree);
+		BufferedImage image = LayoutRenderer.render(tree.toDotString(), 72);
+		TreeLayout layout = TreeLayout.of(DotGraph.parse(tree.toDotString()));
+		assertEquals((int) Math.ceil(layout.getWidth()), image.getWidth());
+		assertEquals((int) Math.ceil(layout.getHeight()), image.getHeight());
+	}
+
+	@Test
+	public void TestTiles() {
+		AVLTree<Integer> tree = new AVLTree<Integer>();
+		fill(tree);
+		BufferedImage expected = LayoutRenderer.render(tree.toDotString(), 72);
+		TreeLayout layout = TreeLayout.of(DotGraph.parse(tree.toDotString()));
+		int tileArea = LayoutTiles.TILE_SIZE * LayoutTiles.TILE_SIZE;
+		LayoutTiles tiles = new LayoutTiles(layout, 4 * tileArea);
+
+		// at one pixel per point, the tiles give the same image as rendering it whole
+		BufferedImage image = new BufferedImage(expected.getWidth(), expected.getHeight(), BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = image.createGraphics();
+		tiles.paint(g, 1);
+		g.dispose();
+		int different = 0;
+		for (int x = 0; x < image.getWidth(); x++) {
+			for (int y = 0; y < image.getHeight(); y++) {
+				if (image.getRGB(x, y) != expected.getRGB(x, y)) different++;
+			}
+		}
+		assertTrue(different < image.getWidth() * image.getHeight() / 1000);
+		assertTrue(tiles.getRenderedTileCount() > 4);
+		assertTrue(tiles.getCachedTileCount() <= 4);
+
+		// painting a region again, even at a nearby zoom, reuses its tiles
+		g = image.createGraphics();
+		g.setClip(0, 0, 300, 200);
+		tiles.paint(g, 1.2);
+		long rendered = tiles.getRenderedTileCount();
+		tiles.paint(g, 1.3);
+		tiles.paint(g, 1.2);
+		g.dispose();
+		assertEquals(rendered, tiles.getRenderedTileCount());
+	}
+
+	/**
+	 * Checks that children are below their parents, that parents are centered over their
+	 * children and that nodes on the same level don't overlap.
+	 */
+	private void checkTree(TreeLayout layout) {
+		Map<DotGraph.Node, List<TreeLayout.Box>> children = new HashMap<DotGraph.Node, List<TreeLayout.Box>>();
+		for (DotGraph.Edge edge : layout.getGraph().getEdges()) {
+			TreeLayout.Box from = layout.getBox(edge.getFrom());
+			TreeLayout.Box to = layout.getBox(edge.getTo());
+			assertTrue(from.getY() < to.getY());
+			if (!children.containsKey(edge.getFrom())) children.put(edge.getFrom(), new ArrayList<TreeLayout.Box>());
+			children.get(edge.getFrom()).add(to);
+		}
+		for (Map.Entry<DotGraph.Node, List<TreeLayout.Box>> entry : children.entrySet()) {
+			List<TreeLayout.Box> boxes = entry.getValue();
+			double center = (boxes.get(0).getX() + boxes.get(boxes.size() - 1).getX()) / 2;
+			assertEquals(center, layout.getBox(entry.getKey()).getX(), 1e-6);
+		}
+		List<DotGraph.Node> nodes = layout.getGraph().getNodes();
+		for (int i = 0; i < nodes.size(); i++) {
+			TreeLayout.Box a = layout.getBox(nodes.get(i));
+			for (int j = i + 1; j < nodes.size(); j++) {
+				TreeLayout.Box b = layout.getBox(nodes.get(j));
+				if (a.getY() != b.getY()) continue;
+				assertTrue(Math.abs(a.getX() - b.getX()) >= (a.getWidth() + b.getWidth()) / 2);
+			}
+		}
+		checkInside(layout);
+	}
+
+	private void checkInside(TreeLayout layout) {
+		for (DotGraph.Node node : layout.getGraph().getNodes()) {
+			TreeLayout.Box box = layout.getBox(node);
+			assertTrue(box.getX() - box.getWidth() / 2 >= 0);
+			assertTrue(box.getY() - box.getHeight() / 2 >= 0);
+			assertTrue(box.getX() + box.getWidth() / 2 <= layout.getWidth());
+			assertTrue(box.getY() + box.getHeight() / 2 <= layout.getHeight());
+		}
+	}
+}
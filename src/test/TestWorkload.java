@@ -0,0 +1,92 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import benchmarks.Benchmark.Type;
+import benchmarks.Workload;
+import benchmarks.Workload.KeyDistribution;
+import benchmarks.WorkloadBenchmark;
+import structures.SplayTree;
+
+public class TestWorkload {
+
+	private static final int KEY_SPACE = 10000;
+	private static final int OPERATIONS = 200000;
+
+	private static int[] keyCounts(Workload.Operations operations) {
+		int[] counts = new int[KEY_SPACE];
+		for (Integer key : operations.keys) {
+			assertTrue(key >= 0 && key < KEY_SPACE);
+			counts[key]++;
+		}
+		return counts;
+	}
+
+	@Test
+	public void TestMix() {
+		Workload.Operations operations = new Workload(90, 6, KeyDistribution.UNIFORM, KEY_SPACE, 1).generate(OPERATIONS);
+		int[] types = new int[Type.values().length];
+		for (Type type : operations.types) types[type.ordinal()]++;
+		assertEquals(0.90, types[Type.FIND.ordinal()] / (double) OPERATIONS, 0.01);
+		assertEquals(0.06, types[Type.INSERT.ordinal()] / (double) OPERATIONS, 0.01);
+		assertEquals(0.04, types[Type.REMOVE.ordinal()] / (double) OPERATIONS, 0.01);
+		keyCounts(operations);
+	}
+
+	@Test
+	public void TestZipf() {
+		int[] counts = keyCounts(new Workload(100, 0, KeyDistribution.ZIPF, KEY_SPACE, 1).generate(OPERATIONS));
+		int max = 0;
+		int used = 0;
+		for (int count : counts) {
+			max = Math.max(max, count);
+			if (count > 0) used++;
+		}
+		// with theta = 0.99 the most popular key is about 10% of the operations
+		assertTrue(max > OPERATIONS / 20);
+		assertTrue(used > KEY_SPACE / 10);
+	}
+
+	@Test
+	public void TestHotspot() {
+		Workload workload = new Workload(100, 0, KeyDistribution.HOTSPOT, KEY_SPACE, 1);
+		workload.setHotspot(0.1, 0.9);
+		int[] counts = keyCounts(workload.generate(OPERATIONS));
+		int hot = 0;
+		for (int key = 0; key < KEY_SPACE / 10; key++) hot += counts[key];
+		assertEquals(0.9, hot / (double) OPERATIONS, 0.01);
+	}
+
+	@Test
+	public void TestSequential() {
+		Workload.Operations operations = new Workload(50, 50, KeyDistribution.SEQUENTIAL, 3, 1).generate(7);
+		for (int i = 0; i < 7; i++) assertEquals(Integer.valueOf(i % 3), operations.keys[i]);
+	}
+
+	@Test
+	public void TestLatest() {
+		Workload.Operations operations = new Workload(50, 50, KeyDistribution.LATEST, KEY_SPACE, 1).generate(OPERATIONS);
+		int latest = KEY_SPACE - 1;
+		for (int i = 0; i < OPERATIONS; i++) {
+			if (operations.types[i] == Type.INSERT) assertEquals(Integer.valueOf(++latest), operations.keys[i]);
+			else assertTrue(operations.keys[i] <= latest && operations.keys[i] >= 0);
+		}
+	}
+
+	@Test
+	public void TestRun() {
+		WorkloadBenchmark.Result result = WorkloadBenchmark.run(new SplayTree<Integer>(),
+				new Workload(90, 5, KeyDistribution.ZIPF, KEY_SPACE, 1), 10000);
+		assertTrue(result.throughput > 0);
+		assertEquals(10000, result.latencies[Type.FIND.ordinal()].getTotalCount()
+				+ result.latencies[Type.INSERT.ordinal()].getTotalCount() + result.latencies[Type.REMOVE.ordinal()].getTotalCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void TestInvalidMix() {
+		new Workload(90, 20, KeyDistribution.UNIFORM, KEY_SPACE, 1);
+	}
+}